@@ -0,0 +1,33 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.impl.CardCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Delivers card cache evictions made on any node to the local tier of this one.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.card.cache", name = "redis-enabled", havingValue = "true")
+public class CardCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer cardCacheListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            CardCache cardCache
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cardCache.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CardCache.INVALIDATION_CHANNEL)
+        );
+        return container;
+    }
+}
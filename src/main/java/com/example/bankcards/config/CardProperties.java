@@ -0,0 +1,36 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.card")
+public class CardProperties {
+
+    private Cache cache = new Cache();
+    private StatusIndex statusIndex = new StatusIndex();
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxCards = 100_000;
+        private long maxPages = 10_000;
+        // Only matters when an eviction cannot reach this node: Redis is off or its message was lost
+        private Duration localTtl = Duration.ofMinutes(1);
+        private boolean redisEnabled = false;
+        private Duration redisTtl = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class StatusIndex {
+        private boolean enabled = true;
+        private int maxCards = 65536;
+        // The index starts empty again after this long, so a change this node never heard of cannot outlive it
+        private Duration resetInterval = Duration.ofMinutes(1);
+        private boolean redisEnabled = false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.impl.CardStatusIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Delivers card status changes made on other nodes to the status index of this one.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.card.status-index", name = "redis-enabled", havingValue = "true")
+public class CardStatusIndexConfig {
+
+    @Bean
+    public RedisMessageListenerContainer cardStatusListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            CardStatusIndex cardStatusIndex
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cardStatusIndex.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CardStatusIndex.INVALIDATION_CHANNEL)
+        );
+        return container;
+    }
+}
@@ -34,6 +34,18 @@ public class ExecutorConfig {
         return executor;
     }
 
+    @Bean("transferCommitExecutor")
+    public TaskExecutor transferCommitExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(4);
+        executor.setThreadNamePrefix("transfer-commit-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     @Bean("cryptoExecutor")
     public TaskExecutor cryptoExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
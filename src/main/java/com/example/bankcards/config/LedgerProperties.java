@@ -0,0 +1,32 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ledger")
+public class LedgerProperties {
+
+    private Snapshot snapshot = new Snapshot();
+    private Sharding sharding = new Sharding();
+
+    @Data
+    public static class Snapshot {
+        private Duration interval = Duration.ofMinutes(5);
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Sharding {
+        // Cards whose balance is split into sub-balance rows; cards removed from the list are folded back
+        private Set<Long> hotCardIds = new HashSet<>();
+        private int shardCount = 8;
+        private Duration compactionInterval = Duration.ofMinutes(1);
+    }
+}
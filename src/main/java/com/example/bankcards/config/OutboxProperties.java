@@ -0,0 +1,17 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    private Duration pollInterval = Duration.ofMillis(200);
+    private int batchSize = 500;
+    private Duration sendTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the replica's replay lag and tells the routing data source whether read-only transactions may use it.
+ * The replica is not used until the first check has passed, and stops being used as soon as a check fails.
+ */
+@Slf4j
+class ReplicaLagMonitor {
+
+    // A replica that has replayed everything it received is current, however old its last replayed commit is
+    private static final String LAG_SQL = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReplicaProperties replicaProperties;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private volatile boolean replicaUsable;
+
+    ReplicaLagMonitor(JdbcTemplate replicaJdbcTemplate, ReplicaProperties replicaProperties, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.replicaProperties = replicaProperties;
+        Gauge.builder("datasource.replica.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:PT5S}")
+    void checkLag() {
+        boolean usable;
+        try {
+            Double lagSeconds = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagMillis.set(lagSeconds != null ? Math.round(lagSeconds * 1000) : 0);
+            usable = lagMillis.get() <= replicaProperties.getMaxLag().toMillis();
+        } catch (DataAccessException e) {
+            usable = false;
+            log.debug("Replica lag check failed: {}", e.getMessage());
+        }
+
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Replica reads resumed: lagMillis={}", lagMillis.get());
+            } else {
+                log.warn("Replica reads moved to the primary: lagMillis={}, maxLag={}",
+                        lagMillis.get(), replicaProperties.getMaxLag());
+            }
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    // Off means a single pool on spring.datasource and every transaction on the primary
+    private boolean enabled = false;
+    private String url;
+    // The primary's credentials are used when these are blank
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // Read-only transactions go back to the primary while the replica is further behind than this
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+}
@@ -48,12 +48,15 @@ public class SecurityConfig {
                                 .requestMatchers("/actuator/health/liveness", "/actuator/health/readiness").permitAll()
                                 .requestMatchers("/actuator/**").hasRole("ADMIN")
                                 .requestMatchers("/api/users/**").hasRole("ADMIN")
+                                .requestMatchers("/api/stats/rebuild").hasRole("ADMIN")
+                                .requestMatchers("/api/transfers/*/release", "/api/transfers/*/reject").hasRole("ADMIN")
                                 .requestMatchers("/api/cards/**").authenticated()
                                 .requestMatchers("/api/transfers/**").authenticated()
+                                .requestMatchers("/api/scheduled-transfers/**").authenticated()
                                 .anyRequest().authenticated()
                 )
-                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
                 .build();
 
     }
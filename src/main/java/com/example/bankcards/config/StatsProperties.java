@@ -0,0 +1,15 @@
+package com.example.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stats")
+public class StatsProperties {
+
+    private Duration interval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,142 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.transfer")
+public class TransferProperties {
+
+    private Mode mode = Mode.LOCKING;
+    private Retry retry = new Retry();
+    private Idempotency idempotency = new Idempotency();
+    private Batch batch = new Batch();
+    private GroupCommit groupCommit = new GroupCommit();
+    private Async async = new Async();
+    private History history = new History();
+    private Export export = new Export();
+    private Limits limits = new Limits();
+    private Velocity velocity = new Velocity();
+    private Scheduled scheduled = new Scheduled();
+    private Partitioning partitioning = new Partitioning();
+
+    public enum Mode {
+        LOCKING,
+        CONDITIONAL_UPDATE,
+    }
+
+    @Data
+    public static class Retry {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(20);
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+
+    @Data
+    public static class Idempotency {
+        private Duration ttl = Duration.ofHours(24);
+        private Duration lockTtl = Duration.ofSeconds(30);
+        private Duration waitTimeout = Duration.ofSeconds(10);
+        private Duration pollInterval = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Batch {
+        private int maxSize = 1000;
+        private BatchFailureMode failureMode = BatchFailureMode.PARTIAL;
+    }
+
+    @Data
+    public static class GroupCommit {
+        private boolean enabled = false;
+        private int maxBatchSize = 50;
+        // How long the first queued transfer waits for others to share its commit
+        private Duration maxDelay = Duration.ofMillis(2);
+    }
+
+    @Data
+    public static class Async {
+        private boolean enabled = false;
+        private int partitions = 8;
+        private int queueCapacity = 1000;
+        // PENDING transfers older than this are dispatched again, e.g. after a restart or a full partition queue
+        private Duration staleAfter = Duration.ofSeconds(30);
+        private Duration recoveryInterval = Duration.ofSeconds(30);
+        private int recoveryBatchSize = 500;
+    }
+
+    @Data
+    public static class History {
+        private int defaultPageSize = 20;
+        private int maxPageSize = 100;
+    }
+
+    @Data
+    public static class Export {
+        // Rows pulled per round trip from the server-side cursor; memory stays bounded by this, not by the export size
+        private int fetchSize = 1000;
+    }
+
+    @Data
+    public static class Limits {
+        private boolean enabled = false;
+        // Outgoing amount allowed per source card and per owner each day; null means no limit
+        private BigDecimal cardDaily;
+        private BigDecimal userDaily;
+        // How long a counter value seen in Redis may be trusted to reject an overrun without asking Redis again
+        private Duration localTtl = Duration.ofSeconds(2);
+        private int localMaxEntries = 100_000;
+    }
+
+    @Data
+    public static class Velocity {
+        private boolean enabled = false;
+        // HOLD accepts the transfer as HELD: recovery leaves it alone until an admin releases or rejects it
+        private Action action = Action.REJECT;
+        private int shortWindowSeconds = 10;
+        private int shortWindowMax = 5;
+        private int longWindowMinutes = 60;
+        private int longWindowMax = 60;
+        // Destinations the card has not paid recently, counted over the long window
+        private int newDestinationMax = 10;
+        // Tracked cards are capped at this many; the least recently seen card in a full neighbourhood is replaced
+        private int maxCards = 65_536;
+        private Duration idleAfter = Duration.ofHours(2);
+        private Duration evictionInterval = Duration.ofMinutes(5);
+
+        public enum Action {
+            REJECT,
+            HOLD,
+        }
+    }
+
+    @Data
+    public static class Scheduled {
+        // Due orders claimed per transaction; one chunk is fully executed before the next is claimed
+        private int chunkSize = 1000;
+        // Orders per transfer batch, i.e. per transaction of the transfer engine
+        private int batchSize = 100;
+        // Chunk slices run in parallel on the batch executor; one card's orders always share a slice
+        private int partitions = 8;
+    }
+
+    @Data
+    public static class Partitioning {
+        // Monthly partitions of transfers created ahead of the current month, so an insert never finds none
+        private int monthsAhead = 3;
+        // Archiving removes rows from the database, so it only runs when switched on
+        private boolean archiveEnabled = false;
+        // Full months kept attached before the current one; older months are written to the archive and dropped
+        private int retentionMonths = 24;
+        private Path archiveDirectory = Path.of("archive", "transfers");
+        // Rows pulled per round trip while a partition is written out
+        private int fetchSize = 1000;
+    }
+}
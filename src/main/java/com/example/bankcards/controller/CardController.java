@@ -1,6 +1,7 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardStatementPage;
 import com.example.bankcards.dto.card.CardUpdateRequest;
 import com.example.bankcards.dto.card.CreateCardRequest;
 import com.example.bankcards.security.CustomUserDetails;
@@ -14,10 +15,13 @@ import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @Tag(name = "Cards", description = "Bank card management")
 @RestController
 @RequiredArgsConstructor
@@ -66,6 +70,27 @@ public class CardController {
         return cardService.getCardById(userId, cardId);
     }
 
+    @Operation(summary = "Get card statement", description = "Returns the card's debits and credits, oldest first, "
+            + "each with the balance after it. Pass nextCursor from the previous response to get the following page")
+    @ApiResponse(responseCode = "200", description = "Statement page retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Card not found")
+    @ApiResponse(responseCode = "422", description = "Invalid date range or cursor")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @SuppressWarnings("java:S6856")
+    @GetMapping("${end.point.statement}")
+    public CardStatementPage getStatement(
+            @Parameter(description = "Card ID") @PathVariable(name = "id") Long cardId,
+            @Parameter(description = "First day to include") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day to include") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return cardService.getStatement(userDetails.getId(), cardId, from, to, cursor, size);
+    }
+
     @Operation(summary = "Update card status", description = "Updates the status of a card (ACTIVE, BLOCKED, EXPIRED)")
     @ApiResponse(responseCode = "200", description = "Card updated successfully")
     @ApiResponse(responseCode = "404", description = "Card not found")
@@ -0,0 +1,99 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.schedule.ScheduledTransferRequest;
+import com.example.bankcards.dto.schedule.ScheduledTransferResponse;
+import com.example.bankcards.security.CustomUserDetails;
+import com.example.bankcards.service.ScheduledTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Scheduled transfers", description = "Standing orders executed on their due dates")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("${end.point.scheduled-transfers}")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    @Operation(summary = "Create scheduled transfer", description = "Creates a one-off or recurring transfer "
+            + "from a card of the authenticated user, first executed on the start date")
+    @ApiResponse(responseCode = "201", description = "Scheduled transfer created successfully")
+    @ApiResponse(responseCode = "404", description = "Card not found")
+    @ApiResponse(responseCode = "422", description = "Invalid amount, cards or date range")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ScheduledTransferResponse createScheduledTransfer(
+            @RequestBody @Valid ScheduledTransferRequest request,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return scheduledTransferService.createScheduledTransfer(request, userDetails.getId());
+    }
+
+    @Operation(summary = "Get scheduled transfers", description = "Returns paginated scheduled transfers of the "
+            + "authenticated user")
+    @ApiResponse(responseCode = "200", description = "Scheduled transfers retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @GetMapping
+    public Page<ScheduledTransferResponse> getScheduledTransfers(
+            @ParameterObject Pageable pageable,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return scheduledTransferService.getScheduledTransfersForUser(userDetails.getId(), pageable);
+    }
+
+    @Operation(summary = "Get scheduled transfer by ID", description = "Returns the schedule with its next run "
+            + "date and the outcome of its last run")
+    @ApiResponse(responseCode = "200", description = "Scheduled transfer found")
+    @ApiResponse(responseCode = "404", description = "Scheduled transfer not found")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @SuppressWarnings("java:S6856")
+    @GetMapping("${end.point.id}")
+    public ScheduledTransferResponse getScheduledTransfer(
+            @Parameter(description = "Scheduled transfer ID") @PathVariable(name = "id") Long id,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return scheduledTransferService.getScheduledTransfer(userDetails.getId(), id);
+    }
+
+    @Operation(summary = "Update scheduled transfer", description = "Replaces the schedule; the series restarts "
+            + "from the new start date")
+    @ApiResponse(responseCode = "200", description = "Scheduled transfer updated successfully")
+    @ApiResponse(responseCode = "404", description = "Scheduled transfer or card not found")
+    @ApiResponse(responseCode = "422", description = "Invalid amount, cards or date range")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @SuppressWarnings("java:S6856")
+    @PutMapping("${end.point.id}")
+    public ScheduledTransferResponse updateScheduledTransfer(
+            @RequestBody @Valid ScheduledTransferRequest request,
+            @Parameter(description = "Scheduled transfer ID") @PathVariable(name = "id") Long id,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return scheduledTransferService.updateScheduledTransfer(userDetails.getId(), id, request);
+    }
+
+    @Operation(summary = "Delete scheduled transfer", description = "Stops and removes the schedule; transfers "
+            + "already made are kept")
+    @ApiResponse(responseCode = "204", description = "Scheduled transfer deleted successfully")
+    @ApiResponse(responseCode = "404", description = "Scheduled transfer not found")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @SuppressWarnings("java:S6856")
+    @DeleteMapping("${end.point.id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteScheduledTransfer(
+            @Parameter(description = "Scheduled transfer ID") @PathVariable(name = "id") Long id,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        scheduledTransferService.deleteScheduledTransfer(userDetails.getId(), id);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.stats.StatsGranularity;
+import com.example.bankcards.dto.stats.TransferStatsResponse;
+import com.example.bankcards.security.CustomUserDetails;
+import com.example.bankcards.service.TransferStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@Tag(name = "Stats", description = "Pre-aggregated transfer statistics")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("${end.point.stats}")
+public class StatsController {
+
+    private final TransferStatsService transferStatsService;
+
+    @Operation(summary = "Get transfer stats", description = "Returns transfer counts, totals and averages of the "
+            + "authenticated user, or of one of their cards, per day or month within the range. Stats lag live "
+            + "transfers by up to a couple of minutes")
+    @ApiResponse(responseCode = "200", description = "Stats retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Card not found")
+    @ApiResponse(responseCode = "422", description = "Invalid date range")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @GetMapping("${end.point.transfer-stats}")
+    public TransferStatsResponse getTransferStats(
+            @Parameter(description = "First day to include") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day to include") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Bucket size") @RequestParam(defaultValue = "DAY") StatsGranularity granularity,
+            @Parameter(description = "Limit the stats to one card") @RequestParam(required = false) Long cardId,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return transferStatsService.getStats(userDetails.getId(), cardId, from, to, granularity);
+    }
+
+    @Operation(summary = "Rebuild transfer stats", description = "Recomputes the daily stats of the range from raw "
+            + "transfers, one day per task in parallel (admin only). Days are UTC days; days whose transfers are "
+            + "archived cannot be rebuilt")
+    @ApiResponse(responseCode = "200", description = "Stats rebuilt, returns the number of rows written")
+    @ApiResponse(responseCode = "422", description = "Invalid date range or range reaching into archived days")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @ApiResponse(responseCode = "403", description = "Forbidden - admin access required")
+    @PostMapping("${end.point.rebuild}")
+    public int rebuildTransferStats(
+            @Parameter(description = "First day to rebuild") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day to rebuild") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return transferStatsService.rebuild(from, to);
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.transfer.ExportFormat;
+import com.example.bankcards.dto.transfer.TransferCursorPage;
 import com.example.bankcards.dto.transfer.TransferRequest;
 import com.example.bankcards.dto.transfer.TransferResponse;
+import com.example.bankcards.entity.TransferStatus;
 import com.example.bankcards.security.CustomUserDetails;
 import com.example.bankcards.service.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,9 +18,18 @@ import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
 
 @Tag(name = "Transfers", description = "Money transfer operations")
 @RestController
@@ -23,20 +37,148 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("${end.point.transfers}")
 public class TransferController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String EXPORT_FILE_NAME = "transfers";
+
     private final TransferService transferService;
 
-    @Operation(summary = "Transfer money", description = "Transfers money between two cards")
+    @Operation(summary = "Transfer money", description = "Transfers money between two cards. "
+            + "Repeating a request with the same Idempotency-Key returns the original transfer; "
+            + "reusing the key for a different request is rejected")
     @ApiResponse(responseCode = "201", description = "Transfer completed successfully")
+    @ApiResponse(responseCode = "202", description = "Transfer accepted as PENDING and settled asynchronously, "
+            + "or HELD by velocity rules until an admin releases or rejects it")
     @ApiResponse(responseCode = "404", description = "Source or destination card not found")
-    @ApiResponse(responseCode = "422", description = "Business error (insufficient funds, blocked card, same card transfer, etc.)")
+    @ApiResponse(responseCode = "409", description = "Request with the same Idempotency-Key is still being processed")
+    @ApiResponse(responseCode = "422", description = "Business error (insufficient funds, blocked card, same card transfer, "
+            + "Idempotency-Key reused for a different request, etc.)")
     @ApiResponse(responseCode = "401", description = "Unauthorized")
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public TransferResponse transferMoney(
+    public ResponseEntity<TransferResponse> transferMoney(
             @RequestBody @Valid TransferRequest transferRequest,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        TransferResponse response = transferService.transferMoney(transferRequest, userDetails.getId(), idempotencyKey);
+        boolean accepted = TransferStatus.PENDING.name().equals(response.getStatus())
+                || TransferStatus.HELD.name().equals(response.getStatus());
+        HttpStatus status = accepted
+                ? HttpStatus.ACCEPTED
+                : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @Operation(summary = "Transfer money in batch", description = "Applies a list of transfers in one transaction "
+            + "and reports the result of each item. With ALL_OR_NOTHING nothing is applied if any item fails")
+    @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results")
+    @ApiResponse(responseCode = "400", description = "Invalid batch request")
+    @ApiResponse(responseCode = "422", description = "Batch exceeds the maximum size")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @PostMapping("${end.point.batch}")
+    public BatchTransferResponse transferBatch(
+            @RequestBody @Valid BatchTransferRequest batchTransferRequest,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return transferService.transferBatch(batchTransferRequest, userDetails.getId());
+    }
+
+    @Operation(summary = "Get transfer by ID", description = "Returns a transfer of the authenticated user, "
+            + "including the status of an asynchronous transfer")
+    @ApiResponse(responseCode = "200", description = "Transfer found")
+    @ApiResponse(responseCode = "404", description = "Transfer not found")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @GetMapping("${end.point.transfer-id}")
+    public TransferResponse getTransfer(
+            @Parameter(description = "Transfer ID") @PathVariable(name = "id") Long transferId,
             @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
     ) {
-        return transferService.transferMoney(transferRequest, userDetails.getId());
+        return transferService.getTransfer(userDetails.getId(), transferId);
+    }
+
+    @Operation(summary = "Release held transfer", description = "Hands a transfer held by velocity rules over to "
+            + "settlement (admin only)")
+    @ApiResponse(responseCode = "200", description = "Transfer released, now PENDING")
+    @ApiResponse(responseCode = "404", description = "Transfer not found")
+    @ApiResponse(responseCode = "422", description = "Transfer is not held")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @ApiResponse(responseCode = "403", description = "Forbidden - admin access required")
+    @PostMapping("${end.point.release}")
+    public TransferResponse releaseHeldTransfer(
+            @Parameter(description = "Transfer ID") @PathVariable(name = "id") Long transferId
+    ) {
+        return transferService.releaseHeldTransfer(transferId);
+    }
+
+    @Operation(summary = "Reject held transfer", description = "Fails a transfer held by velocity rules and gives "
+            + "its daily limit share back (admin only)")
+    @ApiResponse(responseCode = "200", description = "Transfer rejected, now FAILED")
+    @ApiResponse(responseCode = "404", description = "Transfer not found")
+    @ApiResponse(responseCode = "422", description = "Transfer is not held")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @ApiResponse(responseCode = "403", description = "Forbidden - admin access required")
+    @PostMapping("${end.point.reject}")
+    public TransferResponse rejectHeldTransfer(
+            @Parameter(description = "Transfer ID") @PathVariable(name = "id") Long transferId
+    ) {
+        return transferService.rejectHeldTransfer(transferId);
+    }
+
+    @Operation(summary = "Get transfer history by cursor", description = "Returns transfers of the authenticated user, "
+            + "newest first. Pass nextCursor from the previous response, with the same dates, to get the following page. "
+            + "The dates are inclusive UTC days")
+    @ApiResponse(responseCode = "200", description = "Transfer history page retrieved successfully")
+    @ApiResponse(responseCode = "422", description = "Invalid cursor or date range")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @GetMapping("${end.point.history}")
+    public TransferCursorPage getTransferHistoryByCursor(
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+            @Parameter(description = "First day to include") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day to include") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return transferService.getTransferHistory(userDetails.getId(), cursor, size, from, to);
+    }
+
+    @Operation(summary = "Export transfer history", description = "Streams all transfers of the authenticated user, "
+            + "newest first, as CSV or NDJSON. The dates are inclusive UTC days; the body is gzipped when the client "
+            + "accepts gzip")
+    @ApiResponse(responseCode = "200", description = "Transfer history export started")
+    @ApiResponse(responseCode = "422", description = "Invalid date range")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @GetMapping("${end.point.export}")
+    public ResponseEntity<StreamingResponseBody> exportTransferHistory(
+            @Parameter(description = "First day to include") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day to include") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Export format") @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        StreamingResponseBody export = transferService.exportTransferHistory(userDetails.getId(), from, to, format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP_ENCODING);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(EXPORT_FILE_NAME + "." + format.getExtension())
+                        .build()
+                        .toString());
+        if (!gzip) {
+            return response.body(export);
+        }
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .body(outputStream -> {
+                    GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream);
+                    export.writeTo(gzipStream);
+                    gzipStream.finish();
+                });
     }
 
     @Operation(summary = "Get transfer history", description = "Returns paginated transfer history for the authenticated user")
@@ -0,0 +1,22 @@
+package com.example.bankcards.dto.card;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardStatementLine {
+    private Long transferId;
+    private String type;
+    // Signed: negative for debits, positive for credits
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private Instant timestamp;
+}
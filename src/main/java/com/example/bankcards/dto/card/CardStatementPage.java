@@ -0,0 +1,23 @@
+package com.example.bankcards.dto.card;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardStatementPage {
+    private Long cardId;
+    // Balance just before the first line of this page
+    private BigDecimal openingBalance;
+    private List<CardStatementLine> content;
+    private int size;
+    // Opaque token for the next page; null when the statement is complete
+    private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.example.bankcards.dto.schedule;
+
+import com.example.bankcards.entity.ScheduleFrequency;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduledTransferRequest {
+    @NotNull
+    private Long sourceCardId;
+
+    @NotNull
+    private Long destinationCardId;
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+    private String description;
+
+    @NotNull
+    private ScheduleFrequency frequency;
+
+    @NotNull
+    @FutureOrPresent
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,30 @@
+package com.example.bankcards.dto.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduledTransferResponse {
+    private Long id;
+    private Long sourceCardId;
+    private Long destinationCardId;
+    private BigDecimal amount;
+    private String description;
+    private String frequency;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDate nextRunDate;
+    private String status;
+    private Long lastTransferId;
+    private String lastFailureReason;
+    private Instant createdAt;
+}
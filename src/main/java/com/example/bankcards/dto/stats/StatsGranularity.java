@@ -0,0 +1,16 @@
+package com.example.bankcards.dto.stats;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public enum StatsGranularity {
+    DAY("day"),
+    MONTH("month"),
+    ;
+
+    // Unit passed to date_trunc
+    private final String unit;
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.dto.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferStatsBucket {
+    // First day of the bucket; null for the totals over the whole range
+    private LocalDate periodStart;
+    private long outgoingCount;
+    private BigDecimal outgoingAmount;
+    private BigDecimal outgoingAverage;
+    private long incomingCount;
+    private BigDecimal incomingAmount;
+    private BigDecimal incomingAverage;
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.dto.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferStatsResponse {
+    // Null when the stats cover all cards of the user
+    private Long cardId;
+    private LocalDate from;
+    private LocalDate to;
+    private String granularity;
+    private TransferStatsBucket totals;
+    private List<TransferStatsBucket> buckets;
+}
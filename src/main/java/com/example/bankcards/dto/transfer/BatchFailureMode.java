@@ -0,0 +1,7 @@
+package com.example.bankcards.dto.transfer;
+
+public enum BatchFailureMode {
+    PARTIAL,
+    ALL_OR_NOTHING,
+    ;
+}
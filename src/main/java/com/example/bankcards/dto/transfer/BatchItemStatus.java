@@ -0,0 +1,9 @@
+package com.example.bankcards.dto.transfer;
+
+public enum BatchItemStatus {
+    SUCCESS,
+    HELD,
+    FAILED,
+    SKIPPED,
+    ;
+}
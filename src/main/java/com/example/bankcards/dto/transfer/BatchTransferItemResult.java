@@ -0,0 +1,17 @@
+package com.example.bankcards.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferItemResult {
+    private int index;
+    private String status;
+    private TransferResponse transfer;
+    private String error;
+}
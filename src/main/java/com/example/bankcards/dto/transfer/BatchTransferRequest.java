@@ -0,0 +1,22 @@
+package com.example.bankcards.dto.transfer;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferRequest {
+    @NotEmpty
+    private List<@NotNull @Valid TransferRequest> transfers;
+
+    private BatchFailureMode failureMode;
+}
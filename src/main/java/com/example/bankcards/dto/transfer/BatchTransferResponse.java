@@ -0,0 +1,20 @@
+package com.example.bankcards.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferResponse {
+    private int total;
+    private int succeeded;
+    private int held;
+    private int failed;
+    private List<BatchTransferItemResult> results;
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.dto.transfer;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    ;
+
+    private final String mediaType;
+    private final String extension;
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.dto.transfer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferCursorPage {
+    private List<TransferResponse> content;
+    private int size;
+    // Opaque token for the next page; null when there are no older transfers
+    private String nextCursor;
+}
@@ -19,4 +19,5 @@ public class TransferResponse {
     private BigDecimal amount;
     private Instant timestamp;
     private String status;
+    private String failureReason;
 }
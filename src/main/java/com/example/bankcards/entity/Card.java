@@ -24,13 +24,18 @@ import java.time.LocalDate;
 @EqualsAndHashCode(of = "id")
 public class Card {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, columnDefinition = "TEXT")
     private String cardNumber;
 
-    @ManyToOne
+    // Kept in clear so read paths can mask the number without decrypting it
+    @Column(name = "card_last4", nullable = false, length = 4)
+    private String cardLast4;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
@@ -44,6 +49,7 @@ public class Card {
     @Column(nullable = false)
     private CardStatus status;
 
+    // Opening balance; the live balance is derived from card_balance_snapshots and ledger_entries
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal balance;
 
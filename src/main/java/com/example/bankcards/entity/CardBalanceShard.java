@@ -0,0 +1,35 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(
+        name = "card_balance_shards",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_card_balance_shards_card_shard", columnNames = {"card_id", "shard_no"}),
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class CardBalanceShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_balance_shards_seq")
+    @SequenceGenerator(name = "card_balance_shards_seq", sequenceName = "card_balance_shards_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(name = "shard_no", nullable = false)
+    private Integer shardNo;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+}
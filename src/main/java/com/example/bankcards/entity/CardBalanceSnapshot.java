@@ -0,0 +1,39 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "card_balance_snapshots",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_card_balance_snapshots_card_as_of", columnNames = {"card_id", "as_of"}),
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class CardBalanceSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_balance_snapshots_seq")
+    @SequenceGenerator(name = "card_balance_snapshots_seq", sequenceName = "card_balance_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,21 @@
+package com.example.bankcards.entity;
+
+import java.time.LocalDate;
+
+public enum ScheduleFrequency {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    ;
+
+    // Counted from the start date, not the previous run, so an order on the 31st returns to the 31st after February
+    public LocalDate occurrence(LocalDate startDate, int index) {
+        return switch (this) {
+            case ONCE -> index == 0 ? startDate : null;
+            case DAILY -> startDate.plusDays(index);
+            case WEEKLY -> startDate.plusWeeks(index);
+            case MONTHLY -> startDate.plusMonths(index);
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+@Table(
+        name = "scheduled_transfers",
+        indexes = {
+                @Index(name = "idx_scheduled_transfers_owner", columnList = "owner_id, id"),
+                @Index(name = "idx_scheduled_transfers_due", columnList = "status, next_run_date"),
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class ScheduledTransfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_transfers_seq")
+    @SequenceGenerator(name = "scheduled_transfers_seq", sequenceName = "scheduled_transfers_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "source_card_id", nullable = false)
+    private Long sourceCardId;
+
+    @Column(name = "destination_card_id", nullable = false)
+    private Long destinationCardId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScheduleFrequency frequency;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    @Column(name = "next_occurrence", nullable = false)
+    private int nextOccurrence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScheduledTransferStatus status;
+
+    @Column(name = "last_transfer_id")
+    private Long lastTransferId;
+
+    @Column(name = "last_failure_reason")
+    private String lastFailureReason;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    // Starts the series over from the start date, e.g. after the schedule was edited
+    public void restart() {
+        nextOccurrence = 0;
+        nextRunDate = startDate;
+        status = ScheduledTransferStatus.ACTIVE;
+    }
+
+    /**
+     * Moves to the first occurrence after {@code today}. Occurrences missed while the scheduler was not running
+     * are skipped rather than paid in a burst. The order completes when the series or its end date runs out.
+     */
+    public void advancePast(LocalDate today) {
+        LocalDate next;
+        do {
+            next = frequency.occurrence(startDate, ++nextOccurrence);
+        } while (next != null && !next.isAfter(today));
+
+        if (next == null || (endDate != null && next.isAfter(endDate))) {
+            status = ScheduledTransferStatus.COMPLETED;
+            return;
+        }
+        nextRunDate = next;
+    }
+}
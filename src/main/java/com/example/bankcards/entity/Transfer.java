@@ -10,8 +10,11 @@ import java.time.Instant;
 @Table(
         name = "transfers",
         indexes = {
-                @Index(name = "idx_transfer_source_card_id", columnList = "source_card_id"),
-                @Index(name = "idx_transfer_destination_card_id", columnList = "destination_card_id"),
+                @Index(name = "idx_transfer_source_card_timestamp", columnList = "source_card_id, timestamp DESC, id DESC"),
+                @Index(name = "idx_transfer_destination_card_timestamp", columnList = "destination_card_id, timestamp DESC, id DESC"),
+                @Index(name = "idx_transfer_source_owner_timestamp", columnList = "source_owner_id, timestamp DESC, id DESC"),
+                @Index(name = "idx_transfer_destination_owner_timestamp", columnList = "destination_owner_id, timestamp DESC, id DESC"),
+                @Index(name = "idx_transfer_timestamp", columnList = "timestamp"),
         }
 )
 @Getter
@@ -23,7 +26,8 @@ import java.time.Instant;
 @EqualsAndHashCode(of = "id")
 public class Transfer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfers_seq")
+    @SequenceGenerator(name = "transfers_seq", sequenceName = "transfers_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -34,6 +38,13 @@ public class Transfer {
     @JoinColumn(name = "destination_card_id", nullable = false)
     private Card destinationCard;
 
+    // Copied from the cards so history is served without joining cards and users
+    @Column(name = "source_owner_id", nullable = false)
+    private Long sourceOwnerId;
+
+    @Column(name = "destination_owner_id", nullable = false)
+    private Long destinationOwnerId;
+
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
@@ -47,9 +58,18 @@ public class Transfer {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    @Column(name = "failure_reason")
+    private String failureReason;
+
     @PrePersist
     protected void onCreate() {
         timestamp = Instant.now();
+        if (sourceOwnerId == null) {
+            sourceOwnerId = sourceCard.getOwner().getId();
+        }
+        if (destinationOwnerId == null) {
+            destinationOwnerId = destinationCard.getOwner().getId();
+        }
         if (status == null) {
             status = TransferStatus.PENDING;
         }
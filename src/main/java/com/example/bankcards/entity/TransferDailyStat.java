@@ -0,0 +1,52 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(
+        name = "transfer_daily_stats",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_transfer_daily_stats_card_date", columnNames = {"card_id", "stat_date"}),
+        },
+        indexes = {
+                @Index(name = "idx_transfer_daily_stats_owner_date", columnList = "owner_id, stat_date"),
+                @Index(name = "idx_transfer_daily_stats_date", columnList = "stat_date"),
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class TransferDailyStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfer_daily_stats_seq")
+    @SequenceGenerator(name = "transfer_daily_stats_seq", sequenceName = "transfer_daily_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "debit_count", nullable = false)
+    private long debitCount;
+
+    @Column(name = "debit_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitAmount;
+
+    @Column(name = "credit_count", nullable = false)
+    private long creditCount;
+
+    @Column(name = "credit_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditAmount;
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "transfer_stats_watermark")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class TransferStatsWatermark {
+    public static final short ID = 1;
+
+    @Id
+    private Short id;
+
+    // Transfers settled by transactions below this id are already counted in transfer_daily_stats
+    @Column(name = "processed_xid", nullable = false)
+    private Long processedXid;
+}
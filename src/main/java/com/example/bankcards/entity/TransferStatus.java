@@ -4,5 +4,7 @@ public enum TransferStatus {
     SUCCESS,
     FAILED,
     PENDING,
+    // Stopped by the velocity rules; never settled by recovery, only released or rejected by an admin
+    HELD,
     ;
 }
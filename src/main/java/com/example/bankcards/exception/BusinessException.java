@@ -3,6 +3,7 @@ package com.example.bankcards.exception;
 import com.example.bankcards.util.constants.ApiErrorMessage;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public class BusinessException extends RuntimeException {
 
@@ -45,4 +46,40 @@ public class BusinessException extends RuntimeException {
     public static BusinessException invalidExpiryDate(String expiryDate) {
         return new BusinessException(ApiErrorMessage.INVALID_EXPIRY_DATE.getMessage(expiryDate));
     }
+
+    public static BusinessException invalidIdempotencyKey(int maxLength) {
+        return new BusinessException(ApiErrorMessage.INVALID_IDEMPOTENCY_KEY.getMessage(maxLength));
+    }
+
+    public static BusinessException idempotencyKeyReused(String idempotencyKey) {
+        return new BusinessException(ApiErrorMessage.IDEMPOTENCY_KEY_REUSED.getMessage(idempotencyKey));
+    }
+
+    public static BusinessException batchTooLarge(int size, int maxSize) {
+        return new BusinessException(ApiErrorMessage.BATCH_TOO_LARGE.getMessage(size, maxSize));
+    }
+
+    public static BusinessException invalidCursor(String cursor) {
+        return new BusinessException(ApiErrorMessage.INVALID_CURSOR.getMessage(cursor));
+    }
+
+    public static BusinessException dailyLimitExceeded(BigDecimal amount, BigDecimal limit) {
+        return new BusinessException(ApiErrorMessage.DAILY_LIMIT_EXCEEDED.getMessage(amount, limit));
+    }
+
+    public static BusinessException velocityExceeded(Long cardId) {
+        return new BusinessException(ApiErrorMessage.VELOCITY_EXCEEDED.getMessage(cardId));
+    }
+
+    public static BusinessException transferNotHeld(Long transferId) {
+        return new BusinessException(ApiErrorMessage.TRANSFER_NOT_HELD.getMessage(transferId));
+    }
+
+    public static BusinessException invalidDateRange(LocalDate from, LocalDate to) {
+        return new BusinessException(ApiErrorMessage.INVALID_DATE_RANGE.getMessage(from, to));
+    }
+
+    public static BusinessException statsDayArchived(LocalDate statDate) {
+        return new BusinessException(ApiErrorMessage.STATS_DAY_ARCHIVED.getMessage(statDate));
+    }
 }
@@ -19,4 +19,8 @@ public class ResourceExistsException extends RuntimeException {
     public static ResourceExistsException card() {
         return new ResourceExistsException(ApiErrorMessage.CARD_ALREADY_EXISTS.getMessage());
     }
+
+    public static ResourceExistsException idempotencyKeyInProgress(String idempotencyKey) {
+        return new ResourceExistsException(ApiErrorMessage.IDEMPOTENCY_KEY_IN_PROGRESS.getMessage(idempotencyKey));
+    }
 }
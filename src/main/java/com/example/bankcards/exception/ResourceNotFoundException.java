@@ -28,4 +28,8 @@ public class ResourceNotFoundException extends RuntimeException {
     public static ResourceNotFoundException transfer(Long id) {
         return new ResourceNotFoundException(ApiErrorMessage.TRANSFER_NOT_FOUND.getMessage(id));
     }
+
+    public static ResourceNotFoundException scheduledTransfer(Long id) {
+        return new ResourceNotFoundException(ApiErrorMessage.SCHEDULED_TRANSFER_NOT_FOUND.getMessage(id));
+    }
 }
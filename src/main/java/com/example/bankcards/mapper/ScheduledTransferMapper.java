@@ -0,0 +1,29 @@
+package com.example.bankcards.mapper;
+
+import com.example.bankcards.dto.schedule.ScheduledTransferResponse;
+import com.example.bankcards.entity.ScheduledTransfer;
+import com.example.bankcards.entity.ScheduledTransferStatus;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ScheduledTransferMapper {
+
+    public ScheduledTransferResponse toResponse(ScheduledTransfer scheduledTransfer) {
+        boolean active = scheduledTransfer.getStatus() == ScheduledTransferStatus.ACTIVE;
+        return ScheduledTransferResponse.builder()
+                .id(scheduledTransfer.getId())
+                .sourceCardId(scheduledTransfer.getSourceCardId())
+                .destinationCardId(scheduledTransfer.getDestinationCardId())
+                .amount(scheduledTransfer.getAmount())
+                .description(scheduledTransfer.getDescription())
+                .frequency(scheduledTransfer.getFrequency().name())
+                .startDate(scheduledTransfer.getStartDate())
+                .endDate(scheduledTransfer.getEndDate())
+                .nextRunDate(active ? scheduledTransfer.getNextRunDate() : null)
+                .status(scheduledTransfer.getStatus().name())
+                .lastTransferId(scheduledTransfer.getLastTransferId())
+                .lastFailureReason(scheduledTransfer.getLastFailureReason())
+                .createdAt(scheduledTransfer.getCreatedAt())
+                .build();
+    }
+}
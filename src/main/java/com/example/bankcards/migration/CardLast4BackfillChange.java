@@ -0,0 +1,130 @@
+package com.example.bankcards.migration;
+
+import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.EncryptionUtil;
+import liquibase.Scope;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// The key is read from the changelog parameters when the change runs, not passed in the changeset, so a rotated key
+// does not change the changeset checksum
+@Slf4j
+@Getter
+@Setter
+public class CardLast4BackfillChange implements CustomTaskChange {
+
+    private static final String ENCRYPTION_KEY_PARAMETER = "encryptionKey";
+
+    private static final String SELECT_CHUNK =
+            "SELECT id, card_number FROM cards WHERE card_last4 IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_CARD = "UPDATE cards SET card_last4 = ? WHERE id = ?";
+
+    private Integer chunkSize = 1000;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int updated;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        EncryptionUtil encryptionUtil = null;
+        long lastId = 0;
+
+        try (PreparedStatement select = connection.prepareStatement(SELECT_CHUNK);
+             PreparedStatement update = connection.prepareStatement(UPDATE_CARD)) {
+            while (true) {
+                select.setLong(1, lastId);
+                select.setInt(2, chunkSize);
+
+                int rows = 0;
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        if (encryptionUtil == null) {
+                            encryptionUtil = new EncryptionUtil(encryptionKey());
+                        }
+                        lastId = resultSet.getLong("id");
+                        update.setString(1, lastFour(encryptionUtil, lastId, resultSet.getString("card_number")));
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+
+                if (rows == 0) {
+                    return;
+                }
+                update.executeBatch();
+                updated += rows;
+                log.info("Backfilled card_last4: chunk={}, total={}", rows, updated);
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to backfill card_last4", e);
+        }
+    }
+
+    // A card left without its digits would only fail later, on the NOT NULL constraint, with no hint which one
+    private static String lastFour(EncryptionUtil encryptionUtil, long cardId, String cardNumber)
+            throws CustomChangeException {
+        String lastFour;
+        try {
+            lastFour = CardMaskingUtil.lastFour(encryptionUtil.decrypt(cardNumber));
+        } catch (RuntimeException e) {
+            throw new CustomChangeException("Failed to decrypt card number of card " + cardId, e);
+        }
+        if (lastFour == null) {
+            throw new CustomChangeException("Card " + cardId + " has no card number to take the last four digits from");
+        }
+        return lastFour;
+    }
+
+    private static String encryptionKey() throws CustomChangeException {
+        ChangeSet changeSet = Scope.getCurrentScope().get(Scope.Attr.changeSet, ChangeSet.class);
+        DatabaseChangeLog changeLog = changeSet != null ? changeSet.getChangeLog() : null;
+        Object key = changeLog != null && changeLog.getChangeLogParameters() != null
+                ? changeLog.getChangeLogParameters().getValue(ENCRYPTION_KEY_PARAMETER, changeLog)
+                : null;
+        if (key == null) {
+            throw new CustomChangeException("Changelog parameter '" + ENCRYPTION_KEY_PARAMETER + "' is not set");
+        }
+        return key.toString();
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled card_last4 for " + updated + " cards";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (chunkSize == null || chunkSize <= 0) {
+            errors.addError("chunkSize must be positive");
+        }
+        return errors;
+    }
+}
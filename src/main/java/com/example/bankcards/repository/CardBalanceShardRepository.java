@@ -0,0 +1,51 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardBalanceShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface CardBalanceShardRepository extends JpaRepository<CardBalanceShard, Long> {
+
+    List<CardBalanceShard> findByCardIdOrderByShardNo(Long cardId);
+
+    @Query("SELECT DISTINCT s.cardId FROM CardBalanceShard s")
+    List<Long> findShardedCardIds();
+
+    @Modifying(flushAutomatically = true)
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE card_balance_shards SET balance = balance + :amount " +
+            "WHERE card_id = :cardId " +
+            "AND shard_no = MOD(:salt, NULLIF((SELECT COUNT(*) FROM card_balance_shards WHERE card_id = :cardId), 0))",
+            nativeQuery = true)
+    int creditRandomShard(
+            @Param("cardId") Long cardId,
+            @Param("amount") BigDecimal amount,
+            @Param("salt") int salt
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE card_balance_shards bs SET balance = bs.balance - d.draw " +
+            "FROM (" +
+            "    SELECT id, LEAST(balance, GREATEST(:amount - (SUM(balance) OVER (ORDER BY shard_no) - balance), 0)) AS draw " +
+            "    FROM card_balance_shards WHERE card_id = :cardId" +
+            ") d " +
+            "WHERE bs.id = d.id AND d.draw > 0",
+            nativeQuery = true)
+    int debitInShardOrder(
+            @Param("cardId") Long cardId,
+            @Param("amount") BigDecimal amount
+    );
+
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("DELETE FROM CardBalanceShard s WHERE s.cardId = :cardId")
+    int deleteByCardId(@Param("cardId") Long cardId);
+}
@@ -0,0 +1,39 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface CardBalanceSnapshotRepository extends JpaRepository<CardBalanceSnapshot, Long> {
+
+    Optional<CardBalanceSnapshot> findFirstByCardIdOrderByAsOfDesc(Long cardId);
+
+    // Runs after the cards are locked: every entry of theirs is committed and the next one is stamped after as_of
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "INSERT INTO card_balance_snapshots (card_id, balance, as_of, created_at) " +
+            "SELECT c.id, COALESCE(s.balance, c.balance) + t.delta, statement_timestamp(), statement_timestamp() " +
+            "FROM cards c " +
+            "LEFT JOIN LATERAL (" +
+            "    SELECT cs.balance, cs.as_of FROM card_balance_snapshots cs " +
+            "    WHERE cs.card_id = c.id ORDER BY cs.as_of DESC LIMIT 1" +
+            ") s ON TRUE " +
+            "JOIN LATERAL (" +
+            "    SELECT SUM(e.amount) AS delta FROM ledger_entries e " +
+            "    WHERE e.card_id = c.id " +
+            "    AND e.created_at >= COALESCE(s.as_of, CAST('-infinity' AS TIMESTAMP)) " +
+            "    AND e.created_at < statement_timestamp() " +
+            "    HAVING COUNT(*) > 0" +
+            ") t ON TRUE " +
+            "WHERE c.id IN (:cardIds) " +
+            "ON CONFLICT (card_id, as_of) DO NOTHING",
+            nativeQuery = true)
+    int insertSnapshots(@Param("cardIds") Collection<Long> cardIds);
+}
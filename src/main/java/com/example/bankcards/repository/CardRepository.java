@@ -2,16 +2,18 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
-import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,15 +23,66 @@ public interface CardRepository extends JpaRepository<Card, Long> {
             Pageable pageable
     );
 
+    @Query("SELECT c.id FROM Card c WHERE c.owner.id = :ownerId")
+    Page<Long> findIdsByOwnerId(
+            @Param("ownerId") Long ownerId,
+            Pageable pageable
+    );
+
     Optional<Card> findByOwnerIdAndId(
             Long ownerId,
             Long cardId
     );
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT c FROM Card c JOIN FETCH c.owner WHERE c.id=:id")
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT * FROM cards WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
     Optional<Card> findByIdForUpdate(@Param("id") Long id);
 
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT * FROM cards WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Card> findByIdForExclusiveLock(@Param("id") Long id);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT * FROM cards WHERE id IN (:ids) ORDER BY id FOR NO KEY UPDATE", nativeQuery = true)
+    List<Card> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Held by ledger writers on credited cards so a snapshot of these cards waits for them, or is skipped
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT id FROM cards WHERE id IN (:ids) ORDER BY id FOR KEY SHARE", nativeQuery = true)
+    List<Long> lockAllByIdInForLedger(@Param("ids") Collection<Long> ids);
+
+    // Conflicts with the ledger writers' key share lock; cards busy in a transfer are left for the next run
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT id FROM cards WHERE id BETWEEN :fromId AND :toId ORDER BY id FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockIdleIdsBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Debited cards move their ledger version, so a guarded debit that read an older balance matches no row
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE cards SET ledger_version = ledger_version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int incrementLedgerVersions(@Param("ids") Collection<Long> ids);
+
+    // The balance subquery is read from the statement snapshot and is not re-read after waiting on the row,
+    // so a debit committed in between changes ledger_version and the guard matches nothing
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE cards t SET ledger_version = t.ledger_version + 1 " +
+            "FROM (SELECT c.id, c.ledger_version, " + LedgerEntryRepository.CARD_BALANCE + " AS balance " +
+            "    FROM cards c " + LedgerEntryRepository.BALANCE_JOINS +
+            "    WHERE c.id = :id) bal " +
+            "WHERE t.id = bal.id AND t.owner_id = :ownerId AND t.status = 'ACTIVE' " +
+            "AND t.ledger_version = bal.ledger_version AND bal.balance >= :amount",
+            nativeQuery = true)
+    int debitIfSufficient(
+            @Param("id") Long id,
+            @Param("ownerId") Long ownerId,
+            @Param("amount") BigDecimal amount
+    );
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM Card c")
+    Long findMaxId();
+
     Page<Card> findByStatus(
             @Param("status") CardStatus status,
             Pageable pageable
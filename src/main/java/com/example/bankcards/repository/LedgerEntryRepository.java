@@ -0,0 +1,43 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    List<LedgerEntry> findByTransferIdOrderById(Long transferId);
+
+    // Balance of card c: the sum of its shards when it is sharded, otherwise its latest snapshot s plus the
+    // ledger entries after it; c.balance is the opening balance
+    String CARD_BALANCE = "COALESCE(sh.balance, COALESCE(s.balance, c.balance) + COALESCE((" +
+            "    SELECT SUM(e.amount) FROM ledger_entries e " +
+            "    WHERE e.card_id = c.id " +
+            "    AND e.created_at >= COALESCE(s.as_of, CAST('-infinity' AS TIMESTAMP))" +
+            "), 0))";
+
+    String BALANCE_JOINS = "LEFT JOIN LATERAL (" +
+            "    SELECT SUM(bs.balance) AS balance FROM card_balance_shards bs WHERE bs.card_id = c.id" +
+            ") sh ON TRUE " +
+            "LEFT JOIN LATERAL (" +
+            "    SELECT cs.balance, cs.as_of FROM card_balance_snapshots cs " +
+            "    WHERE cs.card_id = c.id ORDER BY cs.as_of DESC LIMIT 1" +
+            ") s ON TRUE ";
+
+    @Query(value = "SELECT c.id AS cardId, " + CARD_BALANCE + " AS balance " +
+            "FROM cards c " + BALANCE_JOINS +
+            "WHERE c.id IN (:cardIds)",
+            nativeQuery = true)
+    List<CardBalance> findBalances(@Param("cardIds") Collection<Long> cardIds);
+
+    interface CardBalance {
+        Long getCardId();
+
+        BigDecimal getBalance();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.ScheduledTransfer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+
+    Page<ScheduledTransfer> findByOwnerId(Long ownerId, Pageable pageable);
+
+    Optional<ScheduledTransfer> findByOwnerIdAndId(Long ownerId, Long id);
+
+    // SKIP LOCKED lets several instances claim disjoint chunks of the same due set
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT * FROM scheduled_transfers " +
+            "WHERE status = 'ACTIVE' AND next_run_date <= :today AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ScheduledTransfer> lockDueChunk(
+            @Param("today") LocalDate today,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit
+    );
+
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("UPDATE ScheduledTransfer s SET s.lastTransferId = :transferId, s.lastFailureReason = :failureReason " +
+            "WHERE s.id = :id")
+    int recordRun(
+            @Param("id") Long id,
+            @Param("transferId") Long transferId,
+            @Param("failureReason") String failureReason
+    );
+}
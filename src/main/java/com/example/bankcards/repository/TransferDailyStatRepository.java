@@ -0,0 +1,125 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.TransferDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TransferDailyStatRepository extends JpaRepository<TransferDailyStat, Long> {
+
+    // Stat days are UTC days; stored timestamps are local to the session zone, which the driver sets to the JVM's
+    String STAT_DATE = "CAST(timezone('UTC', CAST(t.timestamp AS TIMESTAMPTZ)) AS DATE)";
+
+    // Adds transfers settled by transactions in [fromXid, toXid) to their cards' daily rows; each counts once per side
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "INSERT INTO transfer_daily_stats " +
+            "(card_id, owner_id, stat_date, debit_count, debit_amount, credit_count, credit_amount) " +
+            "SELECT x.card_id, x.owner_id, x.stat_date, " +
+            "SUM(x.debit_count), SUM(x.debit_amount), SUM(x.credit_count), SUM(x.credit_amount) " +
+            "FROM (" +
+            "    SELECT t.source_card_id AS card_id, t.source_owner_id AS owner_id, " +
+            "    " + STAT_DATE + " AS stat_date, " +
+            "    1 AS debit_count, t.amount AS debit_amount, 0 AS credit_count, 0 AS credit_amount " +
+            "    FROM transfers t " +
+            "    WHERE t.status = 'SUCCESS' AND t.stats_xid >= :fromXid AND t.stats_xid < :toXid " +
+            "    UNION ALL " +
+            "    SELECT t.destination_card_id, t.destination_owner_id, " +
+            "    " + STAT_DATE + ", " +
+            "    0, 0, 1, t.amount " +
+            "    FROM transfers t " +
+            "    WHERE t.status = 'SUCCESS' AND t.stats_xid >= :fromXid AND t.stats_xid < :toXid" +
+            ") x " +
+            "GROUP BY x.card_id, x.owner_id, x.stat_date " +
+            "ON CONFLICT (card_id, stat_date) DO UPDATE SET " +
+            "debit_count = transfer_daily_stats.debit_count + EXCLUDED.debit_count, " +
+            "debit_amount = transfer_daily_stats.debit_amount + EXCLUDED.debit_amount, " +
+            "credit_count = transfer_daily_stats.credit_count + EXCLUDED.credit_count, " +
+            "credit_amount = transfer_daily_stats.credit_amount + EXCLUDED.credit_amount",
+            nativeQuery = true)
+    int addSettledTransfers(@Param("fromXid") long fromXid, @Param("toXid") long toXid);
+
+    // Same for transfers stamped in [from, to), leaving out those settled at or after untilXid
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "INSERT INTO transfer_daily_stats " +
+            "(card_id, owner_id, stat_date, debit_count, debit_amount, credit_count, credit_amount) " +
+            "SELECT x.card_id, x.owner_id, x.stat_date, " +
+            "SUM(x.debit_count), SUM(x.debit_amount), SUM(x.credit_count), SUM(x.credit_amount) " +
+            "FROM (" +
+            "    SELECT t.source_card_id AS card_id, t.source_owner_id AS owner_id, " +
+            "    " + STAT_DATE + " AS stat_date, " +
+            "    1 AS debit_count, t.amount AS debit_amount, 0 AS credit_count, 0 AS credit_amount " +
+            "    FROM transfers t " +
+            "    WHERE t.status = 'SUCCESS' AND t.timestamp >= :from AND t.timestamp < :to " +
+            "    AND (t.stats_xid IS NULL OR t.stats_xid < :untilXid) " +
+            "    UNION ALL " +
+            "    SELECT t.destination_card_id, t.destination_owner_id, " +
+            "    " + STAT_DATE + ", " +
+            "    0, 0, 1, t.amount " +
+            "    FROM transfers t " +
+            "    WHERE t.status = 'SUCCESS' AND t.timestamp >= :from AND t.timestamp < :to " +
+            "    AND (t.stats_xid IS NULL OR t.stats_xid < :untilXid)" +
+            ") x " +
+            "GROUP BY x.card_id, x.owner_id, x.stat_date " +
+            "ON CONFLICT (card_id, stat_date) DO UPDATE SET " +
+            "debit_count = transfer_daily_stats.debit_count + EXCLUDED.debit_count, " +
+            "debit_amount = transfer_daily_stats.debit_amount + EXCLUDED.debit_amount, " +
+            "credit_count = transfer_daily_stats.credit_count + EXCLUDED.credit_count, " +
+            "credit_amount = transfer_daily_stats.credit_amount + EXCLUDED.credit_amount",
+            nativeQuery = true)
+    int addTransfers(@Param("from") Instant from, @Param("to") Instant to, @Param("untilXid") long untilXid);
+
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("DELETE FROM TransferDailyStat s WHERE s.statDate = :statDate")
+    int deleteByStatDate(@Param("statDate") LocalDate statDate);
+
+    @Query(value = "SELECT CAST(date_trunc(:unit, CAST(s.stat_date AS TIMESTAMP)) AS DATE) AS periodStart, " +
+            "SUM(s.debit_count) AS debitCount, SUM(s.debit_amount) AS debitAmount, " +
+            "SUM(s.credit_count) AS creditCount, SUM(s.credit_amount) AS creditAmount " +
+            "FROM transfer_daily_stats s " +
+            "WHERE s.owner_id = :ownerId AND s.stat_date BETWEEN :from AND :to " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<StatsBucket> findOwnerBuckets(
+            @Param("ownerId") Long ownerId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("unit") String unit
+    );
+
+    @Query(value = "SELECT CAST(date_trunc(:unit, CAST(s.stat_date AS TIMESTAMP)) AS DATE) AS periodStart, " +
+            "SUM(s.debit_count) AS debitCount, SUM(s.debit_amount) AS debitAmount, " +
+            "SUM(s.credit_count) AS creditCount, SUM(s.credit_amount) AS creditAmount " +
+            "FROM transfer_daily_stats s " +
+            "WHERE s.card_id = :cardId AND s.stat_date BETWEEN :from AND :to " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<StatsBucket> findCardBuckets(
+            @Param("cardId") Long cardId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("unit") String unit
+    );
+
+    interface StatsBucket {
+        LocalDate getPeriodStart();
+
+        Long getDebitCount();
+
+        BigDecimal getDebitAmount();
+
+        Long getCreditCount();
+
+        BigDecimal getCreditAmount();
+    }
+}
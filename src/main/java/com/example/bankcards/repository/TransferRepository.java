@@ -1,20 +1,99 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.TransferStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
 
+    @Query("SELECT t FROM Transfer t " +
+            "WHERE t.id = :id AND (t.sourceOwnerId = :userId OR t.destinationOwnerId = :userId)")
+    Optional<Transfer> findByIdAndParticipantId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT t.sourceCard.id FROM Transfer t WHERE t.id = :id AND t.status = :status")
+    Optional<Long> findSourceCardIdByIdAndStatus(@Param("id") Long id, @Param("status") TransferStatus status);
+
+    @Query("SELECT t.id AS id, t.sourceCard.id AS sourceCardId FROM Transfer t " +
+            "WHERE t.status = com.example.bankcards.entity.TransferStatus.PENDING AND t.timestamp < :acceptedBefore " +
+            "ORDER BY t.id")
+    List<PendingTransfer> findPendingAcceptedBefore(@Param("acceptedBefore") Instant acceptedBefore, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transfer t WHERE t.sourceCard.id = :cardId " +
+            "AND t.timestamp >= :since AND t.status <> com.example.bankcards.entity.TransferStatus.FAILED")
+    BigDecimal sumOutgoingByCardSince(@Param("cardId") Long cardId, @Param("since") Instant since);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transfer t WHERE t.sourceOwnerId = :userId " +
+            "AND t.timestamp >= :since AND t.status <> com.example.bankcards.entity.TransferStatus.FAILED")
+    BigDecimal sumOutgoingByOwnerSince(@Param("userId") Long userId, @Param("since") Instant since);
+
     @EntityGraph(attributePaths = {"sourceCard", "destinationCard"})
-    Page<Transfer> findBySourceCardOwnerIdOrDestinationCardOwnerId(
+    List<Transfer> findAllByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"sourceCard", "destinationCard"})
+    Page<Transfer> findBySourceOwnerIdOrDestinationOwnerId(
             Long sourceOwnerId,
             Long destinationOwnerId,
             Pageable pageable
     );
 
+    // Each branch is a range scan on its owner index; self-transfers are kept in the first branch only.
+    // The optional [from, to) bounds are compared as TIMESTAMP so the planner can prune monthly partitions
+    @Query(value = "SELECT h.id FROM (" +
+            "(SELECT t.id, t.timestamp FROM transfers t WHERE t.source_owner_id = :userId " +
+            "AND t.timestamp >= COALESCE(CAST(:from AS TIMESTAMP), '-infinity') " +
+            "AND t.timestamp < COALESCE(CAST(:to AS TIMESTAMP), 'infinity') " +
+            "ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT t.id, t.timestamp FROM transfers t " +
+            "WHERE t.destination_owner_id = :userId AND t.source_owner_id <> :userId " +
+            "AND t.timestamp >= COALESCE(CAST(:from AS TIMESTAMP), '-infinity') " +
+            "AND t.timestamp < COALESCE(CAST(:to AS TIMESTAMP), 'infinity') " +
+            "ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit)" +
+            ") h ORDER BY h.timestamp DESC, h.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findHistoryIds(
+            @Param("userId") Long userId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("limit") int limit
+    );
+
+    // The plain timestamp bound duplicates the row comparison so partitions newer than the cursor are pruned too
+    @Query(value = "SELECT h.id FROM (" +
+            "(SELECT t.id, t.timestamp FROM transfers t WHERE t.source_owner_id = :userId " +
+            "AND t.timestamp >= COALESCE(CAST(:from AS TIMESTAMP), '-infinity') " +
+            "AND t.timestamp < COALESCE(CAST(:to AS TIMESTAMP), 'infinity') " +
+            "AND t.timestamp <= CAST(:timestamp AS TIMESTAMP) " +
+            "AND (t.timestamp, t.id) < (CAST(:timestamp AS TIMESTAMP), :id) " +
+            "ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT t.id, t.timestamp FROM transfers t " +
+            "WHERE t.destination_owner_id = :userId AND t.source_owner_id <> :userId " +
+            "AND t.timestamp >= COALESCE(CAST(:from AS TIMESTAMP), '-infinity') " +
+            "AND t.timestamp < COALESCE(CAST(:to AS TIMESTAMP), 'infinity') " +
+            "AND t.timestamp <= CAST(:timestamp AS TIMESTAMP) " +
+            "AND (t.timestamp, t.id) < (CAST(:timestamp AS TIMESTAMP), :id) " +
+            "ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit)" +
+            ") h ORDER BY h.timestamp DESC, h.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findHistoryIdsBefore(
+            @Param("userId") Long userId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("timestamp") Instant timestamp,
+            @Param("id") Long id,
+            @Param("limit") int limit
+    );
+
     Page<Transfer> findBySourceCardOwnerId(
             Long sourceOwnerId,
             Pageable pageable
@@ -25,4 +104,9 @@ public interface TransferRepository extends JpaRepository<Transfer, Long> {
             Pageable pageable
     );
 
+    interface PendingTransfer {
+        Long getId();
+
+        Long getSourceCardId();
+    }
 }
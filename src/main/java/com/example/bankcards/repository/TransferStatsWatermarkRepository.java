@@ -0,0 +1,32 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.TransferStatsWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface TransferStatsWatermarkRepository extends JpaRepository<TransferStatsWatermark, Short> {
+
+    // Held by the fold while it moves the watermark
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("SELECT w FROM TransferStatsWatermark w WHERE w.id = :id")
+    Optional<TransferStatsWatermark> findByIdForUpdate(@Param("id") Short id);
+
+    // Oldest transaction still running; every transaction below it has committed or rolled back
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)",
+            nativeQuery = true)
+    long findCompletedXidHorizon();
+
+    // Held by rebuild partitions so the watermark cannot move under them; partitions do not block each other
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("SELECT w FROM TransferStatsWatermark w WHERE w.id = :id")
+    Optional<TransferStatsWatermark> findByIdForShare(@Param("id") Short id);
+}
@@ -0,0 +1,54 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.config.LedgerProperties;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.service.BalanceShardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceShardCompactionScheduler {
+
+    private final BalanceShardService balanceShardService;
+    private final LedgerProperties ledgerProperties;
+
+    @Scheduled(
+            fixedDelayString = "${app.ledger.sharding.compaction-interval:PT1M}",
+            initialDelayString = "${app.ledger.sharding.compaction-interval:PT1M}"
+    )
+    void compactBalanceShards() {
+        Set<Long> hotCardIds = ledgerProperties.getSharding().getHotCardIds();
+        Set<Long> shardedCardIds = new HashSet<>(balanceShardService.getShardedCardIds());
+        if (hotCardIds.isEmpty() && shardedCardIds.isEmpty()) {
+            return;
+        }
+
+        for (Long cardId : shardedCardIds) {
+            if (hotCardIds.contains(cardId)) {
+                balanceShardService.compact(cardId);
+            } else {
+                balanceShardService.disableSharding(cardId);
+            }
+        }
+
+        for (Long cardId : hotCardIds) {
+            if (!shardedCardIds.contains(cardId)) {
+                try {
+                    balanceShardService.enableSharding(cardId);
+                } catch (ResourceNotFoundException e) {
+                    log.warn("Skipping balance sharding for missing card: cardId={}", cardId);
+                }
+            }
+        }
+
+        log.info("Balance shard compaction completed: hotCards={}, shardedCards={}",
+                hotCardIds.size(), shardedCardIds.size());
+    }
+}
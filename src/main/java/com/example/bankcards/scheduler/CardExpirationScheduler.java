@@ -3,6 +3,8 @@ package com.example.bankcards.scheduler;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.impl.CardCache;
+import com.example.bankcards.service.impl.CardStatusIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.task.TaskExecutor;
@@ -22,6 +24,8 @@ public class CardExpirationScheduler {
 
     private final CardRepository cardRepository;
     private final TaskExecutor batchExecutor;
+    private final CardCache cardCache;
+    private final CardStatusIndex cardStatusIndex;
 
     @Scheduled(cron = "0 0 2 * * *")
     @Transactional
@@ -37,6 +41,10 @@ public class CardExpirationScheduler {
                 .toList();
 
         CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        List<Long> expiredIds = expiredCards.stream().map(Card::getId).toList();
+        cardCache.evictCards(expiredIds);
+        cardCache.evictUsers(expiredCards.stream().map(card -> card.getOwner().getId()).distinct().toList());
+        cardStatusIndex.statusChanged(expiredIds, CardStatus.EXPIRED);
 
         log.info("Expired cards check completed: {} cards updated", expiredCards.size());
     }
@@ -0,0 +1,21 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.service.impl.CardStatusIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class CardStatusIndexScheduler {
+
+    private final CardStatusIndex cardStatusIndex;
+
+    @Scheduled(
+            fixedDelayString = "${app.card.status-index.reset-interval:PT1M}",
+            initialDelayString = "${app.card.status-index.reset-interval:PT1M}"
+    )
+    void resetIndex() {
+        cardStatusIndex.reset();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerSnapshotScheduler {
+
+    private final LedgerService ledgerService;
+
+    @Scheduled(
+            fixedDelayString = "${app.ledger.snapshot.interval:PT5M}",
+            initialDelayString = "${app.ledger.snapshot.interval:PT5M}"
+    )
+    void takeBalanceSnapshots() {
+        log.info("Starting balance snapshots");
+
+        int snapshots = ledgerService.takeSnapshots();
+
+        log.info("Balance snapshots completed: {} cards snapshotted", snapshots);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxRelayScheduler {
+
+    private final OutboxService outboxService;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT0.2S}")
+    void relayOutboxEvents() {
+        int published = outboxService.publishPending();
+
+        if (published > 0) {
+            log.debug("Outbox relay published {} events", published);
+        }
+    }
+}
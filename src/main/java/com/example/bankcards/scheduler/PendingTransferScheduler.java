@@ -0,0 +1,34 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.service.TransferService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PendingTransferScheduler {
+
+    private final TransferService transferService;
+    private final TransferProperties transferProperties;
+
+    @Scheduled(
+            fixedDelayString = "${app.transfer.async.recovery-interval:PT30S}",
+            initialDelayString = "${app.transfer.async.recovery-interval:PT30S}"
+    )
+    void resumePendingTransfers() {
+        TransferProperties.Async async = transferProperties.getAsync();
+        Instant acceptedBefore = Instant.now().minus(async.getStaleAfter());
+
+        int resumed = transferService.resumePendingTransfers(acceptedBefore, async.getRecoveryBatchSize());
+
+        if (resumed > 0) {
+            log.info("Resumed {} pending transfers accepted before {}", resumed, acceptedBefore);
+        }
+    }
+}
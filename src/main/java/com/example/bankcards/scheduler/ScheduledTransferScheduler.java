@@ -0,0 +1,27 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.service.ScheduledTransferService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduledTransferScheduler {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    // Runs through the day as well as at midnight, so orders missed by a restart are picked up the same day
+    @Scheduled(cron = "${app.transfer.scheduled.cron:0 */15 * * * *}")
+    void runDueTransfers() {
+        LocalDate today = LocalDate.now();
+        int processed = scheduledTransferService.runDueTransfers(today);
+        if (processed > 0) {
+            log.info("Scheduled transfers run completed: date={}, processed={}", today, processed);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.service.TransferPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferPartitionScheduler {
+
+    private final TransferPartitionService transferPartitionService;
+
+    // Daily, so a failed run has the whole months-ahead margin to be retried before inserts run out of partitions
+    @Scheduled(cron = "${app.transfer.partitioning.cron:0 30 2 * * *}")
+    void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        int created = transferPartitionService.createUpcomingPartitions(today);
+        int archived = transferPartitionService.archiveExpiredPartitions(today);
+        log.info("Transfer partitions maintained: date={}, created={}, archived={}", today, created, archived);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.service.TransferStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferStatsScheduler {
+
+    private final TransferStatsService transferStatsService;
+
+    @Scheduled(
+            fixedDelayString = "${app.stats.interval:PT1M}",
+            initialDelayString = "${app.stats.interval:PT1M}"
+    )
+    void foldTransfers() {
+        int rows = transferStatsService.foldTransfers();
+        log.debug("Transfer stats folded: rows={}", rows);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.bankcards.scheduler;
+
+import com.example.bankcards.service.impl.TransferVelocityEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VelocityEvictionScheduler {
+
+    private final TransferVelocityEngine transferVelocityEngine;
+
+    @Scheduled(
+            fixedDelayString = "${app.transfer.velocity.eviction-interval:PT5M}",
+            initialDelayString = "${app.transfer.velocity.eviction-interval:PT5M}"
+    )
+    void evictIdleCards() {
+        int evicted = transferVelocityEngine.evictIdle();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle cards from velocity windows", evicted);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bankcards.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface BalanceShardService {
+    void applyCredit(Long cardId, BigDecimal amount);
+
+    void applyDebit(Long cardId, BigDecimal amount);
+
+    void enableSharding(Long cardId);
+
+    void disableSharding(Long cardId);
+
+    void compact(Long cardId);
+
+    List<Long> getShardedCardIds();
+}
@@ -1,12 +1,14 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardStatementPage;
 import com.example.bankcards.dto.card.CardUpdateRequest;
 import com.example.bankcards.dto.card.CreateCardRequest;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
 
 public interface CardService {
     CardResponse createCard(@NotNull CreateCardRequest createCardRequest, @NotNull Long userId);
@@ -15,6 +17,10 @@ public interface CardService {
 
     Page<CardResponse> getCardsForUser(@NotNull Long userId, Pageable pageable);
 
+    CardStatementPage getStatement(
+            @NotNull Long userId, @NotNull Long cardId, LocalDate from, LocalDate to, String cursor, Integer size
+    );
+
     CardResponse updateCard(@NotNull Long userId, @NotNull Long cardId, @NotNull CardUpdateRequest cardUpdateRequest);
 
     CardResponse blockCard(@NotNull Long userId, @NotNull Long cardId);
@@ -0,0 +1,28 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public interface DailyLimitService {
+    /**
+     * Counts the amount against today's outgoing limits of the card and its owner, or throws when either would
+     * be exceeded. The reservation is released automatically if the surrounding transaction rolls back.
+     */
+    Reservation reserve(Card sourceCard, BigDecimal amount);
+
+    /**
+     * Gives back an amount reserved at the given instant by a transfer that was accepted and has failed since.
+     * Takes effect once the surrounding transaction commits, so a failure that rolls back keeps its reservation.
+     */
+    void release(Card sourceCard, BigDecimal amount, Instant reservedAt);
+
+    interface Reservation {
+        Reservation NONE = () -> {
+        };
+
+        // Idempotent; only needed when the transfer is dropped without rolling back the transaction
+        void release();
+    }
+}
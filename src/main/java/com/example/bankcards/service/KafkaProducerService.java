@@ -2,8 +2,13 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.event.TransferEvent;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface KafkaProducerService {
     CompletableFuture<Void> sendTransferEventAsync(TransferEvent event);
+
+    CompletableFuture<Void> sendTransferEventsAsync(List<TransferEvent> events);
+
+    CompletableFuture<Void> sendTransferEvents(List<TransferEvent> events);
 }
@@ -0,0 +1,23 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Transfer;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface LedgerService {
+    void recordTransfer(Transfer transfer);
+
+    void recordTransfers(List<Transfer> transfers);
+
+    BigDecimal getBalance(Long cardId);
+
+    // Same balance in minor units, for the transfer engine
+    long getBalanceMinor(Long cardId);
+
+    Map<Long, BigDecimal> getBalances(Collection<Long> cardIds);
+
+    int takeSnapshots();
+}
@@ -0,0 +1,13 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Transfer;
+
+import java.util.List;
+
+public interface OutboxService {
+    void recordTransferCompleted(Transfer transfer);
+
+    void recordTransfersCompleted(List<Transfer> transfers);
+
+    int publishPending();
+}
@@ -0,0 +1,15 @@
+package com.example.bankcards.service;
+
+public interface RedisIdempotencyService {
+    Boolean tryAcquire(Long userId, String idempotencyKey, Long ttlMillis);
+
+    CompletedKey getCompleted(Long userId, String idempotencyKey);
+
+    void complete(Long userId, String idempotencyKey, Long transferId, String requestHash, Long ttlMillis);
+
+    void release(Long userId, String idempotencyKey);
+
+    // requestHash is null for keys completed before request hashes were stored
+    record CompletedKey(Long transferId, String requestHash) {
+    }
+}
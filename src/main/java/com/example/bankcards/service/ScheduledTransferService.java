@@ -0,0 +1,25 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.schedule.ScheduledTransferRequest;
+import com.example.bankcards.dto.schedule.ScheduledTransferResponse;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+
+public interface ScheduledTransferService {
+    ScheduledTransferResponse createScheduledTransfer(@NotNull ScheduledTransferRequest request, @NotNull Long userId);
+
+    ScheduledTransferResponse getScheduledTransfer(@NotNull Long userId, @NotNull Long id);
+
+    Page<ScheduledTransferResponse> getScheduledTransfersForUser(@NotNull Long userId, Pageable pageable);
+
+    ScheduledTransferResponse updateScheduledTransfer(
+            @NotNull Long userId, @NotNull Long id, @NotNull ScheduledTransferRequest request
+    );
+
+    void deleteScheduledTransfer(@NotNull Long userId, @NotNull Long id);
+
+    int runDueTransfers(@NotNull LocalDate today);
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.service;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface TransferPartitionService {
+    int createUpcomingPartitions(@NotNull LocalDate today);
+
+    int archiveExpiredPartitions(@NotNull LocalDate today);
+
+    /**
+     * Returns where the oldest attached partition starts; transfers stamped before it are archived or on their
+     * way there. Empty when no partition is attached.
+     */
+    Optional<Instant> findAttachedSince();
+}
@@ -1,13 +1,39 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.transfer.ExportFormat;
+import com.example.bankcards.dto.transfer.TransferCursorPage;
 import com.example.bankcards.dto.transfer.TransferRequest;
 import com.example.bankcards.dto.transfer.TransferResponse;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.LocalDate;
 
 public interface TransferService {
     TransferResponse transferMoney(@NotNull TransferRequest transferRequest, @NotNull Long userId);
 
+    TransferResponse transferMoney(@NotNull TransferRequest transferRequest, @NotNull Long userId, String idempotencyKey);
+
+    BatchTransferResponse transferBatch(@NotNull BatchTransferRequest batchTransferRequest, @NotNull Long userId);
+
     Page<TransferResponse> getTransferHistory(@NotNull Long userId, Pageable pageable);
+
+    TransferCursorPage getTransferHistory(@NotNull Long userId, String cursor, Integer size, LocalDate from, LocalDate to);
+
+    StreamingResponseBody exportTransferHistory(@NotNull Long userId, LocalDate from, LocalDate to, @NotNull ExportFormat format);
+
+    TransferResponse getTransfer(@NotNull Long userId, @NotNull Long transferId);
+
+    void settleTransfer(@NotNull Long transferId);
+
+    int resumePendingTransfers(@NotNull Instant acceptedBefore, int limit);
+
+    TransferResponse releaseHeldTransfer(@NotNull Long transferId);
+
+    TransferResponse rejectHeldTransfer(@NotNull Long transferId);
 }
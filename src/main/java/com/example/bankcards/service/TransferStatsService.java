@@ -0,0 +1,18 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.stats.StatsGranularity;
+import com.example.bankcards.dto.stats.TransferStatsResponse;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public interface TransferStatsService {
+    TransferStatsResponse getStats(
+            @NotNull Long userId, Long cardId, @NotNull LocalDate from, @NotNull LocalDate to,
+            @NotNull StatsGranularity granularity
+    );
+
+    int foldTransfers();
+
+    int rebuild(@NotNull LocalDate from, @NotNull LocalDate to);
+}
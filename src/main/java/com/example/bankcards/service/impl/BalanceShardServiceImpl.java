@@ -0,0 +1,133 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.LedgerProperties;
+import com.example.bankcards.entity.CardBalanceShard;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardBalanceShardRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.service.BalanceShardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceShardServiceImpl implements BalanceShardService {
+    private final CardBalanceShardRepository cardBalanceShardRepository;
+    private final CardRepository cardRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerProperties ledgerProperties;
+
+    // --- Balance updates --- //
+
+    // Pending ledger inserts are flushed first, so the key share lock on the card is already held
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyCredit(Long cardId, BigDecimal amount) {
+        int salt = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        cardBalanceShardRepository.creditRandomShard(cardId, amount, salt);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDebit(Long cardId, BigDecimal amount) {
+        cardBalanceShardRepository.debitInShardOrder(cardId, amount);
+    }
+
+    // --- Shard lifecycle --- //
+
+    @Override
+    @Transactional
+    public void enableSharding(Long cardId) {
+        lockCard(cardId);
+        if (!cardBalanceShardRepository.findByCardIdOrderByShardNo(cardId).isEmpty()) {
+            return;
+        }
+
+        BigDecimal balance = ledgerEntryRepository.findBalances(List.of(cardId)).get(0).getBalance();
+        int shardCount = ledgerProperties.getSharding().getShardCount();
+        List<CardBalanceShard> shards = new ArrayList<>(shardCount);
+        for (int shardNo = 0; shardNo < shardCount; shardNo++) {
+            shards.add(shard(cardId, shardNo, shardNo == 0 ? balance : BigDecimal.ZERO));
+        }
+        cardBalanceShardRepository.saveAll(shards);
+
+        log.info("Balance sharding enabled: cardId={}, shards={}", cardId, shardCount);
+    }
+
+    @Override
+    @Transactional
+    public void disableSharding(Long cardId) {
+        lockCard(cardId);
+        int deleted = cardBalanceShardRepository.deleteByCardId(cardId);
+
+        log.info("Balance sharding disabled: cardId={}, shards={}", cardId, deleted);
+    }
+
+    @Override
+    @Transactional
+    public void compact(Long cardId) {
+        lockCard(cardId);
+        List<CardBalanceShard> shards = cardBalanceShardRepository.findByCardIdOrderByShardNo(cardId);
+        if (shards.isEmpty()) {
+            return;
+        }
+
+        BigDecimal total = shards.stream()
+                .map(CardBalanceShard::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int shardCount = ledgerProperties.getSharding().getShardCount();
+
+        List<CardBalanceShard> surplus = new ArrayList<>();
+        for (CardBalanceShard shard : shards) {
+            if (shard.getShardNo() >= shardCount) {
+                surplus.add(shard);
+            } else {
+                shard.setBalance(shard.getShardNo() == 0 ? total : BigDecimal.ZERO);
+            }
+        }
+        cardBalanceShardRepository.deleteAll(surplus);
+
+        List<CardBalanceShard> missing = new ArrayList<>();
+        for (int shardNo = shards.size() - surplus.size(); shardNo < shardCount; shardNo++) {
+            missing.add(shard(cardId, shardNo, shardNo == 0 ? total : BigDecimal.ZERO));
+        }
+        cardBalanceShardRepository.saveAll(missing);
+
+        log.debug("Balance shards compacted: cardId={}, balance={}", cardId, total);
+    }
+
+    // --- Lookup --- //
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getShardedCardIds() {
+        return cardBalanceShardRepository.findShardedCardIds();
+    }
+
+    // --- Helper methods --- //
+
+    // An exclusive row lock conflicts with the key share lock every ledger insert takes on the card,
+    // so no transfer can touch the shards while they are created, removed or rebalanced
+    private void lockCard(Long cardId) {
+        cardRepository.findByIdForExclusiveLock(cardId)
+                .orElseThrow(() -> ResourceNotFoundException.card(cardId));
+    }
+
+    private CardBalanceShard shard(Long cardId, int shardNo, BigDecimal balance) {
+        return CardBalanceShard.builder()
+                .cardId(cardId)
+                .shardNo(shardNo)
+                .balance(balance)
+                .build();
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.CardProperties;
+import com.example.bankcards.dto.card.CardResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of card responses and of the card ids on each page of a user's card list. The first tier
+ * is a bounded in-process cache, the optional second one is Redis, shared by all nodes. Writers evict after
+ * their transaction commits, and a load that overlapped an eviction is not kept, so an entry never survives
+ * the write that changed it.
+ */
+@Slf4j
+@Component
+public class CardCache {
+
+    public static final String INVALIDATION_CHANNEL = "card-cache:invalidations";
+
+    private static final String CARD = "card";
+    private static final String USER = "user";
+    private static final String CARD_PREFIX = "card-cache:card:";
+    private static final String PAGES_PREFIX = "card-cache:pages:";
+    private static final String VERSION_PREFIX = "card-cache:version:";
+    private static final String NO_VERSION = "0";
+    private static final int STRIPES = 1024;
+
+    // Stores the entry only if nothing was evicted since its version was read; an empty field means a plain key
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then " +
+                    "  return 0 " +
+                    "end " +
+                    "if ARGV[4] == '' then " +
+                    "  redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3]) " +
+                    "else " +
+                    "  redis.call('HSET', KEYS[2], ARGV[4], ARGV[2]) " +
+                    "  redis.call('PEXPIRE', KEYS[2], ARGV[3]) " +
+                    "end " +
+                    "return 1",
+            Long.class
+    );
+
+    // KEYS holds version and entry key pairs; every node drops its local copies when the message arrives
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS, 2 do " +
+                    "  redis.call('INCR', KEYS[i]) " +
+                    "  redis.call('PEXPIRE', KEYS[i], ARGV[1]) " +
+                    "  redis.call('DEL', KEYS[i + 1]) " +
+                    "end " +
+                    "return redis.call('PUBLISH', ARGV[2], ARGV[3])",
+            Long.class
+    );
+
+    private final CardProperties.Cache properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, CachedCard> cards;
+    private final Cache<PageKey, CachedPage> pages;
+    // Bumped before every local eviction; a load that saw another value may have read what was just evicted
+    private final AtomicLongArray cardGenerations = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray userGenerations = new AtomicLongArray(STRIPES);
+    private final Counter redisCardHits;
+    private final Counter redisCardMisses;
+    private final Counter redisPageHits;
+    private final Counter redisPageMisses;
+
+    public CardCache(
+            CardProperties cardProperties,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = cardProperties.getCache();
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.cards = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxCards())
+                .expireAfterWrite(properties.getLocalTtl())
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxPages())
+                .expireAfterWrite(properties.getLocalTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cards, "cards");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "card-pages");
+        this.redisCardHits = redisCounter(meterRegistry, "cards", "hit");
+        this.redisCardMisses = redisCounter(meterRegistry, "cards", "miss");
+        this.redisPageHits = redisCounter(meterRegistry, "card-pages", "hit");
+        this.redisPageMisses = redisCounter(meterRegistry, "card-pages", "miss");
+    }
+
+    /**
+     * Returns the cached card, or loads it with {@code loader} and caches it. Whatever the loader throws, such as
+     * a not-found error, reaches the caller and nothing is cached.
+     */
+    public CachedCard getCard(Long cardId, Supplier<CachedCard> loader) {
+        return getCards(List.of(cardId), missing -> Map.of(cardId, loader.get())).get(cardId);
+    }
+
+    // The loader gets only the ids missing from both tiers; ids it leaves out are missing from the result too
+    public Map<Long, CachedCard> getCards(
+            Collection<Long> cardIds, Function<Collection<Long>, Map<Long, CachedCard>> loader
+    ) {
+        if (!properties.isEnabled()) {
+            return loader.apply(cardIds);
+        }
+
+        Map<Long, CachedCard> found = new HashMap<>(cards.getAllPresent(cardIds));
+        List<Long> missing = cardIds.stream()
+                .filter(cardId -> !found.containsKey(cardId))
+                .toList();
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long[] generations = new long[missing.size()];
+        for (int i = 0; i < missing.size(); i++) {
+            generations[i] = cardGenerations.get(stripe(missing.get(i)));
+        }
+        Map<Long, CachedCard> loaded = properties.isRedisEnabled()
+                ? readCardsThroughRedis(missing, loader)
+                : loader.apply(missing);
+        for (int i = 0; i < missing.size(); i++) {
+            Long cardId = missing.get(i);
+            CachedCard card = loaded.get(cardId);
+            if (card != null) {
+                cards.put(cardId, card);
+                dropIfEvicted(cardGenerations, cardId, generations[i], () -> cards.invalidate(cardId));
+            }
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    public CachedPage getPage(Long userId, Pageable pageable, Supplier<CachedPage> loader) {
+        if (!properties.isEnabled() || pageable.isUnpaged()) {
+            return loader.get();
+        }
+
+        PageKey key = new PageKey(userId, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+        CachedPage cached = pages.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = userGenerations.get(stripe(userId));
+        CachedPage page = properties.isRedisEnabled()
+                ? readPageThroughRedis(key, loader)
+                : loader.get();
+        pages.put(key, page);
+        dropIfEvicted(userGenerations, userId, generation, () -> pages.invalidate(key));
+        return page;
+    }
+
+    // --- Eviction --- //
+
+    // Balance, status or removal of these cards changed; takes effect once the current transaction commits
+    public void evictCards(Collection<Long> cardIds) {
+        if (!properties.isEnabled() || cardIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(cardIds);
+        afterCommit(() -> evict(CARD, ids));
+    }
+
+    // The set or order of the users' cards changed; takes effect once the current transaction commits
+    public void evictUsers(Collection<Long> userIds) {
+        if (!properties.isEnabled() || userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        afterCommit(() -> evict(USER, ids));
+    }
+
+    // Messages from the invalidation channel, this node's own included, look like "card:1,2,3"
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0) {
+            log.warn("Card cache invalidation ignored: message='{}'", message);
+            return;
+        }
+        List<Long> ids = Arrays.stream(message.substring(separator + 1).split(","))
+                .map(Long::valueOf)
+                .toList();
+        evictLocally(message.substring(0, separator), ids);
+    }
+
+    private void evict(String type, List<Long> ids) {
+        evictLocally(type, ids);
+        if (!properties.isRedisEnabled()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        for (Long id : ids) {
+            keys.add(versionKey(type, id));
+            keys.add(CARD.equals(type) ? CARD_PREFIX + id : PAGES_PREFIX + id);
+        }
+        String message = type + ":" + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            redisTemplate.execute(
+                    EVICT_SCRIPT, keys,
+                    Long.toString(properties.getRedisTtl().toMillis()), INVALIDATION_CHANNEL, message
+            );
+        } catch (RuntimeException e) {
+            // Other nodes keep serving the old entries until they expire
+            log.warn("Failed to evict shared card cache entries: {}, reason={}", message, e.getMessage());
+        }
+    }
+
+    private void evictLocally(String type, List<Long> ids) {
+        if (CARD.equals(type)) {
+            ids.forEach(cardId -> cardGenerations.incrementAndGet(stripe(cardId)));
+            cards.invalidateAll(ids);
+        } else {
+            ids.forEach(userId -> userGenerations.incrementAndGet(stripe(userId)));
+            pages.asMap().keySet().removeIf(key -> ids.contains(key.userId()));
+        }
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    // An eviction running while the entry was put may have missed it; dropping it again only costs a miss
+    private static void dropIfEvicted(AtomicLongArray generations, Long id, long generation, Runnable drop) {
+        if (generations.get(stripe(id)) != generation) {
+            drop.run();
+        }
+    }
+
+    // --- Redis tier --- //
+
+    private Map<Long, CachedCard> readCardsThroughRedis(
+            List<Long> cardIds, Function<Collection<Long>, Map<Long, CachedCard>> loader
+    ) {
+        List<String> keys = new ArrayList<>(cardIds.size() * 2);
+        cardIds.forEach(cardId -> keys.add(CARD_PREFIX + cardId));
+        cardIds.forEach(cardId -> keys.add(versionKey(CARD, cardId)));
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(keys);
+        } catch (RuntimeException e) {
+            log.warn("Shared card cache unavailable, loading from the database: reason={}", e.getMessage());
+            return loader.apply(cardIds);
+        }
+        if (values == null) {
+            return loader.apply(cardIds);
+        }
+
+        Map<Long, CachedCard> found = new HashMap<>();
+        Map<Long, String> versions = new HashMap<>();
+        for (int i = 0; i < cardIds.size(); i++) {
+            CachedCard card = read(values.get(i), CachedCard.class);
+            if (card != null) {
+                found.put(cardIds.get(i), card);
+            } else {
+                String version = values.get(cardIds.size() + i);
+                versions.put(cardIds.get(i), version != null ? version : NO_VERSION);
+            }
+        }
+        redisCardHits.increment(found.size());
+        redisCardMisses.increment(versions.size());
+        if (versions.isEmpty()) {
+            return found;
+        }
+
+        Map<Long, CachedCard> loaded = loader.apply(versions.keySet());
+        loaded.forEach((cardId, card) ->
+                writeToRedis(versionKey(CARD, cardId), CARD_PREFIX + cardId, "", versions.get(cardId), card)
+        );
+        found.putAll(loaded);
+        return found;
+    }
+
+    private CachedPage readPageThroughRedis(PageKey key, Supplier<CachedPage> loader) {
+        String versionKey = versionKey(USER, key.userId());
+        String pagesKey = PAGES_PREFIX + key.userId();
+        String field = key.field();
+        String version;
+        try {
+            CachedPage page = read(redisTemplate.<String, String>opsForHash().get(pagesKey, field), CachedPage.class);
+            if (page != null) {
+                redisPageHits.increment();
+                return page;
+            }
+            version = redisTemplate.opsForValue().get(versionKey);
+        } catch (RuntimeException e) {
+            log.warn("Shared card cache unavailable, loading from the database: reason={}", e.getMessage());
+            return loader.get();
+        }
+
+        redisPageMisses.increment();
+        CachedPage page = loader.get();
+        writeToRedis(versionKey, pagesKey, field, version != null ? version : NO_VERSION, page);
+        return page;
+    }
+
+    private void writeToRedis(String versionKey, String key, String field, String version, Object value) {
+        try {
+            redisTemplate.execute(
+                    PUT_SCRIPT, List.of(versionKey, key),
+                    version, objectMapper.writeValueAsString(value),
+                    Long.toString(properties.getRedisTtl().toMillis()), field
+            );
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to write shared card cache entry: key={}, reason={}", key, e.getMessage());
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            // Written by another version of the application; reloading replaces it
+            log.debug("Unreadable shared card cache entry: type={}, reason={}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String versionKey(String type, Long id) {
+        return VERSION_PREFIX + type + ":" + id;
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+
+    private static Counter redisCounter(MeterRegistry meterRegistry, String cache, String result) {
+        return Counter.builder("card.cache.redis.gets")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // --- Inner types --- //
+
+    // The owner is kept so a cached card is only ever served to the user it belongs to
+    public record CachedCard(Long ownerId, CardResponse card) {
+    }
+
+    public record CachedPage(List<Long> cardIds, long total) {
+    }
+
+    private record PageKey(Long userId, int page, int size, String sort) {
+        String field() {
+            return page + ":" + size + ":" + sort;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.service.impl;
 
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardStatementPage;
 import com.example.bankcards.dto.card.CardUpdateRequest;
 import com.example.bankcards.dto.card.CreateCardRequest;
 import com.example.bankcards.entity.Card;
@@ -12,18 +13,33 @@ import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.impl.CardCache.CachedCard;
+import com.example.bankcards.service.impl.CardCache.CachedPage;
+import com.example.bankcards.util.CardMaskingUtil;
 import com.example.bankcards.util.EncryptionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -36,6 +52,11 @@ public class CardServiceImpl implements CardService {
     private final UserRepository userRepository;
     private final CardMapper cardMapper;
     private final EncryptionUtil encryptionUtil;
+    private final LedgerService ledgerService;
+    private final CardStatementReader cardStatementReader;
+    private final CardCache cardCache;
+    private final CardStatusIndex cardStatusIndex;
+    private final TransactionOperations transactionOperations;
 
     @Override
     public CardResponse createCard(CreateCardRequest createCardRequest, Long userId) {
@@ -44,28 +65,69 @@ public class CardServiceImpl implements CardService {
         User user = findUserById(userId);
         Card card = buildCard(createCardRequest, user);
         card = cardRepository.save(card);
+        cardCache.evictUsers(List.of(userId));
 
         log.info("Card created: id={}, userId={}, holder='{}'", card.getId(), userId, card.getHolderName());
 
         return cardMapper.toResponse(card);
     }
 
+    // Cache hits need no transaction. Misses load in a read-write one: a read-only one would go to the replica,
+    // which may still return what a write on the primary has just evicted, and that would be cached again
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CardResponse getCardById(Long userId, Long cardId) {
-        return cardMapper.toResponse(findCardByOwnerIdAndId(userId, cardId));
+        CachedCard cached = cardCache.getCard(cardId, () -> transactionOperations.execute(status ->
+                new CachedCard(userId, cardMapper.toResponse(findCardByOwnerIdAndId(userId, cardId)))
+        ));
+        if (!cached.ownerId().equals(userId)) {
+            throw ResourceNotFoundException.card(cardId);
+        }
+        return cached.card();
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<CardResponse> getCardsForUser(Long userId, Pageable pageable) {
-        if (!userRepository.existsById(userId)) {
-            throw ResourceNotFoundException.user(userId);
+        CachedPage page = cardCache.getPage(userId, pageable, () ->
+                transactionOperations.execute(status -> loadPage(userId, pageable))
+        );
+        Map<Long, CachedCard> cards = cardCache.getCards(page.cardIds(), cardIds ->
+                transactionOperations.execute(status -> loadCards(cardIds))
+        );
+
+        // A card deleted after the page was cached; its eviction is on the way, so read the page directly
+        if (!cards.keySet().containsAll(page.cardIds())) {
+            return transactionOperations.execute(status -> {
+                CachedPage current = loadPage(userId, pageable);
+                return toPage(current, loadCards(current.cardIds()), pageable);
+            });
+        }
+        return toPage(page, cards, pageable);
+    }
+
+    // Dates are inclusive UTC days; a cursor continues after the last line of the previous page
+    @Override
+    @Transactional(readOnly = true)
+    public CardStatementPage getStatement(
+            Long userId, Long cardId, LocalDate from, LocalDate to, String cursor, Integer size
+    ) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw BusinessException.invalidDateRange(from, to);
         }
+        findCardByOwnerIdAndId(userId, cardId);
+
+        TransferCursor position;
+        if (cursor != null && !cursor.isBlank()) {
+            position = TransferCursor.decode(cursor);
+        } else if (from != null) {
+            position = new TransferCursor(from.atStartOfDay(ZoneOffset.UTC).toInstant(), 0L);
+        } else {
+            position = new TransferCursor(Instant.EPOCH, 0L);
+        }
+        Instant end = to != null ? to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() : null;
 
-        return cardRepository
-                .findByOwnerId(userId, pageable)
-                .map(cardMapper::toResponse);
+        return cardStatementReader.read(cardId, position, end, size);
     }
 
     @Override
@@ -90,10 +152,11 @@ public class CardServiceImpl implements CardService {
     public void deleteCard(Long userId, Long cardId) {
         log.debug("Deleting card id={}", cardId);
 
-        if (!cardRepository.existsById(cardId)) {
-            throw ResourceNotFoundException.card(cardId);
-        }
-        cardRepository.deleteById(cardId);
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> ResourceNotFoundException.card(cardId));
+        cardRepository.delete(card);
+        cardCache.evictCards(List.of(cardId));
+        cardCache.evictUsers(List.of(card.getOwner().getId()));
 
         log.info("Card deleted: id={}", cardId);
     }
@@ -110,11 +173,44 @@ public class CardServiceImpl implements CardService {
                 .orElseThrow(() -> ResourceNotFoundException.user(userId));
     }
 
+    // --- Card list --- //
+
+    private CachedPage loadPage(Long userId, Pageable pageable) {
+        if (!userRepository.existsById(userId)) {
+            throw ResourceNotFoundException.user(userId);
+        }
+
+        Page<Long> cardIds = cardRepository.findIdsByOwnerId(userId, pageable);
+        return new CachedPage(cardIds.getContent(), cardIds.getTotalElements());
+    }
+
+    private Map<Long, CachedCard> loadCards(Collection<Long> cardIds) {
+        if (cardIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, BigDecimal> balances = ledgerService.getBalances(cardIds);
+        return cardRepository.findAllById(cardIds).stream()
+                .collect(Collectors.toMap(Card::getId, card -> new CachedCard(
+                        card.getOwner().getId(), cardMapper.toResponse(card, balances.get(card.getId()))
+                )));
+    }
+
+    private static Page<CardResponse> toPage(CachedPage page, Map<Long, CachedCard> cards, Pageable pageable) {
+        List<CardResponse> content = page.cardIds().stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .map(CachedCard::card)
+                .toList();
+        return new PageImpl<>(content, pageable, page.total());
+    }
+
     // --- Card building --- //
 
     private Card buildCard(CreateCardRequest request, User owner) {
         return Card.builder()
                 .cardNumber(encryptionUtil.encrypt(request.getCardNumber()))
+                .cardLast4(CardMaskingUtil.lastFour(request.getCardNumber()))
                 .owner(owner)
                 .holderName(request.getHolderName())
                 .expiryDate(parseExpiryDate(request.getExpiryDate()))
@@ -137,6 +233,9 @@ public class CardServiceImpl implements CardService {
 
         card.setStatus(newStatus);
         card = cardRepository.save(card);
+        cardCache.evictCards(List.of(card.getId()));
+        cardCache.evictUsers(List.of(card.getOwner().getId()));
+        cardStatusIndex.statusChanged(List.of(card.getId()), newStatus);
 
         log.debug("Card status updated: id={}, {} -> {}", card.getId(), previousStatus, newStatus);
 
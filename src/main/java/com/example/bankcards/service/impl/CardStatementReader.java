@@ -0,0 +1,106 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.card.CardStatementLine;
+import com.example.bankcards.dto.card.CardStatementPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class CardStatementReader {
+
+    // Latest snapshot at or before the position plus the ledger entries between them, as in the live balance read
+    private static final String OPENING_BALANCE_SQL = "SELECT COALESCE(s.balance, c.balance) + COALESCE((" +
+            "    SELECT SUM(e.amount) FROM ledger_entries e " +
+            "    WHERE e.card_id = c.id " +
+            "    AND e.created_at >= COALESCE(s.as_of, CAST('-infinity' AS TIMESTAMP)) " +
+            "    AND (e.created_at, e.id) < (?, ?)" +
+            "), 0) " +
+            "FROM cards c " +
+            "LEFT JOIN LATERAL (" +
+            "    SELECT cs.balance, cs.as_of FROM card_balance_snapshots cs " +
+            "    WHERE cs.card_id = c.id AND cs.as_of <= ? ORDER BY cs.as_of DESC LIMIT 1" +
+            ") s ON TRUE " +
+            "WHERE c.id = ?";
+
+    // The window runs over the index order and stops at the LIMIT, so a page never reads past its last row
+    private static final String LINES_SQL = "SELECT e.id, e.transfer_id, e.entry_type, e.amount, e.created_at, " +
+            "? + SUM(e.amount) OVER (ORDER BY e.created_at, e.id) AS balance_after " +
+            "FROM ledger_entries e " +
+            "WHERE e.card_id = ? AND (e.created_at, e.id) > (?, ?)";
+
+    private static final String LINES_ORDER_SQL = " ORDER BY e.created_at, e.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferProperties transferProperties;
+
+    /**
+     * Reads one page of the card's ledger in (created_at, id) order, starting right after {@code position}
+     * and stopping before {@code to} when it is given. Each line carries the balance after it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public CardStatementPage read(Long cardId, TransferCursor position, Instant to, Integer size) {
+        TransferProperties.History history = transferProperties.getHistory();
+        int pageSize = size == null
+                ? history.getDefaultPageSize()
+                : Math.max(1, Math.min(size, history.getMaxPageSize()));
+
+        Timestamp after = Timestamp.from(position.timestamp());
+        BigDecimal openingBalance = jdbcTemplate.queryForObject(
+                OPENING_BALANCE_SQL, BigDecimal.class, after, position.id(), after, cardId
+        );
+
+        List<Object> parameters = new ArrayList<>(List.of(openingBalance, cardId, after, position.id()));
+        String sql = LINES_SQL;
+        if (to != null) {
+            sql += " AND e.created_at < ?";
+            parameters.add(Timestamp.from(to));
+        }
+        parameters.add(pageSize + 1);
+
+        List<StatementRow> rows = new ArrayList<>(pageSize + 1);
+        jdbcTemplate.query(sql + LINES_ORDER_SQL, rs -> {
+            rows.add(new StatementRow(
+                    rs.getLong("id"),
+                    CardStatementLine.builder()
+                            .transferId(rs.getLong("transfer_id"))
+                            .type(rs.getString("entry_type"))
+                            .amount(rs.getBigDecimal("amount"))
+                            .balanceAfter(rs.getBigDecimal("balance_after"))
+                            .timestamp(rs.getTimestamp("created_at").toInstant())
+                            .build()
+            ));
+        }, parameters.toArray());
+
+        boolean hasNext = rows.size() > pageSize;
+        List<StatementRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            StatementRow last = page.get(pageSize - 1);
+            nextCursor = new TransferCursor(last.line().getTimestamp(), last.entryId()).encode();
+        }
+
+        return CardStatementPage.builder()
+                .cardId(cardId)
+                .openingBalance(openingBalance)
+                .content(page.stream().map(StatementRow::line).toList())
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // --- Inner types --- //
+
+    private record StatementRow(Long entryId, CardStatementLine line) {
+    }
+}
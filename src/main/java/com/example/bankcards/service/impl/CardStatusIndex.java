@@ -0,0 +1,241 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.CardProperties;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers, in memory and without locks, cards known to be blocked or expired, so a transfer to one of them is
+ * turned away before any row is locked. The index is only a hint: a card missing from it may still be unusable,
+ * and the check under the lock stays the authority. An entry can only be wrong for a moment, because every
+ * change back to active removes it and the whole index is emptied every reset interval.
+ */
+@Slf4j
+@Component
+public class CardStatusIndex {
+
+    public static final String INVALIDATION_CHANNEL = "card-status:invalidations";
+
+    // A slot packs the card id above a two-bit status; zero is an empty slot
+    private static final int STATUS_BITS = 2;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    private static final long UNKNOWN = 0;
+    private static final long BLOCKED = 1;
+    private static final long EXPIRED = 2;
+    private static final int PROBES = 8;
+    private static final int STRIPES = 1024;
+
+    private final CardProperties.StatusIndex properties;
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int capacity;
+    private final int mask;
+    private volatile AtomicLongArray slots;
+    // Bumped before an entry is removed; a status read before the bump may be the one just replaced
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final Counter rejectedCounter;
+
+    public CardStatusIndex(CardProperties cardProperties, StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.properties = cardProperties.getStatusIndex();
+        this.redisTemplate = redisTemplate;
+        this.capacity = Integer.highestOneBit(Math.max(properties.getMaxCards(), PROBES) - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicLongArray(capacity);
+        this.rejectedCounter = Counter.builder("card.status.index.rejections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Throws the error the locked check would raise if the card is known to be blocked or expired.
+     */
+    public void rejectIfUnusable(long cardId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long status = lookup(slots, cardId);
+        if (status == BLOCKED) {
+            rejectedCounter.increment();
+            throw BusinessException.cardBlocked(cardId);
+        }
+        if (status == EXPIRED) {
+            rejectedCounter.increment();
+            throw BusinessException.cardExpired(cardId);
+        }
+    }
+
+    // To be taken right before the card row is read, and handed to record with the status read
+    public long generation(long cardId) {
+        return generations.get(stripe(cardId));
+    }
+
+    /**
+     * Remembers the status read from the card row. If the card changed back to active after the generation was
+     * taken, the entry is dropped again instead of being left to reject an active card.
+     */
+    public void record(long cardId, CardStatus status, long generation) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        AtomicLongArray table = slots;
+        if (status == CardStatus.ACTIVE) {
+            remove(table, cardId);
+            return;
+        }
+        put(table, cardId, code(status));
+        if (generations.get(stripe(cardId)) != generation) {
+            remove(table, cardId);
+        }
+    }
+
+    /**
+     * Applies a status change made by the current transaction once it commits, and tells the other nodes to
+     * forget the cards. They learn the new status again from their own locked checks.
+     */
+    public void statusChanged(Collection<Long> cardIds, CardStatus status) {
+        if (!properties.isEnabled() || cardIds.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = List.copyOf(cardIds);
+        long[] taken = ids.stream().mapToLong(this::generation).toArray();
+        afterCommit(() -> {
+            for (int i = 0; i < ids.size(); i++) {
+                if (status == CardStatus.ACTIVE) {
+                    forget(ids.get(i));
+                } else {
+                    record(ids.get(i), status, taken[i]);
+                }
+            }
+            publish(ids);
+        });
+    }
+
+    // Messages look like "<node>:1,2,3"; a node skips its own, which it has already applied
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0) {
+            log.warn("Card status invalidation ignored: message='{}'", message);
+            return;
+        }
+        if (message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        Arrays.stream(message.substring(separator + 1).split(","))
+                .map(Long::valueOf)
+                .forEach(this::forget);
+    }
+
+    public void reset() {
+        slots = new AtomicLongArray(capacity);
+    }
+
+    // --- Table --- //
+
+    private long lookup(AtomicLongArray table, long cardId) {
+        int start = (int) mix(cardId) & mask;
+        for (int probe = 0; probe < PROBES; probe++) {
+            long slot = table.get((start + probe) & mask);
+            if (slot != 0 && slot >>> STATUS_BITS == cardId) {
+                return slot & STATUS_MASK;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    // A full probe run gives up its first slot; a lost entry only costs the next transfer its locked check
+    private void put(AtomicLongArray table, long cardId, long status) {
+        long entry = cardId << STATUS_BITS | status;
+        int start = (int) mix(cardId) & mask;
+        int free = -1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int index = (start + probe) & mask;
+            long slot = table.get(index);
+            if (slot != 0 && slot >>> STATUS_BITS == cardId) {
+                table.set(index, entry);
+                return;
+            }
+            if (slot == 0 && free < 0) {
+                free = index;
+            }
+        }
+        table.set(free >= 0 ? free : start, entry);
+    }
+
+    // Racing puts may have left the card in more than one slot, so the whole run is cleared
+    private void remove(AtomicLongArray table, long cardId) {
+        int start = (int) mix(cardId) & mask;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int index = (start + probe) & mask;
+            long slot = table.get(index);
+            if (slot != 0 && slot >>> STATUS_BITS == cardId) {
+                table.compareAndSet(index, slot, 0);
+            }
+        }
+    }
+
+    private void forget(long cardId) {
+        generations.incrementAndGet(stripe(cardId));
+        remove(slots, cardId);
+    }
+
+    // --- Invalidation --- //
+
+    private void publish(List<Long> cardIds) {
+        if (!properties.isRedisEnabled()) {
+            return;
+        }
+        String message = nodeId + ":" + cardIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (RuntimeException e) {
+            // Other nodes keep their entries until their next reset
+            log.warn("Failed to publish card status change: cardIds={}, reason={}", cardIds, e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // --- Conversion --- //
+
+    private static long code(CardStatus status) {
+        return status == CardStatus.BLOCKED ? BLOCKED : EXPIRED;
+    }
+
+    private static int stripe(long cardId) {
+        return Long.hashCode(cardId) & (STRIPES - 1);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
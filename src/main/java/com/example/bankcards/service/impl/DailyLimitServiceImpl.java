@@ -0,0 +1,313 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.DailyLimitService;
+import com.example.bankcards.util.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Counters hold minor units (see Money) so INCRBY stays exact; days are UTC days, like history, export and statements
+@Slf4j
+@Service
+public class DailyLimitServiceImpl implements DailyLimitService {
+
+    private static final String CARD_PREFIX = "limit:card:";
+    private static final String USER_PREFIX = "limit:user:";
+    private static final long NO_LIMIT = -1;
+    private static final Duration COUNTER_TTL = Duration.ofDays(2);
+
+    private static final long REJECTED = 0;
+
+    // Adds to both counters only if neither limit is crossed; a missing counter means Redis cannot tell.
+    // Redis answers a table with a list of integers, which the cast below only names
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Long>> RESERVE_SCRIPT = RedisScript.of(
+            "if redis.call('EXISTS', KEYS[1]) == 0 or redis.call('EXISTS', KEYS[2]) == 0 then " +
+                    "  return {-1, 0, 0} " +
+                    "end " +
+                    "local card = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+                    "local user = redis.call('INCRBY', KEYS[2], ARGV[1]) " +
+                    "local cardLimit = tonumber(ARGV[2]) " +
+                    "local userLimit = tonumber(ARGV[3]) " +
+                    "if (cardLimit >= 0 and card > cardLimit) or (userLimit >= 0 and user > userLimit) then " +
+                    "  card = redis.call('DECRBY', KEYS[1], ARGV[1]) " +
+                    "  user = redis.call('DECRBY', KEYS[2], ARGV[1]) " +
+                    "  return {0, card, user} " +
+                    "end " +
+                    "return {1, card, user}",
+            (Class<List<Long>>) (Class<?>) List.class
+    );
+
+    // Lowers only the counters that exist: a missing one is seeded from transfers, which skip a failed transfer
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "for _, key in ipairs(KEYS) do " +
+                    "  if redis.call('EXISTS', key) == 1 then redis.call('DECRBY', key, ARGV[1]) end " +
+                    "end " +
+                    "return 0",
+            Long.class
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final TransferRepository transferRepository;
+    private final TransferProperties.Limits limits;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, Observation> localCounters = new ConcurrentHashMap<>();
+
+    public DailyLimitServiceImpl(
+            StringRedisTemplate redisTemplate,
+            TransferRepository transferRepository,
+            TransferProperties transferProperties
+    ) {
+        this(redisTemplate, transferRepository, transferProperties, Clock.systemUTC());
+    }
+
+    DailyLimitServiceImpl(
+            StringRedisTemplate redisTemplate,
+            TransferRepository transferRepository,
+            TransferProperties transferProperties,
+            Clock clock
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.transferRepository = transferRepository;
+        this.limits = transferProperties.getLimits();
+        this.clock = clock;
+    }
+
+    @Override
+    public Reservation reserve(Card sourceCard, BigDecimal amount) {
+        if (!limits.isEnabled() || (limits.getCardDaily() == null && limits.getUserDaily() == null)) {
+            return Reservation.NONE;
+        }
+
+        LocalDate today = LocalDate.now(clock);
+        Long cardId = sourceCard.getId();
+        Long userId = sourceCard.getOwner().getId();
+        long minor = Money.toMinor(amount);
+        long cardLimit = limitInMinor(limits.getCardDaily());
+        long userLimit = limitInMinor(limits.getUserDaily());
+        String cardKey = CARD_PREFIX + cardId + ":" + today;
+        String userKey = USER_PREFIX + userId + ":" + today;
+
+        // A total seen moments ago that already leaves no room rejects without a round trip. Releases lower the
+        // counters: this node drops its observation when it releases, one on another node is trusted for local-ttl
+        rejectLocally(cardKey, minor, cardLimit, amount, limits.getCardDaily());
+        rejectLocally(userKey, minor, userLimit, amount, limits.getUserDaily());
+
+        List<Long> result;
+        try {
+            result = runReserve(cardKey, userKey, minor, cardLimit, userLimit);
+            if (isMissing(result)) {
+                seedCounter(cardKey, () -> transferRepository.sumOutgoingByCardSince(cardId, startOf(today)));
+                seedCounter(userKey, () -> transferRepository.sumOutgoingByOwnerSince(userId, startOf(today)));
+                result = runReserve(cardKey, userKey, minor, cardLimit, userLimit);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Daily limit counters unavailable, checking against transfers: cardId={}, reason={}",
+                    cardId, e.getMessage());
+            result = null;
+        }
+
+        // Outside the try: a rejection from the counters must not fall through to the weaker database check
+        if (!isMissing(result)) {
+            return applyResult(result, cardKey, userKey, minor, cardLimit, amount);
+        }
+        checkAgainstDatabase(cardId, userId, today, amount);
+        return Reservation.NONE;
+    }
+
+    @Override
+    public void release(Card sourceCard, BigDecimal amount, Instant reservedAt) {
+        if (!limits.isEnabled() || (limits.getCardDaily() == null && limits.getUserDaily() == null)) {
+            return;
+        }
+
+        LocalDate day = LocalDate.ofInstant(reservedAt, clock.getZone());
+        Reservation reservation = new CounterReservation(
+                CARD_PREFIX + sourceCard.getId() + ":" + day,
+                USER_PREFIX + sourceCard.getOwner().getId() + ":" + day,
+                Money.toMinor(amount)
+        );
+        releaseOnCommit(reservation);
+    }
+
+    // --- Redis counters --- //
+
+    private List<Long> runReserve(String cardKey, String userKey, long minor, long cardLimit, long userLimit) {
+        return redisTemplate.execute(
+                RESERVE_SCRIPT,
+                List.of(cardKey, userKey),
+                Long.toString(minor), Long.toString(cardLimit), Long.toString(userLimit)
+        );
+    }
+
+    private boolean isMissing(List<Long> result) {
+        return result == null || result.getFirst() < 0;
+    }
+
+    private Reservation applyResult(
+            List<Long> result, String cardKey, String userKey, long minor, long cardLimit, BigDecimal amount
+    ) {
+        long status = result.get(0);
+        long cardTotal = result.get(1);
+        long userTotal = result.get(2);
+        observe(cardKey, cardTotal);
+        observe(userKey, userTotal);
+
+        if (status == REJECTED) {
+            boolean cardExceeded = cardLimit != NO_LIMIT && cardTotal + minor > cardLimit;
+            throw BusinessException.dailyLimitExceeded(
+                    amount, cardExceeded ? limits.getCardDaily() : limits.getUserDaily()
+            );
+        }
+
+        Reservation reservation = new CounterReservation(cardKey, userKey, minor);
+        releaseOnRollback(reservation);
+        return reservation;
+    }
+
+    // SET NX keeps a counter that another node seeded first; the TTL outlives the day the key is for
+    private void seedCounter(String key, Supplier<BigDecimal> databaseTotal) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            return;
+        }
+        redisTemplate.opsForValue().setIfAbsent(
+                key, Long.toString(Money.toMinor(orZero(databaseTotal.get()))), COUNTER_TTL.toMillis(), TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void releaseOnRollback(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reservation.release();
+                }
+            }
+        });
+    }
+
+    private void releaseOnCommit(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reservation.release();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reservation.release();
+            }
+        });
+    }
+
+    // --- Database authority --- //
+
+    private void checkAgainstDatabase(Long cardId, Long userId, LocalDate today, BigDecimal amount) {
+        Instant since = startOf(today);
+        if (limits.getCardDaily() != null
+                && orZero(transferRepository.sumOutgoingByCardSince(cardId, since)).add(amount)
+                .compareTo(limits.getCardDaily()) > 0) {
+            throw BusinessException.dailyLimitExceeded(amount, limits.getCardDaily());
+        }
+        if (limits.getUserDaily() != null
+                && orZero(transferRepository.sumOutgoingByOwnerSince(userId, since)).add(amount)
+                .compareTo(limits.getUserDaily()) > 0) {
+            throw BusinessException.dailyLimitExceeded(amount, limits.getUserDaily());
+        }
+    }
+
+    // --- Local cache --- //
+
+    private void rejectLocally(String key, long minor, long limitMinor, BigDecimal amount, BigDecimal limit) {
+        if (limitMinor == NO_LIMIT) {
+            return;
+        }
+        if (minor > limitMinor) {
+            throw BusinessException.dailyLimitExceeded(amount, limit);
+        }
+        Observation observation = localCounters.get(key);
+        if (observation != null
+                && clock.millis() - observation.observedAt() < limits.getLocalTtl().toMillis()
+                && observation.total() + minor > limitMinor) {
+            throw BusinessException.dailyLimitExceeded(amount, limit);
+        }
+    }
+
+    private void observe(String key, long total) {
+        if (localCounters.size() >= limits.getLocalMaxEntries()) {
+            localCounters.clear();
+        }
+        localCounters.put(key, new Observation(total, clock.millis()));
+    }
+
+    // --- Conversion --- //
+
+    private Instant startOf(LocalDate day) {
+        return day.atStartOfDay(clock.getZone()).toInstant();
+    }
+
+    private static BigDecimal orZero(BigDecimal total) {
+        return total == null ? BigDecimal.ZERO : total;
+    }
+
+    private static long limitInMinor(BigDecimal limit) {
+        return limit == null
+                ? NO_LIMIT
+                : limit.movePointRight(Money.SCALE).setScale(0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    // --- Inner types --- //
+
+    private record Observation(long total, long observedAt) {
+    }
+
+    private final class CounterReservation implements Reservation {
+        private final String cardKey;
+        private final String userKey;
+        private final long minor;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private CounterReservation(String cardKey, String userKey, long minor) {
+            this.cardKey = cardKey;
+            this.userKey = userKey;
+            this.minor = minor;
+        }
+
+        @Override
+        public void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            localCounters.remove(cardKey);
+            localCounters.remove(userKey);
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(cardKey, userKey), Long.toString(minor));
+            } catch (RuntimeException e) {
+                // The counter stays high until the day rolls over, which only makes the limit stricter
+                log.warn("Failed to release daily limit reservation: cardKey={}, reason={}", cardKey, e.getMessage());
+            }
+        }
+    }
+}
@@ -8,7 +8,9 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -35,4 +37,32 @@ public class KafkaProducerServiceImpl implements KafkaProducerService {
                 })
                 .toCompletableFuture();
     }
+
+    @Async("kafkaExecutor")
+    @Override
+    public CompletableFuture<Void> sendTransferEventsAsync(List<TransferEvent> events) {
+        AtomicInteger failed = new AtomicInteger();
+        CompletableFuture<?>[] sends = events.stream()
+                .map(event -> kafkaTemplate.send(TOPIC, event.transferId().toString(), event)
+                        .exceptionally(ex -> {
+                            failed.incrementAndGet();
+                            log.error("Failed to send transfer event: transferId={}", event.transferId(), ex);
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(sends)
+                .thenRun(() -> log.info("Transfer events sent: total={}, failed={}", events.size(), failed.get()));
+    }
+
+    // Sends are issued back to back so the producer can batch them; the future fails if any send fails
+    @Override
+    public CompletableFuture<Void> sendTransferEvents(List<TransferEvent> events) {
+        CompletableFuture<?>[] sends = events.stream()
+                .map(event -> kafkaTemplate.send(TOPIC, event.transferId().toString(), event))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(sends)
+                .thenRun(() -> log.debug("Transfer events sent: total={}", events.size()));
+    }
 }
@@ -0,0 +1,185 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.LedgerProperties;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.entity.LedgerEntryType;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardBalanceSnapshotRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.service.BalanceShardService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.util.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerServiceImpl implements LedgerService {
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final CardBalanceSnapshotRepository cardBalanceSnapshotRepository;
+    private final CardRepository cardRepository;
+    private final BalanceShardService balanceShardService;
+    private final LedgerProperties ledgerProperties;
+    private final TransactionOperations transactionOperations;
+    @Qualifier("batchExecutor")
+    private final Executor batchExecutor;
+    private final CardCache cardCache;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfer(Transfer transfer) {
+        List<LedgerEntry> entries = toEntries(transfer);
+        lockCards(entries);
+        ledgerEntryRepository.saveAll(entries);
+        balanceShardService.applyDebit(transfer.getSourceCard().getId(), transfer.getAmount());
+        balanceShardService.applyCredit(transfer.getDestinationCard().getId(), transfer.getAmount());
+        cardCache.evictCards(List.of(transfer.getSourceCard().getId(), transfer.getDestinationCard().getId()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfers(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>(transfers.size() * 2);
+        transfers.forEach(transfer -> entries.addAll(toEntries(transfer)));
+        lockCards(entries);
+        ledgerEntryRepository.saveAll(entries);
+
+        // Netted in cents per card; only the final delta of each card is turned back into an amount
+        Map<Long, long[]> deltas = new TreeMap<>();
+        for (LedgerEntry entry : entries) {
+            long[] delta = deltas.computeIfAbsent(entry.getCardId(), cardId -> new long[1]);
+            delta[0] = Money.add(delta[0], Money.toMinor(entry.getAmount()));
+        }
+        deltas.forEach((cardId, delta) -> {
+            if (delta[0] < 0) {
+                balanceShardService.applyDebit(cardId, Money.toDecimal(-delta[0]));
+            } else if (delta[0] > 0) {
+                balanceShardService.applyCredit(cardId, Money.toDecimal(delta[0]));
+            }
+        });
+        cardCache.evictCards(deltas.keySet());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(Long cardId) {
+        BigDecimal balance = getBalances(List.of(cardId)).get(cardId);
+        if (balance == null) {
+            throw ResourceNotFoundException.card(cardId);
+        }
+        return balance;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getBalanceMinor(Long cardId) {
+        return Money.toMinor(getBalance(cardId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getBalances(Collection<Long> cardIds) {
+        if (cardIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return ledgerEntryRepository.findBalances(cardIds).stream()
+                .collect(Collectors.toMap(
+                        LedgerEntryRepository.CardBalance::getCardId,
+                        LedgerEntryRepository.CardBalance::getBalance
+                ));
+    }
+
+    @Override
+    public int takeSnapshots() {
+        long maxCardId = cardRepository.findMaxId();
+        int chunkSize = ledgerProperties.getSnapshot().getChunkSize();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (long from = 1; from <= maxCardId; from += chunkSize) {
+            long fromCardId = from;
+            long toCardId = Math.min(from + chunkSize - 1, maxCardId);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> snapshotChunk(fromCardId, toCardId),
+                    batchExecutor
+            ));
+        }
+
+        int snapshots = futures.stream()
+                .mapToInt(CompletableFuture::join)
+                .sum();
+        log.debug("Balance snapshots taken: chunks={}, snapshots={}", futures.size(), snapshots);
+        return snapshots;
+    }
+
+    // --- Snapshots --- //
+
+    // The lock and the insert are separate statements, so the insert sees every entry committed before the lock
+    private int snapshotChunk(Long fromCardId, Long toCardId) {
+        Integer inserted = transactionOperations.execute(status -> {
+            List<Long> cardIds = cardRepository.lockIdleIdsBetween(fromCardId, toCardId);
+            return cardIds.isEmpty() ? 0 : cardBalanceSnapshotRepository.insertSnapshots(cardIds);
+        });
+        return inserted != null ? inserted : 0;
+    }
+
+    // --- Entries --- //
+
+    // Taken before the entries are stamped, so a snapshot of these cards either waits for them or skips the card
+    private void lockCards(List<LedgerEntry> entries) {
+        Set<Long> debited = new TreeSet<>();
+        Set<Long> credited = new TreeSet<>();
+        for (LedgerEntry entry : entries) {
+            (entry.getEntryType() == LedgerEntryType.DEBIT ? debited : credited).add(entry.getCardId());
+        }
+        credited.removeAll(debited);
+
+        if (!debited.isEmpty()) {
+            cardRepository.incrementLedgerVersions(debited);
+        }
+        if (!credited.isEmpty()) {
+            cardRepository.lockAllByIdInForLedger(credited);
+        }
+    }
+
+    private List<LedgerEntry> toEntries(Transfer transfer) {
+        return List.of(
+                LedgerEntry.builder()
+                        .cardId(transfer.getSourceCard().getId())
+                        .transferId(transfer.getId())
+                        .entryType(LedgerEntryType.DEBIT)
+                        .amount(transfer.getAmount().negate())
+                        .build(),
+                LedgerEntry.builder()
+                        .cardId(transfer.getDestinationCard().getId())
+                        .transferId(transfer.getId())
+                        .entryType(LedgerEntryType.CREDIT)
+                        .amount(transfer.getAmount())
+                        .build()
+        );
+    }
+}
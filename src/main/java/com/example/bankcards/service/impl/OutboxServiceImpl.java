@@ -0,0 +1,132 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.OutboxProperties;
+import com.example.bankcards.entity.OutboxEvent;
+import com.example.bankcards.entity.OutboxEventType;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.event.TransferEvent;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.KafkaProducerService;
+import com.example.bankcards.service.OutboxService;
+import com.example.bankcards.util.CardMaskingUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransferRepository transferRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final OutboxProperties outboxProperties;
+    private final TransactionOperations transactionOperations;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransferCompleted(Transfer transfer) {
+        outboxEventRepository.save(transferCompleted(transfer));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfersCompleted(List<Transfer> transfers) {
+        outboxEventRepository.saveAll(transfers.stream()
+                .map(this::transferCompleted)
+                .toList());
+    }
+
+    @Override
+    public int publishPending() {
+        int batchSize = outboxProperties.getBatchSize();
+        int published = 0;
+        while (true) {
+            Integer batch = transactionOperations.execute(status -> publishBatch(batchSize));
+            int count = batch != null ? batch : 0;
+            published += count;
+            if (count < batchSize) {
+                return published;
+            }
+        }
+    }
+
+    // --- Relay --- //
+
+    // Rows stay locked until Kafka acknowledges the batch; a failed send rolls back and leaves them for the next poll
+    private int publishBatch(int batchSize) {
+        List<OutboxEvent> outboxEvents = outboxEventRepository.lockNextBatch(batchSize);
+        if (outboxEvents.isEmpty()) {
+            return 0;
+        }
+
+        List<TransferEvent> events = toTransferEvents(outboxEvents);
+        if (!events.isEmpty()) {
+            awaitSent(kafkaProducerService.sendTransferEvents(events));
+        }
+        outboxEventRepository.deleteAllInBatch(outboxEvents);
+        return outboxEvents.size();
+    }
+
+    private void awaitSent(CompletableFuture<Void> sent) {
+        try {
+            sent.get(outboxProperties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing outbox events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish outbox events", e);
+        }
+    }
+
+    // --- Events --- //
+
+    private OutboxEvent transferCompleted(Transfer transfer) {
+        return OutboxEvent.builder()
+                .eventType(OutboxEventType.TRANSFER_COMPLETED)
+                .aggregateId(transfer.getId())
+                .build();
+    }
+
+    private List<TransferEvent> toTransferEvents(List<OutboxEvent> outboxEvents) {
+        Map<Long, Transfer> transfers = transferRepository.findAllByIdIn(outboxEvents.stream()
+                        .map(OutboxEvent::getAggregateId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Transfer::getId, Function.identity()));
+
+        List<TransferEvent> events = new ArrayList<>(outboxEvents.size());
+        for (OutboxEvent outboxEvent : outboxEvents) {
+            Transfer transfer = transfers.get(outboxEvent.getAggregateId());
+            if (transfer == null) {
+                log.warn("Skipping outbox event for missing transfer: transferId={}", outboxEvent.getAggregateId());
+                continue;
+            }
+            events.add(new TransferEvent(
+                    transfer.getId(),
+                    transfer.getSourceCard().getOwner().getId(),
+                    transfer.getDestinationCard().getOwner().getId(),
+                    CardMaskingUtil.maskLastFour(transfer.getSourceCard().getCardLast4()),
+                    CardMaskingUtil.maskLastFour(transfer.getDestinationCard().getCardLast4()),
+                    transfer.getAmount(),
+                    transfer.getTimestamp(),
+                    transfer.getStatus().name()
+            ));
+        }
+        return events;
+    }
+}
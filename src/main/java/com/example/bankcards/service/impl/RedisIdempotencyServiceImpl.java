@@ -0,0 +1,61 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.service.RedisIdempotencyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+public class RedisIdempotencyServiceImpl implements RedisIdempotencyService {
+
+    private static final String IDEMPOTENCY_PREFIX = "idempotency:";
+    private static final String PENDING = "PENDING";
+    private static final String SEPARATOR = ":";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public Boolean tryAcquire(Long userId, String idempotencyKey, Long ttlMillis) {
+        return redisTemplate.opsForValue().setIfAbsent(
+                key(userId, idempotencyKey),
+                PENDING,
+                ttlMillis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    // A completed key holds "<transferId>:<requestHash>"; older values hold only the transfer id
+    @Override
+    public CompletedKey getCompleted(Long userId, String idempotencyKey) {
+        String value = redisTemplate.opsForValue().get(key(userId, idempotencyKey));
+        if (value == null || PENDING.equals(value)) {
+            return null;
+        }
+        int separator = value.indexOf(SEPARATOR);
+        return separator < 0
+                ? new CompletedKey(Long.parseLong(value), null)
+                : new CompletedKey(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+    }
+
+    @Override
+    public void complete(Long userId, String idempotencyKey, Long transferId, String requestHash, Long ttlMillis) {
+        redisTemplate.opsForValue().set(
+                key(userId, idempotencyKey),
+                requestHash != null ? transferId + SEPARATOR + requestHash : transferId.toString(),
+                ttlMillis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public void release(Long userId, String idempotencyKey) {
+        redisTemplate.delete(key(userId, idempotencyKey));
+    }
+
+    private String key(Long userId, String idempotencyKey) {
+        return IDEMPOTENCY_PREFIX + userId + ":" + idempotencyKey;
+    }
+}
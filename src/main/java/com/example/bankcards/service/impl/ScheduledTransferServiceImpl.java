@@ -0,0 +1,290 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.schedule.ScheduledTransferRequest;
+import com.example.bankcards.dto.schedule.ScheduledTransferResponse;
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import com.example.bankcards.dto.transfer.BatchItemStatus;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.entity.ScheduledTransfer;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.mapper.ScheduledTransferMapper;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.ScheduledTransferRepository;
+import com.example.bankcards.service.ScheduledTransferService;
+import com.example.bankcards.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class ScheduledTransferServiceImpl implements ScheduledTransferService {
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final CardRepository cardRepository;
+    private final ScheduledTransferMapper scheduledTransferMapper;
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransferProperties.Scheduled scheduledProperties;
+    private final TransactionOperations transactionOperations;
+    private final Executor batchExecutor;
+    private final Counter succeededCounter;
+    private final Counter heldCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final Timer runTimer;
+    // Orders claimed by the current run that have not been executed yet
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public ScheduledTransferServiceImpl(
+            ScheduledTransferRepository scheduledTransferRepository,
+            CardRepository cardRepository,
+            ScheduledTransferMapper scheduledTransferMapper,
+            TransferBatchProcessor transferBatchProcessor,
+            TransferProperties transferProperties,
+            TransactionOperations transactionOperations,
+            @Qualifier("batchExecutor") Executor batchExecutor,
+            MeterRegistry meterRegistry
+    ) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.cardRepository = cardRepository;
+        this.scheduledTransferMapper = scheduledTransferMapper;
+        this.transferBatchProcessor = transferBatchProcessor;
+        this.scheduledProperties = transferProperties.getScheduled();
+        this.transactionOperations = transactionOperations;
+        this.batchExecutor = batchExecutor;
+        this.succeededCounter = outcomeCounter(meterRegistry, "success");
+        this.heldCounter = outcomeCounter(meterRegistry, "held");
+        this.failedCounter = outcomeCounter(meterRegistry, "failed");
+        this.batchTimer = Timer.builder("scheduled.transfers.batch").register(meterRegistry);
+        this.runTimer = Timer.builder("scheduled.transfers.run").register(meterRegistry);
+        Gauge.builder("scheduled.transfers.in.flight", inFlight, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public ScheduledTransferResponse createScheduledTransfer(ScheduledTransferRequest request, Long userId) {
+        validateRequest(request, userId);
+
+        ScheduledTransfer scheduledTransfer = ScheduledTransfer.builder().ownerId(userId).build();
+        apply(scheduledTransfer, request);
+        scheduledTransfer = scheduledTransferRepository.save(scheduledTransfer);
+
+        log.info("Scheduled transfer created: id={}, userId={}, frequency={}, startDate={}",
+                scheduledTransfer.getId(), userId, scheduledTransfer.getFrequency(), scheduledTransfer.getStartDate());
+
+        return scheduledTransferMapper.toResponse(scheduledTransfer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ScheduledTransferResponse getScheduledTransfer(Long userId, Long id) {
+        return scheduledTransferMapper.toResponse(findByOwnerIdAndId(userId, id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ScheduledTransferResponse> getScheduledTransfersForUser(Long userId, Pageable pageable) {
+        return scheduledTransferRepository.findByOwnerId(userId, pageable).map(scheduledTransferMapper::toResponse);
+    }
+
+    @Override
+    @Transactional
+    public ScheduledTransferResponse updateScheduledTransfer(Long userId, Long id, ScheduledTransferRequest request) {
+        ScheduledTransfer scheduledTransfer = findByOwnerIdAndId(userId, id);
+        validateRequest(request, userId);
+
+        apply(scheduledTransfer, request);
+
+        log.info("Scheduled transfer updated: id={}, frequency={}, startDate={}",
+                id, scheduledTransfer.getFrequency(), scheduledTransfer.getStartDate());
+
+        return scheduledTransferMapper.toResponse(scheduledTransfer);
+    }
+
+    @Override
+    @Transactional
+    public void deleteScheduledTransfer(Long userId, Long id) {
+        scheduledTransferRepository.delete(findByOwnerIdAndId(userId, id));
+
+        log.info("Scheduled transfer deleted: id={}", id);
+    }
+
+    /**
+     * Executes every order due on or before {@code today}, claiming them in keyset chunks by id. Each chunk
+     * is advanced to its next run date when claimed, so a crash skips an occurrence instead of paying it twice.
+     */
+    @Override
+    public int runDueTransfers(LocalDate today) {
+        long startedAt = System.nanoTime();
+        long afterId = 0;
+        int processed = 0;
+
+        while (true) {
+            long cursor = afterId;
+            List<DueTransfer> chunk = transactionOperations.execute(status -> claimChunk(today, cursor));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.getLast().id();
+            inFlight.addAndGet(chunk.size());
+
+            executeChunk(chunk);
+            processed += chunk.size();
+
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            log.info("Scheduled transfers progress: processed={}, lastId={}, rate={}/s",
+                    processed, afterId, Math.round(processed / Math.max(seconds, 0.001)));
+        }
+
+        runTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return processed;
+    }
+
+    // --- Execution --- //
+
+    private List<DueTransfer> claimChunk(LocalDate today, long afterId) {
+        List<ScheduledTransfer> orders = scheduledTransferRepository.lockDueChunk(
+                today, afterId, scheduledProperties.getChunkSize()
+        );
+        List<DueTransfer> due = new ArrayList<>(orders.size());
+        for (ScheduledTransfer order : orders) {
+            due.add(new DueTransfer(order.getId(), new TransferBatchProcessor.TransferCommand(
+                    TransferRequest.builder()
+                            .sourceCardId(order.getSourceCardId())
+                            .destinationCardId(order.getDestinationCardId())
+                            .amount(order.getAmount())
+                            .description(order.getDescription())
+                            .build(),
+                    order.getOwnerId()
+            )));
+            order.advancePast(today);
+        }
+        return due;
+    }
+
+    // Slices by source card so each card's orders run in id order on one thread and slices never lock the same card
+    private void executeChunk(List<DueTransfer> chunk) {
+        int partitions = Math.max(1, scheduledProperties.getPartitions());
+        List<List<DueTransfer>> slices = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            slices.add(new ArrayList<>());
+        }
+        for (DueTransfer transfer : chunk) {
+            Long sourceCardId = transfer.command().request().getSourceCardId();
+            slices.get(Math.floorMod(Long.hashCode(sourceCardId), partitions)).add(transfer);
+        }
+
+        List<CompletableFuture<Void>> futures = slices.stream()
+                .filter(slice -> !slice.isEmpty())
+                .map(slice -> CompletableFuture.runAsync(() -> executeSlice(slice), batchExecutor))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void executeSlice(List<DueTransfer> slice) {
+        int batchSize = Math.max(1, scheduledProperties.getBatchSize());
+        for (int from = 0; from < slice.size(); from += batchSize) {
+            List<DueTransfer> batch = slice.subList(from, Math.min(from + batchSize, slice.size()));
+            batchTimer.record(() -> executeBatch(batch));
+            inFlight.addAndGet(-batch.size());
+        }
+    }
+
+    private void executeBatch(List<DueTransfer> batch) {
+        List<TransferBatchProcessor.TransferOutcome> outcomes;
+        try {
+            outcomes = transferBatchProcessor.process(
+                    batch.stream().map(DueTransfer::command).toList(), BatchFailureMode.PARTIAL
+            );
+        } catch (RuntimeException e) {
+            log.error("Scheduled transfer batch failed: firstId={}, size={}", batch.getFirst().id(), batch.size(), e);
+            outcomes = batch.stream().map(transfer -> TransferBatchProcessor.TransferOutcome.failure(e)).toList();
+        }
+
+        List<TransferBatchProcessor.TransferOutcome> results = outcomes;
+        transactionOperations.executeWithoutResult(status -> {
+            for (int i = 0; i < batch.size(); i++) {
+                TransferBatchProcessor.TransferOutcome outcome = results.get(i);
+                if (outcome.response() != null) {
+                    scheduledTransferRepository.recordRun(batch.get(i).id(), outcome.response().getId(), null);
+                    (outcome.status() == BatchItemStatus.HELD ? heldCounter : succeededCounter).increment();
+                } else {
+                    String reason = outcome.error() != null ? outcome.error().getMessage() : null;
+                    scheduledTransferRepository.recordRun(batch.get(i).id(), null, truncate(reason));
+                    failedCounter.increment();
+                }
+            }
+        });
+    }
+
+    // --- Validation --- //
+
+    private void validateRequest(ScheduledTransferRequest request, Long userId) {
+        if (request.getAmount().signum() <= 0 || !Money.hasValidScale(request.getAmount())) {
+            throw BusinessException.invalidTransferAmount();
+        }
+        if (request.getSourceCardId().equals(request.getDestinationCardId())) {
+            throw BusinessException.sameCardTransfer();
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(request.getStartDate())) {
+            throw BusinessException.invalidDateRange(request.getStartDate(), request.getEndDate());
+        }
+        if (cardRepository.findByOwnerIdAndId(userId, request.getSourceCardId()).isEmpty()) {
+            throw ResourceNotFoundException.card(request.getSourceCardId());
+        }
+        if (!cardRepository.existsById(request.getDestinationCardId())) {
+            throw ResourceNotFoundException.card(request.getDestinationCardId());
+        }
+    }
+
+    private void apply(ScheduledTransfer scheduledTransfer, ScheduledTransferRequest request) {
+        scheduledTransfer.setSourceCardId(request.getSourceCardId());
+        scheduledTransfer.setDestinationCardId(request.getDestinationCardId());
+        scheduledTransfer.setAmount(request.getAmount());
+        scheduledTransfer.setDescription(request.getDescription());
+        scheduledTransfer.setFrequency(request.getFrequency());
+        scheduledTransfer.setStartDate(request.getStartDate());
+        scheduledTransfer.setEndDate(request.getEndDate());
+        scheduledTransfer.restart();
+    }
+
+    // --- Lookup --- //
+
+    private ScheduledTransfer findByOwnerIdAndId(Long userId, Long id) {
+        return scheduledTransferRepository.findByOwnerIdAndId(userId, id)
+                .orElseThrow(() -> ResourceNotFoundException.scheduledTransfer(id));
+    }
+
+    private static String truncate(String reason) {
+        return reason != null && reason.length() > 255 ? reason.substring(0, 255) : reason;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("scheduled.transfers.executed")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // --- Inner types --- //
+
+    private record DueTransfer(Long id, TransferBatchProcessor.TransferCommand command) {
+    }
+}
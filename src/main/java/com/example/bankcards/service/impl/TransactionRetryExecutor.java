@@ -0,0 +1,110 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class TransactionRetryExecutor {
+
+    private static final String METRIC_RETRIES = "bank.transaction.retries";
+    private static final String METRIC_EXHAUSTED = "bank.transaction.retries.exhausted";
+
+    private static final String REASON_VERSION_CONFLICT = "version_conflict";
+
+    private static final Map<String, String> RETRYABLE_SQL_STATES = Map.of(
+            "40001", "serialization_failure",
+            "40P01", "deadlock_detected"
+    );
+
+    private final TransactionOperations transactionOperations;
+    private final TransferProperties.Retry retryProperties;
+    private final MeterRegistry meterRegistry;
+
+    public TransactionRetryExecutor(
+            TransactionOperations transactionOperations,
+            TransferProperties transferProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.transactionOperations = transactionOperations;
+        this.retryProperties = transferProperties.getRetry();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        int maxAttempts = Math.max(1, retryProperties.getMaxAttempts());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> action.get());
+            } catch (RuntimeException e) {
+                String reason = resolveRetryReason(e);
+                if (reason == null) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    counter(METRIC_EXHAUSTED, operation, reason).increment();
+                    log.warn("Giving up {} after {} attempts: reason={}", operation, attempt, reason);
+                    throw e;
+                }
+
+                counter(METRIC_RETRIES, operation, reason).increment();
+                log.debug("Retrying {}: attempt={}, reason={}", operation, attempt, reason);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    // --- Classification --- //
+
+    private String resolveRetryReason(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            // A guarded write that matched no row because the version it read has moved; a new attempt reads again
+            if (cause instanceof OptimisticLockingFailureException) {
+                return REASON_VERSION_CONFLICT;
+            }
+            if (cause instanceof SQLException sqlException) {
+                String reason = RETRYABLE_SQL_STATES.get(sqlException.getSQLState());
+                if (reason != null) {
+                    return reason;
+                }
+            }
+        }
+        return null;
+    }
+
+    // --- Backoff --- //
+
+    private void backoff(int attempt, RuntimeException failure) {
+        long ceiling = Math.min(
+                retryProperties.getMaxBackoff().toMillis(),
+                retryProperties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 16)
+        );
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+
+        try {
+            Thread.sleep(Duration.ofMillis(delay));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    private Counter counter(String name, String operation, String reason) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
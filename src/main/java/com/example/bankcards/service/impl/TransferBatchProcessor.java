@@ -0,0 +1,252 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import com.example.bankcards.dto.transfer.BatchItemStatus;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.dto.transfer.TransferResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.TransferStatus;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.mapper.TransferMapper;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.DailyLimitService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.OutboxService;
+import com.example.bankcards.util.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.example.bankcards.service.impl.TransferValidator.validateCardForTransfer;
+import static com.example.bankcards.service.impl.TransferValidator.validateCardOwnership;
+import static com.example.bankcards.service.impl.TransferValidator.validateSufficientFunds;
+import static com.example.bankcards.service.impl.TransferValidator.validateTransferRequest;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferBatchProcessor {
+    private final TransferRepository transferRepository;
+    private final CardRepository cardRepository;
+    private final TransferMapper transferMapper;
+    private final TransactionRetryExecutor transactionRetryExecutor;
+    private final LedgerService ledgerService;
+    private final OutboxService outboxService;
+    private final DailyLimitService dailyLimitService;
+    private final TransferVelocityEngine transferVelocityEngine;
+
+    public List<TransferOutcome> process(List<TransferCommand> commands, BatchFailureMode failureMode) {
+        // Outside the transaction: no card is locked yet, and a retried batch does not count its commands twice
+        List<TransferVelocityEngine.Verdict> verdicts = checkVelocity(commands);
+        BatchPlan plan = transactionRetryExecutor.execute(
+                "batch-transfer", () -> applyBatch(commands, verdicts, failureMode)
+        );
+
+        long applied = plan.transfers.stream()
+                .filter(Objects::nonNull)
+                .count();
+
+        log.info("Batch transfer completed: total={}, applied={}, failureMode={}",
+                commands.size(), applied, failureMode);
+
+        List<TransferOutcome> outcomes = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            Transfer transfer = plan.transfers.get(i);
+            RuntimeException error = plan.errors.get(i);
+            if (transfer != null && transfer.getStatus() == TransferStatus.HELD) {
+                outcomes.add(TransferOutcome.held(transferMapper.toResponse(transfer)));
+            } else if (transfer != null) {
+                outcomes.add(TransferOutcome.success(transferMapper.toResponse(transfer)));
+            } else if (error != null) {
+                outcomes.add(TransferOutcome.failure(error));
+            } else {
+                outcomes.add(TransferOutcome.skipped());
+            }
+        }
+        return outcomes;
+    }
+
+    // --- Inner types --- //
+
+    public record TransferCommand(TransferRequest request, Long userId) {
+    }
+
+    public record TransferOutcome(BatchItemStatus status, TransferResponse response, RuntimeException error) {
+
+        static TransferOutcome success(TransferResponse response) {
+            return new TransferOutcome(BatchItemStatus.SUCCESS, response, null);
+        }
+
+        static TransferOutcome held(TransferResponse response) {
+            return new TransferOutcome(BatchItemStatus.HELD, response, null);
+        }
+
+        static TransferOutcome failure(RuntimeException error) {
+            return new TransferOutcome(BatchItemStatus.FAILED, null, error);
+        }
+
+        static TransferOutcome skipped() {
+            return new TransferOutcome(BatchItemStatus.SKIPPED, null, null);
+        }
+    }
+
+    private record BatchPlan(List<Transfer> transfers, List<RuntimeException> errors) {
+    }
+
+    // --- Batch execution --- //
+
+    private List<TransferVelocityEngine.Verdict> checkVelocity(List<TransferCommand> commands) {
+        List<TransferVelocityEngine.Verdict> verdicts = new ArrayList<>(commands.size());
+        for (TransferCommand command : commands) {
+            TransferRequest request = command.request();
+            verdicts.add(transferVelocityEngine.check(
+                    command.userId(), request.getSourceCardId(), request.getDestinationCardId()
+            ));
+        }
+        return verdicts;
+    }
+
+    private BatchPlan applyBatch(
+            List<TransferCommand> commands, List<TransferVelocityEngine.Verdict> verdicts, BatchFailureMode failureMode
+    ) {
+        Map<Long, Card> cards = loadCards(commands);
+        Map<Long, long[]> balances = runningBalances(ledgerService.getBalances(sourceCardIds(commands)));
+        List<Transfer> transfers = new ArrayList<>(commands.size());
+        List<RuntimeException> errors = new ArrayList<>(commands.size());
+        List<DailyLimitService.Reservation> reservations = new ArrayList<>(commands.size());
+        Instant now = Instant.now();
+
+        for (int i = 0; i < commands.size(); i++) {
+            try {
+                transfers.add(planTransfer(commands.get(i), verdicts.get(i), cards, balances, reservations, now));
+                errors.add(null);
+            } catch (BusinessException | ResourceNotFoundException e) {
+                transfers.add(null);
+                errors.add(e);
+            }
+        }
+
+        if (failureMode == BatchFailureMode.ALL_OR_NOTHING && errors.stream().anyMatch(Objects::nonNull)) {
+            // Nothing is written, so the transaction commits and the limit counters have to be handed back here
+            reservations.forEach(DailyLimitService.Reservation::release);
+            return new BatchPlan(Collections.nCopies(commands.size(), null), errors);
+        }
+
+        List<Transfer> saved = transferRepository.saveAll(transfers.stream().filter(Objects::nonNull).toList());
+        List<Transfer> applied = saved.stream()
+                .filter(transfer -> transfer.getStatus() == TransferStatus.SUCCESS)
+                .toList();
+        ledgerService.recordTransfers(applied);
+        outboxService.recordTransfersCompleted(applied);
+
+        return new BatchPlan(transfers, errors);
+    }
+
+    private Map<Long, Card> loadCards(List<TransferCommand> commands) {
+        Map<Long, Card> cards = new HashMap<>();
+        cardRepository.findAllByIdInForUpdate(sourceCardIds(commands))
+                .forEach(card -> cards.put(card.getId(), card));
+
+        Set<Long> destinationIds = new HashSet<>();
+        for (TransferCommand command : commands) {
+            destinationIds.add(command.request().getDestinationCardId());
+        }
+        destinationIds.removeAll(cards.keySet());
+        if (!destinationIds.isEmpty()) {
+            cardRepository.findAllById(destinationIds).forEach(card -> cards.put(card.getId(), card));
+        }
+        return cards;
+    }
+
+    private TreeSet<Long> sourceCardIds(List<TransferCommand> commands) {
+        TreeSet<Long> sourceIds = new TreeSet<>();
+        for (TransferCommand command : commands) {
+            sourceIds.add(command.request().getSourceCardId());
+        }
+        return sourceIds;
+    }
+
+    // A held command is checked and counted against the daily limits like an accepted transfer, but moves no money
+    private Transfer planTransfer(
+            TransferCommand command,
+            TransferVelocityEngine.Verdict verdict,
+            Map<Long, Card> cards,
+            Map<Long, long[]> balances,
+            List<DailyLimitService.Reservation> reservations,
+            Instant now
+    ) {
+        TransferRequest request = command.request();
+        validateTransferRequest(request);
+        if (verdict == TransferVelocityEngine.Verdict.REJECT) {
+            throw BusinessException.velocityExceeded(request.getSourceCardId());
+        }
+
+        Card source = requireCard(cards, request.getSourceCardId());
+        Card destination = requireCard(cards, request.getDestinationCardId());
+        validateCardOwnership(source, command.userId());
+        validateCardForTransfer(source);
+        validateCardForTransfer(destination);
+
+        BigDecimal amount = request.getAmount();
+        if (verdict == TransferVelocityEngine.Verdict.HOLD) {
+            reservations.add(dailyLimitService.reserve(source, amount));
+            return buildTransfer(request, source, destination, TransferStatus.HELD, now);
+        }
+
+        long amountMinor = Money.toMinor(amount);
+        long[] available = balances.get(source.getId());
+        validateSufficientFunds(available[0], amountMinor);
+        reservations.add(dailyLimitService.reserve(source, amount));
+
+        available[0] = Money.subtract(available[0], amountMinor);
+        long[] destinationBalance = balances.get(destination.getId());
+        if (destinationBalance != null) {
+            destinationBalance[0] = Money.add(destinationBalance[0], amountMinor);
+        }
+
+        return buildTransfer(request, source, destination, TransferStatus.SUCCESS, now);
+    }
+
+    private Transfer buildTransfer(
+            TransferRequest request, Card source, Card destination, TransferStatus status, Instant now
+    ) {
+        return Transfer.builder()
+                .sourceCard(source)
+                .destinationCard(destination)
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .status(status)
+                .timestamp(now)
+                .build();
+    }
+
+    // Balances of the source cards in cents, updated in place as the batch is planned
+    private Map<Long, long[]> runningBalances(Map<Long, BigDecimal> balances) {
+        Map<Long, long[]> running = new HashMap<>(balances.size() * 2);
+        balances.forEach((cardId, balance) -> running.put(cardId, new long[]{Money.toMinor(balance)}));
+        return running;
+    }
+
+    private Card requireCard(Map<Long, Card> cards, Long cardId) {
+        Card card = cards.get(cardId);
+        if (card == null) {
+            throw ResourceNotFoundException.card(cardId);
+        }
+        return card;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Keyset position (timestamp, id) of the last transfer or ledger entry a client has seen
+record TransferCursor(Instant timestamp, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    static TransferCursor of(Transfer transfer) {
+        return new TransferCursor(transfer.getTimestamp(), transfer.getId());
+    }
+
+    static TransferCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new TransferCursor(
+                    Instant.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw BusinessException.invalidCursor(cursor);
+        }
+    }
+
+    String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.ExportFormat;
+import com.example.bankcards.util.CardMaskingUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class TransferExporter {
+
+    private static final String CSV_HEADER = "id,timestamp,source_card,destination_card,amount,status,description,failure_reason";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final TransferProperties.Export exportProperties;
+
+    public TransferExporter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            TransferProperties transferProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        // PostgreSQL only honours the fetch size with auto-commit off, so the cursor lives in a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.exportProperties = transferProperties.getExport();
+    }
+
+    /**
+     * Streams the user's transfers in [from, to), newest first, without materialising entities.
+     * Either bound may be null. Returns the number of rows written.
+     */
+    public long export(Long userId, Instant from, Instant to, ExportFormat format, OutputStream outputStream) {
+        ExportQuery query = ExportQuery.of(userId, from, to);
+        long rows;
+        try (RowWriter writer = rowWriter(format, outputStream)) {
+            RowHandler handler = new RowHandler(writer);
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(statement(query), handler));
+            rows = handler.rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Transfer history exported: userId={}, format={}, rows={}", userId, format, rows);
+        return rows;
+    }
+
+    // --- Query --- //
+
+    private PreparedStatementCreator statement(ExportQuery query) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    query.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+            );
+            statement.setFetchSize(exportProperties.getFetchSize());
+            for (int i = 0; i < query.parameters().size(); i++) {
+                statement.setObject(i + 1, query.parameters().get(i));
+            }
+            return statement;
+        };
+    }
+
+    // Same two-branch shape as the keyset history query so each branch stays a range scan on its owner index
+    private record ExportQuery(String sql, List<Object> parameters) {
+
+        static ExportQuery of(Long userId, Instant from, Instant to) {
+            List<Object> parameters = new ArrayList<>();
+            String sourceBranch = branch("t.source_owner_id = ?", 1, userId, from, to, parameters);
+            String destinationBranch = branch(
+                    "t.destination_owner_id = ? AND t.source_owner_id <> ?", 2, userId, from, to, parameters
+            );
+
+            String sql = "SELECT t.id, t.timestamp, sc.card_last4 AS source_last4, dc.card_last4 AS destination_last4, " +
+                    "t.amount, t.status, t.description, t.failure_reason FROM (" +
+                    sourceBranch + " UNION ALL " + destinationBranch +
+                    ") t " +
+                    "JOIN cards sc ON sc.id = t.source_card_id " +
+                    "JOIN cards dc ON dc.id = t.destination_card_id " +
+                    "ORDER BY t.timestamp DESC, t.id DESC";
+            return new ExportQuery(sql, parameters);
+        }
+
+        private static String branch(
+                String ownerFilter, int ownerPlaceholders, Long userId, Instant from, Instant to, List<Object> parameters
+        ) {
+            StringBuilder sql = new StringBuilder("SELECT * FROM transfers t WHERE ").append(ownerFilter);
+            for (int i = 0; i < ownerPlaceholders; i++) {
+                parameters.add(userId);
+            }
+            if (from != null) {
+                sql.append(" AND t.timestamp >= ?");
+                parameters.add(Timestamp.from(from));
+            }
+            if (to != null) {
+                sql.append(" AND t.timestamp < ?");
+                parameters.add(Timestamp.from(to));
+            }
+            return sql.toString();
+        }
+    }
+
+    // --- Row mapping --- //
+
+    private static final class RowHandler implements RowCallbackHandler {
+        private final RowWriter writer;
+        private long rows;
+
+        private RowHandler(RowWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            ExportRow row = new ExportRow(
+                    rs.getLong("id"),
+                    rs.getTimestamp("timestamp").toInstant(),
+                    CardMaskingUtil.maskLastFour(rs.getString("source_last4")),
+                    CardMaskingUtil.maskLastFour(rs.getString("destination_last4")),
+                    rs.getBigDecimal("amount"),
+                    rs.getString("status"),
+                    rs.getString("description"),
+                    rs.getString("failure_reason")
+            );
+            try {
+                writer.write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+    }
+
+    private record ExportRow(
+            long id,
+            Instant timestamp,
+            String sourceCardMasked,
+            String destinationCardMasked,
+            BigDecimal amount,
+            String status,
+            String description,
+            String failureReason
+    ) {
+    }
+
+    // --- Writers --- //
+
+    private RowWriter rowWriter(ExportFormat format, OutputStream outputStream) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvRowWriter(outputStream);
+            case NDJSON -> new NdjsonRowWriter(objectMapper, outputStream);
+        };
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(ExportRow row) throws IOException;
+
+        // Flushes buffered rows but leaves the response stream open for the caller
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream outputStream) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writer.write(row.timestamp().toString());
+            writer.write(',');
+            writer.write(escape(row.sourceCardMasked()));
+            writer.write(',');
+            writer.write(escape(row.destinationCardMasked()));
+            writer.write(',');
+            writer.write(row.amount().toPlainString());
+            writer.write(',');
+            writer.write(row.status());
+            writer.write(',');
+            writer.write(escape(row.description()));
+            writer.write(',');
+            writer.write(escape(row.failureReason()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.id());
+            generator.writeStringField("timestamp", row.timestamp().toString());
+            generator.writeStringField("sourceCardMasked", row.sourceCardMasked());
+            generator.writeStringField("destinationCardMasked", row.destinationCardMasked());
+            generator.writeNumberField("amount", row.amount());
+            generator.writeStringField("status", row.status());
+            generator.writeStringField("description", row.description());
+            generator.writeStringField("failureReason", row.failureReason());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferGroupCommitter {
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransferProperties transferProperties;
+    @Qualifier("transferCommitExecutor")
+    private final Executor transferCommitExecutor;
+
+    private final BlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>();
+    private volatile Thread dispatcher;
+
+    public CompletableFuture<TransferBatchProcessor.TransferOutcome> submit(
+            TransferBatchProcessor.TransferCommand command
+    ) {
+        PendingTransfer pending = new PendingTransfer(command, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.outcome;
+    }
+
+    @PostConstruct
+    void start() {
+        Thread thread = Thread.ofPlatform()
+                .name("transfer-group-commit")
+                .daemon()
+                .unstarted(this::dispatch);
+        // Publish before starting, otherwise the loop may observe null and exit immediately
+        dispatcher = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        Thread thread = dispatcher;
+        dispatcher = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+
+        List<PendingTransfer> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.outcome.completeExceptionally(
+                new IllegalStateException("Transfer group committer is shutting down")
+        ));
+    }
+
+    // --- Inner types --- //
+
+    private record PendingTransfer(
+            TransferBatchProcessor.TransferCommand command,
+            CompletableFuture<TransferBatchProcessor.TransferOutcome> outcome
+    ) {
+    }
+
+    // --- Dispatching --- //
+
+    private void dispatch() {
+        while (dispatcher != null) {
+            try {
+                List<PendingTransfer> group = collectGroup();
+                transferCommitExecutor.execute(() -> commit(group));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Transfer group dispatch failed", e);
+            }
+        }
+    }
+
+    private List<PendingTransfer> collectGroup() throws InterruptedException {
+        TransferProperties.GroupCommit groupCommit = transferProperties.getGroupCommit();
+        int maxBatchSize = groupCommit.getMaxBatchSize();
+
+        List<PendingTransfer> group = new ArrayList<>(maxBatchSize);
+        group.add(queue.take());
+        long deadline = System.nanoTime() + groupCommit.getMaxDelay().toNanos();
+
+        while (group.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingTransfer next;
+            try {
+                next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (next == null) {
+                queue.drainTo(group, maxBatchSize - group.size());
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+
+    // --- Commit --- //
+
+    private void commit(List<PendingTransfer> group) {
+        List<TransferBatchProcessor.TransferOutcome> outcomes;
+        try {
+            outcomes = transferBatchProcessor.process(
+                    group.stream().map(PendingTransfer::command).toList(),
+                    BatchFailureMode.PARTIAL
+            );
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).outcome.completeExceptionally(e);
+                return;
+            }
+            // Business failures are already isolated per item, so anything else is retried alone
+            log.warn("Transfer group of {} failed, committing items one by one", group.size(), e);
+            group.forEach(pending -> commit(List.of(pending)));
+            return;
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).outcome.complete(outcomes.get(i));
+        }
+        log.debug("Transfer group committed: size={}", group.size());
+    }
+}
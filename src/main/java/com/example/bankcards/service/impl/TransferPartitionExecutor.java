@@ -0,0 +1,54 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferPartitionExecutor {
+    private final TransferProperties transferProperties;
+
+    private final List<ThreadPoolExecutor> partitions = new ArrayList<>();
+
+    // Tasks for the same source card always run on the same single-threaded partition, in submission order
+    public boolean execute(Long sourceCardId, Runnable task) {
+        ThreadPoolExecutor partition = partitions.get(Math.floorMod(Long.hashCode(sourceCardId), partitions.size()));
+        try {
+            partition.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Transfer partition is full, leaving task for recovery: sourceCardId={}", sourceCardId);
+            return false;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        TransferProperties.Async async = transferProperties.getAsync();
+        for (int i = 0; i < async.getPartitions(); i++) {
+            partitions.add(new ThreadPoolExecutor(
+                    1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(async.getQueueCapacity()),
+                    new CustomizableThreadFactory("transfer-partition-" + i + "-")
+            ));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        partitions.forEach(ThreadPoolExecutor::shutdown);
+    }
+}
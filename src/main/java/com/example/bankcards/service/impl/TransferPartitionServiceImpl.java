@@ -0,0 +1,306 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.entity.TransferStatsWatermark;
+import com.example.bankcards.repository.TransferStatsWatermarkRepository;
+import com.example.bankcards.service.TransferPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of {@code transfers}: creates the coming months ahead of time and moves months
+ * past the retention period out of the database into gzipped CSV files, one per month.
+ */
+@Slf4j
+@Service
+public class TransferPartitionServiceImpl implements TransferPartitionService {
+
+    private static final String PARTITION_PREFIX = "transfers_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    // Names are built from this pattern only, so they are safe to put into DDL
+    private static final Pattern PARTITION_NAME = Pattern.compile("transfers_p\\d{4}_\\d{2}");
+
+    private static final String PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'transfers'::regclass AND i.inhdetachpending = ?";
+
+    // Month tables no longer attached to transfers: detached by this job but not yet archived
+    private static final String DETACHED_SQL = "SELECT c.relname FROM pg_class c " +
+            "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+            "WHERE n.nspname = current_schema() AND c.relkind = 'r' AND NOT c.relispartition " +
+            "AND c.relname ~ '^transfers_p[0-9]{4}_[0-9]{2}$' ORDER BY c.relname";
+
+    // Held by the node running maintenance, so no two nodes race on the DDL, the archive files or the drops
+    private static final long MAINTENANCE_LOCK = 0x7472616e73666572L;
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    private static final String CSV_HEADER = "id,source_card_id,destination_card_id,source_owner_id," +
+            "destination_owner_id,amount,timestamp,status,description,failure_reason";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferStatsWatermarkRepository transferStatsWatermarkRepository;
+    private final TransactionTemplate cursorTransaction;
+    private final TransferProperties.Partitioning partitioning;
+
+    public TransferPartitionServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            TransferStatsWatermarkRepository transferStatsWatermarkRepository,
+            PlatformTransactionManager transactionManager,
+            TransferProperties transferProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transferStatsWatermarkRepository = transferStatsWatermarkRepository;
+        // PostgreSQL only honours the fetch size with auto-commit off, so the cursor lives in a transaction.
+        // Not a read-only one: that would go to the replica, which may replay the drop while the file is written
+        this.cursorTransaction = new TransactionTemplate(transactionManager);
+        this.partitioning = transferProperties.getPartitioning();
+    }
+
+    @Override
+    public int createUpcomingPartitions(LocalDate today) {
+        return exclusively("create", () -> createPartitions(today));
+    }
+
+    /**
+     * Detaches every month older than the retention period whose transfers are already folded into the daily
+     * stats, writes it to the archive directory and drops it. Months detached by an earlier run that failed
+     * before dropping them are archived as well.
+     */
+    @Override
+    public int archiveExpiredPartitions(LocalDate today) {
+        if (!partitioning.isArchiveEnabled()) {
+            return 0;
+        }
+        return exclusively("archive", () -> archivePartitions(today));
+    }
+
+    // Bounds are timestamps like the transfers' own, local to the JVM time zone the driver gives the session
+    @Override
+    public Optional<Instant> findAttachedSince() {
+        return partitions(false).stream()
+                .findFirst()
+                .map(partition -> partitionMonth(partition).atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    // --- Maintenance --- //
+
+    private int createPartitions(LocalDate today) {
+        List<String> attached = partitions(false);
+        YearMonth current = YearMonth.from(today);
+        int created = 0;
+
+        for (int ahead = 0; ahead <= partitioning.getMonthsAhead(); ahead++) {
+            YearMonth month = current.plusMonths(ahead);
+            String partition = partitionName(month);
+            if (attached.contains(partition)) {
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF transfers " +
+                    "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            created++;
+            log.info("Transfer partition created: partition={}", partition);
+        }
+        return created;
+    }
+
+    private int archivePartitions(LocalDate today) {
+        // A detach interrupted half way leaves the partition pending; finishing it is all that is left to do
+        for (String partition : partitions(true)) {
+            jdbcTemplate.execute("ALTER TABLE transfers DETACH PARTITION " + partition + " FINALIZE");
+        }
+
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(partitioning.getRetentionMonths());
+        long statsXid = transferStatsWatermarkRepository.findById(TransferStatsWatermark.ID)
+                .map(TransferStatsWatermark::getProcessedXid)
+                .orElse(0L);
+        for (String partition : partitions(false)) {
+            YearMonth month = partitionMonth(partition);
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE stats_xid >= ?)", Boolean.class, statsXid))) {
+                log.warn("Transfer partition kept until its stats are folded: partition={}, statsXid={}",
+                        partition, statsXid);
+                continue;
+            }
+            // Runs outside a transaction; CONCURRENTLY lets inserts and history reads go on during the detach
+            jdbcTemplate.execute("ALTER TABLE transfers DETACH PARTITION " + partition + " CONCURRENTLY");
+            log.info("Transfer partition detached: partition={}", partition);
+        }
+
+        int archived = 0;
+        for (String table : jdbcTemplate.queryForList(DETACHED_SQL, String.class)) {
+            Path file = archive(table);
+            jdbcTemplate.execute("DROP TABLE " + table);
+            archived++;
+            log.info("Transfer partition archived: partition={}, file={}", table, file);
+        }
+        return archived;
+    }
+
+    // The lock lives in a transaction on a connection of its own: the maintenance itself has to run outside any
+    // transaction for DETACH CONCURRENTLY, and a rollback releases the lock however the run ends
+    private int exclusively(String task, IntSupplier maintenance) {
+        Integer result = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (!tryLock(connection)) {
+                    log.info("Transfer partition maintenance skipped, another node is running it: task={}", task);
+                    return 0;
+                }
+                return maintenance.getAsInt();
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        return result != null ? result : 0;
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK_SQL)) {
+            statement.setLong(1, MAINTENANCE_LOCK);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    // --- Archive --- //
+
+    // Written under a temporary name and moved into place, so a file with the final name is always complete
+    private Path archive(String table) {
+        Path directory = partitioning.getArchiveDirectory();
+        Path file = directory.resolve(table + ".csv.gz");
+        Path temporary = directory.resolve(table + ".csv.gz.tmp");
+        try {
+            Files.createDirectories(directory);
+            long rows;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8
+            ))) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                ArchiveRowHandler handler = new ArchiveRowHandler(writer);
+                cursorTransaction.executeWithoutResult(status -> jdbcTemplate.query(statement(table), handler));
+                rows = handler.rows;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Transfer partition written: partition={}, rows={}", table, rows);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private PreparedStatementCreator statement(String table) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, source_card_id, destination_card_id, source_owner_id, destination_owner_id, " +
+                            "amount, timestamp, status, description, failure_reason FROM " + table,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+            );
+            statement.setFetchSize(partitioning.getFetchSize());
+            return statement;
+        };
+    }
+
+    // --- Partitions --- //
+
+    private List<String> partitions(boolean detachPending) {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, detachPending).stream()
+                .filter(name -> PARTITION_NAME.matcher(name).matches())
+                .sorted()
+                .toList();
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static YearMonth partitionMonth(String partition) {
+        return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+    }
+
+    // --- Inner types --- //
+
+    private static final class ArchiveRowHandler implements RowCallbackHandler {
+        private final Writer writer;
+        private long rows;
+
+        private ArchiveRowHandler(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                writer.write(Long.toString(rs.getLong("id")));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong("source_card_id")));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong("destination_card_id")));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong("source_owner_id")));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong("destination_owner_id")));
+                writer.write(',');
+                writer.write(rs.getBigDecimal("amount").toPlainString());
+                writer.write(',');
+                writer.write(rs.getTimestamp("timestamp").toInstant().toString());
+                writer.write(',');
+                writer.write(rs.getString("status"));
+                writer.write(',');
+                writer.write(escape(rs.getString("description")));
+                writer.write(',');
+                writer.write(escape(rs.getString("failure_reason")));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.util.Money;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+
+// Fingerprint stored with an Idempotency-Key, so a key reused for a different transfer is refused, not replayed
+final class TransferRequestHash {
+
+    private static final String SEPARATOR = "|";
+
+    private TransferRequestHash() {
+    }
+
+    // The amount goes in as minor units, so 10.5 and 10.50 are the same request
+    static String of(TransferRequest request) {
+        String canonical = request.getSourceCardId() + SEPARATOR
+                + request.getDestinationCardId() + SEPARATOR
+                + Money.toMinor(request.getAmount()) + SEPARATOR
+                + Objects.toString(request.getDescription(), "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Keys recorded before hashes were stored carry none and are replayed as before
+    static boolean matches(String recorded, String requestHash) {
+        return recorded == null || recorded.equals(requestHash);
+    }
+}
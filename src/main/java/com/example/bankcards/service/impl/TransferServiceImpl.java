@@ -1,48 +1,87 @@
 package com.example.bankcards.service.impl;
 
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import com.example.bankcards.dto.transfer.BatchItemStatus;
+import com.example.bankcards.dto.transfer.BatchTransferItemResult;
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.transfer.ExportFormat;
+import com.example.bankcards.dto.transfer.TransferCursorPage;
 import com.example.bankcards.dto.transfer.TransferRequest;
 import com.example.bankcards.dto.transfer.TransferResponse;
 import com.example.bankcards.entity.Card;
-import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.IdempotencyKey;
 import com.example.bankcards.entity.Transfer;
 import com.example.bankcards.entity.TransferStatus;
-import com.example.bankcards.event.TransferEvent;
 import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceExistsException;
 import com.example.bankcards.exception.ResourceNotFoundException;
 import com.example.bankcards.mapper.TransferMapper;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
 import com.example.bankcards.repository.TransferRepository;
-import com.example.bankcards.service.KafkaProducerService;
+import com.example.bankcards.service.DailyLimitService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.OutboxService;
+import com.example.bankcards.service.RedisIdempotencyService;
 import com.example.bankcards.service.TransferService;
-import com.example.bankcards.util.CardMaskingUtil;
-import com.example.bankcards.util.EncryptionUtil;
+import com.example.bankcards.util.Money;
+import com.example.bankcards.util.constants.ApiErrorMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.util.concurrent.CompletableFuture;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.Executor;
+
+import static com.example.bankcards.service.impl.TransferValidator.validateCardForTransfer;
+import static com.example.bankcards.service.impl.TransferValidator.validateCardOwnership;
+import static com.example.bankcards.service.impl.TransferValidator.validateSufficientFunds;
+import static com.example.bankcards.service.impl.TransferValidator.validateTransferRequest;
 
 @Slf4j
 @Service
-@Transactional
 @RequiredArgsConstructor
 public class TransferServiceImpl implements TransferService {
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final TransferRepository transferRepository;
     private final CardRepository cardRepository;
     private final TransferMapper transferMapper;
-    private final KafkaProducerService kafkaProducerService;
-    private final EncryptionUtil encryptionUtil;
-    @Qualifier("cryptoExecutor")
-    private final Executor cryptoExecutor;
-    @Qualifier("ioExecutor")
-    private final Executor ioExecutor;
+    private final TransferProperties transferProperties;
+    private final TransactionRetryExecutor transactionRetryExecutor;
+    private final RedisIdempotencyService redisIdempotencyService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransferBatchProcessor transferBatchProcessor;
+    private final TransferGroupCommitter transferGroupCommitter;
+    private final TransferPartitionExecutor transferPartitionExecutor;
+    private final LedgerService ledgerService;
+    private final OutboxService outboxService;
+    private final TransferExporter transferExporter;
+    private final DailyLimitService dailyLimitService;
+    private final TransferVelocityEngine transferVelocityEngine;
+    private final CardStatusIndex cardStatusIndex;
 
     @Override
     public TransferResponse transferMoney(TransferRequest transferRequest, Long userId) {
@@ -50,64 +89,500 @@ public class TransferServiceImpl implements TransferService {
                 transferRequest.getSourceCardId(), transferRequest.getDestinationCardId(), transferRequest.getAmount());
 
         validateTransferRequest(transferRequest);
+        // Only the destination: for a source the user may not own, a status error would reveal the card exists
+        cardStatusIndex.rejectIfUnusable(transferRequest.getDestinationCardId());
 
-        CardPair cardPair = loadCardPairsAsync(transferRequest.getSourceCardId(), transferRequest.getDestinationCardId());
-        Card sourceCard = cardPair.source;
-        Card destinationCard = cardPair.destination;
+        // The batch processor applies the velocity rules to each command of a group itself
+        if (transferProperties.getGroupCommit().isEnabled() && !transferProperties.getAsync().isEnabled()) {
+            return executeInGroup(transferRequest, userId);
+        }
+        if (holdForVelocity(transferRequest, userId)) {
+            return transactionRetryExecutor.execute("transfer", () -> acceptTransfer(transferRequest, userId, null, true));
+        }
+        if (transferProperties.getAsync().isEnabled()) {
+            return transactionRetryExecutor.execute("transfer", () -> acceptTransfer(transferRequest, userId, null, false));
+        }
+        return transactionRetryExecutor.execute("transfer", () -> executeTransfer(transferRequest, userId, null));
+    }
 
-        validateCardOwnership(sourceCard, userId);
-        validateCardForTransfer(sourceCard);
-        validateCardForTransfer(destinationCard);
-        validateSufficientFunds(sourceCard, transferRequest.getAmount());
+    @Override
+    public TransferResponse transferMoney(TransferRequest transferRequest, Long userId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return transferMoney(transferRequest, userId);
+        }
 
-        executeBalanceTransfer(sourceCard, destinationCard, transferRequest.getAmount());
+        validateIdempotencyKey(idempotencyKey);
+        validateTransferRequest(transferRequest);
+        String requestHash = TransferRequestHash.of(transferRequest);
 
-        Transfer transfer = createTransfer(transferRequest, sourceCard, destinationCard);
-        publishTransferEvent(transfer, sourceCard, destinationCard);
+        Optional<TransferResponse> replayed = acquireOrReplay(userId, idempotencyKey, requestHash);
+        if (replayed.isPresent()) {
+            log.info("Replaying transfer for idempotency key: userId={}, key={}", userId, idempotencyKey);
+            return replayed.get();
+        }
 
-        log.info("Transfer completed: id={}, sourceCardId={}, destinationCardId={}, amount={}",
-                transfer.getId(), sourceCard.getId(), destinationCard.getId(), transferRequest.getAmount());
+        try {
+            // After the replay lookup: a retry must get its transfer back even if the destination is blocked since
+            cardStatusIndex.rejectIfUnusable(transferRequest.getDestinationCardId());
+            boolean held = holdForVelocity(transferRequest, userId);
+            TransferResponse response = transactionRetryExecutor.execute(
+                    "transfer", () -> held || transferProperties.getAsync().isEnabled()
+                            ? acceptTransfer(transferRequest, userId, idempotencyKey, held)
+                            : executeTransfer(transferRequest, userId, idempotencyKey)
+            );
+            completeIdempotencyKey(userId, idempotencyKey, response.getId(), requestHash);
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(
+                    userId, idempotencyKey
+            );
+            if (existing.isEmpty()) {
+                releaseIdempotencyKey(userId, idempotencyKey);
+                throw e;
+            }
+            log.info("Idempotency key already recorded by another request: userId={}, key={}", userId, idempotencyKey);
+            return replayRecorded(userId, idempotencyKey, requestHash, existing.get());
+        } catch (RuntimeException e) {
+            releaseIdempotencyKey(userId, idempotencyKey);
+            throw e;
+        }
+    }
 
-        return transferMapper.toResponse(transfer);
+    @Override
+    public BatchTransferResponse transferBatch(BatchTransferRequest batchTransferRequest, Long userId) {
+        List<TransferRequest> transfers = batchTransferRequest.getTransfers();
+        TransferProperties.Batch batch = transferProperties.getBatch();
+        if (transfers.size() > batch.getMaxSize()) {
+            throw BusinessException.batchTooLarge(transfers.size(), batch.getMaxSize());
+        }
+
+        BatchFailureMode failureMode = batchTransferRequest.getFailureMode() != null
+                ? batchTransferRequest.getFailureMode()
+                : batch.getFailureMode();
+        log.debug("Batch transfer request: size={}, failureMode={}", transfers.size(), failureMode);
+
+        List<TransferBatchProcessor.TransferOutcome> outcomes = transferBatchProcessor.process(
+                transfers.stream()
+                        .map(request -> new TransferBatchProcessor.TransferCommand(request, userId))
+                        .toList(),
+                failureMode
+        );
+
+        List<BatchTransferItemResult> results = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            TransferBatchProcessor.TransferOutcome outcome = outcomes.get(i);
+            results.add(BatchTransferItemResult.builder()
+                    .index(i)
+                    .status(outcome.status().name())
+                    .transfer(outcome.response())
+                    .error(outcome.error() != null ? outcome.error().getMessage() : null)
+                    .build());
+        }
+
+        int succeeded = (int) outcomes.stream()
+                .filter(outcome -> outcome.status() == BatchItemStatus.SUCCESS)
+                .count();
+        int held = (int) outcomes.stream()
+                .filter(outcome -> outcome.status() == BatchItemStatus.HELD)
+                .count();
+        return BatchTransferResponse.builder()
+                .total(outcomes.size())
+                .succeeded(succeeded)
+                .held(held)
+                .failed(outcomes.size() - succeeded - held)
+                .results(results)
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<TransferResponse> getTransferHistory(Long userId, Pageable pageable) {
         return transferRepository
-                .findBySourceCardOwnerIdOrDestinationCardOwnerId(userId, userId, pageable)
+                .findBySourceOwnerIdOrDestinationOwnerId(userId, userId, pageable)
                 .map(transferMapper::toResponse);
     }
 
-    // --- Validation --- //
+    // Keyset page on (timestamp, id): one extra row tells whether an older page exists, so no count query runs.
+    // A date range limits the scan to the monthly partitions it overlaps
+    @Override
+    @Transactional(readOnly = true)
+    public TransferCursorPage getTransferHistory(Long userId, String cursor, Integer size, LocalDate from, LocalDate to) {
+        validateDateRange(from, to);
+        Instant rangeStart = startOfDay(from);
+        Instant rangeEnd = endOfDay(to);
+        TransferProperties.History history = transferProperties.getHistory();
+        int pageSize = size == null
+                ? history.getDefaultPageSize()
+                : Math.max(1, Math.min(size, history.getMaxPageSize()));
+        int limit = pageSize + 1;
 
-    private void validateTransferRequest(TransferRequest request) {
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw BusinessException.invalidTransferAmount();
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = transferRepository.findHistoryIds(userId, rangeStart, rangeEnd, limit);
+        } else {
+            TransferCursor position = TransferCursor.decode(cursor);
+            ids = transferRepository.findHistoryIdsBefore(
+                    userId, rangeStart, rangeEnd, position.timestamp(), position.id(), limit
+            );
         }
-        if (request.getSourceCardId().equals(request.getDestinationCardId())) {
-            throw BusinessException.sameCardTransfer();
+        List<Transfer> transfers = loadInOrder(ids);
+
+        boolean hasNext = transfers.size() > pageSize;
+        List<Transfer> page = hasNext ? transfers.subList(0, pageSize) : transfers;
+
+        return TransferCursorPage.builder()
+                .content(page.stream().map(transferMapper::toResponse).toList())
+                .size(pageSize)
+                .nextCursor(hasNext ? TransferCursor.of(page.get(pageSize - 1)).encode() : null)
+                .build();
+    }
+
+    // Dates are inclusive UTC days; the range is checked here so a bad request fails before the response starts
+    @Override
+    public StreamingResponseBody exportTransferHistory(Long userId, LocalDate from, LocalDate to, ExportFormat format) {
+        validateDateRange(from, to);
+        Instant fromInstant = startOfDay(from);
+        Instant toInstant = endOfDay(to);
+        return outputStream -> transferExporter.export(userId, fromInstant, toInstant, format, outputStream);
+    }
+
+    private static Instant startOfDay(LocalDate day) {
+        return day != null ? day.atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+    }
+
+    // Exclusive end of an inclusive day
+    private static Instant endOfDay(LocalDate day) {
+        return day != null ? day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+    }
+
+    // Not read-only, so it stays on the primary: a client polls right after the 202, and a lagging replica
+    // would answer 404 for the transfer it has just been given
+    @Override
+    @Transactional
+    public TransferResponse getTransfer(Long userId, Long transferId) {
+        return transferRepository.findByIdAndParticipantId(transferId, userId)
+                .map(transferMapper::toResponse)
+                .orElseThrow(() -> ResourceNotFoundException.transfer(transferId));
+    }
+
+    @Override
+    public void settleTransfer(Long transferId) {
+        try {
+            transactionRetryExecutor.execute("settle-transfer", () -> settle(transferId));
+        } catch (RuntimeException e) {
+            log.error("Transfer settlement failed, leaving it pending: id={}", transferId, e);
         }
     }
 
-    private void validateCardForTransfer(Card card) {
-        if (card.getStatus() == CardStatus.BLOCKED) {
-            throw BusinessException.cardBlocked(card.getId());
+    @Override
+    public int resumePendingTransfers(Instant acceptedBefore, int limit) {
+        List<TransferRepository.PendingTransfer> pending = transferRepository.findPendingAcceptedBefore(
+                acceptedBefore, PageRequest.of(0, limit)
+        );
+        pending.forEach(transfer -> dispatchSettlement(transfer.getId(), transfer.getSourceCardId()));
+        return pending.size();
+    }
+
+    @Override
+    public TransferResponse releaseHeldTransfer(Long transferId) {
+        return transactionRetryExecutor.execute("release-transfer", () -> {
+            Transfer transfer = lockHeldTransfer(transferId);
+            transfer.setStatus(TransferStatus.PENDING);
+            afterCommit(() -> dispatchSettlement(transferId, transfer.getSourceCard().getId()));
+            log.info("Held transfer released: id={}", transferId);
+            return transferMapper.toResponse(transfer);
+        });
+    }
+
+    @Override
+    public TransferResponse rejectHeldTransfer(Long transferId) {
+        return transactionRetryExecutor.execute("reject-transfer", () -> {
+            Transfer transfer = lockHeldTransfer(transferId);
+            transfer.setStatus(TransferStatus.FAILED);
+            transfer.setFailureReason(ApiErrorMessage.HELD_TRANSFER_REJECTED.getMessage());
+            dailyLimitService.release(transfer.getSourceCard(), transfer.getAmount(), transfer.getTimestamp());
+            log.info("Held transfer rejected: id={}", transferId);
+            return transferMapper.toResponse(transfer);
+        });
+    }
+
+    // --- Transfer execution --- //
+
+    // Consulted before any row is locked, so a burst from one card is turned away without touching the database
+    private boolean holdForVelocity(TransferRequest transferRequest, Long userId) {
+        TransferVelocityEngine.Verdict verdict = transferVelocityEngine.check(
+                userId, transferRequest.getSourceCardId(), transferRequest.getDestinationCardId()
+        );
+        if (verdict == TransferVelocityEngine.Verdict.REJECT) {
+            log.info("Transfer rejected by velocity rules: sourceCardId={}, userId={}",
+                    transferRequest.getSourceCardId(), userId);
+            throw BusinessException.velocityExceeded(transferRequest.getSourceCardId());
         }
-        if (card.getStatus() == CardStatus.EXPIRED) {
-            throw BusinessException.cardExpired(card.getId());
+        return verdict == TransferVelocityEngine.Verdict.HOLD;
+    }
+
+    private TransferResponse executeTransfer(TransferRequest transferRequest, Long userId, String idempotencyKey) {
+        CardPair cardPair = switch (transferProperties.getMode()) {
+            case LOCKING -> reserveFunds(transferRequest, userId);
+            case CONDITIONAL_UPDATE -> debitIfUnchanged(transferRequest, userId);
+        };
+        Card sourceCard = cardPair.source;
+        Card destinationCard = cardPair.destination;
+
+        Transfer transfer = createTransfer(transferRequest, sourceCard, destinationCard);
+        ledgerService.recordTransfer(transfer);
+        if (idempotencyKey != null) {
+            recordIdempotencyKey(userId, idempotencyKey, TransferRequestHash.of(transferRequest), transfer.getId());
         }
+        outboxService.recordTransferCompleted(transfer);
+
+        log.info("Transfer completed: id={}, sourceCardId={}, destinationCardId={}, amount={}",
+                transfer.getId(), sourceCard.getId(), destinationCard.getId(), transferRequest.getAmount());
+
+        return transferMapper.toResponse(transfer);
     }
 
-    private void validateSufficientFunds(Card sourceCard, BigDecimal amount) {
-        if (sourceCard.getBalance().compareTo(amount) < 0) {
-            throw BusinessException.insufficientFunds(amount, sourceCard.getBalance());
+    private TransferResponse executeInGroup(TransferRequest transferRequest, Long userId) {
+        TransferBatchProcessor.TransferOutcome outcome;
+        try {
+            outcome = transferGroupCommitter.submit(
+                    new TransferBatchProcessor.TransferCommand(transferRequest, userId)
+            ).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        if (outcome.error() != null) {
+            throw outcome.error();
         }
+        return outcome.response();
     }
 
-    private void validateCardOwnership(Card sourceCard, Long userId) {
-        if (!sourceCard.getOwner().getId().equals(userId)) {
-            throw ResourceNotFoundException.card(sourceCard.getId());
+    // --- Asynchronous settlement --- //
+
+    // A held transfer is not dispatched and recovery skips it; it waits for releaseHeldTransfer or rejectHeldTransfer
+    private TransferResponse acceptTransfer(
+            TransferRequest transferRequest, Long userId, String idempotencyKey, boolean held
+    ) {
+        Card sourceCard = findById(transferRequest.getSourceCardId());
+        validateCardOwnership(sourceCard, userId);
+        validateCardForTransfer(sourceCard);
+        Card destinationCard = findDestination(transferRequest.getDestinationCardId());
+        // Counted on acceptance; a transfer that fails settlement gives its share back
+        dailyLimitService.reserve(sourceCard, transferRequest.getAmount());
+
+        Transfer transfer = transferRepository.save(Transfer.builder()
+                .sourceCard(sourceCard)
+                .destinationCard(destinationCard)
+                .amount(transferRequest.getAmount())
+                .description(transferRequest.getDescription())
+                .status(held ? TransferStatus.HELD : TransferStatus.PENDING)
+                .build());
+        if (idempotencyKey != null) {
+            recordIdempotencyKey(userId, idempotencyKey, TransferRequestHash.of(transferRequest), transfer.getId());
+        }
+        if (!held) {
+            afterCommit(() -> dispatchSettlement(transfer.getId(), sourceCard.getId()));
+        }
+
+        log.info("Transfer accepted: id={}, status={}, sourceCardId={}, destinationCardId={}, amount={}",
+                transfer.getId(), transfer.getStatus(), sourceCard.getId(), destinationCard.getId(),
+                transferRequest.getAmount());
+
+        return transferMapper.toResponse(transfer);
+    }
+
+    private void dispatchSettlement(Long transferId, Long sourceCardId) {
+        transferPartitionExecutor.execute(sourceCardId, () -> settleTransfer(transferId));
+    }
+
+    private boolean settle(Long transferId) {
+        Optional<Long> sourceCardId = transferRepository.findSourceCardIdByIdAndStatus(
+                transferId, TransferStatus.PENDING
+        );
+        if (sourceCardId.isEmpty()) {
+            return false;
+        }
+
+        // Every settlement from this card holds the lock, so the transfer loaded after it is current
+        Card sourceCard = lockSourceCard(sourceCardId.get());
+        Transfer transfer = transferRepository.findById(transferId)
+                .orElseThrow(() -> ResourceNotFoundException.transfer(transferId));
+        if (transfer.getStatus() != TransferStatus.PENDING) {
+            return false;
+        }
+
+        Card destinationCard = transfer.getDestinationCard();
+        try {
+            validateCardForTransfer(sourceCard);
+            validateCardForTransfer(destinationCard);
+            validateSufficientFunds(
+                    ledgerService.getBalanceMinor(sourceCard.getId()), Money.toMinor(transfer.getAmount())
+            );
+        } catch (BusinessException e) {
+            transfer.setStatus(TransferStatus.FAILED);
+            transfer.setFailureReason(e.getMessage());
+            dailyLimitService.release(sourceCard, transfer.getAmount(), transfer.getTimestamp());
+            log.info("Transfer settled as failed: id={}, reason={}", transferId, e.getMessage());
+            return true;
+        }
+
+        // A settled transfer is dated by its settlement, not by when it was held
+        transfer.setStatus(TransferStatus.SUCCESS);
+        transfer.setTimestamp(Instant.now());
+        ledgerService.recordTransfer(transfer);
+        outboxService.recordTransferCompleted(transfer);
+
+        log.info("Transfer settled: id={}, sourceCardId={}, destinationCardId={}, amount={}",
+                transferId, sourceCard.getId(), destinationCard.getId(), transfer.getAmount());
+        return true;
+    }
+
+    // Taken under the source card lock like settlement, so a release, a rejection and a settlement never overlap
+    private Transfer lockHeldTransfer(Long transferId) {
+        Long sourceCardId = transferRepository.findSourceCardIdByIdAndStatus(transferId, TransferStatus.HELD)
+                .orElseThrow(() -> transferRepository.existsById(transferId)
+                        ? BusinessException.transferNotHeld(transferId)
+                        : ResourceNotFoundException.transfer(transferId));
+
+        lockSourceCard(sourceCardId);
+        Transfer transfer = transferRepository.findById(transferId)
+                .orElseThrow(() -> ResourceNotFoundException.transfer(transferId));
+        if (transfer.getStatus() != TransferStatus.HELD) {
+            throw BusinessException.transferNotHeld(transferId);
+        }
+        return transfer;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // --- Idempotency --- //
+
+    // While Redis is unavailable the unique key on idempotency_keys is the only guard: a concurrent duplicate
+    // fails its insert and replays the transfer recorded by the winner
+    private Optional<TransferResponse> acquireOrReplay(Long userId, String idempotencyKey, String requestHash) {
+        TransferProperties.Idempotency idempotency = transferProperties.getIdempotency();
+        long deadline = System.nanoTime() + idempotency.getWaitTimeout().toNanos();
+
+        while (true) {
+            RedisIdempotencyService.CompletedKey completed;
+            boolean acquired;
+            try {
+                completed = redisIdempotencyService.getCompleted(userId, idempotencyKey);
+                acquired = completed == null && Boolean.TRUE.equals(redisIdempotencyService.tryAcquire(
+                        userId, idempotencyKey, idempotency.getLockTtl().toMillis()));
+            } catch (DataAccessException e) {
+                log.warn("Idempotency keys unavailable in Redis, relying on the database: userId={}, reason={}",
+                        userId, e.getMessage());
+                return replayFromDatabase(userId, idempotencyKey, requestHash);
+            }
+
+            if (completed != null) {
+                rejectIfReused(idempotencyKey, completed.requestHash(), requestHash);
+                return Optional.of(replayTransfer(completed.transferId()));
+            }
+            if (acquired) {
+                return replayFromDatabase(userId, idempotencyKey, requestHash);
+            }
+            if (System.nanoTime() >= deadline) {
+                throw ResourceExistsException.idempotencyKeyInProgress(idempotencyKey);
+            }
+            awaitInFlightTransfer(idempotency.getPollInterval());
+        }
+    }
+
+    private Optional<TransferResponse> replayFromDatabase(Long userId, String idempotencyKey, String requestHash) {
+        return idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                .map(existing -> replayRecorded(userId, idempotencyKey, requestHash, existing));
+    }
+
+    // Completing first also replaces a pending marker this request may hold
+    private TransferResponse replayRecorded(
+            Long userId, String idempotencyKey, String requestHash, IdempotencyKey existing
+    ) {
+        completeIdempotencyKey(userId, idempotencyKey, existing.getTransferId(), existing.getRequestHash());
+        rejectIfReused(idempotencyKey, existing.getRequestHash(), requestHash);
+        return replayTransfer(existing.getTransferId());
+    }
+
+    private static void rejectIfReused(String idempotencyKey, String recordedHash, String requestHash) {
+        if (!TransferRequestHash.matches(recordedHash, requestHash)) {
+            throw BusinessException.idempotencyKeyReused(idempotencyKey);
+        }
+    }
+
+    private void awaitInFlightTransfer(Duration pollInterval) {
+        try {
+            Thread.sleep(pollInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight transfer", e);
+        }
+    }
+
+    private void recordIdempotencyKey(Long userId, String idempotencyKey, String requestHash, Long transferId) {
+        idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                .userId(userId)
+                .idempotencyKey(idempotencyKey)
+                .transferId(transferId)
+                .requestHash(requestHash)
+                .build());
+    }
+
+    // The Redis key only fronts idempotency_keys, so failing to update it must not fail a committed transfer
+    private void completeIdempotencyKey(Long userId, String idempotencyKey, Long transferId, String requestHash) {
+        try {
+            redisIdempotencyService.complete(
+                    userId, idempotencyKey, transferId, requestHash,
+                    transferProperties.getIdempotency().getTtl().toMillis()
+            );
+        } catch (DataAccessException e) {
+            log.warn("Failed to complete idempotency key in Redis: userId={}, key={}, reason={}",
+                    userId, idempotencyKey, e.getMessage());
+        }
+    }
+
+    // A pending marker left behind expires after the lock TTL
+    private void releaseIdempotencyKey(Long userId, String idempotencyKey) {
+        try {
+            redisIdempotencyService.release(userId, idempotencyKey);
+        } catch (DataAccessException e) {
+            log.warn("Failed to release idempotency key in Redis: userId={}, key={}, reason={}",
+                    userId, idempotencyKey, e.getMessage());
+        }
+    }
+
+    private TransferResponse replayTransfer(Long transferId) {
+        return transferRepository.findById(transferId)
+                .map(transferMapper::toResponse)
+                .orElseThrow(() -> ResourceNotFoundException.transfer(transferId));
+    }
+
+    // --- Validation --- //
+
+    private static void validateDateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw BusinessException.invalidDateRange(from, to);
+        }
+    }
+
+    private void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw BusinessException.invalidIdempotencyKey(MAX_IDEMPOTENCY_KEY_LENGTH);
         }
     }
 
@@ -118,32 +593,76 @@ public class TransferServiceImpl implements TransferService {
 
     // --- Lookup --- //
 
-    private CardPair loadCardPairsAsync(Long sourceId, Long destinationId) {
+    private Card lockSourceCard(Long sourceId) {
+        return cardRepository.findByIdForUpdate(sourceId)
+                .orElseThrow(() -> ResourceNotFoundException.card(sourceId));
+    }
+
+    private Card findById(Long cardId) {
+        return cardRepository.findById(cardId)
+                .orElseThrow(() -> ResourceNotFoundException.card(cardId));
+    }
+
+    // A blocked or expired destination is remembered, so the next transfer to it is turned away before locking
+    private Card findDestination(Long cardId) {
+        long generation = cardStatusIndex.generation(cardId);
+        Card destination = findById(cardId);
         try {
-            return CompletableFuture.supplyAsync(() -> findByIdForUpdate(sourceId), ioExecutor)
-                    .thenCombine(
-                            CompletableFuture.supplyAsync(() -> findByIdForUpdate(destinationId), ioExecutor),
-                            CardPair::new
-                    ).join();
-        } catch (CompletionException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof RuntimeException re) {
-                throw re;
-            }
+            validateCardForTransfer(destination);
+        } catch (BusinessException e) {
+            cardStatusIndex.record(cardId, destination.getStatus(), generation);
             throw e;
         }
+        return destination;
     }
 
-    private Card findByIdForUpdate(Long cardId) {
-        return cardRepository.findByIdForUpdate(cardId)
-                .orElseThrow(() -> ResourceNotFoundException.card(cardId));
+    private List<Transfer> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        List<Transfer> transfers = new ArrayList<>(transferRepository.findAllByIdIn(ids));
+        transfers.sort(Comparator.comparing(transfer -> positions.get(transfer.getId())));
+        return transfers;
     }
 
-    // --- Transfer execution --- //
+    // --- Balance updates --- //
+
+    private CardPair reserveFunds(TransferRequest request, Long userId) {
+        Card source = lockSourceCard(request.getSourceCardId());
+        validateCardOwnership(source, userId);
+        validateCardForTransfer(source);
+
+        // Credits only append to the ledger, so the destination row is read without a lock
+        Card destination = findDestination(request.getDestinationCardId());
+
+        validateSufficientFunds(ledgerService.getBalanceMinor(source.getId()), Money.toMinor(request.getAmount()));
+        dailyLimitService.reserve(source, request.getAmount());
+        return new CardPair(source, destination);
+    }
+
+    // One guarded statement checks owner, status and balance, and moves the source's ledger version
+    private CardPair debitIfUnchanged(TransferRequest request, Long userId) {
+        Card destination = findDestination(request.getDestinationCardId());
 
-    private void executeBalanceTransfer(Card source, Card destination, BigDecimal amount) {
-        source.setBalance(source.getBalance().subtract(amount));
-        destination.setBalance(destination.getBalance().add(amount));
+        Long sourceId = request.getSourceCardId();
+        if (cardRepository.debitIfSufficient(sourceId, userId, request.getAmount()) == 0) {
+            throw resolveDebitFailure(sourceId, userId, request.getAmount());
+        }
+        Card source = findById(sourceId);
+        dailyLimitService.reserve(source, request.getAmount());
+        return new CardPair(source, destination);
+    }
+
+    private RuntimeException resolveDebitFailure(Long sourceId, Long userId, BigDecimal amount) {
+        Card source = findById(sourceId);
+        validateCardOwnership(source, userId);
+        validateCardForTransfer(source);
+        validateSufficientFunds(ledgerService.getBalanceMinor(sourceId), Money.toMinor(amount));
+        return new OptimisticLockingFailureException(ApiErrorMessage.CARD_STATE_CHANGED.getMessage(sourceId));
     }
 
     private Transfer createTransfer(TransferRequest request, Card source, Card destination) {
@@ -157,30 +676,4 @@ public class TransferServiceImpl implements TransferService {
 
         return transferRepository.save(transfer);
     }
-
-    // --- Events --- //
-
-    private void publishTransferEvent(Transfer transfer, Card sourceCard, Card destinationCard) {
-        CompletableFuture<String> senderMasked = CompletableFuture.supplyAsync(
-                () -> CardMaskingUtil.maskCardNumber(encryptionUtil.decrypt(sourceCard.getCardNumber())),
-                cryptoExecutor
-        );
-        CompletableFuture<String> recipientMasked = CompletableFuture.supplyAsync(
-                () -> CardMaskingUtil.maskCardNumber(encryptionUtil.decrypt(destinationCard.getCardNumber())),
-                cryptoExecutor
-        );
-
-        TransferEvent event = new TransferEvent(
-                transfer.getId(),
-                sourceCard.getOwner().getId(),
-                destinationCard.getOwner().getId(),
-                senderMasked.join(),
-                recipientMasked.join(),
-                transfer.getAmount(),
-                transfer.getTimestamp(),
-                transfer.getStatus().name()
-        );
-
-        kafkaProducerService.sendTransferEventAsync(event);
-    }
 }
@@ -0,0 +1,179 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.stats.StatsGranularity;
+import com.example.bankcards.dto.stats.TransferStatsBucket;
+import com.example.bankcards.dto.stats.TransferStatsResponse;
+import com.example.bankcards.entity.TransferStatsWatermark;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferDailyStatRepository;
+import com.example.bankcards.repository.TransferStatsWatermarkRepository;
+import com.example.bankcards.service.TransferPartitionService;
+import com.example.bankcards.service.TransferStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Stat days are UTC days, like the days of history, export and statements
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferStatsServiceImpl implements TransferStatsService {
+    private final TransferDailyStatRepository transferDailyStatRepository;
+    private final TransferStatsWatermarkRepository transferStatsWatermarkRepository;
+    private final CardRepository cardRepository;
+    private final TransferPartitionService transferPartitionService;
+    private final TransactionOperations transactionOperations;
+    @Qualifier("batchExecutor")
+    private final Executor batchExecutor;
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransferStatsResponse getStats(
+            Long userId, Long cardId, LocalDate from, LocalDate to, StatsGranularity granularity
+    ) {
+        validateRange(from, to);
+
+        List<TransferDailyStatRepository.StatsBucket> rows;
+        if (cardId == null) {
+            rows = transferDailyStatRepository.findOwnerBuckets(userId, from, to, granularity.getUnit());
+        } else {
+            if (cardRepository.findByOwnerIdAndId(userId, cardId).isEmpty()) {
+                throw ResourceNotFoundException.card(cardId);
+            }
+            rows = transferDailyStatRepository.findCardBuckets(cardId, from, to, granularity.getUnit());
+        }
+
+        long outgoingCount = 0;
+        long incomingCount = 0;
+        BigDecimal outgoingAmount = BigDecimal.ZERO;
+        BigDecimal incomingAmount = BigDecimal.ZERO;
+        List<TransferStatsBucket> buckets = new ArrayList<>(rows.size());
+        for (TransferDailyStatRepository.StatsBucket row : rows) {
+            buckets.add(toBucket(
+                    row.getPeriodStart(), row.getDebitCount(), row.getDebitAmount(),
+                    row.getCreditCount(), row.getCreditAmount()
+            ));
+            outgoingCount += row.getDebitCount();
+            outgoingAmount = outgoingAmount.add(row.getDebitAmount());
+            incomingCount += row.getCreditCount();
+            incomingAmount = incomingAmount.add(row.getCreditAmount());
+        }
+
+        return TransferStatsResponse.builder()
+                .cardId(cardId)
+                .from(from)
+                .to(to)
+                .granularity(granularity.name())
+                .totals(toBucket(null, outgoingCount, outgoingAmount, incomingCount, incomingAmount))
+                .buckets(buckets)
+                .build();
+    }
+
+    @Override
+    public int foldTransfers() {
+        Integer folded = transactionOperations.execute(status -> {
+            TransferStatsWatermark watermark = transferStatsWatermarkRepository
+                    .findByIdForUpdate(TransferStatsWatermark.ID)
+                    .orElseThrow(() -> new IllegalStateException("Transfer stats watermark is missing"));
+            // No transfer can still be settled below the horizon; a long transaction holds the fold back instead
+            long horizon = transferStatsWatermarkRepository.findCompletedXidHorizon();
+            if (watermark.getProcessedXid() >= horizon) {
+                return 0;
+            }
+
+            int rows = transferDailyStatRepository.addSettledTransfers(watermark.getProcessedXid(), horizon);
+            watermark.setProcessedXid(horizon);
+            return rows;
+        });
+        return folded != null ? folded : 0;
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        validateAttached(from);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate statDate = day;
+            futures.add(CompletableFuture.supplyAsync(() -> rebuildDay(statDate), batchExecutor));
+        }
+
+        int rows = futures.stream()
+                .mapToInt(CompletableFuture::join)
+                .sum();
+        log.info("Transfer stats rebuilt: from={}, to={}, days={}, rows={}", from, to, futures.size(), rows);
+        return rows;
+    }
+
+    // --- Rebuild --- //
+
+    // Only transfers settled below the watermark are recounted; later ones still belong to the incremental fold
+    private int rebuildDay(LocalDate statDate) {
+        Integer rows = transactionOperations.execute(status -> {
+            long processedXid = transferStatsWatermarkRepository
+                    .findByIdForShare(TransferStatsWatermark.ID)
+                    .orElseThrow(() -> new IllegalStateException("Transfer stats watermark is missing"))
+                    .getProcessedXid();
+
+            transferDailyStatRepository.deleteByStatDate(statDate);
+            Instant dayStart = statDate.atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant dayEnd = statDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            return transferDailyStatRepository.addTransfers(dayStart, dayEnd, processedXid);
+        });
+        return rows != null ? rows : 0;
+    }
+
+    // --- Mapping --- //
+
+    private TransferStatsBucket toBucket(
+            LocalDate periodStart, long outgoingCount, BigDecimal outgoingAmount, long incomingCount, BigDecimal incomingAmount
+    ) {
+        return TransferStatsBucket.builder()
+                .periodStart(periodStart)
+                .outgoingCount(outgoingCount)
+                .outgoingAmount(outgoingAmount)
+                .outgoingAverage(average(outgoingAmount, outgoingCount))
+                .incomingCount(incomingCount)
+                .incomingAmount(incomingAmount)
+                .incomingAverage(average(incomingAmount, incomingCount))
+                .build();
+    }
+
+    private BigDecimal average(BigDecimal amount, long count) {
+        return count == 0 ? null : amount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_EVEN);
+    }
+
+    // --- Validation --- //
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw BusinessException.invalidDateRange(from, to);
+        }
+    }
+
+    // Rebuilding deletes a day before recounting it, so a day with transfers already out of the table stays as folded
+    private void validateAttached(LocalDate from) {
+        Instant dayStart = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Optional<Instant> attachedSince = transferPartitionService.findAttachedSince();
+        if (attachedSince.isEmpty() || dayStart.isBefore(attachedSince.get())) {
+            throw BusinessException.statsDayArchived(from);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.util.Money;
+
+final class TransferValidator {
+    private TransferValidator() {
+    }
+
+    static void validateTransferRequest(TransferRequest request) {
+        // Amounts become cents past this point, so fractions of a cent are refused here
+        if (request.getAmount().signum() <= 0 || !Money.hasValidScale(request.getAmount())) {
+            throw BusinessException.invalidTransferAmount();
+        }
+        if (request.getSourceCardId().equals(request.getDestinationCardId())) {
+            throw BusinessException.sameCardTransfer();
+        }
+    }
+
+    static void validateCardForTransfer(Card card) {
+        if (card.getStatus() == CardStatus.BLOCKED) {
+            throw BusinessException.cardBlocked(card.getId());
+        }
+        if (card.getStatus() == CardStatus.EXPIRED) {
+            throw BusinessException.cardExpired(card.getId());
+        }
+    }
+
+    static void validateSufficientFunds(long availableMinor, long amountMinor) {
+        if (availableMinor < amountMinor) {
+            throw BusinessException.insufficientFunds(Money.toDecimal(amountMinor), Money.toDecimal(availableMinor));
+        }
+    }
+
+    static void validateCardOwnership(Card sourceCard, Long userId) {
+        if (!sourceCard.getOwner().getId().equals(userId)) {
+            throw ResourceNotFoundException.card(sourceCard.getId());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts recent transfers per source card in memory, without locks. Each card owns fixed rings of buckets
+ * (seconds for the short window, minutes for the long one), so a check touches a constant number of slots
+ * and allocates nothing once the card is tracked.
+ */
+@Component
+public class TransferVelocityEngine {
+
+    public enum Verdict {
+        ALLOW,
+        HOLD,
+        REJECT,
+    }
+
+    // A bucket packs its epoch (second or minute number) above a saturating count, so one CAS resets and counts
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int DESTINATION_SLOTS = 64;
+    private static final int PROBES = 8;
+
+    private final TransferProperties.Velocity velocity;
+    private final Clock clock;
+    private final AtomicReferenceArray<CardWindow> windows;
+    private final int mask;
+    private final Counter heldCounter;
+    private final Counter rejectedCounter;
+
+    public TransferVelocityEngine(TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        this(transferProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    TransferVelocityEngine(TransferProperties transferProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.velocity = transferProperties.getVelocity();
+        this.clock = clock;
+        int capacity = Integer.highestOneBit(Math.max(velocity.getMaxCards(), PROBES) - 1) << 1;
+        this.windows = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.heldCounter = breachCounter(meterRegistry, "hold");
+        this.rejectedCounter = breachCounter(meterRegistry, "reject");
+    }
+
+    /**
+     * Records a transfer attempt from the card by the user and tells whether it stays within the velocity rules.
+     * Windows are keyed by card and user together, so attempts by someone who does not own the card cannot
+     * throttle its owner.
+     */
+    public Verdict check(long userId, long sourceCardId, long destinationCardId) {
+        if (!velocity.isEnabled()) {
+            return Verdict.ALLOW;
+        }
+
+        long now = clock.millis();
+        CardWindow window = window(userId, sourceCardId, now);
+        window.lastSeen = now;
+
+        long second = now / 1000;
+        long minute = second / 60;
+        long shortCount = increment(window.seconds, second);
+        long longCount = increment(window.minutes, minute);
+        long newDestinations = window.rememberDestination(destinationCardId)
+                ? increment(window.newDestinations, minute)
+                : sum(window.newDestinations, minute);
+
+        if (shortCount <= velocity.getShortWindowMax()
+                && longCount <= velocity.getLongWindowMax()
+                && newDestinations <= velocity.getNewDestinationMax()) {
+            return Verdict.ALLOW;
+        }
+        if (velocity.getAction() == TransferProperties.Velocity.Action.HOLD) {
+            heldCounter.increment();
+            return Verdict.HOLD;
+        }
+        rejectedCounter.increment();
+        return Verdict.REJECT;
+    }
+
+    /**
+     * Drops cards that have not transferred for the idle period. Returns the number of cards dropped.
+     */
+    public int evictIdle() {
+        long idleBefore = clock.millis() - velocity.getIdleAfter().toMillis();
+        int evicted = 0;
+        for (int i = 0; i < windows.length(); i++) {
+            CardWindow window = windows.get(i);
+            if (window != null && window.lastSeen < idleBefore && windows.compareAndSet(i, window, null)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // --- Card table --- //
+
+    // Open addressing over a short probe run; a new card takes a free slot or the stalest one in its run
+    private CardWindow window(long userId, long cardId, long now) {
+        int start = (int) mix(cardId * 31 + userId) & mask;
+        for (int probe = 0; probe < PROBES; probe++) {
+            CardWindow window = windows.get((start + probe) & mask);
+            if (window != null && window.cardId == cardId && window.userId == userId) {
+                return window;
+            }
+        }
+
+        int victim = start;
+        CardWindow victimWindow = null;
+        long victimSeen = Long.MAX_VALUE;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int index = (start + probe) & mask;
+            CardWindow window = windows.get(index);
+            if (window == null) {
+                victim = index;
+                victimWindow = null;
+                break;
+            }
+            if (window.lastSeen < victimSeen) {
+                victim = index;
+                victimWindow = window;
+                victimSeen = window.lastSeen;
+            }
+        }
+
+        CardWindow created = new CardWindow(cardId, userId, velocity, now);
+        if (windows.compareAndSet(victim, victimWindow, created)) {
+            return created;
+        }
+        // Another thread claimed the slot first; if it was for the same card, share its window
+        CardWindow winner = windows.get(victim);
+        return winner != null && winner.cardId == cardId && winner.userId == userId ? winner : created;
+    }
+
+    // --- Ring buckets --- //
+
+    private static long increment(AtomicLongArray buckets, long epoch) {
+        int index = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            long current = buckets.get(index);
+            long next;
+            if (current >>> COUNT_BITS == epoch) {
+                next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+            } else {
+                next = epoch << COUNT_BITS | 1;
+            }
+            if (buckets.compareAndSet(index, current, next)) {
+                break;
+            }
+        }
+        return sum(buckets, epoch);
+    }
+
+    private static long sum(AtomicLongArray buckets, long epoch) {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            long bucket = buckets.get(i);
+            long age = epoch - (bucket >>> COUNT_BITS);
+            if (age >= 0 && age < buckets.length()) {
+                total += bucket & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private Counter breachCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("transfer.velocity.breaches")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    // --- Inner types --- //
+
+    private static final class CardWindow {
+        private final long cardId;
+        private final long userId;
+        private final AtomicLongArray seconds;
+        private final AtomicLongArray minutes;
+        private final AtomicLongArray newDestinations;
+        // Direct-mapped set of recent destinations; a collision only makes a known destination look new
+        private final AtomicLongArray destinations = new AtomicLongArray(DESTINATION_SLOTS);
+        private volatile long lastSeen;
+
+        private CardWindow(long cardId, long userId, TransferProperties.Velocity velocity, long now) {
+            this.cardId = cardId;
+            this.userId = userId;
+            this.seconds = new AtomicLongArray(velocity.getShortWindowSeconds());
+            this.minutes = new AtomicLongArray(velocity.getLongWindowMinutes());
+            this.newDestinations = new AtomicLongArray(velocity.getLongWindowMinutes());
+            this.lastSeen = now;
+        }
+
+        // Returns true when the destination was not among the recent ones
+        private boolean rememberDestination(long destinationCardId) {
+            long marker = destinationCardId + 1;
+            int index = (int) mix(destinationCardId) & (DESTINATION_SLOTS - 1);
+            return destinations.get(index) != marker && destinations.getAndSet(index, marker) != marker;
+        }
+    }
+}
@@ -5,16 +5,27 @@ public final class CardMaskingUtil {
     }
 
     public static String maskCardNumber(String cardNumber) {
-        if (cardNumber == null) {
+        return maskLastFour(lastFour(cardNumber));
+    }
+
+    public static String maskLastFour(String lastFour) {
+        if (lastFour == null) {
             return "****";
         }
 
+        return "**** **** **** " + lastFour;
+    }
+
+    public static String lastFour(String cardNumber) {
+        if (cardNumber == null) {
+            return null;
+        }
+
         String digits = cardNumber.replaceAll("\\s", "");
         if (digits.length() < 4) {
-            return "****";
+            return null;
         }
 
-        String lastFour = digits.substring(digits.length() - 4);
-        return "**** **** **** " + lastFour;
+        return digits.substring(digits.length() - 4);
     }
 }
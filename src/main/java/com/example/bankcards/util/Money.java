@@ -0,0 +1,36 @@
+package com.example.bankcards.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts inside the transfer engine are plain {@code long} counts of minor units (cents), so checks and running
+ * balances do not allocate. {@link BigDecimal} is only used at the edges: request and response DTOs, entities and
+ * SQL results. Every amount stored in the database has scale 2, so the conversions are exact.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    // Throws ArithmeticException for fractions of a cent or amounts that do not fit in a long
+    public static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static boolean hasValidScale(BigDecimal amount) {
+        return amount.scale() <= SCALE || amount.stripTrailingZeros().scale() <= SCALE;
+    }
+
+    public static long add(long left, long right) {
+        return Math.addExact(left, right);
+    }
+
+    public static long subtract(long left, long right) {
+        return Math.subtractExact(left, right);
+    }
+}
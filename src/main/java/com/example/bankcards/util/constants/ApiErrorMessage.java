@@ -13,11 +13,13 @@ public enum ApiErrorMessage {
     ROLE_NOT_FOUND("Role %s not found"),
     CARD_NOT_FOUND("Card with id %s not found"),
     TRANSFER_NOT_FOUND("Transfer with id %s not found"),
+    SCHEDULED_TRANSFER_NOT_FOUND("Scheduled transfer with id %s not found"),
 
     // Resource exists (409)
     USERNAME_ALREADY_EXISTS("Username '%s' already exists"),
     EMAIL_ALREADY_EXISTS("Email '%s' already exists"),
     CARD_ALREADY_EXISTS("Card already exists"),
+    IDEMPOTENCY_KEY_IN_PROGRESS("Request with idempotency key '%s' is still being processed"),
 
     // Business errors (422)
     INSUFFICIENT_FUNDS("Insufficient funds. Required: %s, available: %s"),
@@ -26,9 +28,20 @@ public enum ApiErrorMessage {
     INVALID_CARD_STATUS("Invalid card status: %s"),
     INVALID_ROLE("Invalid role: %s"),
     SAME_CARD_TRANSFER("Cannot transfer to the same card"),
-    INVALID_TRANSFER_AMOUNT("Transfer amount must be positive"),
+    INVALID_TRANSFER_AMOUNT("Transfer amount must be positive with at most two decimal places"),
     PASSWORDS_DO_NOT_MATCH("Passwords must be equals"),
     INVALID_EXPIRY_DATE("Invalid expiry date format: %s"),
+    CARD_STATE_CHANGED("Card with id %s changed during transfer, please retry"),
+    INVALID_IDEMPOTENCY_KEY("Idempotency key must be between 1 and %s characters"),
+    IDEMPOTENCY_KEY_REUSED("Idempotency key '%s' was already used with a different request"),
+    BATCH_TOO_LARGE("Batch contains %s transfers, maximum allowed is %s"),
+    INVALID_CURSOR("Invalid pagination cursor: %s"),
+    INVALID_DATE_RANGE("Invalid date range: %s is after %s"),
+    STATS_DAY_ARCHIVED("Stats for %s cannot be rebuilt, its transfers are archived"),
+    DAILY_LIMIT_EXCEEDED("Transfer of %s exceeds the daily outgoing limit of %s"),
+    VELOCITY_EXCEEDED("Too many transfers from card %s. Please, try again later"),
+    TRANSFER_NOT_HELD("Transfer with id %s is not held"),
+    HELD_TRANSFER_REJECTED("Transfer was held by velocity rules and rejected"),
 
     // Authentication errors (401)
     INVALID_CREDENTIALS("Invalid username or password"),
@@ -0,0 +1,113 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.KafkaProducerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two independent instances stand in for a primary and its replica; the database name tells them apart
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class ReadReplicaRoutingIT {
+
+    private static final String CURRENT_DATABASE = "SELECT current_database()";
+
+    @Container
+    static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("primary");
+
+    @Container
+    static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("replica");
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("app.datasource.replica.enabled", () -> true);
+        registry.add("app.datasource.replica.url", REPLICA::getJdbcUrl);
+        registry.add("app.datasource.replica.username", REPLICA::getUsername);
+        registry.add("app.datasource.replica.password", REPLICA::getPassword);
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+    }
+
+    @MockBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor.checkLag();
+    }
+
+    @Test
+    @DisplayName("Should run read-only transactions on the replica and everything else on the primary")
+    void shouldRouteByReadOnlyFlag() {
+        assertThat(currentDatabase(true)).isEqualTo("replica");
+        assertThat(currentDatabase(false)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should keep read-only transactions on the primary while the replica is not usable")
+    void shouldFallBackToPrimary() {
+        REPLICA.getDockerClient().pauseContainerCmd(REPLICA.getContainerId()).exec();
+        try {
+            replicaLagMonitor.checkLag();
+
+            assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+            assertThat(currentDatabase(true)).isEqualTo("primary");
+        } finally {
+            REPLICA.getDockerClient().unpauseContainerCmd(REPLICA.getContainerId()).exec();
+        }
+    }
+
+    @Test
+    @DisplayName("Should report Hikari metrics for each pool under its own name")
+    void shouldReportMetricsPerPool() {
+        currentDatabase(true);
+        currentDatabase(false);
+
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge()).isNotNull();
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    @Mock
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaProperties replicaProperties = new ReplicaProperties();
+        replicaProperties.setMaxLag(Duration.ofSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+        replicaLagMonitor = new ReplicaLagMonitor(replicaJdbcTemplate, replicaProperties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should keep reads on the primary until the first check")
+    void shouldStartUnusable() {
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should use the replica while its lag is within the limit")
+    void shouldUseReplicaWithinLag() {
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Double.class))).thenReturn(1.5);
+
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isEqualTo(1.5);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags too far")
+    void shouldFallBackWhenLagging() {
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Double.class))).thenReturn(0.0, 12.0);
+
+        replicaLagMonitor.checkLag();
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(meterRegistry.get("datasource.replica.usable").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica cannot be reached")
+    void shouldFallBackWhenUnreachable() {
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Double.class)))
+                .thenReturn(0.0)
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        replicaLagMonitor.checkLag();
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+    }
+}
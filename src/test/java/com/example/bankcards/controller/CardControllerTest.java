@@ -3,6 +3,8 @@ package com.example.bankcards.controller;
 import com.example.bankcards.config.SecurityConfig;
 import com.example.bankcards.config.TestSecurityConfig;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardStatementLine;
+import com.example.bankcards.dto.card.CardStatementPage;
 import com.example.bankcards.dto.card.CardUpdateRequest;
 import com.example.bankcards.dto.card.CreateCardRequest;
 import com.example.bankcards.entity.CardStatus;
@@ -33,6 +35,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
 
@@ -75,6 +79,7 @@ class CardControllerTest {
     private static final String CARDS_URL = "/api/cards";
     private static final String CARD_BY_ID_URL = "/api/cards/{id}";
     private static final String BLOCK_CARD_URL = "/api/cards/{id}/block";
+    private static final String STATEMENT_URL = "/api/cards/{id}/statement";
 
     @BeforeEach
     void setUp() {
@@ -290,6 +295,61 @@ class CardControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET " + STATEMENT_URL)
+    class GetStatement {
+
+        @Test
+        @DisplayName("Should return statement lines with running balances and a continuation token")
+        void shouldReturnStatementPage() throws Exception {
+            LocalDate from = LocalDate.parse("2026-01-01");
+            LocalDate to = LocalDate.parse("2026-01-31");
+            when(cardService.getStatement(userId, cardId, from, to, null, 10)).thenReturn(CardStatementPage.builder()
+                    .cardId(cardId)
+                    .openingBalance(new BigDecimal("1000.00"))
+                    .content(List.of(CardStatementLine.builder()
+                            .transferId(7L)
+                            .type("DEBIT")
+                            .amount(new BigDecimal("-100.00"))
+                            .balanceAfter(new BigDecimal("900.00"))
+                            .timestamp(Instant.parse("2026-01-02T09:00:00Z"))
+                            .build()))
+                    .size(10)
+                    .nextCursor("next")
+                    .build());
+
+            mockMvc.perform(get(STATEMENT_URL, cardId)
+                            .param("from", "2026-01-01")
+                            .param("to", "2026-01-31")
+                            .param("size", "10")
+                            .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.openingBalance").value(1000.00))
+                    .andExpect(jsonPath("$.content[0].balanceAfter").value(900.00))
+                    .andExpect(jsonPath("$.nextCursor").value("next"));
+        }
+
+        @Test
+        @DisplayName("Should return 404 when card not found")
+        void shouldReturn404WhenCardNotFound() throws Exception {
+            when(cardService.getStatement(userId, cardId, null, null, null, null))
+                    .thenThrow(ResourceNotFoundException.card(cardId));
+
+            mockMvc.perform(get(STATEMENT_URL, cardId)
+                            .with(user(userDetails)))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Should return 401 when not authenticated")
+        void shouldReturn401WhenNotAuthenticated() throws Exception {
+            mockMvc.perform(get(STATEMENT_URL, cardId))
+                    .andExpect(status().isUnauthorized());
+
+            verifyNoInteractions(cardService);
+        }
+    }
+
     @Nested
     @DisplayName("PUT " + CARD_BY_ID_URL)
     class UpdateCard {
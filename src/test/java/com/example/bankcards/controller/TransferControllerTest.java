@@ -2,11 +2,17 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.config.SecurityConfig;
 import com.example.bankcards.config.TestSecurityConfig;
+import com.example.bankcards.dto.transfer.BatchTransferItemResult;
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.transfer.ExportFormat;
+import com.example.bankcards.dto.transfer.TransferCursorPage;
 import com.example.bankcards.dto.transfer.TransferRequest;
 import com.example.bankcards.dto.transfer.TransferResponse;
 import com.example.bankcards.entity.TransferStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceExistsException;
 import com.example.bankcards.exception.ResourceNotFoundException;
 import com.example.bankcards.security.CustomUserDetails;
 import com.example.bankcards.security.JwtAuthenticationFilter;
@@ -28,20 +34,36 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.InterruptedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(
@@ -122,7 +144,7 @@ class TransferControllerTest {
         @Test
         @DisplayName("Should create transfer successfully")
         void shouldCreateTransferSuccessfully() throws Exception {
-            when(transferService.transferMoney(any(TransferRequest.class), eq(userId))).thenReturn(transferResponse);
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), isNull())).thenReturn(transferResponse);
 
             mockMvc.perform(post(TRANSFERS_URL)
                             .with(user(userDetails))
@@ -132,7 +154,7 @@ class TransferControllerTest {
                     .andExpect(jsonPath("$.id").value(transferResponseId))
                     .andExpect(jsonPath("$.amount").value(transferAmount.doubleValue()));
 
-            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId));
+            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId), isNull());
         }
 
         @Test
@@ -151,7 +173,7 @@ class TransferControllerTest {
                             .content(objectMapper.writeValueAsString(invalidRequest)))
                     .andExpect(status().isBadRequest());
 
-            verify(transferService, never()).transferMoney(any(), any());
+            verify(transferService, never()).transferMoney(any(), any(), any());
         }
 
         @Test
@@ -160,13 +182,13 @@ class TransferControllerTest {
             mockMvc.perform(post(TRANSFERS_URL))
                     .andExpect(status().isUnauthorized());
 
-            verify(transferService, never()).transferMoney(any(), any());
+            verify(transferService, never()).transferMoney(any(), any(), any());
         }
 
         @Test
         @DisplayName("Should return 404 when card not found")
         void shouldReturn404WhenCardNotFound() throws Exception {
-            when(transferService.transferMoney(any(TransferRequest.class), eq(userId)))
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), isNull()))
                     .thenThrow(ResourceNotFoundException.card(destinationCardId));
 
             mockMvc.perform(post(TRANSFERS_URL)
@@ -175,7 +197,7 @@ class TransferControllerTest {
                             .content(objectMapper.writeValueAsString(transferRequest)))
                     .andExpect(status().isNotFound());
 
-            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId));
+            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId), isNull());
         }
 
         @Test
@@ -187,7 +209,7 @@ class TransferControllerTest {
                     .amount(new BigDecimal("100.00"))
                     .description("")
                     .build();
-            when(transferService.transferMoney(any(TransferRequest.class), eq(userId)))
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), isNull()))
                     .thenThrow(BusinessException.sameCardTransfer());
 
             mockMvc.perform(post(TRANSFERS_URL)
@@ -196,13 +218,13 @@ class TransferControllerTest {
                             .content(objectMapper.writeValueAsString(invalidRequest)))
                     .andExpect(status().isUnprocessableEntity());
 
-            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId));
+            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId), isNull());
         }
 
         @Test
         @DisplayName("Should return 422 when insufficient funds")
         void shouldReturn422WhenInsufficientFunds() throws Exception {
-            when(transferService.transferMoney(any(TransferRequest.class), eq(userId)))
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), isNull()))
                     .thenThrow(BusinessException.insufficientFunds(transferRequest.getAmount(), BigDecimal.ZERO));
 
             mockMvc.perform(post(TRANSFERS_URL)
@@ -211,13 +233,13 @@ class TransferControllerTest {
                             .content(objectMapper.writeValueAsString(transferRequest)))
                     .andExpect(status().isUnprocessableEntity());
 
-            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId));
+            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId), isNull());
         }
 
         @Test
         @DisplayName("Should return 404 when source card not owned by user")
         void shouldReturn404WhenSourceCardNotOwnedByUser() throws Exception {
-            when(transferService.transferMoney(any(TransferRequest.class), eq(userId)))
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), isNull()))
                     .thenThrow(ResourceNotFoundException.card(transferRequest.getSourceCardId()));
 
             mockMvc.perform(post(TRANSFERS_URL)
@@ -226,7 +248,137 @@ class TransferControllerTest {
                             .content(objectMapper.writeValueAsString(transferRequest)))
                     .andExpect(status().isNotFound());
 
-            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId));
+            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId), isNull());
+        }
+
+        @Test
+        @DisplayName("Should pass Idempotency-Key header to service")
+        void shouldPassIdempotencyKeyToService() throws Exception {
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), eq("key-1")))
+                    .thenReturn(transferResponse);
+
+            mockMvc.perform(post(TRANSFERS_URL)
+                            .with(user(userDetails))
+                            .header("Idempotency-Key", "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transferRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(transferResponseId));
+
+            verify(transferService).transferMoney(any(TransferRequest.class), eq(userId), eq("key-1"));
+        }
+
+        @Test
+        @DisplayName("Should return 202 when transfer is accepted as pending")
+        void shouldReturn202WhenTransferIsPending() throws Exception {
+            transferResponse.setStatus(TransferStatus.PENDING.name());
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), isNull()))
+                    .thenReturn(transferResponse);
+
+            mockMvc.perform(post(TRANSFERS_URL)
+                            .with(user(userDetails))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transferRequest)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.id").value(transferResponseId))
+                    .andExpect(jsonPath("$.status").value(TransferStatus.PENDING.name()));
+        }
+
+        @Test
+        @DisplayName("Should return 202 when transfer is held by velocity rules")
+        void shouldReturn202WhenTransferIsHeld() throws Exception {
+            transferResponse.setStatus(TransferStatus.HELD.name());
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), isNull()))
+                    .thenReturn(transferResponse);
+
+            mockMvc.perform(post(TRANSFERS_URL)
+                            .with(user(userDetails))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transferRequest)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.status").value(TransferStatus.HELD.name()));
+        }
+
+        @Test
+        @DisplayName("Should return 409 when request with same Idempotency-Key is in progress")
+        void shouldReturn409WhenIdempotencyKeyInProgress() throws Exception {
+            when(transferService.transferMoney(any(TransferRequest.class), eq(userId), eq("key-1")))
+                    .thenThrow(ResourceExistsException.idempotencyKeyInProgress("key-1"));
+
+            mockMvc.perform(post(TRANSFERS_URL)
+                            .with(user(userDetails))
+                            .header("Idempotency-Key", "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transferRequest)))
+                    .andExpect(status().isConflict());
+        }
+    }
+
+    @Nested
+    @DisplayName("POST " + TRANSFERS_URL + "/batch")
+    class TransferBatch {
+
+        @Test
+        @DisplayName("Should return per-item batch results")
+        void shouldReturnBatchResults() throws Exception {
+            BatchTransferRequest batchRequest = BatchTransferRequest.builder()
+                    .transfers(List.of(transferRequest))
+                    .build();
+            BatchTransferResponse batchResponse = BatchTransferResponse.builder()
+                    .total(1)
+                    .succeeded(1)
+                    .failed(0)
+                    .results(List.of(BatchTransferItemResult.builder()
+                            .index(0)
+                            .status("SUCCESS")
+                            .transfer(transferResponse)
+                            .build()))
+                    .build();
+            when(transferService.transferBatch(any(BatchTransferRequest.class), eq(userId))).thenReturn(batchResponse);
+
+            mockMvc.perform(post(TRANSFERS_URL + "/batch")
+                            .with(user(userDetails))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batchRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.succeeded").value(1))
+                    .andExpect(jsonPath("$.results[0].transfer.id").value(transferResponseId));
+
+            verify(transferService).transferBatch(any(BatchTransferRequest.class), eq(userId));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when batch is empty")
+        void shouldReturn400WhenBatchIsEmpty() throws Exception {
+            mockMvc.perform(post(TRANSFERS_URL + "/batch")
+                            .with(user(userDetails))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(BatchTransferRequest.builder()
+                                    .transfers(List.of())
+                                    .build())))
+                    .andExpect(status().isBadRequest());
+
+            verify(transferService, never()).transferBatch(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when batch item is invalid")
+        void shouldReturn400WhenBatchItemIsInvalid() throws Exception {
+            TransferRequest invalidRequest = TransferRequest.builder()
+                    .sourceCardId(1L)
+                    .destinationCardId(2L)
+                    .amount(new BigDecimal("-1.00"))
+                    .build();
+
+            mockMvc.perform(post(TRANSFERS_URL + "/batch")
+                            .with(user(userDetails))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(BatchTransferRequest.builder()
+                                    .transfers(List.of(invalidRequest))
+                                    .build())))
+                    .andExpect(status().isBadRequest());
+
+            verify(transferService, never()).transferBatch(any(), any());
         }
     }
 
@@ -294,4 +446,238 @@ class TransferControllerTest {
         }
 
     }
+
+    @Nested
+    @DisplayName("GET " + TRANSFERS_URL + "/history")
+    class GetTransferHistoryByCursor {
+
+        @Test
+        @DisplayName("Should return page with continuation token and no totals")
+        void shouldReturnPageWithCursor() throws Exception {
+            when(transferService.getTransferHistory(userId, "abc", 10, null, null)).thenReturn(TransferCursorPage.builder()
+                    .content(List.of(transferResponse))
+                    .size(10)
+                    .nextCursor("next")
+                    .build());
+
+            mockMvc.perform(get(TRANSFERS_URL + "/history")
+                            .param("cursor", "abc")
+                            .param("size", "10")
+                            .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(transferResponseId))
+                    .andExpect(jsonPath("$.nextCursor").value("next"))
+                    .andExpect(jsonPath("$.totalElements").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should start from the newest transfers when no cursor is given")
+        void shouldStartWithoutCursor() throws Exception {
+            when(transferService.getTransferHistory(userId, null, null, null, null))
+                    .thenReturn(TransferCursorPage.builder().content(List.of()).size(20).build());
+
+            mockMvc.perform(get(TRANSFERS_URL + "/history")
+                            .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content").isEmpty())
+                    .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+            verify(transferService).getTransferHistory(userId, null, null, null, null);
+        }
+
+        @Test
+        @DisplayName("Should pass the date range to the service")
+        void shouldPassDateRange() throws Exception {
+            LocalDate from = LocalDate.parse("2026-01-01");
+            LocalDate to = LocalDate.parse("2026-01-31");
+            when(transferService.getTransferHistory(userId, null, null, from, to))
+                    .thenReturn(TransferCursorPage.builder().content(List.of()).size(20).build());
+
+            mockMvc.perform(get(TRANSFERS_URL + "/history")
+                            .param("from", "2026-01-01")
+                            .param("to", "2026-01-31")
+                            .with(user(userDetails)))
+                    .andExpect(status().isOk());
+
+            verify(transferService).getTransferHistory(userId, null, null, from, to);
+        }
+
+        @Test
+        @DisplayName("Should return 422 when cursor is invalid")
+        void shouldReturn422WhenCursorInvalid() throws Exception {
+            when(transferService.getTransferHistory(userId, "broken", null, null, null))
+                    .thenThrow(BusinessException.invalidCursor("broken"));
+
+            mockMvc.perform(get(TRANSFERS_URL + "/history")
+                            .param("cursor", "broken")
+                            .with(user(userDetails)))
+                    .andExpect(status().isUnprocessableEntity());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET " + TRANSFERS_URL + "/export")
+    class ExportTransferHistory {
+
+        private static final String CSV_BODY = "id,timestamp\n1,2026-01-01T12:00:00Z\n";
+
+        private final CountDownLatch requestReturned = new CountDownLatch(1);
+
+        // The body runs on the async executor. Held until the request thread has returned, its flush cannot commit
+        // the response while filters on that thread are still adding headers
+        private StreamingResponseBody writeAfterRequestReturns(String body) {
+            return outputStream -> {
+                try {
+                    requestReturned.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted before writing the export");
+                }
+                outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+            };
+        }
+
+        @Test
+        @DisplayName("Should stream CSV as an attachment")
+        void shouldStreamCsv() throws Exception {
+            when(transferService.exportTransferHistory(
+                    userId, LocalDate.parse("2026-01-01"), LocalDate.parse("2026-01-31"), ExportFormat.CSV
+            )).thenReturn(writeAfterRequestReturns(CSV_BODY));
+
+            MvcResult result = mockMvc.perform(get(TRANSFERS_URL + "/export")
+                            .param("from", "2026-01-01")
+                            .param("to", "2026-01-31")
+                            .with(user(userDetails)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            requestReturned.countDown();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transfers.csv\""))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(content().string(CSV_BODY));
+        }
+
+        @Test
+        @DisplayName("Should gzip the stream when the client accepts gzip")
+        void shouldGzipWhenAccepted() throws Exception {
+            when(transferService.exportTransferHistory(userId, null, null, ExportFormat.NDJSON))
+                    .thenReturn(writeAfterRequestReturns(CSV_BODY));
+
+            MvcResult result = mockMvc.perform(get(TRANSFERS_URL + "/export")
+                            .param("format", "NDJSON")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                            .with(user(userDetails)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            requestReturned.countDown();
+
+            byte[] body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsByteArray();
+
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(CSV_BODY);
+            }
+        }
+
+        @Test
+        @DisplayName("Should return 422 when the date range is inverted")
+        void shouldReturn422WhenRangeInvalid() throws Exception {
+            LocalDate from = LocalDate.parse("2026-02-01");
+            LocalDate to = LocalDate.parse("2026-01-01");
+            when(transferService.exportTransferHistory(userId, from, to, ExportFormat.CSV))
+                    .thenThrow(BusinessException.invalidDateRange(from, to));
+
+            mockMvc.perform(get(TRANSFERS_URL + "/export")
+                            .param("from", "2026-02-01")
+                            .param("to", "2026-01-01")
+                            .with(user(userDetails)))
+                    .andExpect(status().isUnprocessableEntity());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET " + TRANSFERS_URL + "/{id}")
+    class GetTransfer {
+
+        @Test
+        @DisplayName("Should return transfer with its status")
+        void shouldReturnTransfer() throws Exception {
+            transferResponse.setStatus(TransferStatus.FAILED.name());
+            transferResponse.setFailureReason("Insufficient funds");
+            when(transferService.getTransfer(userId, transferResponseId)).thenReturn(transferResponse);
+
+            mockMvc.perform(get(TRANSFERS_URL + "/{id}", transferResponseId)
+                            .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value(TransferStatus.FAILED.name()))
+                    .andExpect(jsonPath("$.failureReason").value("Insufficient funds"));
+        }
+
+        @Test
+        @DisplayName("Should return 404 when transfer is not visible to user")
+        void shouldReturn404WhenTransferNotFound() throws Exception {
+            when(transferService.getTransfer(userId, 42L)).thenThrow(ResourceNotFoundException.transfer(42L));
+
+            mockMvc.perform(get(TRANSFERS_URL + "/{id}", 42L)
+                            .with(user(userDetails)))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Should return 401 when not authenticated")
+        void shouldReturn401WhenNotAuthenticated() throws Exception {
+            mockMvc.perform(get(TRANSFERS_URL + "/{id}", transferResponseId))
+                    .andExpect(status().isUnauthorized());
+
+            verifyNoInteractions(transferService);
+        }
+    }
+
+    @Nested
+    @DisplayName("POST " + TRANSFERS_URL + "/{id}/release and /reject")
+    class HeldTransfers {
+
+        @Test
+        @DisplayName("Should release a held transfer")
+        void shouldReleaseHeldTransfer() throws Exception {
+            transferResponse.setStatus(TransferStatus.PENDING.name());
+            when(transferService.releaseHeldTransfer(transferResponseId)).thenReturn(transferResponse);
+
+            mockMvc.perform(post(TRANSFERS_URL + "/{id}/release", transferResponseId)
+                            .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value(TransferStatus.PENDING.name()));
+        }
+
+        @Test
+        @DisplayName("Should reject a held transfer")
+        void shouldRejectHeldTransfer() throws Exception {
+            transferResponse.setStatus(TransferStatus.FAILED.name());
+            when(transferService.rejectHeldTransfer(transferResponseId)).thenReturn(transferResponse);
+
+            mockMvc.perform(post(TRANSFERS_URL + "/{id}/reject", transferResponseId)
+                            .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value(TransferStatus.FAILED.name()));
+        }
+
+        @Test
+        @DisplayName("Should return 422 when the transfer is not held")
+        void shouldReturn422WhenNotHeld() throws Exception {
+            when(transferService.releaseHeldTransfer(transferResponseId))
+                    .thenThrow(BusinessException.transferNotHeld(transferResponseId));
+
+            mockMvc.perform(post(TRANSFERS_URL + "/{id}/release", transferResponseId)
+                            .with(user(userDetails)))
+                    .andExpect(status().isUnprocessableEntity());
+        }
+    }
 }
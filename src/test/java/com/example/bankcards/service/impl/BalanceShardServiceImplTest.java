@@ -0,0 +1,227 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.LedgerProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalanceShard;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardBalanceShardRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceShardServiceImplTest {
+
+    @Mock
+    private CardBalanceShardRepository cardBalanceShardRepository;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    private LedgerProperties ledgerProperties;
+    private BalanceShardServiceImpl balanceShardService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerProperties = new LedgerProperties();
+        ledgerProperties.getSharding().setShardCount(4);
+        balanceShardService = new BalanceShardServiceImpl(
+                cardBalanceShardRepository, cardRepository, ledgerEntryRepository, ledgerProperties
+        );
+    }
+
+    private CardBalanceShard shard(int shardNo, String balance) {
+        return CardBalanceShard.builder()
+                .id((long) shardNo + 100)
+                .cardId(1L)
+                .shardNo(shardNo)
+                .balance(new BigDecimal(balance))
+                .build();
+    }
+
+    private LedgerEntryRepository.CardBalance cardBalance(String balance) {
+        return new LedgerEntryRepository.CardBalance() {
+            @Override
+            public Long getCardId() {
+                return 1L;
+            }
+
+            @Override
+            public BigDecimal getBalance() {
+                return new BigDecimal(balance);
+            }
+        };
+    }
+
+    private void stubLockedCard() {
+        when(cardRepository.findByIdForExclusiveLock(1L)).thenReturn(Optional.of(Card.builder().id(1L).build()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CardBalanceShard> capturedSaveAll() {
+        ArgumentCaptor<List<CardBalanceShard>> captor = ArgumentCaptor.forClass(List.class);
+        verify(cardBalanceShardRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Nested
+    @DisplayName("applyCredit / applyDebit")
+    class Apply {
+
+        @Test
+        @DisplayName("Should credit one randomly chosen shard")
+        void shouldCreditRandomShard() {
+            balanceShardService.applyCredit(1L, BigDecimal.TEN);
+
+            verify(cardBalanceShardRepository).creditRandomShard(eq(1L), eq(BigDecimal.TEN), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should draw debits from shards in order")
+        void shouldDebitInShardOrder() {
+            balanceShardService.applyDebit(1L, BigDecimal.TEN);
+
+            verify(cardBalanceShardRepository).debitInShardOrder(1L, BigDecimal.TEN);
+        }
+    }
+
+    @Nested
+    @DisplayName("enableSharding")
+    class EnableSharding {
+
+        @Test
+        @DisplayName("Should seed the first shard with the ledger balance and zero the rest")
+        void shouldSeedShardsWithLedgerBalance() {
+            stubLockedCard();
+            when(cardBalanceShardRepository.findByCardIdOrderByShardNo(1L)).thenReturn(List.of());
+            when(ledgerEntryRepository.findBalances(List.of(1L))).thenReturn(List.of(cardBalance("75.00")));
+
+            balanceShardService.enableSharding(1L);
+
+            List<CardBalanceShard> shards = capturedSaveAll();
+            assertThat(shards).extracting(CardBalanceShard::getShardNo).containsExactly(0, 1, 2, 3);
+            assertThat(shards.get(0).getBalance()).isEqualByComparingTo("75.00");
+            assertThat(shards.subList(1, 4)).allSatisfy(shard ->
+                    assertThat(shard.getBalance()).isEqualByComparingTo(BigDecimal.ZERO));
+        }
+
+        @Test
+        @DisplayName("Should leave an already sharded card untouched")
+        void shouldSkipShardedCard() {
+            stubLockedCard();
+            when(cardBalanceShardRepository.findByCardIdOrderByShardNo(1L)).thenReturn(List.of(shard(0, "1.00")));
+
+            balanceShardService.enableSharding(1L);
+
+            verify(cardBalanceShardRepository, never()).saveAll(any());
+            verifyNoInteractions(ledgerEntryRepository);
+        }
+
+        @Test
+        @DisplayName("Should throw exception when card does not exist")
+        void shouldThrowWhenCardMissing() {
+            when(cardRepository.findByIdForExclusiveLock(1L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> balanceShardService.enableSharding(1L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("compact")
+    class Compact {
+
+        @Test
+        @DisplayName("Should fold all shards into the first one")
+        void shouldFoldShards() {
+            stubLockedCard();
+            List<CardBalanceShard> shards = List.of(
+                    shard(0, "1.00"), shard(1, "2.00"), shard(2, "3.00"), shard(3, "4.00")
+            );
+            when(cardBalanceShardRepository.findByCardIdOrderByShardNo(1L)).thenReturn(shards);
+
+            balanceShardService.compact(1L);
+
+            assertThat(shards.get(0).getBalance()).isEqualByComparingTo("10.00");
+            assertThat(shards.subList(1, 4)).allSatisfy(shard ->
+                    assertThat(shard.getBalance()).isEqualByComparingTo(BigDecimal.ZERO));
+            assertThat(capturedSaveAll()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should resize shards to the configured count")
+        void shouldResizeShards() {
+            stubLockedCard();
+            ledgerProperties.getSharding().setShardCount(2);
+            List<CardBalanceShard> shards = new ArrayList<>(List.of(
+                    shard(0, "1.00"), shard(1, "2.00"), shard(2, "3.00")
+            ));
+            when(cardBalanceShardRepository.findByCardIdOrderByShardNo(1L)).thenReturn(shards);
+
+            balanceShardService.compact(1L);
+
+            verify(cardBalanceShardRepository).deleteAll(List.of(shards.get(2)));
+            assertThat(shards.get(0).getBalance()).isEqualByComparingTo("6.00");
+
+            ledgerProperties.getSharding().setShardCount(5);
+            reset(cardBalanceShardRepository);
+            when(cardBalanceShardRepository.findByCardIdOrderByShardNo(1L))
+                    .thenReturn(List.of(shard(0, "6.00"), shard(1, "0.00")));
+
+            balanceShardService.compact(1L);
+
+            assertThat(capturedSaveAll()).extracting(CardBalanceShard::getShardNo).containsExactly(2, 3, 4);
+        }
+
+        @Test
+        @DisplayName("Should do nothing for a card without shards")
+        void shouldSkipUnshardedCard() {
+            stubLockedCard();
+            when(cardBalanceShardRepository.findByCardIdOrderByShardNo(1L)).thenReturn(List.of());
+
+            balanceShardService.compact(1L);
+
+            verify(cardBalanceShardRepository, never()).saveAll(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("disableSharding")
+    class DisableSharding {
+
+        @Test
+        @DisplayName("Should delete shards under an exclusive card lock")
+        void shouldDeleteShards() {
+            stubLockedCard();
+
+            balanceShardService.disableSharding(1L);
+
+            InOrder inOrder = inOrder(cardRepository, cardBalanceShardRepository);
+            inOrder.verify(cardRepository).findByIdForExclusiveLock(1L);
+            inOrder.verify(cardBalanceShardRepository).deleteByCardId(1L);
+        }
+    }
+}
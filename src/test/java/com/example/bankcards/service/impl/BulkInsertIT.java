@@ -0,0 +1,192 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.KafkaProducerService;
+import com.example.bankcards.service.TransferService;
+import com.example.bankcards.util.EncryptionUtil;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class BulkInsertIT {
+
+    private static final int CARDS = 5_000;
+    private static final int BATCH_TRANSFERS = 1_000;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> true);
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+    }
+
+    @MockBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(kafkaProducerService.sendTransferEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAllInBatch();
+        transferRepository.deleteAllInBatch();
+        cardRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should insert cards in JDBC batches instead of one statement per row")
+    void shouldBatchBulkCardInserts() {
+        User owner = createUser();
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(card(owner, i, BigDecimal.ZERO));
+        }
+
+        statistics.clear();
+        long startedAt = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> cardRepository.saveAll(cards));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        log.info("Bulk card insert: {} rows in {} ms ({} rows/s), {} statements prepared",
+                CARDS, elapsedMillis, CARDS * 1000L / Math.max(elapsedMillis, 1),
+                statistics.getPrepareStatementCount());
+
+        assertThat(cardRepository.count()).isEqualTo(CARDS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(CARDS / 10);
+    }
+
+    @Test
+    @DisplayName("Should insert batch transfer rows in JDBC batches")
+    void shouldBatchTransferInserts() {
+        User owner = createUser();
+        List<Long> cardIds = cardRepository.saveAll(List.of(
+                card(owner, 0, new BigDecimal("100000.00")),
+                card(owner, 1, new BigDecimal("100000.00")),
+                card(owner, 2, new BigDecimal("100000.00"))
+        )).stream().map(Card::getId).toList();
+
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < BATCH_TRANSFERS; i++) {
+            requests.add(TransferRequest.builder()
+                    .sourceCardId(cardIds.get(i % 3))
+                    .destinationCardId(cardIds.get((i + 1) % 3))
+                    .amount(BigDecimal.ONE)
+                    .build());
+        }
+
+        statistics.clear();
+        long startedAt = System.nanoTime();
+        BatchTransferResponse response = transferService.transferBatch(
+                BatchTransferRequest.builder().transfers(requests).build(), owner.getId()
+        );
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        log.info("Batch transfer insert: {} rows in {} ms ({} rows/s), {} statements prepared",
+                BATCH_TRANSFERS, elapsedMillis, BATCH_TRANSFERS * 1000L / Math.max(elapsedMillis, 1),
+                statistics.getPrepareStatementCount());
+
+        assertThat(response.getSucceeded()).isEqualTo(BATCH_TRANSFERS);
+        assertThat(transferRepository.count()).isEqualTo(BATCH_TRANSFERS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(BATCH_TRANSFERS / 10);
+    }
+
+    private Card card(User owner, int index, BigDecimal balance) {
+        return Card.builder()
+                .cardNumber(encryptionUtil.encrypt("4000" + String.format("%012d", index)))
+                .cardLast4(String.format("%04d", index % 10_000))
+                .owner(owner)
+                .holderName("BULK TEST")
+                .expiryDate(LocalDate.now().plusYears(3))
+                .status(CardStatus.ACTIVE)
+                .balance(balance)
+                .build();
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username("bulk-" + suffix)
+                .email("bulk-" + suffix + "@example.com")
+                .password("password")
+                .build());
+    }
+}
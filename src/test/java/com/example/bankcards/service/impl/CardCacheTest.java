@@ -0,0 +1,197 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.CardProperties;
+import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.service.impl.CardCache.CachedCard;
+import com.example.bankcards.service.impl.CardCache.CachedPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CardCacheTest {
+
+    private static final Long CARD_ID = 1L;
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private CardProperties cardProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private CardCache cardCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cardProperties = new CardProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        cardCache = new CardCache(cardProperties, redisTemplate, new ObjectMapper(), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    private Supplier<CachedCard> loader(String status) {
+        return () -> {
+            loads.incrementAndGet();
+            return new CachedCard(USER_ID, CardResponse.builder().id(CARD_ID).status(status).build());
+        };
+    }
+
+    @Nested
+    @DisplayName("getCard")
+    class GetCard {
+
+        @Test
+        @DisplayName("Should load a card once and serve it from memory afterwards")
+        void shouldServeFromMemory() {
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+            CachedCard card = cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            assertThat(card.card().getStatus()).isEqualTo("ACTIVE");
+            assertThat(loads).hasValue(1);
+            assertThat(meterRegistry.get("cache.gets").tag("cache", "cards").tag("result", "hit")
+                    .functionCounter().count()).isEqualTo(1);
+            verifyNoInteractions(redisTemplate);
+        }
+
+        @Test
+        @DisplayName("Should not cache a card that could not be loaded")
+        void shouldNotCacheFailedLoad() {
+            assertThatThrownBy(() -> cardCache.getCard(CARD_ID, () -> {
+                throw new IllegalStateException("not found");
+            })).isInstanceOf(IllegalStateException.class);
+
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            assertThat(loads).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("Should load every time when disabled")
+        void shouldLoadEveryTimeWhenDisabled() {
+            cardProperties.getCache().setEnabled(false);
+
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            assertThat(loads).hasValue(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("evictCards")
+    class EvictCards {
+
+        @Test
+        @DisplayName("Should load the card again after it is evicted")
+        void shouldReloadAfterEviction() {
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            cardCache.evictCards(List.of(CARD_ID));
+            CachedCard card = cardCache.getCard(CARD_ID, loader("BLOCKED"));
+
+            assertThat(card.card().getStatus()).isEqualTo("BLOCKED");
+            assertThat(loads).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should keep serving the card until the evicting transaction commits")
+        void shouldEvictAfterCommit() {
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                cardCache.evictCards(List.of(CARD_ID));
+                cardCache.getCard(CARD_ID, loader("BLOCKED"));
+                assertThat(loads).hasValue(1);
+
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            assertThat(cardCache.getCard(CARD_ID, loader("BLOCKED")).card().getStatus()).isEqualTo("BLOCKED");
+        }
+
+        @Test
+        @DisplayName("Should not keep a card loaded while it was being evicted")
+        void shouldDropLoadThatOverlappedEviction() {
+            cardCache.getCard(CARD_ID, () -> {
+                CachedCard stale = loader("ACTIVE").get();
+                cardCache.evictCards(List.of(CARD_ID));
+                return stale;
+            });
+
+            CachedCard card = cardCache.getCard(CARD_ID, loader("BLOCKED"));
+
+            assertThat(card.card().getStatus()).isEqualTo("BLOCKED");
+        }
+
+        @Test
+        @DisplayName("Should evict cards named in an invalidation message from another node")
+        void shouldEvictOnInvalidationMessage() {
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            cardCache.onInvalidation("card:" + CARD_ID + ",2");
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            assertThat(loads).hasValue(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("getPage")
+    class GetPage {
+
+        @Test
+        @DisplayName("Should drop only the pages of the evicted user")
+        void shouldEvictPagesOfUser() {
+            Long otherUserId = 8L;
+            AtomicInteger pageLoads = new AtomicInteger();
+            Supplier<CachedPage> pageLoader = () -> {
+                pageLoads.incrementAndGet();
+                return new CachedPage(List.of(CARD_ID), 1);
+            };
+            cardCache.getPage(USER_ID, PageRequest.of(0, 10), pageLoader);
+            cardCache.getPage(otherUserId, PageRequest.of(0, 10), pageLoader);
+
+            cardCache.evictUsers(List.of(USER_ID));
+            cardCache.getPage(USER_ID, PageRequest.of(0, 10), pageLoader);
+            cardCache.getPage(otherUserId, PageRequest.of(0, 10), pageLoader);
+
+            assertThat(pageLoads).hasValue(3);
+        }
+
+        @Test
+        @DisplayName("Should load only the cards missing from memory")
+        void shouldLoadOnlyMissingCards() {
+            cardCache.getCard(CARD_ID, loader("ACTIVE"));
+
+            Map<Long, CachedCard> cards = cardCache.getCards(List.of(CARD_ID, 2L), missing -> {
+                assertThat(missing).containsExactly(2L);
+                return Map.of(2L, new CachedCard(USER_ID, CardResponse.builder().id(2L).build()));
+            });
+
+            assertThat(cards).containsOnlyKeys(CARD_ID, 2L);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.service.impl;
 
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardStatementPage;
 import com.example.bankcards.dto.card.CardUpdateRequest;
 import com.example.bankcards.dto.card.CreateCardRequest;
 import com.example.bankcards.entity.Card;
@@ -11,12 +12,16 @@ import com.example.bankcards.exception.ResourceNotFoundException;
 import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.impl.CardCache.CachedCard;
+import com.example.bankcards.service.impl.CardCache.CachedPage;
 import com.example.bankcards.util.EncryptionUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,11 +29,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -50,6 +62,21 @@ class CardServiceImplTest {
     @Mock
     private EncryptionUtil encryptionUtil;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private CardStatementReader cardStatementReader;
+
+    @Mock
+    private CardCache cardCache;
+
+    @Mock
+    private CardStatusIndex cardStatusIndex;
+
+    @Mock
+    private TransactionOperations transactionOperations;
+
     @InjectMocks
     private CardServiceImpl cardService;
 
@@ -113,6 +140,18 @@ class CardServiceImplTest {
                 .status(CardStatus.ACTIVE.name())
                 .balance(new BigDecimal("1000.00"))
                 .build();
+
+        // An empty cache: every read goes to the loaders, which run in the transaction right away.
+        // Tests that need a hit stub with doReturn, since when() would call these answers with null arguments
+        lenient().when(transactionOperations.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(cardCache.getCard(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<CachedCard>>getArgument(1).get());
+        lenient().when(cardCache.getPage(any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<CachedPage>>getArgument(2).get());
+        lenient().when(cardCache.getCards(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<Collection<Long>, Map<Long, CachedCard>>>getArgument(1)
+                        .apply(invocation.getArgument(0)));
     }
 
     @Nested
@@ -138,6 +177,7 @@ class CardServiceImplTest {
             verify(encryptionUtil).encrypt(cardNumber);
             verify(cardRepository).save(any(Card.class));
             verify(cardMapper).toResponse(card);
+            verify(cardCache).evictUsers(List.of(userId));
         }
 
         @Test
@@ -153,6 +193,22 @@ class CardServiceImplTest {
             verify(encryptionUtil).encrypt(cardNumber);
         }
 
+        @Test
+        @DisplayName("Should store last four digits in clear next to the encrypted number")
+        void shouldStoreLastFourDigits() {
+            when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
+            when(encryptionUtil.encrypt(cardNumber)).thenReturn(encryptedCardNumber);
+            when(cardRepository.save(any(Card.class))).thenReturn(card);
+            when(cardMapper.toResponse(card)).thenReturn(cardResponse);
+
+            cardService.createCard(createCardRequest, userId);
+
+            ArgumentCaptor<Card> captor = ArgumentCaptor.forClass(Card.class);
+            verify(cardRepository).save(captor.capture());
+            assertThat(captor.getValue().getCardNumber()).isEqualTo(encryptedCardNumber);
+            assertThat(captor.getValue().getCardLast4()).isEqualTo("4444");
+        }
+
         @Test
         @DisplayName("Should throw exception when user not found")
         void shouldThrowExceptionWhenUserNotFound() {
@@ -232,6 +288,84 @@ class CardServiceImplTest {
             verify(cardMapper, never()).toResponse(any(Card.class));
         }
 
+        @Test
+        @DisplayName("Should return a cached card without reading the database")
+        void shouldReturnCachedCard() {
+            doReturn(new CachedCard(userId, cardResponse)).when(cardCache).getCard(eq(cardId), any());
+
+            CardResponse result = cardService.getCardById(userId, cardId);
+
+            assertThat(result).isSameAs(cardResponse);
+            verifyNoInteractions(cardRepository, cardMapper, transactionOperations);
+        }
+
+        @Test
+        @DisplayName("Should not serve a cached card to another user")
+        void shouldNotServeCachedCardToAnotherUser() {
+            doReturn(new CachedCard(userId, cardResponse)).when(cardCache).getCard(eq(cardId), any());
+
+            assertThatThrownBy(() -> cardService.getCardById(999L, cardId))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+    }
+
+    @Nested
+    @DisplayName("getStatement")
+    class GetStatement {
+
+        @Test
+        @DisplayName("Should read whole UTC days starting at the beginning of the first day")
+        void shouldReadDateRange() {
+            CardStatementPage page = CardStatementPage.builder().cardId(cardId).build();
+            when(cardRepository.findByOwnerIdAndId(userId, cardId)).thenReturn(Optional.of(card));
+            when(cardStatementReader.read(
+                    cardId,
+                    new TransferCursor(Instant.parse("2026-01-01T00:00:00Z"), 0L),
+                    Instant.parse("2026-02-01T00:00:00Z"),
+                    10
+            )).thenReturn(page);
+
+            CardStatementPage result = cardService.getStatement(
+                    userId, cardId, LocalDate.parse("2026-01-01"), LocalDate.parse("2026-01-31"), null, 10
+            );
+
+            assertThat(result).isSameAs(page);
+        }
+
+        @Test
+        @DisplayName("Should continue after the cursor position")
+        void shouldContinueFromCursor() {
+            TransferCursor position = new TransferCursor(Instant.parse("2026-01-05T10:00:00Z"), 42L);
+            when(cardRepository.findByOwnerIdAndId(userId, cardId)).thenReturn(Optional.of(card));
+
+            cardService.getStatement(
+                    userId, cardId, LocalDate.parse("2026-01-01"), null, position.encode(), null
+            );
+
+            verify(cardStatementReader).read(cardId, position, null, null);
+        }
+
+        @Test
+        @DisplayName("Should throw exception when card not owned by user")
+        void shouldThrowExceptionWhenCardNotOwnedByUser() {
+            when(cardRepository.findByOwnerIdAndId(userId, cardId)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> cardService.getStatement(userId, cardId, null, null, null, null))
+                    .isInstanceOf(ResourceNotFoundException.class);
+
+            verifyNoInteractions(cardStatementReader);
+        }
+
+        @Test
+        @DisplayName("Should reject a range that ends before it starts")
+        void shouldRejectInvertedRange() {
+            assertThatThrownBy(() -> cardService.getStatement(
+                    userId, cardId, LocalDate.parse("2026-02-01"), LocalDate.parse("2026-01-01"), null, null
+            )).isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(cardRepository, cardStatementReader);
+        }
     }
 
     @Nested
@@ -241,12 +375,12 @@ class CardServiceImplTest {
         @Test
         @DisplayName("Should return page with cards")
         void shouldReturnPageWithCards() {
-            List<Card> cards = List.of(card);
-            Page<Card> cardPage = new PageImpl<>(cards, pageable, cards.size());
-
             when(userRepository.existsById(userId)).thenReturn(true);
-            when(cardRepository.findByOwnerId(userId, pageable)).thenReturn(cardPage);
-            when(cardMapper.toResponse(card)).thenReturn(cardResponse);
+            when(cardRepository.findIdsByOwnerId(userId, pageable))
+                    .thenReturn(new PageImpl<>(List.of(cardId), pageable, 1));
+            when(cardRepository.findAllById(List.of(cardId))).thenReturn(List.of(card));
+            when(ledgerService.getBalances(List.of(cardId))).thenReturn(Map.of(cardId, card.getBalance()));
+            when(cardMapper.toResponse(card, card.getBalance())).thenReturn(cardResponse);
 
             Page<CardResponse> result = cardService.getCardsForUser(userId, pageable);
 
@@ -256,17 +390,15 @@ class CardServiceImplTest {
             assertThat(result.getContent().getFirst().getHolderName()).isEqualTo(holderName);
 
             verify(userRepository).existsById(userId);
-            verify(cardRepository).findByOwnerId(userId, pageable);
-            verify(cardMapper).toResponse(card);
+            verify(cardRepository).findIdsByOwnerId(userId, pageable);
+            verify(cardMapper).toResponse(card, card.getBalance());
         }
 
         @Test
         @DisplayName("Should return empty page with no cards")
         void shouldReturnEmptyPageWithNoCards() {
-            Page<Card> emptyPage = Page.empty(pageable);
-
             when(userRepository.existsById(userId)).thenReturn(true);
-            when(cardRepository.findByOwnerId(userId, pageable)).thenReturn(emptyPage);
+            when(cardRepository.findIdsByOwnerId(userId, pageable)).thenReturn(Page.empty(pageable));
 
             Page<CardResponse> result = cardService.getCardsForUser(userId, pageable);
 
@@ -276,20 +408,21 @@ class CardServiceImplTest {
             assertThat(result.hasContent()).isFalse();
 
             verify(userRepository).existsById(userId);
-            verify(cardRepository).findByOwnerId(userId, pageable);
-            verify(cardMapper, never()).toResponse(any(Card.class));
+            verify(cardRepository).findIdsByOwnerId(userId, pageable);
+            verify(cardRepository, never()).findAllById(any());
+            verify(cardMapper, never()).toResponse(any(Card.class), any());
         }
 
         @Test
         @DisplayName("Should return correct page metadata")
         void shouldReturnCorrectPageMetadata() {
             Pageable customPageable = PageRequest.of(1, 5);
-            List<Card> cards = List.of(card);
-            Page<Card> cardPage = new PageImpl<>(cards, customPageable, 11);
 
             when(userRepository.existsById(userId)).thenReturn(true);
-            when(cardRepository.findByOwnerId(userId, customPageable)).thenReturn(cardPage);
-            when(cardMapper.toResponse(any(Card.class))).thenReturn(cardResponse);
+            when(cardRepository.findIdsByOwnerId(userId, customPageable))
+                    .thenReturn(new PageImpl<>(List.of(cardId), customPageable, 11));
+            when(cardRepository.findAllById(List.of(cardId))).thenReturn(List.of(card));
+            when(cardMapper.toResponse(any(Card.class), any())).thenReturn(cardResponse);
 
             Page<CardResponse> result = cardService.getCardsForUser(userId, customPageable);
 
@@ -310,7 +443,41 @@ class CardServiceImplTest {
                     .isInstanceOf(ResourceNotFoundException.class);
 
             verify(userRepository).existsById(userId);
-            verify(cardRepository, never()).findByOwnerId(any(), any());
+            verify(cardRepository, never()).findIdsByOwnerId(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should build the page from cached ids and cards without reading the database")
+        void shouldReturnCachedPage() {
+            doReturn(new CachedPage(List.of(cardId), 1)).when(cardCache).getPage(eq(userId), eq(pageable), any());
+            doReturn(Map.of(cardId, new CachedCard(userId, cardResponse)))
+                    .when(cardCache).getCards(eq(List.of(cardId)), any());
+
+            Page<CardResponse> result = cardService.getCardsForUser(userId, pageable);
+
+            assertThat(result.getContent()).containsExactly(cardResponse);
+            assertThat(result.getTotalElements()).isEqualTo(1);
+            verifyNoInteractions(userRepository, cardRepository, transactionOperations);
+        }
+
+        @Test
+        @DisplayName("Should read the page again when a cached id belongs to a deleted card")
+        void shouldReloadPageWhenCachedCardIsGone() {
+            Long deletedCardId = 2L;
+            doReturn(new CachedPage(List.of(deletedCardId, cardId), 2))
+                    .when(cardCache).getPage(eq(userId), eq(pageable), any());
+            doReturn(Map.of(cardId, new CachedCard(userId, cardResponse)))
+                    .when(cardCache).getCards(eq(List.of(deletedCardId, cardId)), any());
+            when(userRepository.existsById(userId)).thenReturn(true);
+            when(cardRepository.findIdsByOwnerId(userId, pageable))
+                    .thenReturn(new PageImpl<>(List.of(cardId), pageable, 1));
+            when(cardRepository.findAllById(List.of(cardId))).thenReturn(List.of(card));
+            when(cardMapper.toResponse(any(Card.class), any())).thenReturn(cardResponse);
+
+            Page<CardResponse> result = cardService.getCardsForUser(userId, pageable);
+
+            assertThat(result.getContent()).containsExactly(cardResponse);
+            assertThat(result.getTotalElements()).isEqualTo(1);
         }
 
     }
@@ -342,6 +509,9 @@ class CardServiceImplTest {
 
             verify(cardRepository).findByOwnerIdAndId(userId, cardId);
             verify(cardRepository).save(card);
+            verify(cardCache).evictCards(List.of(cardId));
+            verify(cardCache).evictUsers(List.of(userId));
+            verify(cardStatusIndex).statusChanged(List.of(cardId), CardStatus.BLOCKED);
         }
 
         @Test
@@ -420,24 +590,25 @@ class CardServiceImplTest {
         @Test
         @DisplayName("Should delete card successfully")
         void shouldDeleteCardSuccessfully() {
-            when(cardRepository.existsById(cardId)).thenReturn(true);
+            when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
 
             cardService.deleteCard(userId, cardId);
 
-            verify(cardRepository).existsById(cardId);
-            verify(cardRepository).deleteById(cardId);
+            verify(cardRepository).delete(card);
+            verify(cardCache).evictCards(List.of(cardId));
+            verify(cardCache).evictUsers(List.of(userId));
         }
 
         @Test
         @DisplayName("Should throw exception when card not found")
         void shouldThrowExceptionWhenCardNotFound() {
-            when(cardRepository.existsById(cardId)).thenReturn(false);
+            when(cardRepository.findById(cardId)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> cardService.deleteCard(userId, cardId))
                     .isInstanceOf(ResourceNotFoundException.class);
 
-            verify(cardRepository).existsById(cardId);
-            verify(cardRepository, never()).deleteById(any());
+            verify(cardRepository, never()).delete(any(Card.class));
+            verifyNoInteractions(cardCache);
         }
     }
 
@@ -0,0 +1,177 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.CardProperties;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CardStatusIndexTest {
+
+    private static final long CARD_ID = 42L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private CardProperties cardProperties;
+    private CardStatusIndex cardStatusIndex;
+
+    @BeforeEach
+    void setUp() {
+        cardProperties = new CardProperties();
+        cardProperties.getStatusIndex().setMaxCards(16);
+        cardStatusIndex = new CardStatusIndex(cardProperties, redisTemplate, new SimpleMeterRegistry());
+    }
+
+    private void record(long cardId, CardStatus status) {
+        cardStatusIndex.record(cardId, status, cardStatusIndex.generation(cardId));
+    }
+
+    @Nested
+    @DisplayName("rejectIfUnusable")
+    class RejectIfUnusable {
+
+        @Test
+        @DisplayName("Should let unknown cards through to the locked check")
+        void shouldAllowUnknownCard() {
+            assertThatCode(() -> cardStatusIndex.rejectIfUnusable(CARD_ID)).doesNotThrowAnyException();
+        }
+
+        @Test
+        @DisplayName("Should reject recorded blocked and expired cards with the locked check's error")
+        void shouldRejectRecordedCards() {
+            record(CARD_ID, CardStatus.BLOCKED);
+            record(CARD_ID + 1, CardStatus.EXPIRED);
+
+            assertThatThrownBy(() -> cardStatusIndex.rejectIfUnusable(CARD_ID))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage(BusinessException.cardBlocked(CARD_ID).getMessage());
+            assertThatThrownBy(() -> cardStatusIndex.rejectIfUnusable(CARD_ID + 1))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage(BusinessException.cardExpired(CARD_ID + 1).getMessage());
+        }
+
+        @Test
+        @DisplayName("Should never reject a card that was not recorded, even when the table is full")
+        void shouldNotConfuseCardsWhenFull() {
+            for (long cardId = 1; cardId <= 100; cardId++) {
+                record(cardId, CardStatus.BLOCKED);
+            }
+
+            for (long cardId = 101; cardId <= 200; cardId++) {
+                long unknown = cardId;
+                assertThatCode(() -> cardStatusIndex.rejectIfUnusable(unknown)).doesNotThrowAnyException();
+            }
+        }
+
+        @Test
+        @DisplayName("Should let everything through when disabled")
+        void shouldAllowEverythingWhenDisabled() {
+            record(CARD_ID, CardStatus.BLOCKED);
+            cardProperties.getStatusIndex().setEnabled(false);
+
+            assertThatCode(() -> cardStatusIndex.rejectIfUnusable(CARD_ID)).doesNotThrowAnyException();
+        }
+
+        @Test
+        @DisplayName("Should forget every card on reset")
+        void shouldForgetOnReset() {
+            record(CARD_ID, CardStatus.BLOCKED);
+
+            cardStatusIndex.reset();
+
+            assertThatCode(() -> cardStatusIndex.rejectIfUnusable(CARD_ID)).doesNotThrowAnyException();
+        }
+    }
+
+    @Nested
+    @DisplayName("statusChanged")
+    class StatusChanged {
+
+        @Test
+        @DisplayName("Should apply a change only once the transaction commits")
+        void shouldApplyAfterCommit() {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                cardStatusIndex.statusChanged(List.of(CARD_ID), CardStatus.BLOCKED);
+                assertThatCode(() -> cardStatusIndex.rejectIfUnusable(CARD_ID)).doesNotThrowAnyException();
+
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            assertThatThrownBy(() -> cardStatusIndex.rejectIfUnusable(CARD_ID))
+                    .isInstanceOf(BusinessException.class);
+        }
+
+        @Test
+        @DisplayName("Should let transfers through again once the card is active")
+        void shouldForgetReactivatedCard() {
+            record(CARD_ID, CardStatus.BLOCKED);
+
+            cardStatusIndex.statusChanged(List.of(CARD_ID), CardStatus.ACTIVE);
+
+            assertThatCode(() -> cardStatusIndex.rejectIfUnusable(CARD_ID)).doesNotThrowAnyException();
+            verifyNoInteractions(redisTemplate);
+        }
+
+        @Test
+        @DisplayName("Should not keep a status read before the card was reactivated")
+        void shouldDropStatusReadBeforeReactivation() {
+            long generation = cardStatusIndex.generation(CARD_ID);
+
+            cardStatusIndex.statusChanged(List.of(CARD_ID), CardStatus.ACTIVE);
+            cardStatusIndex.record(CARD_ID, CardStatus.BLOCKED, generation);
+
+            assertThatCode(() -> cardStatusIndex.rejectIfUnusable(CARD_ID)).doesNotThrowAnyException();
+        }
+
+        @Test
+        @DisplayName("Should tell the other nodes which cards changed")
+        void shouldPublishChange() {
+            cardProperties.getStatusIndex().setRedisEnabled(true);
+
+            cardStatusIndex.statusChanged(List.of(CARD_ID, 7L), CardStatus.ACTIVE);
+
+            ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+            verify(redisTemplate).convertAndSend(eq(CardStatusIndex.INVALIDATION_CHANNEL), message.capture());
+            assertThat(message.getValue()).endsWith(":" + CARD_ID + ",7");
+        }
+    }
+
+    @Nested
+    @DisplayName("onInvalidation")
+    class OnInvalidation {
+
+        @Test
+        @DisplayName("Should forget cards changed on another node")
+        void shouldForgetCardsChangedElsewhere() {
+            record(CARD_ID, CardStatus.BLOCKED);
+
+            cardStatusIndex.onInvalidation("other-node:7," + CARD_ID);
+
+            assertThatCode(() -> cardStatusIndex.rejectIfUnusable(CARD_ID)).doesNotThrowAnyException();
+        }
+    }
+}
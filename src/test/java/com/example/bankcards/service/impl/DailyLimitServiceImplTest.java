@@ -0,0 +1,236 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.DailyLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyLimitServiceImplTest {
+
+    private static final String CARD_KEY = "limit:card:1:2026-03-10";
+    private static final String USER_KEY = "limit:user:7:2026-03-10";
+    private static final Instant START_OF_DAY = Instant.parse("2026-03-10T00:00:00Z");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    private TransferProperties transferProperties;
+    private DailyLimitServiceImpl dailyLimitService;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getLimits().setEnabled(true);
+        transferProperties.getLimits().setCardDaily(new BigDecimal("100.00"));
+        transferProperties.getLimits().setUserDaily(new BigDecimal("200.00"));
+        dailyLimitService = new DailyLimitServiceImpl(
+                redisTemplate, transferRepository, transferProperties,
+                Clock.fixed(Instant.parse("2026-03-10T12:00:00Z"), ZoneOffset.UTC)
+        );
+
+        User owner = User.builder().id(7L).build();
+        card = Card.builder().id(1L).owner(owner).build();
+    }
+
+    private static <T> RedisScript<T> anyScript() {
+        return any();
+    }
+
+    @SafeVarargs
+    private void stubScript(List<Long>... results) {
+        var stubbing = when(redisTemplate.execute(
+                anyScript(), eq(List.of(CARD_KEY, USER_KEY)), eq("3000"), eq("10000"), eq("20000")
+        ));
+        for (List<Long> result : results) {
+            stubbing = stubbing.thenReturn(result);
+        }
+    }
+
+    private void stubRelease(String cardKey, String userKey) {
+        when(redisTemplate.execute(anyScript(), eq(List.of(cardKey, userKey)), eq("3000"))).thenReturn(0L);
+    }
+
+    @Nested
+    @DisplayName("reserve")
+    class Reserve {
+
+        @Test
+        @DisplayName("Should skip all checks when limits are disabled")
+        void shouldSkipWhenDisabled() {
+            transferProperties.getLimits().setEnabled(false);
+
+            assertThat(dailyLimitService.reserve(card, new BigDecimal("30.00")))
+                    .isSameAs(DailyLimitService.Reservation.NONE);
+
+            verifyNoInteractions(redisTemplate, transferRepository);
+        }
+
+        @Test
+        @DisplayName("Should count the amount in minor units against both counters")
+        void shouldReserveAgainstCounters() {
+            stubScript(List.of(1L, 5000L, 9000L));
+
+            DailyLimitService.Reservation reservation = dailyLimitService.reserve(card, new BigDecimal("30.00"));
+
+            assertThat(reservation).isNotSameAs(DailyLimitService.Reservation.NONE);
+            verifyNoInteractions(transferRepository);
+        }
+
+        @Test
+        @DisplayName("Should give the amount back once, however often it is released")
+        void shouldReleaseOnce() {
+            stubScript(List.of(1L, 5000L, 9000L));
+            stubRelease(CARD_KEY, USER_KEY);
+
+            DailyLimitService.Reservation reservation = dailyLimitService.reserve(card, new BigDecimal("30.00"));
+            reservation.release();
+            reservation.release();
+
+            verify(redisTemplate).execute(anyScript(), eq(List.of(CARD_KEY, USER_KEY)), eq("3000"));
+        }
+
+        @Test
+        @DisplayName("Should reject when the script reports a crossed limit")
+        void shouldRejectWhenLimitCrossed() {
+            stubScript(List.of(0L, 8000L, 9000L));
+
+            assertThatThrownBy(() -> dailyLimitService.reserve(card, new BigDecimal("30.00")))
+                    .isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(transferRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject locally while a recent total leaves no room")
+        void shouldRejectFromLocalObservation() {
+            stubScript(List.of(1L, 9000L, 9000L));
+            dailyLimitService.reserve(card, new BigDecimal("30.00"));
+
+            assertThatThrownBy(() -> dailyLimitService.reserve(card, new BigDecimal("30.00")))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(redisTemplate, times(1)).execute(anyScript(), anyList(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should ask Redis again once a release dropped the local total")
+        void shouldForgetLocalObservationOnRelease() {
+            stubScript(List.of(1L, 9000L, 9000L), List.of(1L, 9000L, 9000L));
+            stubRelease(CARD_KEY, USER_KEY);
+
+            dailyLimitService.reserve(card, new BigDecimal("30.00")).release();
+            dailyLimitService.reserve(card, new BigDecimal("30.00"));
+
+            verify(redisTemplate, times(2)).execute(anyScript(), anyList(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should reject an amount above the limit without touching Redis")
+        void shouldRejectAmountAboveLimit() {
+            assertThatThrownBy(() -> dailyLimitService.reserve(card, new BigDecimal("100.01")))
+                    .isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(redisTemplate);
+        }
+
+        @Test
+        @DisplayName("Should seed missing counters from today's transfers and retry")
+        void shouldSeedMissingCounters() {
+            stubScript(List.of(-1L, 0L, 0L), List.of(1L, 5500L, 5500L));
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(transferRepository.sumOutgoingByCardSince(1L, START_OF_DAY)).thenReturn(new BigDecimal("25.00"));
+            when(transferRepository.sumOutgoingByOwnerSince(7L, START_OF_DAY)).thenReturn(new BigDecimal("25.00"));
+
+            dailyLimitService.reserve(card, new BigDecimal("30.00"));
+
+            verify(valueOperations).setIfAbsent(eq(CARD_KEY), eq("2500"), anyLong(), eq(TimeUnit.MILLISECONDS));
+            verify(valueOperations).setIfAbsent(eq(USER_KEY), eq("2500"), anyLong(), eq(TimeUnit.MILLISECONDS));
+        }
+
+        @Test
+        @DisplayName("Should check against the database when Redis is unavailable")
+        void shouldFallBackToDatabase() {
+            when(redisTemplate.execute(anyScript(), anyList(), any(), any(), any()))
+                    .thenThrow(new RedisConnectionFailureException("down"));
+            when(transferRepository.sumOutgoingByCardSince(1L, START_OF_DAY)).thenReturn(new BigDecimal("80.00"));
+
+            assertThatThrownBy(() -> dailyLimitService.reserve(card, new BigDecimal("30.00")))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(transferRepository, never()).sumOutgoingByOwnerSince(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should treat a missing total as nothing spent when checking against the database")
+        void shouldTreatMissingTotalAsZero() {
+            when(redisTemplate.execute(anyScript(), anyList(), any(), any(), any()))
+                    .thenThrow(new RedisConnectionFailureException("down"));
+
+            assertThat(dailyLimitService.reserve(card, new BigDecimal("30.00")))
+                    .isSameAs(DailyLimitService.Reservation.NONE);
+        }
+    }
+
+    @Nested
+    @DisplayName("release")
+    class Release {
+
+        @Test
+        @DisplayName("Should give the amount back to the counters of the day it was reserved on")
+        void shouldReleaseOnReservationDay() {
+            stubRelease("limit:card:1:2026-03-09", "limit:user:7:2026-03-09");
+
+            dailyLimitService.release(card, new BigDecimal("30.00"), Instant.parse("2026-03-09T23:30:00Z"));
+
+            verify(redisTemplate).execute(
+                    anyScript(), eq(List.of("limit:card:1:2026-03-09", "limit:user:7:2026-03-09")), eq("3000")
+            );
+        }
+
+        @Test
+        @DisplayName("Should leave the counters alone when limits are disabled")
+        void shouldSkipWhenDisabled() {
+            transferProperties.getLimits().setEnabled(false);
+
+            dailyLimitService.release(card, new BigDecimal("30.00"), START_OF_DAY);
+
+            verifyNoInteractions(redisTemplate);
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.kafka.support.SendResult;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -148,4 +149,45 @@ class KafkaProducerServiceImplTest {
         assertThat(capturedEvent.amount()).isEqualByComparingTo(new BigDecimal("500.00"));
         assertThat(capturedEvent.status()).isEqualTo("SUCCESS");
     }
+
+    @Test
+    @DisplayName("Should send every event of a bulk and complete when all sends finish")
+    void shouldSendBulkEventsAndCompleteWhenAllFinish() {
+        TransferEvent secondEvent = new TransferEvent(
+                2L, 100L, 200L, "**** **** **** 1234", "**** **** **** 5678",
+                new BigDecimal("10.00"), Instant.now(), "SUCCESS"
+        );
+        CompletableFuture<SendResult<String, TransferEvent>> firstFuture = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, TransferEvent>> secondFuture = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, "1", transferEvent)).thenReturn(firstFuture);
+        when(kafkaTemplate.send(TOPIC, "2", secondEvent)).thenReturn(secondFuture);
+
+        CompletableFuture<Void> result = kafkaProducerService.sendTransferEventsAsync(List.of(transferEvent, secondEvent));
+
+        assertThat(result).isNotDone();
+        firstFuture.completeExceptionally(new RuntimeException("Kafka unavailable"));
+        secondFuture.complete(null);
+        assertThat(result).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Should fail the bulk send when any event is rejected")
+    void shouldFailBulkSendWhenAnyEventIsRejected() {
+        TransferEvent secondEvent = new TransferEvent(
+                2L, 100L, 200L, "**** **** **** 1234", "**** **** **** 5678",
+                new BigDecimal("10.00"), Instant.now(), "SUCCESS"
+        );
+        CompletableFuture<SendResult<String, TransferEvent>> firstFuture = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, TransferEvent>> secondFuture = new CompletableFuture<>();
+        when(kafkaTemplate.send(TOPIC, "1", transferEvent)).thenReturn(firstFuture);
+        when(kafkaTemplate.send(TOPIC, "2", secondEvent)).thenReturn(secondFuture);
+
+        CompletableFuture<Void> result = kafkaProducerService.sendTransferEvents(List.of(transferEvent, secondEvent));
+
+        assertThat(result).isNotDone();
+        firstFuture.complete(null);
+        assertThat(result).isNotDone();
+        secondFuture.completeExceptionally(new RuntimeException("Kafka unavailable"));
+        assertThat(result).isCompletedExceptionally();
+    }
 }
@@ -0,0 +1,294 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.LedgerProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.entity.LedgerEntryType;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardBalanceSnapshotRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.service.BalanceShardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceImplTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private CardBalanceSnapshotRepository cardBalanceSnapshotRepository;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private BalanceShardService balanceShardService;
+
+    @Mock
+    private CardCache cardCache;
+
+    private LedgerProperties ledgerProperties;
+    private LedgerServiceImpl ledgerService;
+
+    private Transfer transfer;
+
+    @BeforeEach
+    void setUp() {
+        ledgerProperties = new LedgerProperties();
+        ledgerService = new LedgerServiceImpl(
+                ledgerEntryRepository, cardBalanceSnapshotRepository, cardRepository, balanceShardService,
+                ledgerProperties, TransactionOperations.withoutTransaction(), Runnable::run, cardCache
+        );
+
+        transfer = Transfer.builder()
+                .id(10L)
+                .sourceCard(Card.builder().id(1L).build())
+                .destinationCard(Card.builder().id(2L).build())
+                .amount(new BigDecimal("25.00"))
+                .timestamp(Instant.parse("2026-01-01T10:00:00Z"))
+                .build();
+    }
+
+    private LedgerEntryRepository.CardBalance cardBalance(Long cardId, String balance) {
+        return new LedgerEntryRepository.CardBalance() {
+            @Override
+            public Long getCardId() {
+                return cardId;
+            }
+
+            @Override
+            public BigDecimal getBalance() {
+                return new BigDecimal(balance);
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("recordTransfer")
+    class RecordTransfer {
+
+        @Test
+        @DisplayName("Should append a debit on the source and a credit on the destination")
+        void shouldAppendDebitAndCredit() {
+            ledgerService.recordTransfer(transfer);
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+            verify(ledgerEntryRepository).saveAll(captor.capture());
+            List<LedgerEntry> entries = captor.getValue();
+
+            assertThat(entries).hasSize(2);
+            assertThat(entries.get(0).getEntryType()).isEqualTo(LedgerEntryType.DEBIT);
+            assertThat(entries.get(0).getCardId()).isEqualTo(1L);
+            assertThat(entries.get(0).getAmount()).isEqualByComparingTo("-25.00");
+            assertThat(entries.get(1).getEntryType()).isEqualTo(LedgerEntryType.CREDIT);
+            assertThat(entries.get(1).getCardId()).isEqualTo(2L);
+            assertThat(entries.get(1).getAmount()).isEqualByComparingTo("25.00");
+            assertThat(entries).allSatisfy(entry -> {
+                assertThat(entry.getTransferId()).isEqualTo(10L);
+                assertThat(entry.getCreatedAt()).isNull();
+            });
+        }
+
+        @Test
+        @DisplayName("Should append entries for a whole batch in one call")
+        void shouldAppendBatchInOneCall() {
+            ledgerService.recordTransfers(List.of(transfer, transfer, transfer));
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+            verify(ledgerEntryRepository, times(1)).saveAll(captor.capture());
+            assertThat(captor.getValue()).hasSize(6);
+        }
+
+        @Test
+        @DisplayName("Should move the source's ledger version and lock the destination before appending entries")
+        void shouldMoveSourceLedgerVersion() {
+            ledgerService.recordTransfer(transfer);
+
+            InOrder inOrder = inOrder(cardRepository, ledgerEntryRepository);
+            inOrder.verify(cardRepository).incrementLedgerVersions(Set.of(1L));
+            inOrder.verify(cardRepository).lockAllByIdInForLedger(Set.of(2L));
+            inOrder.verify(ledgerEntryRepository).saveAll(anyList());
+        }
+
+        @Test
+        @DisplayName("Should only move the version of a card that is both debited and credited in a batch")
+        void shouldMoveDebitedLedgerVersionsForBatch() {
+            Transfer back = Transfer.builder()
+                    .id(11L)
+                    .sourceCard(Card.builder().id(2L).build())
+                    .destinationCard(Card.builder().id(3L).build())
+                    .amount(new BigDecimal("5.00"))
+                    .build();
+
+            ledgerService.recordTransfers(List.of(transfer, back, transfer));
+
+            verify(cardRepository).incrementLedgerVersions(Set.of(1L, 2L));
+            verify(cardRepository).lockAllByIdInForLedger(Set.of(3L));
+        }
+
+        @Test
+        @DisplayName("Should skip an empty batch")
+        void shouldSkipEmptyBatch() {
+            ledgerService.recordTransfers(List.of());
+
+            verifyNoInteractions(cardRepository, ledgerEntryRepository, balanceShardService);
+        }
+
+        @Test
+        @DisplayName("Should draw the source shards and credit the destination shards")
+        void shouldApplyTransferToShards() {
+            ledgerService.recordTransfer(transfer);
+
+            verify(balanceShardService).applyDebit(1L, new BigDecimal("25.00"));
+            verify(balanceShardService).applyCredit(2L, new BigDecimal("25.00"));
+        }
+
+        @Test
+        @DisplayName("Should apply the net movement of a batch to each card's shards once")
+        void shouldApplyNetBatchMovementToShards() {
+            Transfer reverse = Transfer.builder()
+                    .id(11L)
+                    .sourceCard(Card.builder().id(2L).build())
+                    .destinationCard(Card.builder().id(3L).build())
+                    .amount(new BigDecimal("10.00"))
+                    .timestamp(transfer.getTimestamp())
+                    .build();
+
+            ledgerService.recordTransfers(List.of(transfer, transfer, reverse));
+
+            verify(balanceShardService).applyDebit(1L, new BigDecimal("50.00"));
+            verify(balanceShardService).applyCredit(2L, new BigDecimal("40.00"));
+            verify(balanceShardService).applyCredit(3L, new BigDecimal("10.00"));
+            verifyNoMoreInteractions(balanceShardService);
+        }
+
+        @Test
+        @DisplayName("Should evict the cached cards whose balance moved")
+        void shouldEvictCachedCards() {
+            Transfer reverse = Transfer.builder()
+                    .id(11L)
+                    .sourceCard(Card.builder().id(2L).build())
+                    .destinationCard(Card.builder().id(3L).build())
+                    .amount(new BigDecimal("10.00"))
+                    .timestamp(transfer.getTimestamp())
+                    .build();
+
+            ledgerService.recordTransfer(transfer);
+            ledgerService.recordTransfers(List.of(transfer, reverse));
+
+            verify(cardCache).evictCards(List.of(1L, 2L));
+            verify(cardCache).evictCards(Set.of(1L, 2L, 3L));
+        }
+    }
+
+    @Nested
+    @DisplayName("getBalance")
+    class GetBalance {
+
+        @Test
+        @DisplayName("Should return balance computed from snapshot and ledger tail")
+        void shouldReturnBalance() {
+            when(ledgerEntryRepository.findBalances(List.of(1L))).thenReturn(List.of(cardBalance(1L, "42.00")));
+
+            assertThat(ledgerService.getBalance(1L)).isEqualByComparingTo("42.00");
+        }
+
+        @Test
+        @DisplayName("Should throw exception when card does not exist")
+        void shouldThrowWhenCardMissing() {
+            when(ledgerEntryRepository.findBalances(List.of(1L))).thenReturn(List.of());
+
+            assertThatThrownBy(() -> ledgerService.getBalance(1L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Should not query when no card ids are given")
+        void shouldSkipQueryForNoCards() {
+            assertThat(ledgerService.getBalances(List.of())).isEmpty();
+
+            verifyNoInteractions(ledgerEntryRepository);
+        }
+
+        @Test
+        @DisplayName("Should map balances by card id")
+        void shouldMapBalancesByCardId() {
+            when(ledgerEntryRepository.findBalances(List.of(1L, 2L)))
+                    .thenReturn(List.of(cardBalance(1L, "1.00"), cardBalance(2L, "2.00")));
+
+            Map<Long, BigDecimal> balances = ledgerService.getBalances(List.of(1L, 2L));
+
+            assertThat(balances).containsOnlyKeys(1L, 2L);
+            assertThat(balances.get(2L)).isEqualByComparingTo("2.00");
+        }
+    }
+
+    @Nested
+    @DisplayName("takeSnapshots")
+    class TakeSnapshots {
+
+        @Test
+        @DisplayName("Should snapshot the idle cards of each id range in chunks and sum inserted rows")
+        void shouldSnapshotInChunks() {
+            ledgerProperties.getSnapshot().setChunkSize(100);
+            when(cardRepository.findMaxId()).thenReturn(250L);
+            when(cardRepository.lockIdleIdsBetween(anyLong(), anyLong())).thenReturn(List.of(7L));
+            when(cardBalanceSnapshotRepository.insertSnapshots(List.of(7L))).thenReturn(3);
+
+            int snapshots = ledgerService.takeSnapshots();
+
+            assertThat(snapshots).isEqualTo(9);
+            verify(cardRepository).lockIdleIdsBetween(1L, 100L);
+            verify(cardRepository).lockIdleIdsBetween(101L, 200L);
+            verify(cardRepository).lockIdleIdsBetween(201L, 250L);
+        }
+
+        @Test
+        @DisplayName("Should skip a chunk whose cards are all busy")
+        void shouldSkipBusyChunk() {
+            when(cardRepository.findMaxId()).thenReturn(10L);
+            when(cardRepository.lockIdleIdsBetween(1L, 10L)).thenReturn(List.of());
+
+            assertThat(ledgerService.takeSnapshots()).isZero();
+
+            verifyNoInteractions(cardBalanceSnapshotRepository);
+        }
+
+        @Test
+        @DisplayName("Should do nothing when there are no cards")
+        void shouldDoNothingWithoutCards() {
+            when(cardRepository.findMaxId()).thenReturn(0L);
+
+            assertThat(ledgerService.takeSnapshots()).isZero();
+
+            verifyNoInteractions(cardBalanceSnapshotRepository);
+        }
+    }
+}
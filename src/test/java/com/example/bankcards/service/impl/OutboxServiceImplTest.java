@@ -0,0 +1,193 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.OutboxProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.OutboxEvent;
+import com.example.bankcards.entity.OutboxEventType;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.TransferStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.event.TransferEvent;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.KafkaProducerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceImplTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+
+    private OutboxProperties outboxProperties;
+    private OutboxServiceImpl outboxService;
+
+    private Card sourceCard;
+    private Card destinationCard;
+
+    @BeforeEach
+    void setUp() {
+        outboxProperties = new OutboxProperties();
+        outboxService = new OutboxServiceImpl(
+                outboxEventRepository, transferRepository, kafkaProducerService,
+                outboxProperties, TransactionOperations.withoutTransaction()
+        );
+
+        sourceCard = card(1L, 10L, "4444");
+        destinationCard = card(2L, 20L, "8888");
+    }
+
+    private Card card(Long id, Long ownerId, String cardLast4) {
+        return Card.builder()
+                .id(id)
+                .cardLast4(cardLast4)
+                .owner(User.builder().id(ownerId).build())
+                .build();
+    }
+
+    private Transfer transfer(Long id) {
+        return Transfer.builder()
+                .id(id)
+                .sourceCard(sourceCard)
+                .destinationCard(destinationCard)
+                .amount(new BigDecimal("25.00"))
+                .status(TransferStatus.SUCCESS)
+                .timestamp(Instant.parse("2026-01-01T10:00:00Z"))
+                .build();
+    }
+
+    private OutboxEvent outboxEvent(Long id, Long transferId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType(OutboxEventType.TRANSFER_COMPLETED)
+                .aggregateId(transferId)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("record")
+    class Record {
+
+        @Test
+        @DisplayName("Should store only the transfer id")
+        void shouldStoreTransferId() {
+            outboxService.recordTransferCompleted(transfer(5L));
+
+            ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+            verify(outboxEventRepository).save(captor.capture());
+            assertThat(captor.getValue().getEventType()).isEqualTo(OutboxEventType.TRANSFER_COMPLETED);
+            assertThat(captor.getValue().getAggregateId()).isEqualTo(5L);
+            verifyNoInteractions(kafkaProducerService);
+        }
+
+        @Test
+        @DisplayName("Should store a batch of events in one call")
+        void shouldStoreBatchInOneCall() {
+            outboxService.recordTransfersCompleted(List.of(transfer(5L), transfer(6L)));
+
+            verify(outboxEventRepository, times(1)).saveAll(argThat(events -> ((List<?>) events).size() == 2));
+        }
+    }
+
+    @Nested
+    @DisplayName("publishPending")
+    class PublishPending {
+
+        @Test
+        @DisplayName("Should publish locked events and delete them once Kafka acknowledges")
+        void shouldPublishAndDeleteEvents() {
+            List<OutboxEvent> batch = List.of(outboxEvent(1L, 5L), outboxEvent(2L, 6L));
+            when(outboxEventRepository.lockNextBatch(outboxProperties.getBatchSize())).thenReturn(batch);
+            when(transferRepository.findAllByIdIn(List.of(5L, 6L))).thenReturn(List.of(transfer(5L), transfer(6L)));
+            when(kafkaProducerService.sendTransferEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+            int published = outboxService.publishPending();
+
+            assertThat(published).isEqualTo(2);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<TransferEvent>> captor = ArgumentCaptor.forClass(List.class);
+            verify(kafkaProducerService).sendTransferEvents(captor.capture());
+            assertThat(captor.getValue()).extracting(TransferEvent::transferId).containsExactly(5L, 6L);
+            assertThat(captor.getValue().get(0).senderUserId()).isEqualTo(10L);
+            assertThat(captor.getValue().get(0).recipientUserId()).isEqualTo(20L);
+            assertThat(captor.getValue().get(0).senderCardMasked()).isEqualTo("**** **** **** 4444");
+            assertThat(captor.getValue().get(0).recipientCardMasked()).isEqualTo("**** **** **** 8888");
+            verify(outboxEventRepository).deleteAllInBatch(batch);
+        }
+
+        @Test
+        @DisplayName("Should keep events when Kafka rejects the batch")
+        void shouldKeepEventsWhenSendFails() {
+            List<OutboxEvent> batch = List.of(outboxEvent(1L, 5L));
+            when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(batch);
+            when(transferRepository.findAllByIdIn(List.of(5L))).thenReturn(List.of(transfer(5L)));
+            when(kafkaProducerService.sendTransferEvents(anyList()))
+                    .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")));
+
+            assertThatThrownBy(() -> outboxService.publishPending())
+                    .isInstanceOf(IllegalStateException.class);
+
+            verify(outboxEventRepository, never()).deleteAllInBatch(any());
+        }
+
+        @Test
+        @DisplayName("Should drain full batches until a short one is returned")
+        void shouldDrainUntilShortBatch() {
+            outboxProperties.setBatchSize(2);
+            List<OutboxEvent> fullBatch = List.of(outboxEvent(1L, 5L), outboxEvent(2L, 6L));
+            List<OutboxEvent> lastBatch = List.of(outboxEvent(3L, 7L));
+            when(outboxEventRepository.lockNextBatch(2)).thenReturn(fullBatch, lastBatch);
+            when(transferRepository.findAllByIdIn(anyList())).thenAnswer(invocation -> LongStream
+                    .rangeClosed(5L, 7L)
+                    .mapToObj(OutboxServiceImplTest.this::transfer)
+                    .toList());
+            when(kafkaProducerService.sendTransferEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+            int published = outboxService.publishPending();
+
+            assertThat(published).isEqualTo(3);
+            verify(outboxEventRepository, times(2)).lockNextBatch(2);
+            verify(kafkaProducerService, times(2)).sendTransferEvents(anyList());
+        }
+
+        @Test
+        @DisplayName("Should drop events of missing transfers without sending them")
+        void shouldDropEventsOfMissingTransfers() {
+            List<OutboxEvent> batch = List.of(outboxEvent(1L, 5L));
+            when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(batch);
+            when(transferRepository.findAllByIdIn(List.of(5L))).thenReturn(List.of());
+
+            int published = outboxService.publishPending();
+
+            assertThat(published).isEqualTo(1);
+            verifyNoInteractions(kafkaProducerService);
+            verify(outboxEventRepository).deleteAllInBatch(batch);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.service.RedisIdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisIdempotencyServiceImplTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private RedisIdempotencyServiceImpl redisIdempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        redisIdempotencyService = new RedisIdempotencyServiceImpl(redisTemplate);
+    }
+
+    @Nested
+    @DisplayName("tryAcquire")
+    class TryAcquire {
+
+        @Test
+        @DisplayName("Should set pending marker only when key is absent")
+        void shouldSetPendingMarkerIfAbsent() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.setIfAbsent("idempotency:1:key-1", "PENDING", 30000L, TimeUnit.MILLISECONDS))
+                    .thenReturn(true);
+
+            Boolean result = redisIdempotencyService.tryAcquire(1L, "key-1", 30000L);
+
+            assertThat(result).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("getCompleted")
+    class GetCompleted {
+
+        @Test
+        @DisplayName("Should return transfer id and request hash when key is completed")
+        void shouldReturnTransferIdWhenCompleted() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.get("idempotency:1:key-1")).thenReturn("42:abc");
+
+            assertThat(redisIdempotencyService.getCompleted(1L, "key-1"))
+                    .isEqualTo(new RedisIdempotencyService.CompletedKey(42L, "abc"));
+        }
+
+        @Test
+        @DisplayName("Should return transfer id without hash for keys completed before hashes were stored")
+        void shouldReadValueWithoutHash() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.get("idempotency:1:key-1")).thenReturn("42");
+
+            assertThat(redisIdempotencyService.getCompleted(1L, "key-1"))
+                    .isEqualTo(new RedisIdempotencyService.CompletedKey(42L, null));
+        }
+
+        @Test
+        @DisplayName("Should return null when key is still pending")
+        void shouldReturnNullWhenPending() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.get("idempotency:1:key-1")).thenReturn("PENDING");
+
+            assertThat(redisIdempotencyService.getCompleted(1L, "key-1")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should return null when key not found")
+        void shouldReturnNullWhenNotFound() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.get("idempotency:1:key-1")).thenReturn(null);
+
+            assertThat(redisIdempotencyService.getCompleted(1L, "key-1")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("complete")
+    class Complete {
+
+        @Test
+        @DisplayName("Should overwrite pending marker with transfer id, request hash and TTL")
+        void shouldStoreTransferIdWithTtl() {
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+            redisIdempotencyService.complete(1L, "key-1", 42L, "abc", 86400000L);
+
+            verify(valueOperations).set("idempotency:1:key-1", "42:abc", 86400000L, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Nested
+    @DisplayName("release")
+    class Release {
+
+        @Test
+        @DisplayName("Should delete key")
+        void shouldDeleteKey() {
+            redisIdempotencyService.release(1L, "key-1");
+
+            verify(redisTemplate).delete("idempotency:1:key-1");
+        }
+    }
+}
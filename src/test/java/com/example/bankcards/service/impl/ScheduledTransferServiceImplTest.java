@@ -0,0 +1,241 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.schedule.ScheduledTransferRequest;
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import com.example.bankcards.dto.transfer.BatchItemStatus;
+import com.example.bankcards.dto.transfer.TransferResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.ScheduleFrequency;
+import com.example.bankcards.entity.ScheduledTransfer;
+import com.example.bankcards.entity.ScheduledTransferStatus;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.mapper.ScheduledTransferMapper;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.ScheduledTransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledTransferServiceImplTest {
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private TransferBatchProcessor transferBatchProcessor;
+
+    private TransferProperties transferProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledTransferServiceImpl scheduledTransferService;
+
+    private final Long userId = 1L;
+    private final LocalDate today = LocalDate.parse("2026-01-31");
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        scheduledTransferService = new ScheduledTransferServiceImpl(
+                scheduledTransferRepository, cardRepository, new ScheduledTransferMapper(), transferBatchProcessor,
+                transferProperties, TransactionOperations.withoutTransaction(), Runnable::run, meterRegistry
+        );
+    }
+
+    private ScheduledTransferRequest request(LocalDate startDate, LocalDate endDate) {
+        return ScheduledTransferRequest.builder()
+                .sourceCardId(10L)
+                .destinationCardId(20L)
+                .amount(new BigDecimal("500.00"))
+                .description("Rent")
+                .frequency(ScheduleFrequency.MONTHLY)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+    }
+
+    private ScheduledTransfer order(Long id, Long sourceCardId, ScheduleFrequency frequency, LocalDate startDate) {
+        ScheduledTransfer order = ScheduledTransfer.builder()
+                .id(id)
+                .ownerId(userId)
+                .sourceCardId(sourceCardId)
+                .destinationCardId(99L)
+                .amount(new BigDecimal("10.00"))
+                .frequency(frequency)
+                .startDate(startDate)
+                .build();
+        order.restart();
+        return order;
+    }
+
+    @Nested
+    @DisplayName("createScheduledTransfer")
+    class CreateScheduledTransfer {
+
+        @Test
+        @DisplayName("Should save an active schedule that first runs on the start date")
+        void shouldCreateSchedule() {
+            when(cardRepository.findByOwnerIdAndId(userId, 10L)).thenReturn(Optional.of(Card.builder().id(10L).build()));
+            when(cardRepository.existsById(20L)).thenReturn(true);
+            when(scheduledTransferRepository.save(any(ScheduledTransfer.class)))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+
+            var response = scheduledTransferService.createScheduledTransfer(request(today, null), userId);
+
+            assertThat(response.getStatus()).isEqualTo(ScheduledTransferStatus.ACTIVE.name());
+            assertThat(response.getNextRunDate()).isEqualTo(today);
+            assertThat(response.getFrequency()).isEqualTo(ScheduleFrequency.MONTHLY.name());
+        }
+
+        @Test
+        @DisplayName("Should reject a source card the user does not own")
+        void shouldRejectForeignSourceCard() {
+            when(cardRepository.findByOwnerIdAndId(userId, 10L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> scheduledTransferService.createScheduledTransfer(request(today, null), userId))
+                    .isInstanceOf(ResourceNotFoundException.class);
+
+            verify(scheduledTransferRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should reject an end date before the start date")
+        void shouldRejectInvertedRange() {
+            assertThatThrownBy(() -> scheduledTransferService.createScheduledTransfer(
+                    request(today, today.minusDays(1)), userId
+            )).isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(cardRepository, scheduledTransferRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("runDueTransfers")
+    class RunDueTransfers {
+
+        @Test
+        @DisplayName("Should claim keyset chunks, advance each order and record the outcome of its run")
+        void shouldRunChunksAndRecordOutcomes() {
+            transferProperties.getScheduled().setChunkSize(2);
+            ScheduledTransfer monthly = order(1L, 10L, ScheduleFrequency.MONTHLY, LocalDate.parse("2025-12-31"));
+            monthly.setNextRunDate(today);
+            monthly.setNextOccurrence(1);
+            ScheduledTransfer once = order(2L, 11L, ScheduleFrequency.ONCE, today);
+            ScheduledTransfer daily = order(3L, 10L, ScheduleFrequency.DAILY, today);
+            when(scheduledTransferRepository.lockDueChunk(today, 0L, 2)).thenReturn(List.of(monthly, once));
+            when(scheduledTransferRepository.lockDueChunk(today, 2L, 2)).thenReturn(List.of(daily));
+            when(scheduledTransferRepository.lockDueChunk(today, 3L, 2)).thenReturn(List.of());
+            BusinessException error = BusinessException.insufficientFunds(BigDecimal.TEN, BigDecimal.ZERO);
+            when(transferBatchProcessor.process(anyList(), eq(BatchFailureMode.PARTIAL))).thenAnswer(invocation -> {
+                List<TransferBatchProcessor.TransferCommand> commands = invocation.getArgument(0);
+                return commands.stream()
+                        .map(command -> command.request().getSourceCardId() == 11L
+                                ? TransferBatchProcessor.TransferOutcome.failure(error)
+                                : new TransferBatchProcessor.TransferOutcome(
+                                        BatchItemStatus.SUCCESS, TransferResponse.builder().id(100L).build(), null
+                                ))
+                        .toList();
+            });
+
+            int processed = scheduledTransferService.runDueTransfers(today);
+
+            assertThat(processed).isEqualTo(3);
+            assertThat(monthly.getNextRunDate()).isEqualTo(LocalDate.parse("2026-02-28"));
+            assertThat(once.getStatus()).isEqualTo(ScheduledTransferStatus.COMPLETED);
+            assertThat(daily.getNextRunDate()).isEqualTo(today.plusDays(1));
+            verify(scheduledTransferRepository).recordRun(1L, 100L, null);
+            verify(scheduledTransferRepository).recordRun(2L, null, error.getMessage());
+            verify(scheduledTransferRepository).recordRun(3L, 100L, null);
+            assertThat(meterRegistry.counter("scheduled.transfers.executed", "outcome", "success").count())
+                    .isEqualTo(2.0);
+        }
+
+        @Test
+        @DisplayName("Should keep one card's orders in the same batch, in id order")
+        void shouldKeepCardOrdersTogether() {
+            transferProperties.getScheduled().setPartitions(4);
+            List<ScheduledTransfer> orders = List.of(
+                    order(1L, 10L, ScheduleFrequency.ONCE, today),
+                    order(2L, 11L, ScheduleFrequency.ONCE, today),
+                    order(3L, 10L, ScheduleFrequency.ONCE, today)
+            );
+            when(scheduledTransferRepository.lockDueChunk(eq(today), anyLong(), anyInt()))
+                    .thenReturn(orders, List.of());
+            when(transferBatchProcessor.process(anyList(), any())).thenAnswer(invocation -> {
+                List<TransferBatchProcessor.TransferCommand> commands = invocation.getArgument(0);
+                return commands.stream()
+                        .map(command -> TransferBatchProcessor.TransferOutcome.skipped())
+                        .toList();
+            });
+
+            scheduledTransferService.runDueTransfers(today);
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<TransferBatchProcessor.TransferCommand>> captor = ArgumentCaptor.forClass(List.class);
+            verify(transferBatchProcessor, times(2)).process(captor.capture(), any());
+            List<TransferBatchProcessor.TransferCommand> cardTen = captor.getAllValues().stream()
+                    .filter(batch -> batch.getFirst().request().getSourceCardId() == 10L)
+                    .findFirst()
+                    .orElseThrow();
+            assertThat(cardTen).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("Should record a run held by velocity rules with its transfer and count it as held")
+        void shouldRecordHeldRun() {
+            when(scheduledTransferRepository.lockDueChunk(eq(today), anyLong(), anyInt()))
+                    .thenReturn(List.of(order(1L, 10L, ScheduleFrequency.ONCE, today)), List.of());
+            when(transferBatchProcessor.process(anyList(), any())).thenReturn(List.of(
+                    TransferBatchProcessor.TransferOutcome.held(TransferResponse.builder().id(100L).build())
+            ));
+
+            scheduledTransferService.runDueTransfers(today);
+
+            verify(scheduledTransferRepository).recordRun(1L, 100L, null);
+            assertThat(meterRegistry.counter("scheduled.transfers.executed", "outcome", "held").count())
+                    .isEqualTo(1.0);
+            assertThat(meterRegistry.counter("scheduled.transfers.executed", "outcome", "success").count())
+                    .isZero();
+        }
+
+        @Test
+        @DisplayName("Should record every order of a batch as failed when the whole batch fails")
+        void shouldRecordBatchFailure() {
+            when(scheduledTransferRepository.lockDueChunk(eq(today), anyLong(), anyInt()))
+                    .thenReturn(List.of(order(1L, 10L, ScheduleFrequency.ONCE, today)), List.of());
+            when(transferBatchProcessor.process(anyList(), any())).thenThrow(new IllegalStateException("db down"));
+
+            scheduledTransferService.runDueTransfers(today);
+
+            verify(scheduledTransferRepository).recordRun(1L, null, "db down");
+            assertThat(meterRegistry.counter("scheduled.transfers.executed", "outcome", "failed").count())
+                    .isEqualTo(1.0);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionRetryExecutorTest {
+
+    private static final String OPERATION = "transfer";
+
+    private TransferProperties transferProperties;
+    private MeterRegistry meterRegistry;
+    private TransactionRetryExecutor retryExecutor;
+    private AtomicInteger attempts;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getRetry().setMaxAttempts(3);
+        transferProperties.getRetry().setInitialBackoff(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new TransactionRetryExecutor(
+                TransactionOperations.withoutTransaction(), transferProperties, meterRegistry
+        );
+        attempts = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should return result without retry when action succeeds")
+    void shouldReturnResultWithoutRetry() {
+        String result = retryExecutor.execute(OPERATION, () -> {
+            attempts.incrementAndGet();
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.find("bank.transaction.retries").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should retry on serialization failure and count the retry")
+    void shouldRetryOnSerializationFailure() {
+        String result = retryExecutor.execute(OPERATION, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw transientFailure("40001");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(2);
+        assertThat(meterRegistry.get("bank.transaction.retries")
+                .tag("reason", "serialization_failure")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should retry when a guarded update lost to a concurrent writer")
+    void shouldRetryOnVersionConflict() {
+        String result = retryExecutor.execute(OPERATION, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("changed");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(2);
+        assertThat(meterRegistry.get("bank.transaction.retries")
+                .tag("reason", "version_conflict")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should give up after max attempts and rethrow the last failure")
+    void shouldGiveUpAfterMaxAttempts() {
+        assertThatThrownBy(() -> retryExecutor.execute(OPERATION, () -> {
+            attempts.incrementAndGet();
+            throw transientFailure("40P01");
+        })).isInstanceOf(PessimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.get("bank.transaction.retries").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("bank.transaction.retries.exhausted").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should not retry non-transient database errors")
+    void shouldNotRetryNonTransientErrors() {
+        assertThatThrownBy(() -> retryExecutor.execute(OPERATION, () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate", new SQLException("duplicate", "23505"));
+        })).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    private static RuntimeException transientFailure(String sqlState) {
+        return new CannotAcquireLockException("transient", new SQLException("transient", sqlState));
+    }
+}
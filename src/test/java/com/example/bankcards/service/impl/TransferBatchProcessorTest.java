@@ -0,0 +1,308 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import com.example.bankcards.dto.transfer.BatchItemStatus;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.dto.transfer.TransferResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.TransferStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.mapper.TransferMapper;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.DailyLimitService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.OutboxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferBatchProcessorTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private TransferMapper transferMapper;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private DailyLimitService dailyLimitService;
+
+    private TransferProperties transferProperties;
+    private TransferBatchProcessor transferBatchProcessor;
+
+    private Long userId;
+    private Card firstCard;
+    private Card secondCard;
+    private Card thirdCard;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        TransactionRetryExecutor transactionRetryExecutor = new TransactionRetryExecutor(
+                TransactionOperations.withoutTransaction(), transferProperties, new SimpleMeterRegistry()
+        );
+        transferBatchProcessor = new TransferBatchProcessor(
+                transferRepository, cardRepository, transferMapper,
+                transactionRetryExecutor, ledgerService, outboxService, dailyLimitService,
+                new TransferVelocityEngine(transferProperties, new SimpleMeterRegistry())
+        );
+
+        userId = 1L;
+        User owner = User.builder().id(userId).username("test").email("test@example.com").password("password").build();
+        firstCard = card(1L, owner, "100.00");
+        secondCard = card(2L, owner, "50.00");
+        thirdCard = card(3L, owner, "0.00");
+    }
+
+    private Card card(Long id, User owner, String balance) {
+        return Card.builder()
+                .id(id)
+                .cardNumber("ENCRYPTED_" + id)
+                .owner(owner)
+                .holderName("IVAN IVANOV")
+                .expiryDate(LocalDate.of(2030, 12, 31))
+                .status(CardStatus.ACTIVE)
+                .balance(new BigDecimal(balance))
+                .build();
+    }
+
+    private TransferBatchProcessor.TransferCommand command(Card source, Card destination, String amount) {
+        return new TransferBatchProcessor.TransferCommand(TransferRequest.builder()
+                .sourceCardId(source.getId())
+                .destinationCardId(destination.getId())
+                .amount(new BigDecimal(amount))
+                .build(), userId);
+    }
+
+    private void stubCardsAndResponses() {
+        when(cardRepository.findAllByIdInForUpdate(any())).thenReturn(List.of(firstCard, secondCard, thirdCard));
+        lenient().when(ledgerService.getBalances(any())).thenReturn(Map.of(
+                firstCard.getId(), firstCard.getBalance(),
+                secondCard.getId(), secondCard.getBalance(),
+                thirdCard.getId(), thirdCard.getBalance()
+        ));
+        AtomicLong ids = new AtomicLong();
+        lenient().when(transferRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transfer> transfers = invocation.getArgument(0);
+            transfers.forEach(transfer -> transfer.setId(ids.incrementAndGet()));
+            return transfers;
+        });
+        lenient().when(transferMapper.toResponse(any(Transfer.class)))
+                .thenAnswer(invocation -> TransferResponse.builder()
+                        .id(invocation.<Transfer>getArgument(0).getId())
+                        .build());
+    }
+
+    private ArgumentMatcher<List<Transfer>> hasSize(int size) {
+        return transfers -> transfers.size() == size;
+    }
+
+    @Nested
+    @DisplayName("process")
+    class Process {
+
+        @Test
+        @DisplayName("Should lock source cards once in id order and read destinations without locks")
+        void shouldLockSourceCardsOnceInIdOrder() {
+            stubCardsAndResponses();
+            when(cardRepository.findAllByIdInForUpdate(any())).thenReturn(List.of(secondCard, thirdCard));
+            when(cardRepository.findAllById(any())).thenReturn(List.of(firstCard));
+
+            transferBatchProcessor.process(List.of(
+                    command(thirdCard, firstCard, "1.00"),
+                    command(secondCard, firstCard, "1.00"),
+                    command(thirdCard, secondCard, "1.00")
+            ), BatchFailureMode.PARTIAL);
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+            verify(cardRepository, times(1)).findAllByIdInForUpdate(captor.capture());
+            assertThat(captor.getValue()).containsExactly(2L, 3L);
+            verify(cardRepository).findAllById(Set.of(1L));
+        }
+
+        @Test
+        @DisplayName("Should insert all transfers and their ledger entries in one call each")
+        void shouldInsertTransfersAndLedgerEntries() {
+            stubCardsAndResponses();
+
+            List<TransferBatchProcessor.TransferOutcome> outcomes = transferBatchProcessor.process(List.of(
+                    command(firstCard, secondCard, "30.00"),
+                    command(secondCard, thirdCard, "70.00"),
+                    command(thirdCard, firstCard, "10.00")
+            ), BatchFailureMode.PARTIAL);
+
+            assertThat(outcomes).extracting(TransferBatchProcessor.TransferOutcome::status)
+                    .containsOnly(BatchItemStatus.SUCCESS);
+            verify(transferRepository, times(1)).saveAll(argThat(hasSize(3)));
+            verify(ledgerService, times(1)).recordTransfers(argThat(hasSize(3)));
+        }
+
+        @Test
+        @DisplayName("Should check funds against running balance and report failed items")
+        void shouldReportFailedItemsInPartialMode() {
+            stubCardsAndResponses();
+
+            List<TransferBatchProcessor.TransferOutcome> outcomes = transferBatchProcessor.process(List.of(
+                    command(secondCard, firstCard, "40.00"),
+                    command(secondCard, firstCard, "40.00"),
+                    command(firstCard, firstCard, "1.00")
+            ), BatchFailureMode.PARTIAL);
+
+            assertThat(outcomes).extracting(TransferBatchProcessor.TransferOutcome::status)
+                    .containsExactly(BatchItemStatus.SUCCESS, BatchItemStatus.FAILED, BatchItemStatus.FAILED);
+            assertThat(outcomes.get(1).error()).isInstanceOf(BusinessException.class);
+            verify(transferRepository).saveAll(argThat(hasSize(1)));
+            verify(ledgerService).recordTransfers(argThat(hasSize(1)));
+        }
+
+        @Test
+        @DisplayName("Should report missing and foreign cards as failed items")
+        void shouldReportMissingAndForeignCards() {
+            stubCardsAndResponses();
+            thirdCard.setOwner(User.builder().id(99L).build());
+
+            List<TransferBatchProcessor.TransferOutcome> outcomes = transferBatchProcessor.process(List.of(
+                    new TransferBatchProcessor.TransferCommand(TransferRequest.builder()
+                            .sourceCardId(42L)
+                            .destinationCardId(1L)
+                            .amount(BigDecimal.ONE)
+                            .build(), userId),
+                    command(thirdCard, firstCard, "1.00")
+            ), BatchFailureMode.PARTIAL);
+
+            assertThat(outcomes).extracting(TransferBatchProcessor.TransferOutcome::error)
+                    .allMatch(ResourceNotFoundException.class::isInstance);
+        }
+
+        @Test
+        @DisplayName("Should apply nothing when any item fails in ALL_OR_NOTHING mode")
+        void shouldApplyNothingInAllOrNothingMode() {
+            stubCardsAndResponses();
+            DailyLimitService.Reservation reservation = mock(DailyLimitService.Reservation.class);
+            when(dailyLimitService.reserve(firstCard, new BigDecimal("30.00"))).thenReturn(reservation);
+
+            List<TransferBatchProcessor.TransferOutcome> outcomes = transferBatchProcessor.process(List.of(
+                    command(firstCard, secondCard, "30.00"),
+                    command(thirdCard, secondCard, "30.00")
+            ), BatchFailureMode.ALL_OR_NOTHING);
+
+            assertThat(outcomes).extracting(TransferBatchProcessor.TransferOutcome::status)
+                    .containsExactly(BatchItemStatus.SKIPPED, BatchItemStatus.FAILED);
+            verify(transferRepository, never()).saveAll(anyList());
+            verify(ledgerService, never()).recordTransfers(anyList());
+            verifyNoInteractions(outboxService);
+            verify(reservation).release();
+        }
+
+        @Test
+        @DisplayName("Should record outbox events in bulk")
+        void shouldRecordOutboxEventsInBulk() {
+            stubCardsAndResponses();
+
+            transferBatchProcessor.process(List.of(
+                    command(firstCard, secondCard, "1.00"),
+                    command(firstCard, secondCard, "1.00"),
+                    command(secondCard, firstCard, "1.00")
+            ), BatchFailureMode.PARTIAL);
+
+            verify(outboxService, times(1)).recordTransfersCompleted(argThat(hasSize(3)));
+            verify(outboxService, never()).recordTransferCompleted(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("process with velocity rules")
+    class ProcessWithVelocity {
+
+        @BeforeEach
+        void enableVelocity() {
+            TransferProperties.Velocity velocity = transferProperties.getVelocity();
+            velocity.setEnabled(true);
+            velocity.setShortWindowMax(2);
+        }
+
+        @Test
+        @DisplayName("Should reject the commands of a batch past the per-card threshold")
+        void shouldRejectCommandsPastThreshold() {
+            stubCardsAndResponses();
+
+            List<TransferBatchProcessor.TransferOutcome> outcomes = transferBatchProcessor.process(List.of(
+                    command(firstCard, secondCard, "1.00"),
+                    command(firstCard, secondCard, "1.00"),
+                    command(firstCard, secondCard, "1.00"),
+                    command(secondCard, firstCard, "1.00")
+            ), BatchFailureMode.PARTIAL);
+
+            assertThat(outcomes).extracting(TransferBatchProcessor.TransferOutcome::status).containsExactly(
+                    BatchItemStatus.SUCCESS, BatchItemStatus.SUCCESS, BatchItemStatus.FAILED, BatchItemStatus.SUCCESS
+            );
+            assertThat(outcomes.get(2).error()).isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("Too many transfers");
+            verify(ledgerService).recordTransfers(argThat(hasSize(3)));
+        }
+
+        @Test
+        @DisplayName("Should hold the commands past the threshold without moving money")
+        void shouldHoldCommandsPastThreshold() {
+            transferProperties.getVelocity().setAction(TransferProperties.Velocity.Action.HOLD);
+            stubCardsAndResponses();
+
+            List<TransferBatchProcessor.TransferOutcome> outcomes = transferBatchProcessor.process(List.of(
+                    command(firstCard, secondCard, "1.00"),
+                    command(firstCard, secondCard, "1.00"),
+                    command(firstCard, secondCard, "200.00")
+            ), BatchFailureMode.PARTIAL);
+
+            assertThat(outcomes).extracting(TransferBatchProcessor.TransferOutcome::status).containsExactly(
+                    BatchItemStatus.SUCCESS, BatchItemStatus.SUCCESS, BatchItemStatus.HELD
+            );
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Transfer>> captor = ArgumentCaptor.forClass(List.class);
+            verify(transferRepository).saveAll(captor.capture());
+            assertThat(captor.getValue()).extracting(Transfer::getStatus)
+                    .containsExactly(TransferStatus.SUCCESS, TransferStatus.SUCCESS, TransferStatus.HELD);
+            verify(dailyLimitService).reserve(firstCard, new BigDecimal("200.00"));
+            verify(ledgerService).recordTransfers(argThat(hasSize(2)));
+            verify(outboxService).recordTransfersCompleted(argThat(hasSize(2)));
+        }
+    }
+}
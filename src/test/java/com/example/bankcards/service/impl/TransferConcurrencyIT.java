@@ -0,0 +1,601 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.dto.transfer.TransferResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.TransferStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.event.TransferEvent;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.repository.CardBalanceSnapshotRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.example.bankcards.repository.CardBalanceShardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.KafkaProducerService;
+import com.example.bankcards.service.BalanceShardService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.TransferService;
+import com.example.bankcards.util.EncryptionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class TransferConcurrencyIT {
+
+    private static final int CARDS = 10;
+    private static final int TRANSFERS = 5_000;
+    private static final int THREADS = 16;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("20.00");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+        registry.add("spring.datasource.hikari.connection-timeout", () -> 2_000);
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+    }
+
+    @MockBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransferProperties transferProperties;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BalanceShardService balanceShardService;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private CardBalanceShardRepository cardBalanceShardRepository;
+
+    @Autowired
+    private CardBalanceSnapshotRepository cardBalanceSnapshotRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    private final List<Long> publishedTransferIds = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        publishedTransferIds.clear();
+        when(kafkaProducerService.sendTransferEvents(anyList())).thenAnswer(invocation -> {
+            List<TransferEvent> events = invocation.getArgument(0);
+            events.forEach(event -> publishedTransferIds.add(event.transferId()));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transferProperties.getAsync().setEnabled(false);
+        transferProperties.getVelocity().setEnabled(false);
+        outboxEventRepository.deleteAllInBatch();
+        idempotencyKeyRepository.deleteAll();
+        transferRepository.deleteAll();
+        ledgerEntryRepository.deleteAllInBatch();
+        cardBalanceSnapshotRepository.deleteAllInBatch();
+        cardBalanceShardRepository.deleteAllInBatch();
+        cardRepository.deleteAll();
+        transferProperties.setMode(TransferProperties.Mode.LOCKING);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferProperties.Mode.class)
+    @DisplayName("Should reconcile every card balance with its transfer rows under contention")
+    void shouldReconcileBalancesWithTransferRows(TransferProperties.Mode mode) throws InterruptedException {
+        transferProperties.setMode(mode);
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(randomTransfer(cardIds), owner.getId());
+                    succeeded.incrementAndGet();
+                } catch (BusinessException | OptimisticLockingFailureException e) {
+                    rejected.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        cardIds.forEach(id -> expected.put(id, INITIAL_BALANCE));
+        List<Transfer> transfers = transferRepository.findAll();
+        for (Transfer transfer : transfers) {
+            expected.merge(transfer.getSourceCard().getId(), transfer.getAmount().negate(), BigDecimal::add);
+            expected.merge(transfer.getDestinationCard().getId(), transfer.getAmount(), BigDecimal::add);
+        }
+
+        assertThat(failed).hasValue(0);
+        assertThat(transfers).hasSize(succeeded.get());
+        assertThat(succeeded.get() + rejected.get()).isEqualTo(TRANSFERS);
+        assertThat(ledgerEntryRepository.count()).isEqualTo(2L * transfers.size());
+        assertBalances(expected);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferProperties.Mode.class)
+    @DisplayName("Should never overdraw a card drained by parallel transfers")
+    void shouldNeverOverdrawDrainedCard(TransferProperties.Mode mode) throws InterruptedException {
+        transferProperties.setMode(mode);
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+        Long sourceId = cardIds.get(0);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < 200; i++) {
+            Long destinationId = cardIds.get(1 + i % (CARDS - 1));
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(TransferRequest.builder()
+                            .sourceCardId(sourceId)
+                            .destinationCardId(destinationId)
+                            .amount(BigDecimal.ONE)
+                            .build(), owner.getId());
+                    succeeded.incrementAndGet();
+                } catch (BusinessException | OptimisticLockingFailureException ignored) {
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+
+        // Conditional transfers that keep losing the race past the retry budget give up, so fewer may get through
+        if (mode == TransferProperties.Mode.LOCKING) {
+            assertThat(succeeded).hasValue(INITIAL_BALANCE.intValue());
+        }
+        assertThat(ledgerService.getBalance(sourceId))
+                .isNotNegative()
+                .isEqualByComparingTo(INITIAL_BALANCE.subtract(BigDecimal.valueOf(succeeded.get())));
+    }
+
+    @Test
+    @DisplayName("Should reconcile balances when batches race with single transfers")
+    void shouldReconcileBalancesWhenBatchesRaceWithSingleTransfers() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+
+        AtomicInteger batchApplied = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < TRANSFERS / 10; i++) {
+            boolean batch = i % 2 == 0;
+            pool.execute(() -> {
+                try {
+                    if (batch) {
+                        List<TransferRequest> requests = new ArrayList<>();
+                        for (int j = 0; j < 20; j++) {
+                            requests.add(randomTransfer(cardIds));
+                        }
+                        batchApplied.addAndGet(transferService.transferBatch(
+                                BatchTransferRequest.builder().transfers(requests).build(), owner.getId()
+                        ).getSucceeded());
+                    } else {
+                        transferService.transferMoney(randomTransfer(cardIds), owner.getId());
+                    }
+                } catch (BusinessException ignored) {
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+
+        Map<Long, BigDecimal> expected = expectedBalances(cardIds);
+
+        assertThat(failed).hasValue(0);
+        assertThat(batchApplied.get()).isPositive();
+        assertBalances(expected);
+    }
+
+    @Test
+    @DisplayName("Should keep balances exact while snapshots fold the ledger under load")
+    void shouldKeepBalancesExactWhileSnapshotting() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+
+        AtomicInteger failed = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread snapshotter = new Thread(() -> {
+            while (running.get()) {
+                ledgerService.takeSnapshots();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            }
+        });
+        snapshotter.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(randomTransfer(cardIds), owner.getId());
+                } catch (BusinessException ignored) {
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        running.set(false);
+        snapshotter.join();
+
+        Map<Long, BigDecimal> expected = expectedBalances(cardIds);
+        assertThat(failed).hasValue(0);
+        assertBalances(expected);
+
+        ledgerService.takeSnapshots();
+        assertThat(cardBalanceSnapshotRepository.count()).isPositive();
+        assertBalances(expected);
+        for (Long cardId : cardIds) {
+            assertThat(cardBalanceSnapshotRepository.findFirstByCardIdOrderByAsOfDesc(cardId))
+                    .hasValueSatisfying(snapshot ->
+                            assertThat(snapshot.getBalance()).isEqualByComparingTo(expected.get(cardId)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep sharded hot card balances exact while shards are compacted under load")
+    void shouldKeepShardedBalancesExactWhileCompacting() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+        List<Long> hotCardIds = cardIds.subList(0, 2);
+        hotCardIds.forEach(balanceShardService::enableSharding);
+
+        AtomicInteger failed = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread compactor = new Thread(() -> {
+            for (int round = 0; running.get(); round++) {
+                hotCardIds.forEach(balanceShardService::compact);
+                if (round % 10 == 5) {
+                    balanceShardService.disableSharding(hotCardIds.get(1));
+                    balanceShardService.enableSharding(hotCardIds.get(1));
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+            }
+        });
+        compactor.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(randomTransfer(cardIds), owner.getId());
+                } catch (BusinessException ignored) {
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        running.set(false);
+        compactor.join();
+
+        Map<Long, BigDecimal> expected = expectedBalances(cardIds);
+        assertThat(failed).hasValue(0);
+        assertBalances(expected);
+        assertThat(cardBalanceShardRepository.findAll()).allSatisfy(shard ->
+                assertThat(shard.getBalance()).isNotNegative());
+
+        hotCardIds.forEach(balanceShardService::disableSharding);
+        assertThat(cardBalanceShardRepository.count()).isZero();
+        assertBalances(expected);
+    }
+
+    @Test
+    @DisplayName("Should settle accepted transfers in the background and reconcile balances")
+    void shouldSettleAcceptedTransfersAsynchronously() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+        transferProperties.getAsync().setEnabled(true);
+
+        AtomicInteger failed = new AtomicInteger();
+        List<Long> transferIds = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            pool.execute(() -> {
+                try {
+                    transferIds.add(transferService.transferMoney(randomTransfer(cardIds), owner.getId()).getId());
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(failed).hasValue(0);
+
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (transferRepository.findAll().stream().anyMatch(t -> t.getStatus() == TransferStatus.PENDING)) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        assertThat(transferIds).hasSize(TRANSFERS);
+        assertThat(transferService.getTransfer(owner.getId(), transferIds.get(0)).getStatus())
+                .isIn(TransferStatus.SUCCESS.name(), TransferStatus.FAILED.name());
+        assertThat(ledgerEntryRepository.count()).isEqualTo(2L * transferRepository.findAll().stream()
+                .filter(t -> t.getStatus() == TransferStatus.SUCCESS)
+                .count());
+        assertBalances(expectedBalances(cardIds));
+    }
+
+    @Test
+    @DisplayName("Should keep a held transfer out of recovery until an admin releases it")
+    void shouldKeepHeldTransferOutOfRecovery() {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+        TransferProperties.Velocity velocity = transferProperties.getVelocity();
+        velocity.setEnabled(true);
+        velocity.setAction(TransferProperties.Velocity.Action.HOLD);
+        velocity.setShortWindowMax(0);
+
+        TransferResponse held = transferService.transferMoney(TransferRequest.builder()
+                .sourceCardId(cardIds.get(0))
+                .destinationCardId(cardIds.get(1))
+                .amount(BigDecimal.ONE)
+                .build(), owner.getId());
+        assertThat(held.getStatus()).isEqualTo(TransferStatus.HELD.name());
+
+        assertThat(transferService.resumePendingTransfers(Instant.now().plusSeconds(60), 100)).isZero();
+        assertThat(transferRepository.findById(held.getId()).orElseThrow().getStatus()).isEqualTo(TransferStatus.HELD);
+        assertThat(ledgerEntryRepository.count()).isZero();
+
+        transferService.releaseHeldTransfer(held.getId());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (transferRepository.findById(held.getId()).orElseThrow().getStatus() == TransferStatus.PENDING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertThat(transferRepository.findById(held.getId()).orElseThrow().getStatus())
+                .isEqualTo(TransferStatus.SUCCESS);
+        assertThat(ledgerService.getBalance(cardIds.get(0))).isEqualByComparingTo(INITIAL_BALANCE.subtract(BigDecimal.ONE));
+    }
+
+    @Test
+    @DisplayName("Should write one debit and one credit per transfer that net to zero")
+    void shouldWriteBalancedLedgerEntries() {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+
+        Long transferId = transferService.transferMoney(TransferRequest.builder()
+                .sourceCardId(cardIds.get(0))
+                .destinationCardId(cardIds.get(1))
+                .amount(new BigDecimal("7.50"))
+                .build(), owner.getId()).getId();
+
+        List<LedgerEntry> entries = ledgerEntryRepository.findByTransferIdOrderById(transferId);
+        assertThat(entries).extracting(LedgerEntry::getCardId).containsExactlyInAnyOrder(cardIds.get(0), cardIds.get(1));
+        assertThat(entries.stream().map(LedgerEntry::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(cardRepository.findById(cardIds.get(0))).hasValueSatisfying(card ->
+                assertThat(card.getBalance()).isEqualByComparingTo(INITIAL_BALANCE));
+        assertThat(ledgerService.getBalance(cardIds.get(0))).isEqualByComparingTo("12.50");
+        assertThat(ledgerService.getBalance(cardIds.get(1))).isEqualByComparingTo("27.50");
+    }
+
+    @Test
+    @DisplayName("Should move money once for concurrent duplicates sharing an idempotency key")
+    void shouldMoveMoneyOnceForConcurrentDuplicates() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+        TransferRequest request = TransferRequest.builder()
+                .sourceCardId(cardIds.get(0))
+                .destinationCardId(cardIds.get(1))
+                .amount(BigDecimal.ONE)
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        List<Long> transferIds = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS * 2; i++) {
+            pool.execute(() -> transferIds.add(
+                    transferService.transferMoney(request, owner.getId(), idempotencyKey).getId()
+            ));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(transferIds).hasSize(THREADS * 2).containsOnly(transferIds.get(0));
+        assertThat(transferRepository.count()).isEqualTo(1);
+        assertThat(ledgerService.getBalance(cardIds.get(0)))
+                .isEqualByComparingTo(INITIAL_BALANCE.subtract(BigDecimal.ONE));
+    }
+
+    @Test
+    @DisplayName("Should publish every completed transfer exactly once through the outbox")
+    void shouldPublishEveryTransferOnceThroughOutbox() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < 500; i++) {
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(randomTransfer(cardIds), owner.getId());
+                } catch (BusinessException ignored) {
+                }
+            });
+        }
+        pool.execute(() -> transferService.transferBatch(BatchTransferRequest.builder()
+                .transfers(List.of(randomTransfer(cardIds), randomTransfer(cardIds)))
+                .build(), owner.getId()));
+        pool.shutdown();
+        assertThat(pool.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outboxEventRepository.count() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+
+        Set<Long> completedIds = transferRepository.findAll().stream()
+                .filter(transfer -> transfer.getStatus() == TransferStatus.SUCCESS)
+                .map(Transfer::getId)
+                .collect(Collectors.toSet());
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(publishedTransferIds).doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(completedIds);
+    }
+
+    @Test
+    @DisplayName("Should refuse to lock cards outside of a caller transaction")
+    void shouldRefuseToLockCardsOutsideTransaction() {
+        assertThatThrownBy(() -> cardRepository.findAllByIdInForUpdate(List.of(1L, 2L)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private Map<Long, BigDecimal> expectedBalances(List<Long> cardIds) {
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        cardIds.forEach(id -> expected.put(id, INITIAL_BALANCE));
+        for (Transfer transfer : transferRepository.findAll()) {
+            if (transfer.getStatus() != TransferStatus.SUCCESS) {
+                continue;
+            }
+            expected.merge(transfer.getSourceCard().getId(), transfer.getAmount().negate(), BigDecimal::add);
+            expected.merge(transfer.getDestinationCard().getId(), transfer.getAmount(), BigDecimal::add);
+        }
+        return expected;
+    }
+
+    private void assertBalances(Map<Long, BigDecimal> expected) {
+        assertThat(ledgerService.getBalances(expected.keySet())).allSatisfy((cardId, balance) -> {
+            assertThat(balance).isNotNegative();
+            assertThat(balance).isEqualByComparingTo(expected.get(cardId));
+        }).hasSize(expected.size());
+    }
+
+    private TransferRequest randomTransfer(List<Long> cardIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(cardIds.size());
+        int destination = (source + 1 + random.nextInt(cardIds.size() - 1)) % cardIds.size();
+
+        return TransferRequest.builder()
+                .sourceCardId(cardIds.get(source))
+                .destinationCardId(cardIds.get(destination))
+                .amount(BigDecimal.valueOf(1 + random.nextInt(5)))
+                .build();
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username("stress-" + suffix)
+                .email("stress-" + suffix + "@example.com")
+                .password("password")
+                .build());
+    }
+
+    private List<Long> createCards(User owner) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(Card.builder()
+                    .cardNumber(encryptionUtil.encrypt("400000000001" + String.format("%04d", i)))
+                    .cardLast4(String.format("%04d", i))
+                    .owner(owner)
+                    .holderName("STRESS TEST")
+                    .expiryDate(LocalDate.now().plusYears(3))
+                    .status(CardStatus.ACTIVE)
+                    .balance(INITIAL_BALANCE)
+                    .build());
+        }
+        return cardRepository.saveAll(cards).stream()
+                .map(Card::getId)
+                .toList();
+    }
+}
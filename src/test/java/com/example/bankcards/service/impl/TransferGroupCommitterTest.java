@@ -0,0 +1,154 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import com.example.bankcards.dto.transfer.BatchItemStatus;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.dto.transfer.TransferResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferGroupCommitterTest {
+
+    @Mock
+    private TransferBatchProcessor transferBatchProcessor;
+
+    private TransferProperties transferProperties;
+    private TransferGroupCommitter transferGroupCommitter;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getGroupCommit().setMaxDelay(Duration.ofMillis(200));
+        transferGroupCommitter = new TransferGroupCommitter(transferBatchProcessor, transferProperties, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transferGroupCommitter.stop();
+    }
+
+    private TransferBatchProcessor.TransferCommand command(long sourceCardId) {
+        return new TransferBatchProcessor.TransferCommand(TransferRequest.builder()
+                .sourceCardId(sourceCardId)
+                .destinationCardId(99L)
+                .amount(BigDecimal.ONE)
+                .build(), 1L);
+    }
+
+    private void stubSuccessfulGroups() {
+        when(transferBatchProcessor.process(anyList(), eq(BatchFailureMode.PARTIAL))).thenAnswer(invocation -> {
+            List<TransferBatchProcessor.TransferCommand> commands = invocation.getArgument(0);
+            return commands.stream()
+                    .map(command -> new TransferBatchProcessor.TransferOutcome(
+                            BatchItemStatus.SUCCESS,
+                            TransferResponse.builder().id(command.request().getSourceCardId()).build(),
+                            null
+                    ))
+                    .toList();
+        });
+    }
+
+    private List<CompletableFuture<TransferBatchProcessor.TransferOutcome>> submitAll(int count) {
+        List<CompletableFuture<TransferBatchProcessor.TransferOutcome>> futures = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            futures.add(transferGroupCommitter.submit(command(i)));
+        }
+        return futures;
+    }
+
+    @Nested
+    @DisplayName("submit")
+    class Submit {
+
+        @Test
+        @DisplayName("Should commit transfers queued within the delay as one group")
+        void shouldCommitQueuedTransfersTogether() {
+            stubSuccessfulGroups();
+            List<CompletableFuture<TransferBatchProcessor.TransferOutcome>> futures = submitAll(3);
+
+            transferGroupCommitter.start();
+
+            assertThat(futures).extracting(future -> future.orTimeout(5, TimeUnit.SECONDS).join().response().getId())
+                    .containsExactly(1L, 2L, 3L);
+            verify(transferBatchProcessor, times(1)).process(
+                    argThat(commands -> commands.size() == 3), eq(BatchFailureMode.PARTIAL)
+            );
+        }
+
+        @Test
+        @DisplayName("Should cap groups at the configured size")
+        void shouldCapGroupSize() {
+            stubSuccessfulGroups();
+            transferProperties.getGroupCommit().setMaxBatchSize(2);
+            List<CompletableFuture<TransferBatchProcessor.TransferOutcome>> futures = submitAll(5);
+
+            transferGroupCommitter.start();
+
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).orTimeout(5, TimeUnit.SECONDS).join();
+            verify(transferBatchProcessor, times(3)).process(anyList(), eq(BatchFailureMode.PARTIAL));
+            verify(transferBatchProcessor, never()).process(
+                    argThat(commands -> commands.size() > 2), any()
+            );
+        }
+
+        @Test
+        @DisplayName("Should retry items one by one when the group fails as a whole")
+        void shouldIsolateFailedGroup() {
+            QueryTimeoutException error = new QueryTimeoutException("timeout");
+            when(transferBatchProcessor.process(anyList(), eq(BatchFailureMode.PARTIAL))).thenAnswer(invocation -> {
+                List<TransferBatchProcessor.TransferCommand> commands = invocation.getArgument(0);
+                if (commands.size() > 1 || commands.get(0).request().getSourceCardId() == 2L) {
+                    throw error;
+                }
+                return List.of(new TransferBatchProcessor.TransferOutcome(
+                        BatchItemStatus.SUCCESS, TransferResponse.builder().build(), null
+                ));
+            });
+            List<CompletableFuture<TransferBatchProcessor.TransferOutcome>> futures = submitAll(3);
+
+            transferGroupCommitter.start();
+
+            assertThat(futures.get(0).orTimeout(5, TimeUnit.SECONDS).join().status()).isEqualTo(BatchItemStatus.SUCCESS);
+            assertThat(futures.get(2).orTimeout(5, TimeUnit.SECONDS).join().status()).isEqualTo(BatchItemStatus.SUCCESS);
+            assertThatThrownBy(() -> futures.get(1).orTimeout(5, TimeUnit.SECONDS).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCause(error);
+        }
+
+        @Test
+        @DisplayName("Should fail queued transfers on shutdown")
+        void shouldFailQueuedTransfersOnShutdown() {
+            CompletableFuture<TransferBatchProcessor.TransferOutcome> future = transferGroupCommitter.submit(command(1));
+
+            transferGroupCommitter.stop();
+
+            assertThat(future).isCompletedExceptionally();
+            verifyNoInteractions(transferBatchProcessor);
+        }
+    }
+}
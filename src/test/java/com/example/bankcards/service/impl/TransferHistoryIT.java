@@ -0,0 +1,242 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.TransferCursorPage;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.dto.transfer.TransferResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.KafkaProducerService;
+import com.example.bankcards.service.TransferService;
+import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.EncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class TransferHistoryIT {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int ITERATIONS = 200;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+    }
+
+    @MockBean
+    private KafkaProducerService kafkaProducerService;
+
+    @SpyBean
+    private EncryptionUtil encryptionUtil;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(kafkaProducerService.sendTransferEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAllInBatch();
+        transferRepository.deleteAllInBatch();
+        cardRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should render a history page without decrypting card numbers and report the cost of decrypting")
+    void shouldRenderHistoryWithoutDecrypting() {
+        User owner = createUser();
+        List<Long> cardIds = cardRepository.saveAll(List.of(
+                card(owner, "4000000000001111"),
+                card(owner, "4000000000002222")
+        )).stream().map(Card::getId).toList();
+
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            requests.add(TransferRequest.builder()
+                    .sourceCardId(cardIds.get(i % 2))
+                    .destinationCardId(cardIds.get((i + 1) % 2))
+                    .amount(BigDecimal.ONE)
+                    .build());
+        }
+        transferService.transferBatch(BatchTransferRequest.builder().transfers(requests).build(), owner.getId());
+
+        Pageable page = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+        clearInvocations(encryptionUtil);
+
+        long startedAt = System.nanoTime();
+        Page<TransferResponse> history = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            history = transferService.getTransferHistory(owner.getId(), page);
+        }
+        long columnMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        verify(encryptionUtil, never()).decrypt(any());
+        assertThat(history.getContent()).hasSize(PAGE_SIZE);
+        assertThat(history.getContent()).extracting(TransferResponse::getSourceCardMasked)
+                .containsOnly("**** **** **** 1111", "**** **** **** 2222");
+
+        // The previous read path: two AES-GCM decrypts per row on top of the same query
+        startedAt = System.nanoTime();
+        List<String> decrypted = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            decrypted = transactionTemplate.execute(status -> transferRepository
+                    .findBySourceOwnerIdOrDestinationOwnerId(owner.getId(), owner.getId(), page)
+                    .stream()
+                    .map(this::maskByDecrypting)
+                    .toList());
+        }
+        long decryptMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        log.info("History page of {} transfers x {}: masked column {} ms ({} pages/s), decrypting {} ms ({} pages/s)",
+                PAGE_SIZE, ITERATIONS,
+                columnMillis, ITERATIONS * 1000L / Math.max(columnMillis, 1),
+                decryptMillis, ITERATIONS * 1000L / Math.max(decryptMillis, 1));
+
+        assertThat(decrypted).containsExactlyElementsOf(history.getContent().stream()
+                .map(TransferResponse::getSourceCardMasked)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Should walk the whole history by cursor for senders and recipients")
+    void shouldWalkHistoryByCursor() {
+        User owner = createUser();
+        User recipient = createUser();
+        List<Long> cardIds = cardRepository.saveAll(List.of(
+                card(owner, "4000000000003333"),
+                card(owner, "4000000000004444"),
+                card(recipient, "4000000000005555")
+        )).stream().map(Card::getId).toList();
+
+        // A batch stamps every transfer with the same instant, so only the id breaks ties
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            requests.add(TransferRequest.builder()
+                    .sourceCardId(cardIds.get(i % 2))
+                    .destinationCardId(i % 5 == 0 ? cardIds.get(2) : cardIds.get((i + 1) % 2))
+                    .amount(BigDecimal.ONE)
+                    .build());
+        }
+        transferService.transferBatch(BatchTransferRequest.builder().transfers(requests).build(), owner.getId());
+
+        List<Long> ownerHistory = walkHistory(owner.getId(), 10);
+        List<Long> recipientHistory = walkHistory(recipient.getId(), 2);
+
+        assertThat(ownerHistory).hasSize(25).doesNotHaveDuplicates();
+        assertThat(ownerHistory).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(recipientHistory).hasSize(5).doesNotHaveDuplicates();
+        assertThat(recipientHistory).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(ownerHistory).containsAll(recipientHistory);
+    }
+
+    private List<Long> walkHistory(Long userId, int size) {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransferCursorPage page = transferService.getTransferHistory(userId, cursor, size, null, null);
+            page.getContent().forEach(transfer -> walked.add(transfer.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return walked;
+    }
+
+    private String maskByDecrypting(Transfer transfer) {
+        CardMaskingUtil.maskCardNumber(encryptionUtil.decrypt(transfer.getDestinationCard().getCardNumber()));
+        return CardMaskingUtil.maskCardNumber(encryptionUtil.decrypt(transfer.getSourceCard().getCardNumber()));
+    }
+
+    private Card card(User owner, String cardNumber) {
+        return Card.builder()
+                .cardNumber(encryptionUtil.encrypt(cardNumber))
+                .cardLast4(CardMaskingUtil.lastFour(cardNumber))
+                .owner(owner)
+                .holderName("HISTORY TEST")
+                .expiryDate(LocalDate.now().plusYears(3))
+                .status(CardStatus.ACTIVE)
+                .balance(new BigDecimal("1000.00"))
+                .build();
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username("history-" + suffix)
+                .email("history-" + suffix + "@example.com")
+                .password("password")
+                .build());
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.entity.TransferStatsWatermark;
+import com.example.bankcards.repository.TransferStatsWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferPartitionServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransferStatsWatermarkRepository transferStatsWatermarkRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private TransferProperties transferProperties;
+    private TransferPartitionServiceImpl transferPartitionService;
+
+    private final LocalDate today = LocalDate.parse("2026-10-17");
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getPartitioning().setArchiveDirectory(archiveDirectory);
+        transferPartitionService = new TransferPartitionServiceImpl(
+                jdbcTemplate, transferStatsWatermarkRepository, transactionManager, transferProperties
+        );
+    }
+
+    // Runs the maintenance on a connection where the advisory lock query answers the given result
+    private Connection lockConnection(boolean acquired) throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement(contains("pg_try_advisory_xact_lock"))).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(acquired);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        return connection;
+    }
+
+    private void attachedPartitions(String... partitions) {
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq(false)))
+                .thenReturn(List.of(partitions));
+    }
+
+    private void noPendingDetach() {
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq(true))).thenReturn(List.of());
+    }
+
+    @Nested
+    @DisplayName("createUpcomingPartitions")
+    class CreateUpcomingPartitions {
+
+        @Test
+        @DisplayName("Should create only the missing months from the current one through the months ahead")
+        void shouldCreateMissingMonths() throws Exception {
+            lockConnection(true);
+            attachedPartitions("transfers_p2026_10", "transfers_p2026_11");
+
+            int created = transferPartitionService.createUpcomingPartitions(today);
+
+            assertThat(created).isEqualTo(2);
+            verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transfers_p2026_12 PARTITION OF transfers "
+                    + "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+            verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transfers_p2027_01 PARTITION OF transfers "
+                    + "FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+            verify(jdbcTemplate, times(2)).execute(anyString());
+        }
+
+        @Test
+        @DisplayName("Should leave the partitions to the node holding the maintenance lock")
+        void shouldSkipWhileAnotherNodeMaintains() throws Exception {
+            Connection connection = lockConnection(false);
+
+            assertThat(transferPartitionService.createUpcomingPartitions(today)).isZero();
+
+            verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+            verify(jdbcTemplate, never()).execute(anyString());
+            verify(connection).rollback();
+            verify(connection).setAutoCommit(true);
+        }
+    }
+
+    @Nested
+    @DisplayName("archiveExpiredPartitions")
+    class ArchiveExpiredPartitions {
+
+        @Test
+        @DisplayName("Should do nothing unless archiving is enabled")
+        void shouldSkipWhenDisabled() {
+            assertThat(transferPartitionService.archiveExpiredPartitions(today)).isZero();
+
+            verifyNoInteractions(jdbcTemplate, transferStatsWatermarkRepository);
+        }
+
+        @Test
+        @DisplayName("Should keep an expired month whose transfers are not folded into the stats yet")
+        void shouldKeepMonthNotFoldedIntoStats() throws Exception {
+            lockConnection(true);
+            transferProperties.getPartitioning().setArchiveEnabled(true);
+            noPendingDetach();
+            attachedPartitions("transfers_p2024_09", "transfers_p2026_10");
+            when(transferStatsWatermarkRepository.findById(TransferStatsWatermark.ID))
+                    .thenReturn(Optional.of(new TransferStatsWatermark(TransferStatsWatermark.ID, 1500L)));
+            when(jdbcTemplate.queryForObject(contains("transfers_p2024_09 WHERE stats_xid"), eq(Boolean.class), eq(1500L)))
+                    .thenReturn(true);
+
+            assertThat(transferPartitionService.archiveExpiredPartitions(today)).isZero();
+
+            verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        }
+
+        @Test
+        @DisplayName("Should detach months past the retention, write them to gzipped CSV and drop them")
+        void shouldArchiveExpiredMonth() throws Exception {
+            Connection connection = lockConnection(true);
+            transferProperties.getPartitioning().setArchiveEnabled(true);
+            noPendingDetach();
+            attachedPartitions("transfers_p2024_09", "transfers_p2024_10", "transfers_p2026_10");
+            when(transferStatsWatermarkRepository.findById(TransferStatsWatermark.ID))
+                    .thenReturn(Optional.of(new TransferStatsWatermark(TransferStatsWatermark.ID, 1500L)));
+            when(jdbcTemplate.queryForObject(contains("WHERE stats_xid"), eq(Boolean.class), eq(1500L)))
+                    .thenReturn(false);
+            when(jdbcTemplate.queryForList(contains("relispartition"), eq(String.class)))
+                    .thenReturn(List.of("transfers_p2024_09"));
+            ResultSet row = archivedRow();
+            doAnswer(invocation -> {
+                invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+                return null;
+            }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+            int archived = transferPartitionService.archiveExpiredPartitions(today);
+
+            assertThat(archived).isEqualTo(1);
+            verify(jdbcTemplate).execute("ALTER TABLE transfers DETACH PARTITION transfers_p2024_09 CONCURRENTLY");
+            verify(jdbcTemplate, never()).execute(contains("transfers_p2024_10"));
+            verify(jdbcTemplate).execute("DROP TABLE transfers_p2024_09");
+            verify(connection).rollback();
+            assertThat(read(archiveDirectory.resolve("transfers_p2024_09.csv.gz"))).isEqualTo(
+                    "id,source_card_id,destination_card_id,source_owner_id,destination_owner_id,amount,timestamp,"
+                            + "status,description,failure_reason\n"
+                            + "7,1,2,10,20,12.50,2024-09-03T10:15:30Z,SUCCESS,\"Rent, September\",\n"
+            );
+        }
+
+        private ResultSet archivedRow() throws Exception {
+            ResultSet row = mock(ResultSet.class);
+            when(row.getLong("id")).thenReturn(7L);
+            when(row.getLong("source_card_id")).thenReturn(1L);
+            when(row.getLong("destination_card_id")).thenReturn(2L);
+            when(row.getLong("source_owner_id")).thenReturn(10L);
+            when(row.getLong("destination_owner_id")).thenReturn(20L);
+            when(row.getBigDecimal("amount")).thenReturn(new BigDecimal("12.50"));
+            when(row.getTimestamp("timestamp")).thenReturn(Timestamp.from(Instant.parse("2024-09-03T10:15:30Z")));
+            when(row.getString("status")).thenReturn("SUCCESS");
+            when(row.getString("description")).thenReturn("Rent, September");
+            return row;
+        }
+
+        private String read(Path file) throws IOException {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("findAttachedSince")
+    class FindAttachedSince {
+
+        @Test
+        @DisplayName("Should return the start of the oldest attached month")
+        void shouldReturnOldestAttachedMonthStart() {
+            attachedPartitions("transfers_p2026_10", "transfers_p2024_10", "transfers_p2024_09");
+
+            assertThat(transferPartitionService.findAttachedSince())
+                    .contains(LocalDate.parse("2024-09-01").atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+
+        @Test
+        @DisplayName("Should return empty when no partition is attached")
+        void shouldReturnEmptyWithoutPartitions() {
+            attachedPartitions();
+
+            assertThat(transferPartitionService.findAttachedSince()).isEmpty();
+        }
+    }
+}
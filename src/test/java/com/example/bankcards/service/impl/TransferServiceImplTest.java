@@ -1,39 +1,66 @@
 package com.example.bankcards.service.impl;
 
+import com.example.bankcards.config.CardProperties;
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.BatchFailureMode;
+import com.example.bankcards.dto.transfer.BatchItemStatus;
+import com.example.bankcards.dto.transfer.BatchTransferRequest;
+import com.example.bankcards.dto.transfer.BatchTransferResponse;
+import com.example.bankcards.dto.transfer.ExportFormat;
+import com.example.bankcards.dto.transfer.TransferCursorPage;
 import com.example.bankcards.dto.transfer.TransferRequest;
 import com.example.bankcards.dto.transfer.TransferResponse;
 import com.example.bankcards.entity.*;
-import com.example.bankcards.event.TransferEvent;
 import com.example.bankcards.exception.BusinessException;
 import com.example.bankcards.exception.ResourceNotFoundException;
 import com.example.bankcards.mapper.TransferMapper;
+import com.example.bankcards.exception.ResourceExistsException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
 import com.example.bankcards.repository.TransferRepository;
-import com.example.bankcards.service.KafkaProducerService;
-import com.example.bankcards.util.EncryptionUtil;
+import com.example.bankcards.service.DailyLimitService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.OutboxService;
+import com.example.bankcards.service.RedisIdempotencyService;
+import com.example.bankcards.util.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executor;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,13 +76,42 @@ class TransferServiceImplTest {
     private TransferMapper transferMapper;
 
     @Mock
-    private KafkaProducerService kafkaProducerService;
+    private RedisIdempotencyService redisIdempotencyService;
 
     @Mock
-    private EncryptionUtil encryptionUtil;
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private TransferBatchProcessor transferBatchProcessor;
+
+    @Mock
+    private TransferGroupCommitter transferGroupCommitter;
+
+    @Mock
+    private TransferPartitionExecutor transferPartitionExecutor;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransferExporter transferExporter;
+
+    @Mock
+    private DailyLimitService dailyLimitService;
+
+    @Mock
+    private TransferVelocityEngine transferVelocityEngine;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
 
     private TransferServiceImpl transferService;
-    private final Executor syncExecutor = Runnable::run;
+    private TransferProperties transferProperties;
+    private CardStatusIndex cardStatusIndex;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     private TransferRequest transferRequest;
     private TransferResponse transferResponse;
@@ -74,10 +130,16 @@ class TransferServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        transferProperties = new TransferProperties();
+        TransactionRetryExecutor transactionRetryExecutor = new TransactionRetryExecutor(
+                TransactionOperations.withoutTransaction(), transferProperties, meterRegistry
+        );
+        cardStatusIndex = new CardStatusIndex(new CardProperties(), redisTemplate, meterRegistry);
         transferService = new TransferServiceImpl(
                 transferRepository, cardRepository, transferMapper,
-                kafkaProducerService, encryptionUtil,
-                syncExecutor, syncExecutor
+                transferProperties, transactionRetryExecutor, redisIdempotencyService, idempotencyKeyRepository,
+                transferBatchProcessor, transferGroupCommitter, transferPartitionExecutor, ledgerService, outboxService,
+                transferExporter, dailyLimitService, transferVelocityEngine, cardStatusIndex
         );
 
         sourceCardId = 1L;
@@ -145,6 +207,12 @@ class TransferServiceImplTest {
                 .build();
     }
 
+    private void stubCards(Card source, Card destination) {
+        when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(source));
+        lenient().when(cardRepository.findById(destinationCardId)).thenReturn(Optional.ofNullable(destination));
+        lenient().when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(Money.toMinor(source.getBalance()));
+    }
+
     @Nested
     @DisplayName("transferMoney")
     class TransferMoney {
@@ -152,12 +220,9 @@ class TransferServiceImplTest {
         @Test
         @DisplayName("Should transfer money successfully")
         void shouldTransferMoneySuccessfully() {
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            stubCards(sourceCard, destinationCard);
             when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
             when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
-            when(encryptionUtil.decrypt(encryptedSourceCard)).thenReturn("1111222233334444");
-            when(encryptionUtil.decrypt(encryptedDestCard)).thenReturn("5555666677778888");
 
             TransferResponse result = transferService.transferMoney(transferRequest, userId);
 
@@ -165,23 +230,15 @@ class TransferServiceImplTest {
             assertThat(result.getAmount()).isEqualTo(transferAmount);
             assertThat(result.getStatus()).isEqualTo(TransferStatus.SUCCESS.name());
 
-            ArgumentCaptor<TransferEvent> eventCaptor =
-                    ArgumentCaptor.forClass(TransferEvent.class);
-            verify(kafkaProducerService).sendTransferEventAsync(eventCaptor.capture());
-            TransferEvent event = eventCaptor.getValue();
-            assertThat(event.senderCardMasked()).isEqualTo("**** **** **** 4444");
-            assertThat(event.recipientCardMasked()).isEqualTo("**** **** **** 8888");
-
-            assertThat(sourceCard.getBalance()).isEqualTo(sourceCardBalance.subtract(transferAmount));
-            assertThat(destinationCard.getBalance()).isEqualTo(destinationCardBalance.add(transferAmount));
+            verify(ledgerService).getBalanceMinor(sourceCardId);
+            verify(ledgerService).recordTransfer(transfer);
+            verify(cardRepository).findById(destinationCardId);
+            verify(cardRepository, never()).findByIdForUpdate(destinationCardId);
 
             verify(cardRepository).findByIdForUpdate(sourceCardId);
-            verify(cardRepository).findByIdForUpdate(destinationCardId);
             verify(transferRepository).save(any(Transfer.class));
             verify(transferMapper).toResponse(transfer);
-            verify(kafkaProducerService).sendTransferEventAsync(any(TransferEvent.class));
-            verify(encryptionUtil).decrypt(encryptedSourceCard);
-            verify(encryptionUtil).decrypt(encryptedDestCard);
+            verify(outboxService).recordTransferCompleted(transfer);
         }
 
         @Test
@@ -194,7 +251,7 @@ class TransferServiceImplTest {
 
             verify(cardRepository, never()).findByIdForUpdate(any());
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
@@ -207,7 +264,7 @@ class TransferServiceImplTest {
 
             verify(cardRepository, never()).findByIdForUpdate(any());
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
@@ -215,14 +272,40 @@ class TransferServiceImplTest {
         void shouldThrowExceptionWhenSourceCardBalanceLessThanTransferAmount() {
             transferRequest.setAmount(new BigDecimal("1000.00"));
 
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            stubCards(sourceCard, destinationCard);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(transferRepository, never()).save(any(Transfer.class));
+            verify(outboxService, never()).recordTransferCompleted(any());
+        }
+
+        @Test
+        @DisplayName("Should check funds against ledger balance rather than opening balance")
+        void shouldCheckFundsAgainstLedgerBalance() {
+            stubCards(sourceCard, destinationCard);
+            when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(5000L);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(transferRepository, never()).save(any(Transfer.class));
+            verify(ledgerService, never()).recordTransfer(any());
+        }
+
+        @Test
+        @DisplayName("Should not create transfer when the daily limit would be exceeded")
+        void shouldThrowExceptionWhenDailyLimitExceeded() {
+            stubCards(sourceCard, destinationCard);
+            when(dailyLimitService.reserve(sourceCard, transferAmount))
+                    .thenThrow(BusinessException.dailyLimitExceeded(transferAmount, new BigDecimal("50.00")));
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
                     .isInstanceOf(BusinessException.class);
 
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(ledgerService, never()).recordTransfer(any());
         }
 
         @Test
@@ -236,36 +319,33 @@ class TransferServiceImplTest {
 
             verify(cardRepository, never()).findByIdForUpdate(any());
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
         @DisplayName("Should throw exception when source card not owned by user")
         void shouldThrowExceptionWhenSourceCardNotOwnedByUser() {
             Long anotherUserId = 2L;
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            stubCards(sourceCard, destinationCard);
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, anotherUserId))
                     .isInstanceOf(ResourceNotFoundException.class);
 
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
         @DisplayName("Should throw exception when source card not found")
         void shouldThrowExceptionWhenSourceCardNotFound() {
             when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.empty());
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(destinationCard));
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
                     .isInstanceOf(ResourceNotFoundException.class);
 
             verify(cardRepository).findByIdForUpdate(sourceCardId);
-            verify(cardRepository).findByIdForUpdate(destinationCardId);
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
@@ -281,14 +361,13 @@ class TransferServiceImplTest {
                     .balance(sourceCardBalance)
                     .build();
 
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(blockedSourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            stubCards(blockedSourceCard, destinationCard);
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
                     .isInstanceOf(BusinessException.class);
 
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
@@ -304,29 +383,26 @@ class TransferServiceImplTest {
                     .balance(sourceCardBalance)
                     .build();
 
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(expiredSourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            stubCards(expiredSourceCard, destinationCard);
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
                     .isInstanceOf(BusinessException.class);
 
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
         @DisplayName("Should throw exception when destination card not found")
         void shouldThrowExceptionWhenDestinationCardNotFound() {
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.empty());
+            stubCards(sourceCard, null);
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
                     .isInstanceOf(ResourceNotFoundException.class);
 
             verify(cardRepository).findByIdForUpdate(sourceCardId);
-            verify(cardRepository).findByIdForUpdate(destinationCardId);
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
@@ -342,14 +418,13 @@ class TransferServiceImplTest {
                     .balance(destinationCardBalance)
                     .build();
 
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(blockedDestinationCard));
+            stubCards(sourceCard, blockedDestinationCard);
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
                     .isInstanceOf(BusinessException.class);
 
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
+            verify(outboxService, never()).recordTransferCompleted(any());
         }
 
         @Test
@@ -365,16 +440,867 @@ class TransferServiceImplTest {
                     .balance(destinationCardBalance)
                     .build();
 
-            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
-            when(cardRepository.findByIdForUpdate(destinationCardId)).thenReturn(Optional.of(expiredDestinationCard));
+            stubCards(sourceCard, expiredDestinationCard);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(transferRepository, never()).save(any(Transfer.class));
+            verify(outboxService, never()).recordTransferCompleted(any());
+        }
+
+        @Test
+        @DisplayName("Should turn away the next transfer to a blocked destination before locking")
+        void shouldRejectKnownBlockedDestinationBeforeLocking() {
+            destinationCard.setStatus(CardStatus.BLOCKED);
+            stubCards(sourceCard, destinationCard);
 
             assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
                     .isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage(BusinessException.cardBlocked(destinationCardId).getMessage());
+
+            verify(cardRepository, times(1)).findByIdForUpdate(sourceCardId);
+            verify(transferVelocityEngine, times(1)).check(userId, sourceCardId, destinationCardId);
+        }
+
+    }
+
+    @Nested
+    @DisplayName("transferMoney in CONDITIONAL_UPDATE mode")
+    class TransferMoneyConditionalUpdate {
+
+        @BeforeEach
+        void setUp() {
+            transferProperties.setMode(TransferProperties.Mode.CONDITIONAL_UPDATE);
+        }
+
+        @Test
+        @DisplayName("Should debit with one guarded update without locking the source")
+        void shouldDebitWithGuardedUpdate() {
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(cardRepository.debitIfSufficient(sourceCardId, userId, transferAmount)).thenReturn(1);
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verify(ledgerService).recordTransfer(transfer);
+            verify(cardRepository, never()).findByIdForUpdate(any());
+            verify(ledgerService, never()).getBalanceMinor(any());
+        }
+
+        @Test
+        @DisplayName("Should charge the daily limit after the guarded debit")
+        void shouldReserveDailyLimitAfterGuardedDebit() {
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(cardRepository.debitIfSufficient(sourceCardId, userId, transferAmount)).thenReturn(1);
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(dailyLimitService.reserve(sourceCard, transferAmount))
+                    .thenThrow(BusinessException.dailyLimitExceeded(transferAmount, new BigDecimal("50.00")));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class);
+
+            InOrder inOrder = inOrder(cardRepository, dailyLimitService);
+            inOrder.verify(cardRepository).debitIfSufficient(sourceCardId, userId, transferAmount);
+            inOrder.verify(dailyLimitService).reserve(sourceCard, transferAmount);
+            verify(transferRepository, never()).save(any(Transfer.class));
+        }
+
+        @Test
+        @DisplayName("Should report insufficient funds when the guard rejects the debit")
+        void shouldReportInsufficientFunds() {
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(cardRepository.debitIfSufficient(sourceCardId, userId, transferAmount)).thenReturn(0);
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(5000L);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("Insufficient funds");
+
+            verify(transferRepository, never()).save(any(Transfer.class));
+            verify(ledgerService, never()).recordTransfer(any());
+        }
+
+        @Test
+        @DisplayName("Should report not found when the source card belongs to another user")
+        void shouldReportNotFoundWhenSourceNotOwned() {
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(cardRepository.debitIfSufficient(sourceCardId, 2L, transferAmount)).thenReturn(0);
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, 2L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+
+            verify(transferRepository, never()).save(any(Transfer.class));
+        }
+
+        @Test
+        @DisplayName("Should reject a blocked destination before debiting")
+        void shouldRejectBlockedDestinationBeforeDebit() {
+            destinationCard.setStatus(CardStatus.BLOCKED);
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("blocked");
+
+            verify(cardRepository, never()).debitIfSufficient(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should retry the guarded debit when a concurrent debit moved the source's ledger version")
+        void shouldRetryWhenCardChangedConcurrently() {
+            transferProperties.getRetry().setInitialBackoff(Duration.ZERO);
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(cardRepository.debitIfSufficient(sourceCardId, userId, transferAmount)).thenReturn(0, 1);
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(Money.toMinor(sourceCardBalance));
+            when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verify(cardRepository, times(2)).debitIfSufficient(sourceCardId, userId, transferAmount);
+            verify(ledgerService).recordTransfer(transfer);
+            assertThat(meterRegistry.counter(
+                    "bank.transaction.retries", "operation", "transfer", "reason", "version_conflict"
+            ).count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should report a conflict when the source keeps changing past the retry budget")
+        void shouldReportConflictWhenRetriesExhausted() {
+            transferProperties.getRetry().setInitialBackoff(Duration.ZERO);
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(cardRepository.debitIfSufficient(sourceCardId, userId, transferAmount)).thenReturn(0);
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(Money.toMinor(sourceCardBalance));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(OptimisticLockingFailureException.class)
+                    .hasMessageContaining("changed during transfer");
 
+            verify(cardRepository, times(transferProperties.getRetry().getMaxAttempts()))
+                    .debitIfSufficient(sourceCardId, userId, transferAmount);
             verify(transferRepository, never()).save(any(Transfer.class));
-            verify(kafkaProducerService, never()).sendTransferEventAsync(any());
         }
+    }
+
+    @Nested
+    @DisplayName("transferMoney retries")
+    class TransferMoneyRetries {
+
+        @BeforeEach
+        void setUp() {
+            transferProperties.getRetry().setInitialBackoff(Duration.ZERO);
+        }
+
+        @Test
+        @DisplayName("Should retry transfer when card locking hits a deadlock")
+        void shouldRetryTransferOnDeadlock() {
+            stubCards(sourceCard, destinationCard);
+            when(cardRepository.findByIdForUpdate(sourceCardId))
+                    .thenThrow(new CannotAcquireLockException("deadlock", new SQLException("deadlock detected", "40P01")))
+                    .thenReturn(Optional.of(sourceCard));
+            when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verify(cardRepository, times(2)).findByIdForUpdate(sourceCardId);
+            assertThat(meterRegistry.get("bank.transaction.retries")
+                    .tag("operation", "transfer")
+                    .tag("reason", "deadlock_detected")
+                    .counter().count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should not retry business errors")
+        void shouldNotRetryBusinessErrors() {
+            transferRequest.setAmount(new BigDecimal("1000.00"));
+            stubCards(sourceCard, destinationCard);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class);
 
+            verify(cardRepository, times(1)).findByIdForUpdate(sourceCardId);
+        }
+    }
+
+    @Nested
+    @DisplayName("transferMoney with idempotency key")
+    class TransferMoneyIdempotency {
+
+        private static final String IDEMPOTENCY_KEY = "mobile-retry-1";
+
+        @BeforeEach
+        void setUpRedis() {
+            lenient().when(redisIdempotencyService.getCompleted(userId, IDEMPOTENCY_KEY)).thenReturn(null);
+        }
+
+        private RedisIdempotencyService.CompletedKey completedKey(Long transferId) {
+            return new RedisIdempotencyService.CompletedKey(transferId, TransferRequestHash.of(transferRequest));
+        }
+
+        private void stubSuccessfulTransfer() {
+            stubCards(sourceCard, destinationCard);
+            when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+        }
+
+        @Test
+        @DisplayName("Should bypass group commit so the key is recorded with the transfer")
+        void shouldBypassGroupCommit() {
+            transferProperties.getGroupCommit().setEnabled(true);
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(true);
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.empty());
+            stubSuccessfulTransfer();
+
+            transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            verify(idempotencyKeyRepository).saveAndFlush(any(IdempotencyKey.class));
+            verifyNoInteractions(transferGroupCommitter);
+        }
+
+        @Test
+        @DisplayName("Should execute transfer once and remember its id")
+        void shouldExecuteTransferAndRecordKey() {
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(true);
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.empty());
+            stubSuccessfulTransfer();
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+            ArgumentCaptor<IdempotencyKey> captor = ArgumentCaptor.forClass(IdempotencyKey.class);
+            verify(idempotencyKeyRepository).saveAndFlush(captor.capture());
+            assertThat(captor.getValue().getUserId()).isEqualTo(userId);
+            assertThat(captor.getValue().getIdempotencyKey()).isEqualTo(IDEMPOTENCY_KEY);
+            assertThat(captor.getValue().getTransferId()).isEqualTo(transfer.getId());
+            assertThat(captor.getValue().getRequestHash()).isEqualTo(TransferRequestHash.of(transferRequest));
+            verify(redisIdempotencyService).complete(eq(userId), eq(IDEMPOTENCY_KEY), eq(transfer.getId()), any(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should replay completed transfer without touching cards")
+        void shouldReplayCompletedTransfer() {
+            when(redisIdempotencyService.getCompleted(userId, IDEMPOTENCY_KEY)).thenReturn(completedKey(transfer.getId()));
+            when(transferRepository.findById(transfer.getId())).thenReturn(Optional.of(transfer));
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verifyNoInteractions(cardRepository, outboxService);
+            verify(transferRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should refuse a key completed for a different request")
+        void shouldRefuseKeyReusedForDifferentRequest() {
+            when(redisIdempotencyService.getCompleted(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(new RedisIdempotencyService.CompletedKey(transfer.getId(), "other-request"));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage(BusinessException.idempotencyKeyReused(IDEMPOTENCY_KEY).getMessage());
+
+            verifyNoInteractions(cardRepository, transferMapper);
+        }
+
+        @Test
+        @DisplayName("Should refuse a key recorded in database for a different request")
+        void shouldRefuseKeyRecordedForDifferentRequest() {
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(true);
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.of(IdempotencyKey.builder()
+                            .transferId(transfer.getId())
+                            .requestHash("other-request")
+                            .build()));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage(BusinessException.idempotencyKeyReused(IDEMPOTENCY_KEY).getMessage());
+
+            verifyNoInteractions(cardRepository);
+        }
+
+        @Test
+        @DisplayName("Should fall back to the database key when Redis is unavailable")
+        void shouldFallBackToDatabaseWhenRedisUnavailable() {
+            when(redisIdempotencyService.getCompleted(userId, IDEMPOTENCY_KEY))
+                    .thenThrow(new RedisConnectionFailureException("down"));
+            doThrow(new RedisConnectionFailureException("down"))
+                    .when(redisIdempotencyService).complete(any(), any(), any(), any(), any());
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.empty());
+            stubSuccessfulTransfer();
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verify(idempotencyKeyRepository).saveAndFlush(any(IdempotencyKey.class));
+            verify(redisIdempotencyService, never()).tryAcquire(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should replay from the database when Redis is unavailable")
+        void shouldReplayFromDatabaseWhenRedisUnavailable() {
+            when(redisIdempotencyService.getCompleted(userId, IDEMPOTENCY_KEY))
+                    .thenThrow(new RedisConnectionFailureException("down"));
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.of(IdempotencyKey.builder()
+                            .transferId(transfer.getId())
+                            .requestHash(TransferRequestHash.of(transferRequest))
+                            .build()));
+            when(transferRepository.findById(transfer.getId())).thenReturn(Optional.of(transfer));
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verifyNoInteractions(cardRepository);
+        }
+
+        @Test
+        @DisplayName("Should replay completed transfer even after its destination was blocked")
+        void shouldReplayAfterDestinationBlocked() {
+            cardStatusIndex.record(destinationCardId, CardStatus.BLOCKED, cardStatusIndex.generation(destinationCardId));
+            when(redisIdempotencyService.getCompleted(userId, IDEMPOTENCY_KEY)).thenReturn(completedKey(transfer.getId()));
+            when(transferRepository.findById(transfer.getId())).thenReturn(Optional.of(transfer));
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+        }
+
+        @Test
+        @DisplayName("Should turn away a new transfer to a known blocked destination and release the key")
+        void shouldRejectNewTransferToKnownBlockedDestination() {
+            cardStatusIndex.record(destinationCardId, CardStatus.BLOCKED, cardStatusIndex.generation(destinationCardId));
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(true);
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage(BusinessException.cardBlocked(destinationCardId).getMessage());
+
+            verify(redisIdempotencyService).release(userId, IDEMPOTENCY_KEY);
+            verifyNoInteractions(cardRepository);
+        }
+
+        @Test
+        @DisplayName("Should replay transfer recorded in database when Redis key is gone")
+        void shouldReplayFromDatabaseWhenRedisKeyExpired() {
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(true);
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.of(IdempotencyKey.builder().transferId(transfer.getId()).build()));
+            when(transferRepository.findById(transfer.getId())).thenReturn(Optional.of(transfer));
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verifyNoInteractions(cardRepository);
+            verify(redisIdempotencyService).complete(eq(userId), eq(IDEMPOTENCY_KEY), eq(transfer.getId()), any(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should replay existing transfer when unique constraint rejects the key")
+        void shouldReplayWhenUniqueConstraintRejectsKey() {
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(true);
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(IdempotencyKey.builder().transferId(99L).build()));
+            stubCards(sourceCard, destinationCard);
+            when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+            when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class)))
+                    .thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_user_key"));
+            when(transferRepository.findById(99L)).thenReturn(Optional.of(transfer));
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verify(redisIdempotencyService).complete(eq(userId), eq(IDEMPOTENCY_KEY), eq(99L), any(), anyLong());
+            verifyNoInteractions(outboxService);
+        }
+
+        @Test
+        @DisplayName("Should release key when transfer fails")
+        void shouldReleaseKeyWhenTransferFails() {
+            sourceCard.setBalance(BigDecimal.ONE);
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(true);
+            when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(Optional.empty());
+            stubCards(sourceCard, destinationCard);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY))
+                    .isInstanceOf(BusinessException.class);
+
+            verify(redisIdempotencyService).release(userId, IDEMPOTENCY_KEY);
+            verify(redisIdempotencyService, never()).complete(any(), any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should wait for in-flight duplicate and replay its result")
+        void shouldWaitForInFlightDuplicate() {
+            transferProperties.getIdempotency().setPollInterval(Duration.ofMillis(1));
+            when(redisIdempotencyService.getCompleted(userId, IDEMPOTENCY_KEY))
+                    .thenReturn(null, null, completedKey(transfer.getId()));
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(false);
+            when(transferRepository.findById(transfer.getId())).thenReturn(Optional.of(transfer));
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verify(redisIdempotencyService, times(3)).getCompleted(userId, IDEMPOTENCY_KEY);
+            verifyNoInteractions(cardRepository);
+        }
+
+        @Test
+        @DisplayName("Should report conflict when in-flight duplicate does not finish in time")
+        void shouldReportConflictWhenWaitTimesOut() {
+            transferProperties.getIdempotency().setWaitTimeout(Duration.ZERO);
+            when(redisIdempotencyService.tryAcquire(eq(userId), eq(IDEMPOTENCY_KEY), anyLong())).thenReturn(false);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId, IDEMPOTENCY_KEY))
+                    .isInstanceOf(ResourceExistsException.class)
+                    .hasMessageContaining(IDEMPOTENCY_KEY);
+
+            verifyNoInteractions(cardRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject blank idempotency key")
+        void shouldRejectBlankKey() {
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId, " "))
+                    .isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(redisIdempotencyService, cardRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("transferMoney with group commit")
+    class TransferMoneyGroupCommit {
+
+        @BeforeEach
+        void enableGroupCommit() {
+            transferProperties.getGroupCommit().setEnabled(true);
+        }
+
+        @Test
+        @DisplayName("Should hand the transfer to the group committer")
+        void shouldSubmitToGroupCommitter() {
+            when(transferGroupCommitter.submit(any())).thenReturn(CompletableFuture.completedFuture(
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.SUCCESS, transferResponse, null)
+            ));
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId);
+
+            assertThat(result).isEqualTo(transferResponse);
+            verify(transferGroupCommitter).submit(new TransferBatchProcessor.TransferCommand(transferRequest, userId));
+            verifyNoInteractions(cardRepository, transferRepository);
+        }
+
+        @Test
+        @DisplayName("Should leave the velocity rules of a grouped transfer to the batch processor")
+        void shouldNotCheckVelocityBeforeGrouping() {
+            when(transferGroupCommitter.submit(any())).thenReturn(CompletableFuture.completedFuture(
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.HELD, transferResponse, null)
+            ));
+
+            assertThat(transferService.transferMoney(transferRequest, userId)).isEqualTo(transferResponse);
+
+            verifyNoInteractions(transferVelocityEngine);
+        }
+
+        @Test
+        @DisplayName("Should rethrow the item error reported by the group")
+        void shouldRethrowItemError() {
+            BusinessException error = BusinessException.insufficientFunds(transferAmount, BigDecimal.ZERO);
+            when(transferGroupCommitter.submit(any())).thenReturn(CompletableFuture.completedFuture(
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.FAILED, null, error)
+            ));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId)).isSameAs(error);
+        }
+
+        @Test
+        @DisplayName("Should unwrap failure of the whole group")
+        void shouldUnwrapGroupFailure() {
+            IllegalStateException error = new IllegalStateException("shutting down");
+            when(transferGroupCommitter.submit(any())).thenReturn(CompletableFuture.failedFuture(error));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId)).isSameAs(error);
+        }
+    }
+
+    @Nested
+    @DisplayName("transferMoney in async mode")
+    class TransferMoneyAsync {
+
+        private Transfer pendingTransfer;
+
+        @BeforeEach
+        void enableAsync() {
+            transferProperties.getAsync().setEnabled(true);
+            pendingTransfer = Transfer.builder()
+                    .id(7L)
+                    .sourceCard(sourceCard)
+                    .destinationCard(destinationCard)
+                    .amount(transferAmount)
+                    .status(TransferStatus.PENDING)
+                    .timestamp(Instant.parse("2026-01-01T10:00:00Z"))
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Should persist a pending transfer and dispatch it by source card")
+        void shouldAcceptPendingTransfer() {
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(transferRepository.save(any(Transfer.class))).thenAnswer(invocation -> {
+                Transfer saved = invocation.getArgument(0);
+                saved.setId(7L);
+                return saved;
+            });
+            when(transferMapper.toResponse(any(Transfer.class)))
+                    .thenReturn(TransferResponse.builder().id(7L).status(TransferStatus.PENDING.name()).build());
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId);
+
+            assertThat(result.getStatus()).isEqualTo(TransferStatus.PENDING.name());
+            ArgumentCaptor<Transfer> captor = ArgumentCaptor.forClass(Transfer.class);
+            verify(transferRepository).save(captor.capture());
+            assertThat(captor.getValue().getStatus()).isEqualTo(TransferStatus.PENDING);
+            verify(transferPartitionExecutor).execute(eq(sourceCardId), any(Runnable.class));
+            verify(cardRepository, never()).findByIdForUpdate(any());
+            verifyNoInteractions(ledgerService, outboxService);
+        }
+
+        @Test
+        @DisplayName("Should reject a source card of another user before accepting")
+        void shouldRejectForeignSourceCard() {
+            sourceCard.setOwner(User.builder().id(99L).build());
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(ResourceNotFoundException.class);
+
+            verify(transferRepository, never()).save(any());
+            verifyNoInteractions(transferPartitionExecutor);
+        }
+
+        @Test
+        @DisplayName("Should settle a pending transfer against the ledger balance")
+        void shouldSettlePendingTransfer() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.PENDING))
+                    .thenReturn(Optional.of(sourceCardId));
+            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(transferRepository.findById(7L)).thenReturn(Optional.of(pendingTransfer));
+            when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(Money.toMinor(sourceCardBalance));
+
+            transferService.settleTransfer(7L);
+
+            assertThat(pendingTransfer.getStatus()).isEqualTo(TransferStatus.SUCCESS);
+            assertThat(pendingTransfer.getTimestamp()).isAfter(Instant.parse("2026-01-01T10:00:00Z"));
+            verify(ledgerService).recordTransfer(pendingTransfer);
+            verify(dailyLimitService, never()).release(any(), any(), any());
+            verify(outboxService).recordTransferCompleted(pendingTransfer);
+        }
+
+        @Test
+        @DisplayName("Should settle as failed with a reason when funds are insufficient")
+        void shouldSettleAsFailed() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.PENDING))
+                    .thenReturn(Optional.of(sourceCardId));
+            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(transferRepository.findById(7L)).thenReturn(Optional.of(pendingTransfer));
+            when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(100L);
+
+            transferService.settleTransfer(7L);
+
+            assertThat(pendingTransfer.getStatus()).isEqualTo(TransferStatus.FAILED);
+            assertThat(pendingTransfer.getFailureReason()).isNotBlank();
+            verify(ledgerService, never()).recordTransfer(any());
+            verifyNoInteractions(outboxService);
+        }
+
+        @Test
+        @DisplayName("Should give the daily limit share back when settlement fails")
+        void shouldReleaseDailyLimitWhenSettledAsFailed() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.PENDING))
+                    .thenReturn(Optional.of(sourceCardId));
+            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(transferRepository.findById(7L)).thenReturn(Optional.of(pendingTransfer));
+            when(ledgerService.getBalanceMinor(sourceCardId)).thenReturn(100L);
+
+            transferService.settleTransfer(7L);
+
+            verify(dailyLimitService).release(sourceCard, transferAmount, Instant.parse("2026-01-01T10:00:00Z"));
+        }
+
+        @Test
+        @DisplayName("Should skip a transfer that is no longer pending")
+        void shouldSkipSettledTransfer() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.PENDING))
+                    .thenReturn(Optional.empty());
+
+            transferService.settleTransfer(7L);
+
+            verifyNoInteractions(cardRepository, ledgerService);
+        }
+
+        @Test
+        @DisplayName("Should dispatch stale pending transfers to their partitions")
+        void shouldResumePendingTransfers() {
+            TransferRepository.PendingTransfer pending = mock(TransferRepository.PendingTransfer.class);
+            when(pending.getId()).thenReturn(7L);
+            when(pending.getSourceCardId()).thenReturn(sourceCardId);
+            Instant acceptedBefore = Instant.parse("2026-01-01T10:00:00Z");
+            when(transferRepository.findPendingAcceptedBefore(acceptedBefore, PageRequest.of(0, 10)))
+                    .thenReturn(List.of(pending));
+
+            assertThat(transferService.resumePendingTransfers(acceptedBefore, 10)).isEqualTo(1);
+
+            verify(transferPartitionExecutor).execute(eq(sourceCardId), any(Runnable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("transferMoney with velocity rules")
+    class TransferMoneyVelocity {
+
+        @Test
+        @DisplayName("Should reject a breaching transfer before touching any card")
+        void shouldRejectBeforeLocking() {
+            when(transferVelocityEngine.check(userId, sourceCardId, destinationCardId))
+                    .thenReturn(TransferVelocityEngine.Verdict.REJECT);
+
+            assertThatThrownBy(() -> transferService.transferMoney(transferRequest, userId))
+                    .isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(cardRepository, transferRepository, ledgerService);
+        }
+
+        @Test
+        @DisplayName("Should hold a breaching transfer without dispatching it")
+        void shouldHoldWithoutDispatch() {
+            when(transferVelocityEngine.check(userId, sourceCardId, destinationCardId))
+                    .thenReturn(TransferVelocityEngine.Verdict.HOLD);
+            when(cardRepository.findById(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(cardRepository.findById(destinationCardId)).thenReturn(Optional.of(destinationCard));
+            when(transferRepository.save(any(Transfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(transferMapper.toResponse(any(Transfer.class)))
+                    .thenReturn(TransferResponse.builder().status(TransferStatus.HELD.name()).build());
+
+            TransferResponse result = transferService.transferMoney(transferRequest, userId);
+
+            assertThat(result.getStatus()).isEqualTo(TransferStatus.HELD.name());
+            ArgumentCaptor<Transfer> captor = ArgumentCaptor.forClass(Transfer.class);
+            verify(transferRepository).save(captor.capture());
+            assertThat(captor.getValue().getStatus()).isEqualTo(TransferStatus.HELD);
+            verify(cardRepository, never()).findByIdForUpdate(any());
+            verifyNoInteractions(transferPartitionExecutor, ledgerService);
+        }
+    }
+
+    @Nested
+    @DisplayName("held transfers")
+    class HeldTransfers {
+
+        private Transfer heldTransfer;
+
+        @BeforeEach
+        void setUp() {
+            heldTransfer = Transfer.builder()
+                    .id(7L)
+                    .sourceCard(sourceCard)
+                    .destinationCard(destinationCard)
+                    .amount(transferAmount)
+                    .status(TransferStatus.HELD)
+                    .timestamp(Instant.parse("2026-01-01T10:00:00Z"))
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Should leave a held transfer alone when recovery dispatches it")
+        void shouldNotSettleHeldTransfer() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.PENDING))
+                    .thenReturn(Optional.empty());
+
+            transferService.settleTransfer(7L);
+
+            assertThat(heldTransfer.getStatus()).isEqualTo(TransferStatus.HELD);
+            verifyNoInteractions(cardRepository, ledgerService, outboxService);
+        }
+
+        @Test
+        @DisplayName("Should hand a released transfer over to settlement")
+        void shouldReleaseHeldTransfer() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.HELD))
+                    .thenReturn(Optional.of(sourceCardId));
+            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(transferRepository.findById(7L)).thenReturn(Optional.of(heldTransfer));
+
+            transferService.releaseHeldTransfer(7L);
+
+            assertThat(heldTransfer.getStatus()).isEqualTo(TransferStatus.PENDING);
+            verify(transferPartitionExecutor).execute(eq(sourceCardId), any(Runnable.class));
+            verifyNoInteractions(ledgerService);
+        }
+
+        @Test
+        @DisplayName("Should fail a rejected transfer and give its daily limit share back")
+        void shouldRejectHeldTransfer() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.HELD))
+                    .thenReturn(Optional.of(sourceCardId));
+            when(cardRepository.findByIdForUpdate(sourceCardId)).thenReturn(Optional.of(sourceCard));
+            when(transferRepository.findById(7L)).thenReturn(Optional.of(heldTransfer));
+
+            transferService.rejectHeldTransfer(7L);
+
+            assertThat(heldTransfer.getStatus()).isEqualTo(TransferStatus.FAILED);
+            assertThat(heldTransfer.getFailureReason()).contains("held by velocity rules");
+            verify(dailyLimitService).release(sourceCard, transferAmount, Instant.parse("2026-01-01T10:00:00Z"));
+            verifyNoInteractions(transferPartitionExecutor, ledgerService);
+        }
+
+        @Test
+        @DisplayName("Should refuse to release a transfer that is not held")
+        void shouldRefuseTransferNotHeld() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.HELD))
+                    .thenReturn(Optional.empty());
+            when(transferRepository.existsById(7L)).thenReturn(true);
+
+            assertThatThrownBy(() -> transferService.releaseHeldTransfer(7L))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("is not held");
+
+            verifyNoInteractions(cardRepository, transferPartitionExecutor);
+        }
+
+        @Test
+        @DisplayName("Should report an unknown transfer as not found")
+        void shouldReportUnknownTransfer() {
+            when(transferRepository.findSourceCardIdByIdAndStatus(7L, TransferStatus.HELD))
+                    .thenReturn(Optional.empty());
+            when(transferRepository.existsById(7L)).thenReturn(false);
+
+            assertThatThrownBy(() -> transferService.rejectHeldTransfer(7L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("getTransfer")
+    class GetTransfer {
+
+        @Test
+        @DisplayName("Should return transfer visible to user")
+        void shouldReturnTransfer() {
+            when(transferRepository.findByIdAndParticipantId(1L, userId)).thenReturn(Optional.of(transfer));
+            when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
+
+            assertThat(transferService.getTransfer(userId, 1L)).isEqualTo(transferResponse);
+        }
+
+        @Test
+        @DisplayName("Should throw exception when transfer is not visible to user")
+        void shouldThrowWhenTransferNotFound() {
+            when(transferRepository.findByIdAndParticipantId(1L, userId)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> transferService.getTransfer(userId, 1L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("transferBatch")
+    class TransferBatch {
+
+        @Test
+        @DisplayName("Should report per-item results from batch processor")
+        void shouldReportPerItemResults() {
+            BusinessException error = BusinessException.insufficientFunds(transferAmount, BigDecimal.ZERO);
+            when(transferBatchProcessor.process(anyList(), eq(BatchFailureMode.PARTIAL))).thenReturn(List.of(
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.SUCCESS, transferResponse, null),
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.FAILED, null, error)
+            ));
+
+            BatchTransferResponse result = transferService.transferBatch(
+                    BatchTransferRequest.builder().transfers(List.of(transferRequest, transferRequest)).build(),
+                    userId
+            );
+
+            assertThat(result.getTotal()).isEqualTo(2);
+            assertThat(result.getSucceeded()).isEqualTo(1);
+            assertThat(result.getFailed()).isEqualTo(1);
+            assertThat(result.getResults().get(0).getTransfer()).isEqualTo(transferResponse);
+            assertThat(result.getResults().get(1).getStatus()).isEqualTo(BatchItemStatus.FAILED.name());
+            assertThat(result.getResults().get(1).getError()).isEqualTo(error.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should count held items apart from succeeded and failed ones")
+        void shouldCountHeldItems() {
+            when(transferBatchProcessor.process(anyList(), eq(BatchFailureMode.PARTIAL))).thenReturn(List.of(
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.SUCCESS, transferResponse, null),
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.HELD, transferResponse, null)
+            ));
+
+            BatchTransferResponse result = transferService.transferBatch(
+                    BatchTransferRequest.builder().transfers(List.of(transferRequest, transferRequest)).build(),
+                    userId
+            );
+
+            assertThat(result.getSucceeded()).isEqualTo(1);
+            assertThat(result.getHeld()).isEqualTo(1);
+            assertThat(result.getFailed()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should use failure mode from request over configured default")
+        void shouldUseRequestedFailureMode() {
+            when(transferBatchProcessor.process(anyList(), eq(BatchFailureMode.ALL_OR_NOTHING))).thenReturn(List.of(
+                    new TransferBatchProcessor.TransferOutcome(BatchItemStatus.SUCCESS, transferResponse, null)
+            ));
+
+            transferService.transferBatch(BatchTransferRequest.builder()
+                    .transfers(List.of(transferRequest))
+                    .failureMode(BatchFailureMode.ALL_OR_NOTHING)
+                    .build(), userId);
+
+            verify(transferBatchProcessor).process(anyList(), eq(BatchFailureMode.ALL_OR_NOTHING));
+        }
+
+        @Test
+        @DisplayName("Should reject batch larger than configured maximum")
+        void shouldRejectOversizedBatch() {
+            transferProperties.getBatch().setMaxSize(1);
+
+            assertThatThrownBy(() -> transferService.transferBatch(
+                    BatchTransferRequest.builder().transfers(List.of(transferRequest, transferRequest)).build(),
+                    userId
+            )).isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(transferBatchProcessor);
+        }
     }
 
     @Nested
@@ -387,7 +1313,7 @@ class TransferServiceImplTest {
             List<Transfer> transfers = List.of(transfer);
             Page<Transfer> transferPage = new PageImpl<>(transfers, pageable, transfers.size());
 
-            when(transferRepository.findBySourceCardOwnerIdOrDestinationCardOwnerId(userId, userId, pageable))
+            when(transferRepository.findBySourceOwnerIdOrDestinationOwnerId(userId, userId, pageable))
                     .thenReturn(transferPage);
             when(transferMapper.toResponse(transfer)).thenReturn(transferResponse);
 
@@ -398,7 +1324,7 @@ class TransferServiceImplTest {
             assertThat(result.getTotalElements()).isEqualTo(1);
             assertThat(result.getContent().getFirst().getAmount()).isEqualTo(transferAmount);
 
-            verify(transferRepository).findBySourceCardOwnerIdOrDestinationCardOwnerId(userId, userId, pageable);
+            verify(transferRepository).findBySourceOwnerIdOrDestinationOwnerId(userId, userId, pageable);
             verify(transferMapper).toResponse(transfer);
         }
 
@@ -409,7 +1335,7 @@ class TransferServiceImplTest {
             List<Transfer> transfers = List.of(transfer);
             Page<Transfer> transferPage = new PageImpl<>(transfers, customPageable, 11);
 
-            when(transferRepository.findBySourceCardOwnerIdOrDestinationCardOwnerId(userId, userId, customPageable))
+            when(transferRepository.findBySourceOwnerIdOrDestinationOwnerId(userId, userId, customPageable))
                     .thenReturn(transferPage);
             when(transferMapper.toResponse(any(Transfer.class))).thenReturn(transferResponse);
 
@@ -428,7 +1354,7 @@ class TransferServiceImplTest {
         void shouldReturnPageWithNoTransferHistory() {
             Page<Transfer> emptyPage = Page.empty(pageable);
 
-            when(transferRepository.findBySourceCardOwnerIdOrDestinationCardOwnerId(userId, userId, pageable))
+            when(transferRepository.findBySourceOwnerIdOrDestinationOwnerId(userId, userId, pageable))
                     .thenReturn(emptyPage);
 
             Page<TransferResponse> result = transferService.getTransferHistory(userId, pageable);
@@ -438,8 +1364,145 @@ class TransferServiceImplTest {
             assertThat(result.getTotalElements()).isZero();
             assertThat(result.hasContent()).isFalse();
 
-            verify(transferRepository).findBySourceCardOwnerIdOrDestinationCardOwnerId(userId, userId, pageable);
+            verify(transferRepository).findBySourceOwnerIdOrDestinationOwnerId(userId, userId, pageable);
             verify(transferMapper, never()).toResponse(any(Transfer.class));
         }
     }
+
+    @Nested
+    @DisplayName("getTransferHistory by cursor")
+    class GetTransferHistoryByCursor {
+
+        private Transfer transferAt(long id, Instant timestamp) {
+            return Transfer.builder()
+                    .id(id)
+                    .sourceCard(sourceCard)
+                    .destinationCard(destinationCard)
+                    .amount(transferAmount)
+                    .status(TransferStatus.SUCCESS)
+                    .timestamp(timestamp)
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Should fetch one extra row and return a cursor pointing at the last returned transfer")
+        void shouldReturnCursorWhenMoreRowsExist() {
+            Instant now = Instant.parse("2026-01-01T10:00:00.123456Z");
+            when(transferRepository.findHistoryIds(userId, null, null, 3)).thenReturn(List.of(3L, 2L, 1L));
+            when(transferRepository.findAllByIdIn(List.of(3L, 2L, 1L)))
+                    .thenReturn(List.of(transferAt(1L, now.minusSeconds(1)), transferAt(3L, now), transferAt(2L, now)));
+            when(transferMapper.toResponse(any(Transfer.class))).thenAnswer(invocation -> TransferResponse.builder()
+                    .id(invocation.<Transfer>getArgument(0).getId())
+                    .build());
+
+            TransferCursorPage page = transferService.getTransferHistory(userId, null, 2, null, null);
+
+            assertThat(page.getContent()).extracting(TransferResponse::getId).containsExactly(3L, 2L);
+            assertThat(page.getNextCursor()).isNotBlank();
+
+            transferService.getTransferHistory(userId, page.getNextCursor(), 2, null, null);
+
+            verify(transferRepository).findHistoryIdsBefore(userId, null, null, now, 2L, 3);
+            verify(transferRepository, never()).findBySourceOwnerIdOrDestinationOwnerId(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should return no cursor on the last page")
+        void shouldReturnNoCursorOnLastPage() {
+            when(transferRepository.findHistoryIds(userId, null, null, 21)).thenReturn(List.of(1L));
+            when(transferRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(transferAt(1L, Instant.now())));
+            when(transferMapper.toResponse(any(Transfer.class))).thenReturn(transferResponse);
+
+            TransferCursorPage page = transferService.getTransferHistory(userId, null, null, null, null);
+
+            assertThat(page.getContent()).hasSize(1);
+            assertThat(page.getSize()).isEqualTo(20);
+            assertThat(page.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should cap the page size")
+        void shouldCapPageSize() {
+            when(transferRepository.findHistoryIds(userId, null, null, 101)).thenReturn(List.of());
+
+            TransferCursorPage page = transferService.getTransferHistory(userId, null, 10_000, null, null);
+
+            assertThat(page.getSize()).isEqualTo(100);
+            verify(transferRepository, never()).findAllByIdIn(any());
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor that cannot be decoded")
+        void shouldRejectInvalidCursor() {
+            assertThatThrownBy(() -> transferService.getTransferHistory(userId, "not-a-cursor", null, null, null))
+                    .isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(transferRepository);
+        }
+
+        @Test
+        @DisplayName("Should bound the scan by the inclusive UTC days of the range")
+        void shouldBoundScanByDateRange() {
+            transferService.getTransferHistory(
+                    userId, null, 20, LocalDate.parse("2026-01-01"), LocalDate.parse("2026-01-31")
+            );
+
+            verify(transferRepository).findHistoryIds(
+                    userId, Instant.parse("2026-01-01T00:00:00Z"), Instant.parse("2026-02-01T00:00:00Z"), 21
+            );
+        }
+
+        @Test
+        @DisplayName("Should reject a range that ends before it starts")
+        void shouldRejectInvertedRange() {
+            assertThatThrownBy(() -> transferService.getTransferHistory(
+                    userId, null, null, LocalDate.parse("2026-02-01"), LocalDate.parse("2026-01-01")
+            )).isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(transferRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("exportTransferHistory")
+    class ExportTransferHistory {
+
+        @Test
+        @DisplayName("Should export whole UTC days between the given dates")
+        void shouldExportInclusiveUtcDays() throws Exception {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            transferService.exportTransferHistory(
+                    userId, LocalDate.parse("2026-01-01"), LocalDate.parse("2026-01-31"), ExportFormat.CSV
+            ).writeTo(outputStream);
+
+            verify(transferExporter).export(
+                    userId,
+                    Instant.parse("2026-01-01T00:00:00Z"),
+                    Instant.parse("2026-02-01T00:00:00Z"),
+                    ExportFormat.CSV,
+                    outputStream
+            );
+        }
+
+        @Test
+        @DisplayName("Should leave missing bounds open")
+        void shouldLeaveMissingBoundsOpen() throws Exception {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            transferService.exportTransferHistory(userId, null, null, ExportFormat.NDJSON).writeTo(outputStream);
+
+            verify(transferExporter).export(userId, null, null, ExportFormat.NDJSON, outputStream);
+        }
+
+        @Test
+        @DisplayName("Should reject a range that ends before it starts without touching the database")
+        void shouldRejectInvertedRange() {
+            assertThatThrownBy(() -> transferService.exportTransferHistory(
+                    userId, LocalDate.parse("2026-02-01"), LocalDate.parse("2026-01-01"), ExportFormat.CSV
+            )).isInstanceOf(BusinessException.class);
+
+            verifyNoInteractions(transferExporter);
+        }
+    }
 }
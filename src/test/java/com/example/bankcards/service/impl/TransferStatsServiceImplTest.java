@@ -0,0 +1,230 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.stats.StatsGranularity;
+import com.example.bankcards.dto.stats.TransferStatsResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.TransferStatsWatermark;
+import com.example.bankcards.exception.BusinessException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransferDailyStatRepository;
+import com.example.bankcards.repository.TransferStatsWatermarkRepository;
+import com.example.bankcards.service.TransferPartitionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferStatsServiceImplTest {
+
+    @Mock
+    private TransferDailyStatRepository transferDailyStatRepository;
+
+    @Mock
+    private TransferStatsWatermarkRepository transferStatsWatermarkRepository;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private TransferPartitionService transferPartitionService;
+
+    private TransferStatsServiceImpl transferStatsService;
+
+    private final Long userId = 1L;
+    private final LocalDate from = LocalDate.parse("2026-01-01");
+    private final LocalDate to = LocalDate.parse("2026-01-31");
+
+    @BeforeEach
+    void setUp() {
+        transferStatsService = new TransferStatsServiceImpl(
+                transferDailyStatRepository, transferStatsWatermarkRepository, cardRepository,
+                transferPartitionService, TransactionOperations.withoutTransaction(), Runnable::run
+        );
+    }
+
+    private TransferDailyStatRepository.StatsBucket bucket(
+            String periodStart, long debitCount, String debitAmount, long creditCount, String creditAmount
+    ) {
+        return new TransferDailyStatRepository.StatsBucket() {
+            @Override
+            public LocalDate getPeriodStart() {
+                return LocalDate.parse(periodStart);
+            }
+
+            @Override
+            public Long getDebitCount() {
+                return debitCount;
+            }
+
+            @Override
+            public BigDecimal getDebitAmount() {
+                return new BigDecimal(debitAmount);
+            }
+
+            @Override
+            public Long getCreditCount() {
+                return creditCount;
+            }
+
+            @Override
+            public BigDecimal getCreditAmount() {
+                return new BigDecimal(creditAmount);
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("getStats")
+    class GetStats {
+
+        @Test
+        @DisplayName("Should return buckets and totals with averages from pre-aggregated rows")
+        void shouldReturnBucketsAndTotals() {
+            when(transferDailyStatRepository.findOwnerBuckets(userId, from, to, "month")).thenReturn(List.of(
+                    bucket("2026-01-01", 2, "30.00", 0, "0.00"),
+                    bucket("2026-02-01", 1, "10.00", 3, "100.00")
+            ));
+
+            TransferStatsResponse response = transferStatsService.getStats(userId, null, from, to, StatsGranularity.MONTH);
+
+            assertThat(response.getBuckets()).hasSize(2);
+            assertThat(response.getBuckets().getFirst().getOutgoingAverage()).isEqualByComparingTo("15.00");
+            assertThat(response.getBuckets().getFirst().getIncomingAverage()).isNull();
+            assertThat(response.getTotals().getOutgoingCount()).isEqualTo(3);
+            assertThat(response.getTotals().getOutgoingAmount()).isEqualByComparingTo("40.00");
+            assertThat(response.getTotals().getIncomingAverage()).isEqualByComparingTo("33.33");
+            verifyNoInteractions(cardRepository);
+        }
+
+        @Test
+        @DisplayName("Should read one card's rows after checking ownership")
+        void shouldReadCardBuckets() {
+            when(cardRepository.findByOwnerIdAndId(userId, 5L)).thenReturn(Optional.of(Card.builder().id(5L).build()));
+            when(transferDailyStatRepository.findCardBuckets(5L, from, to, "day")).thenReturn(List.of());
+
+            TransferStatsResponse response = transferStatsService.getStats(userId, 5L, from, to, StatsGranularity.DAY);
+
+            assertThat(response.getCardId()).isEqualTo(5L);
+            assertThat(response.getTotals().getOutgoingCount()).isZero();
+            verify(transferDailyStatRepository, never()).findOwnerBuckets(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should throw when the card is not owned by the user")
+        void shouldThrowWhenCardNotOwned() {
+            when(cardRepository.findByOwnerIdAndId(userId, 5L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> transferStatsService.getStats(userId, 5L, from, to, StatsGranularity.DAY))
+                    .isInstanceOf(ResourceNotFoundException.class);
+
+            verifyNoInteractions(transferDailyStatRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject a range that ends before it starts")
+        void shouldRejectInvertedRange() {
+            assertThatThrownBy(() -> transferStatsService.getStats(userId, null, to, from, StatsGranularity.DAY))
+                    .isInstanceOf(BusinessException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("foldTransfers")
+    class FoldTransfers {
+
+        @Test
+        @DisplayName("Should add transfers settled between the watermark and the completed horizon and advance it")
+        void shouldFoldAndAdvanceWatermark() {
+            TransferStatsWatermark watermark = new TransferStatsWatermark(TransferStatsWatermark.ID, 1000L);
+            when(transferStatsWatermarkRepository.findByIdForUpdate(TransferStatsWatermark.ID))
+                    .thenReturn(Optional.of(watermark));
+            when(transferStatsWatermarkRepository.findCompletedXidHorizon()).thenReturn(1500L);
+            when(transferDailyStatRepository.addSettledTransfers(1000L, 1500L)).thenReturn(4);
+
+            int rows = transferStatsService.foldTransfers();
+
+            assertThat(rows).isEqualTo(4);
+            assertThat(watermark.getProcessedXid()).isEqualTo(1500L);
+        }
+
+        @Test
+        @DisplayName("Should do nothing while a transaction below the watermark is still running")
+        void shouldSkipWhenHorizonHasNotMoved() {
+            when(transferStatsWatermarkRepository.findByIdForUpdate(TransferStatsWatermark.ID))
+                    .thenReturn(Optional.of(new TransferStatsWatermark(TransferStatsWatermark.ID, 1000L)));
+            when(transferStatsWatermarkRepository.findCompletedXidHorizon()).thenReturn(1000L);
+
+            assertThat(transferStatsService.foldTransfers()).isZero();
+
+            verify(transferDailyStatRepository, never()).addSettledTransfers(anyLong(), anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("rebuild")
+    class Rebuild {
+
+        @Test
+        @DisplayName("Should recount each whole day, leaving out transfers settled after the watermark")
+        void shouldRebuildEachDayUpToWatermark() {
+            LocalDate day = LocalDate.parse("2026-01-01");
+            LocalDate nextDay = day.plusDays(1);
+            Instant dayStart = Instant.parse("2026-01-01T00:00:00Z");
+            Instant nextDayStart = Instant.parse("2026-01-02T00:00:00Z");
+            Instant dayAfterStart = Instant.parse("2026-01-03T00:00:00Z");
+            when(transferPartitionService.findAttachedSince()).thenReturn(Optional.of(dayStart));
+            when(transferStatsWatermarkRepository.findByIdForShare(TransferStatsWatermark.ID))
+                    .thenReturn(Optional.of(new TransferStatsWatermark(TransferStatsWatermark.ID, 1500L)));
+            when(transferDailyStatRepository.addTransfers(any(), any(), anyLong())).thenReturn(2);
+
+            int rows = transferStatsService.rebuild(day, nextDay);
+
+            assertThat(rows).isEqualTo(4);
+            verify(transferDailyStatRepository).deleteByStatDate(day);
+            verify(transferDailyStatRepository).deleteByStatDate(nextDay);
+            verify(transferDailyStatRepository).addTransfers(dayStart, nextDayStart, 1500L);
+            verify(transferDailyStatRepository).addTransfers(nextDayStart, dayAfterStart, 1500L);
+        }
+
+        @Test
+        @DisplayName("Should refuse days older than the oldest attached partition and keep their stats")
+        void shouldRefuseArchivedDays() {
+            when(transferPartitionService.findAttachedSince())
+                    .thenReturn(Optional.of(LocalDate.parse("2026-01-02").atStartOfDay(ZoneOffset.UTC).toInstant()));
+
+            assertThatThrownBy(() -> transferStatsService.rebuild(from, to))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("2026-01-01");
+            verify(transferDailyStatRepository, never()).deleteByStatDate(any());
+            verify(transferDailyStatRepository, never()).addTransfers(any(), any(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should refuse any day when no partition is attached")
+        void shouldRefuseWithoutAttachedPartitions() {
+            when(transferPartitionService.findAttachedSince()).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> transferStatsService.rebuild(from, to))
+                    .isInstanceOf(BusinessException.class);
+            verify(transferDailyStatRepository, never()).deleteByStatDate(any());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import com.example.bankcards.dto.transfer.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.KafkaProducerService;
+import com.example.bankcards.service.LedgerService;
+import com.example.bankcards.service.TransferService;
+import com.example.bankcards.util.EncryptionUtil;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class TransferThroughputIT {
+
+    private static final int CARDS = 20;
+    private static final int TRANSFERS = 2_000;
+    private static final int THREADS = 8;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> 30);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> true);
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+    }
+
+    @MockBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransferProperties transferProperties;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        when(kafkaProducerService.sendTransferEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transferProperties.getGroupCommit().setEnabled(false);
+        outboxEventRepository.deleteAllInBatch();
+        transferRepository.deleteAll();
+        cardRepository.deleteAll();
+        transferProperties.setMode(TransferProperties.Mode.LOCKING);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferProperties.Mode.class)
+    @DisplayName("Should keep total balance constant and report throughput per transfer mode")
+    void shouldKeepTotalBalanceAndReportThroughput(TransferProperties.Mode mode) throws InterruptedException {
+        transferProperties.setMode(mode);
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(randomTransfer(cardIds), owner.getId());
+                    succeeded.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        log.info("Transfer mode {}: {} succeeded, {} failed in {} ms ({} transfers/s)",
+                mode, succeeded.get(), failed.get(), elapsedMillis,
+                succeeded.get() * 1000L / Math.max(elapsedMillis, 1));
+
+        Map<Long, BigDecimal> balances = ledgerService.getBalances(cardIds);
+        BigDecimal total = balances.values().stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertThat(total).isEqualByComparingTo(INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)));
+        assertThat(balances.values()).allSatisfy(balance -> assertThat(balance).isNotNegative());
+    }
+
+    @Test
+    @DisplayName("Should complete opposing transfers between two hot cards without failures")
+    void shouldCompleteOpposingTransfersBetweenTwoCards() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner).subList(0, 2);
+
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < TRANSFERS / 4; i++) {
+            int direction = i % 2;
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(TransferRequest.builder()
+                            .sourceCardId(cardIds.get(direction))
+                            .destinationCardId(cardIds.get(1 - direction))
+                            .amount(AMOUNT)
+                            .build(), owner.getId());
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(failed).hasValue(0);
+        assertThat(ledgerService.getBalances(cardIds).values())
+                .allSatisfy(balance -> assertThat(balance).isEqualByComparingTo(INITIAL_BALANCE));
+    }
+
+    @Test
+    @DisplayName("Should commit fewer transactions with group commit and report commits per second")
+    void shouldCommitFewerTransactionsWithGroupCommit() throws InterruptedException {
+        User owner = createUser();
+        List<Long> cardIds = createCards(owner);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long directMillis = runTransfers(cardIds, owner.getId());
+        long directCommits = statistics.getSuccessfulTransactionCount();
+
+        transferProperties.getGroupCommit().setEnabled(true);
+        statistics.clear();
+        long groupedMillis = runTransfers(cardIds, owner.getId());
+        long groupedCommits = statistics.getSuccessfulTransactionCount();
+
+        log.info("Direct: {} transfers, {} commits in {} ms ({} transfers/s, {} commits/s)",
+                TRANSFERS, directCommits, directMillis,
+                TRANSFERS * 1000L / Math.max(directMillis, 1), directCommits * 1000L / Math.max(directMillis, 1));
+        log.info("Group commit: {} transfers, {} commits in {} ms ({} transfers/s, {} commits/s)",
+                TRANSFERS, groupedCommits, groupedMillis,
+                TRANSFERS * 1000L / Math.max(groupedMillis, 1), groupedCommits * 1000L / Math.max(groupedMillis, 1));
+
+        assertThat(groupedCommits).isLessThan(directCommits);
+        assertThat(transferRepository.count()).isEqualTo(2L * TRANSFERS);
+        BigDecimal total = ledgerService.getBalances(cardIds).values().stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)));
+    }
+
+    private long runTransfers(List<Long> cardIds, Long userId) throws InterruptedException {
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            pool.execute(() -> {
+                try {
+                    transferService.transferMoney(randomTransfer(cardIds), userId);
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(failed).hasValue(0);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private TransferRequest randomTransfer(List<Long> cardIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(cardIds.size());
+        int destination = (source + 1 + random.nextInt(cardIds.size() - 1)) % cardIds.size();
+
+        return TransferRequest.builder()
+                .sourceCardId(cardIds.get(source))
+                .destinationCardId(cardIds.get(destination))
+                .amount(AMOUNT)
+                .build();
+    }
+
+    private User createUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username("load-" + suffix)
+                .email("load-" + suffix + "@example.com")
+                .password("password")
+                .build());
+    }
+
+    private List<Long> createCards(User owner) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(Card.builder()
+                    .cardNumber(encryptionUtil.encrypt("400000000000" + String.format("%04d", i)))
+                    .cardLast4(String.format("%04d", i))
+                    .owner(owner)
+                    .holderName("LOAD TEST")
+                    .expiryDate(LocalDate.now().plusYears(3))
+                    .status(CardStatus.ACTIVE)
+                    .balance(INITIAL_BALANCE)
+                    .build());
+        }
+        return cardRepository.saveAll(cards).stream()
+                .map(Card::getId)
+                .toList();
+    }
+}
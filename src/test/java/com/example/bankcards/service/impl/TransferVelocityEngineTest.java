@@ -0,0 +1,145 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.config.TransferProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferVelocityEngineTest {
+
+    private static final long START = 1_767_225_600_000L;
+
+    @Mock
+    private Clock clock;
+
+    private TransferProperties transferProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private TransferVelocityEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        TransferProperties.Velocity velocity = transferProperties.getVelocity();
+        velocity.setEnabled(true);
+        velocity.setShortWindowSeconds(10);
+        velocity.setShortWindowMax(3);
+        velocity.setLongWindowMinutes(60);
+        velocity.setLongWindowMax(5);
+        velocity.setNewDestinationMax(2);
+        velocity.setMaxCards(16);
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new TransferVelocityEngine(transferProperties, meterRegistry, clock);
+    }
+
+    private void at(long millis) {
+        lenient().when(clock.millis()).thenReturn(START + millis);
+    }
+
+    @Nested
+    @DisplayName("check")
+    class Check {
+
+        @Test
+        @DisplayName("Should allow everything when disabled")
+        void shouldAllowWhenDisabled() {
+            transferProperties.getVelocity().setEnabled(false);
+
+            for (int i = 0; i < 10; i++) {
+                assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+            }
+            verifyNoInteractions(clock);
+        }
+
+        @Test
+        @DisplayName("Should reject once the short window is full and allow again after it slides")
+        void shouldApplyShortWindow() {
+            at(0);
+            for (int i = 0; i < 3; i++) {
+                assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+            }
+            assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.REJECT);
+
+            at(11_000);
+            assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+            assertThat(meterRegistry.counter("transfer.velocity.breaches", "action", "reject").count())
+                    .isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should count the long window across short windows")
+        void shouldApplyLongWindow() {
+            for (int i = 0; i < 5; i++) {
+                at(i * 20_000L);
+                assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+            }
+            at(120_000);
+            assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.REJECT);
+        }
+
+        @Test
+        @DisplayName("Should limit transfers to destinations the card has not paid recently")
+        void shouldApplyNewDestinationFanOut() {
+            at(0);
+            assertThat(engine.check(1L, 10L, 21L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+            assertThat(engine.check(1L, 10L, 22L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+
+            at(20_000);
+            assertThat(engine.check(1L, 10L, 21L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+            assertThat(engine.check(1L, 10L, 23L)).isEqualTo(TransferVelocityEngine.Verdict.REJECT);
+        }
+
+        @Test
+        @DisplayName("Should hold instead of reject when configured")
+        void shouldHoldWhenConfigured() {
+            transferProperties.getVelocity().setAction(TransferProperties.Velocity.Action.HOLD);
+            at(0);
+            for (int i = 0; i < 3; i++) {
+                engine.check(1L, 10L, 20L);
+            }
+
+            assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.HOLD);
+        }
+
+        @Test
+        @DisplayName("Should keep attempts by another user apart from the owner's window")
+        void shouldSeparateUsers() {
+            at(0);
+            for (int i = 0; i < 5; i++) {
+                engine.check(99L, 10L, 20L);
+            }
+
+            assertThat(engine.check(1L, 10L, 20L)).isEqualTo(TransferVelocityEngine.Verdict.ALLOW);
+        }
+    }
+
+    @Nested
+    @DisplayName("evictIdle")
+    class EvictIdle {
+
+        @Test
+        @DisplayName("Should drop cards idle for longer than the idle period")
+        void shouldEvictIdleCards() {
+            transferProperties.getVelocity().setIdleAfter(Duration.ofMinutes(5));
+            at(0);
+            engine.check(1L, 10L, 20L);
+            at(240_000);
+            engine.check(2L, 11L, 20L);
+
+            at(360_000);
+            assertThat(engine.evictIdle()).isEqualTo(1);
+            assertThat(engine.evictIdle()).isZero();
+        }
+    }
+}
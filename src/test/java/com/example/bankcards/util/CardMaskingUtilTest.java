@@ -2,6 +2,7 @@ package com.example.bankcards.util;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -34,6 +35,42 @@ class CardMaskingUtilTest {
         }
     }
 
+    @Nested
+    @DisplayName("maskLastFour")
+    class MaskLastFour {
+
+        @Test
+        @DisplayName("Should prefix stored last four digits with the mask")
+        void shouldPrefixLastFour() {
+            assertThat(CardMaskingUtil.maskLastFour("4444")).isEqualTo("**** **** **** 4444");
+        }
+
+        @Test
+        @DisplayName("Should return four stars when last four digits are missing")
+        void shouldReturnFourStarsWhenMissing() {
+            assertThat(CardMaskingUtil.maskLastFour(null)).isEqualTo("****");
+        }
+    }
+
+    @Nested
+    @DisplayName("lastFour")
+    class LastFour {
+
+        @ParameterizedTest(name = "input: \"{0}\" -> expected: \"{1}\"")
+        @MethodSource("com.example.bankcards.util.CardMaskingUtilTest#validInputs")
+        @DisplayName("Should agree with maskCardNumber for valid input")
+        void shouldAgreeWithMaskCardNumber(String input, String expected) {
+            assertThat(CardMaskingUtil.maskLastFour(CardMaskingUtil.lastFour(input))).isEqualTo(expected);
+        }
+
+        @ParameterizedTest(name = "input: \"{0}\" -> expected: null")
+        @MethodSource("com.example.bankcards.util.CardMaskingUtilTest#invalidInputs")
+        @DisplayName("Should return null when invalid input")
+        void shouldReturnNullWhenInvalidInput(String input) {
+            assertThat(CardMaskingUtil.lastFour(input)).isNull();
+        }
+    }
+
     static Stream<Arguments> validInputs() {
         return Stream.of(
                 Arguments.of("1111222233334444", "**** **** **** 4444"),
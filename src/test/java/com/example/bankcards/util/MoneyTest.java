@@ -0,0 +1,71 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Money unit tests")
+class MoneyTest {
+
+    @Nested
+    @DisplayName("toMinor")
+    class ToMinor {
+
+        @Test
+        @DisplayName("Should convert amounts of any scale up to two to cents")
+        void shouldConvertToCents() {
+            assertThat(Money.toMinor(new BigDecimal("12.34"))).isEqualTo(1234L);
+            assertThat(Money.toMinor(new BigDecimal("12.3"))).isEqualTo(1230L);
+            assertThat(Money.toMinor(new BigDecimal("12"))).isEqualTo(1200L);
+            assertThat(Money.toMinor(new BigDecimal("-0.01"))).isEqualTo(-1L);
+        }
+
+        @Test
+        @DisplayName("Should refuse fractions of a cent")
+        void shouldRejectFractionsOfCent() {
+            assertThatThrownBy(() -> Money.toMinor(new BigDecimal("0.001")))
+                    .isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("toDecimal")
+    class ToDecimal {
+
+        @Test
+        @DisplayName("Should produce scale two amounts")
+        void shouldProduceScaleTwo() {
+            assertThat(Money.toDecimal(1234L)).isEqualTo(new BigDecimal("12.34"));
+            assertThat(Money.toDecimal(0L)).isEqualTo(new BigDecimal("0.00"));
+        }
+    }
+
+    @Nested
+    @DisplayName("hasValidScale")
+    class HasValidScale {
+
+        @Test
+        @DisplayName("Should accept trailing zeros beyond the second decimal")
+        void shouldIgnoreTrailingZeros() {
+            assertThat(Money.hasValidScale(new BigDecimal("1.2300"))).isTrue();
+            assertThat(Money.hasValidScale(new BigDecimal("1.234"))).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("arithmetic")
+    class Arithmetic {
+
+        @Test
+        @DisplayName("Should fail instead of wrapping around on overflow")
+        void shouldFailOnOverflow() {
+            assertThatThrownBy(() -> Money.add(Long.MAX_VALUE, 1L)).isInstanceOf(ArithmeticException.class);
+            assertThatThrownBy(() -> Money.subtract(Long.MIN_VALUE, 1L)).isInstanceOf(ArithmeticException.class);
+        }
+    }
+}